@@ -3,10 +3,15 @@ package com.github.brokkko.openweathermap.jdk;
 import com.github.brokkko.openweathermap.jdk.clients.ClientConfig;
 import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
 import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.BalancedApiKeyPool;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.logging.impl.DefaultWeatherLogger;
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.SlidingWindowRetryBudget;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CLIENT_CREATED_MESSAGE;
@@ -58,15 +63,60 @@ public class OpenWeatherMapClientRegistry {
             logger.info(String.format(CLIENT_CREATED_MESSAGE, key));
             return OpenWeatherMapClient.builder()
                     .apiKey(config.getApiKey())
+                    .baseUrl(config.getBaseUrl())
                     .mode(config.getMode())
                     .retryPolicy(config.getRetryPolicyType())
+                    .retryBudget(retryBudget(config))
                     .logLevel(config.getLogLevel())
                     .logger(config.getLoggerType())
                     .httpTimeoutSeconds(config.getHttpTimeoutSeconds())
+                    .httpProtocol(config.getHttpProtocol())
+                    .http2Connections(config.getHttp2Connections())
+                    .virtualThreads(config.isVirtualThreads())
+                    .rateLimit(config.getRateLimitPerMinute(), config.getRateLimitPerDay())
+                    .rateLimitMode(config.getRateLimitMode())
+                    .rateLimitMaxWaitMillis(config.getRateLimitMaxWaitMillis())
+                    .adaptiveConcurrency(config.isAdaptiveConcurrency())
+                    .concurrencyMaxWaitMillis(config.getConcurrencyMaxWaitMillis())
+                    .hedging(config.isHedging())
+                    .hedgingPercentile(config.getHedgingPercentile())
+                    .hedgingBudgetPercent(config.getHedgingBudgetPercent())
+                    .warmUp(config.getWarmUpConnections())
+                    .warmUpTimeoutMillis(config.getWarmUpTimeoutMillis())
+                    .warmUpAsync(config.isWarmUpAsync())
+                    .maxResponseBytes(config.getMaxResponseBytes())
+                    .apiKeyPool(keyPool(config))
                     .build();
         });
     }
 
+    /**
+     * Builds the retry budget of the configured percentage.
+     *
+     * @return retry budget, or {@code null} for the client default
+     */
+    private static RetryBudget retryBudget(ClientConfig config) {
+        if (config.getRetryBudgetPercent() <= 0) {
+            return null;
+        }
+        return SlidingWindowRetryBudget.builder().percent(config.getRetryBudgetPercent()).build();
+    }
+
+    /**
+     * Builds a pool of the main and additional API keys with equal weights.
+     *
+     * @return key pool, or {@code null} if the configuration has no additional keys
+     */
+    private static ApiKeyPool keyPool(ClientConfig config) {
+        List<String> additional = config.getAdditionalApiKeys();
+        if (additional == null || additional.isEmpty()) {
+            return null;
+        }
+        BalancedApiKeyPool.Builder pool = BalancedApiKeyPool.builder().key(config.getApiKey()).logger(logger);
+        additional.forEach(pool::key);
+        return pool.build();
+    }
+
     /**
      * Removes the client associated with the specified API key and destroys it.
      * <p>
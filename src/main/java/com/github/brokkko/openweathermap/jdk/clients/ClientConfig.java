@@ -1,11 +1,19 @@
 package com.github.brokkko.openweathermap.jdk.clients;
 
+import com.github.brokkko.openweathermap.jdk.enums.HttpProtocol;
 import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
 import com.github.brokkko.openweathermap.jdk.enums.LoggerType;
+import com.github.brokkko.openweathermap.jdk.enums.RateLimitMode;
 import com.github.brokkko.openweathermap.jdk.enums.RetryPolicyType;
 import com.github.brokkko.openweathermap.jdk.enums.SdkMode;
 import com.github.brokkko.openweathermap.jdk.exceptions.InvalidWeatherValueException;
 
+import java.util.List;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_BASE_URL;
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_MAX_RESPONSE_BYTES;
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_RETRY_BUDGET_PERCENT;
+
 /**
  * Immutable configuration object used to initialize and customize
  * the OpenWeatherMap SDK client. The configuration is constructed
@@ -13,11 +21,19 @@ import com.github.brokkko.openweathermap.jdk.exceptions.InvalidWeatherValueExcep
  *
  * <ul>
  *     <li>API key required for all requests</li>
+ *     <li>Base URL of the API</li>
  *     <li>SDK execution mode ({@link SdkMode})</li>
- *     <li>Retry policy strategy ({@link RetryPolicyType})</li>
+ *     <li>Retry policy strategy ({@link RetryPolicyType}) and retry budget</li>
  *     <li>Logging system type ({@link LoggerType})</li>
  *     <li>Minimum log level to output ({@link LogLevel})</li>
  *     <li>HTTP timeout value in seconds</li>
+ *     <li>HTTP protocol version ({@link HttpProtocol}) and HTTP/2 connection count</li>
+ *     <li>Whether the virtual-thread execution model is enabled</li>
+ *     <li>Client-side rate limit (calls per minute / per day, {@link RateLimitMode}, maximum wait)</li>
+ *     <li>Adaptive concurrency limit on in-flight requests and its maximum wait</li>
+ *     <li>Hedged requests (latency percentile and extra-call budget)</li>
+ *     <li>Maximum response body size</li>
+ *     <li>Additional API keys requests are spread across</li>
  * </ul>
  *
  * The class performs validation of required fields during build time.
@@ -25,11 +41,30 @@ import com.github.brokkko.openweathermap.jdk.exceptions.InvalidWeatherValueExcep
 public class ClientConfig {
 
     private final String apiKey;
+    private final String baseUrl;
     private final SdkMode mode;
     private final RetryPolicyType retryPolicyType;
+    private final double retryBudgetPercent;
     private final LoggerType loggerType;
     private final LogLevel logLevel;
     private final int httpTimeoutSeconds;
+    private final HttpProtocol httpProtocol;
+    private final int http2Connections;
+    private final boolean virtualThreads;
+    private final int rateLimitPerMinute;
+    private final int rateLimitPerDay;
+    private final RateLimitMode rateLimitMode;
+    private final long rateLimitMaxWaitMillis;
+    private final boolean adaptiveConcurrency;
+    private final long concurrencyMaxWaitMillis;
+    private final boolean hedging;
+    private final double hedgingPercentile;
+    private final double hedgingBudgetPercent;
+    private final int warmUpConnections;
+    private final long warmUpTimeoutMillis;
+    private final boolean warmUpAsync;
+    private final long maxResponseBytes;
+    private final List<String> additionalApiKeys;
 
     /**
      * Returns a new {@link Builder} instance to create
@@ -48,14 +83,35 @@ public class ClientConfig {
      */
     public static class Builder {
         private String apiKey;
+        private String baseUrl = DEFAULT_BASE_URL;
         private SdkMode mode = SdkMode.ON_DEMAND;
 
         private RetryPolicyType retryPolicyType = RetryPolicyType.NONE;
+        private double retryBudgetPercent = DEFAULT_RETRY_BUDGET_PERCENT;
         private LoggerType loggerType = LoggerType.DEFAULT;
         private LogLevel logLevel = LogLevel.INFO;
 
         private int httpTimeoutSeconds = 10;
 
+        private HttpProtocol httpProtocol = HttpProtocol.HTTP_1_1;
+        private int http2Connections = 1;
+
+        private boolean virtualThreads;
+        private int rateLimitPerMinute;
+        private int rateLimitPerDay;
+        private RateLimitMode rateLimitMode = RateLimitMode.QUEUE;
+        private long rateLimitMaxWaitMillis = 5_000L;
+        private boolean adaptiveConcurrency;
+        private long concurrencyMaxWaitMillis = 5_000L;
+        private boolean hedging;
+        private double hedgingPercentile = 95.0;
+        private double hedgingBudgetPercent = 5.0;
+        private int warmUpConnections;
+        private long warmUpTimeoutMillis = 2_000L;
+        private boolean warmUpAsync;
+        private long maxResponseBytes = DEFAULT_MAX_RESPONSE_BYTES;
+        private List<String> additionalApiKeys = List.of();
+
         /**
          * Creates builder instance.
          */
@@ -73,6 +129,17 @@ public class ClientConfig {
             return this;
         }
 
+        /**
+         * Sets the base URL requests are sent to.
+         *
+         * @param baseUrl base URL without a trailing slash
+         * @return this builder
+         */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
         /**
          * Sets the SDK execution mode.
          *
@@ -95,6 +162,17 @@ public class ClientConfig {
             return this;
         }
 
+        /**
+         * Sets the retries allowed as a percentage of the calls that succeeded recently.
+         *
+         * @param percent retry budget in percent of successful calls
+         * @return this builder
+         */
+        public Builder retryBudgetPercent(double percent) {
+            this.retryBudgetPercent = percent;
+            return this;
+        }
+
         /**
          * Sets the logger type.
          *
@@ -128,6 +206,185 @@ public class ClientConfig {
             return this;
         }
 
+        /**
+         * Sets the HTTP protocol version.
+         *
+         * @param protocol HTTP protocol version
+         * @return this builder
+         */
+        public Builder httpProtocol(HttpProtocol protocol) {
+            this.httpProtocol = protocol;
+            return this;
+        }
+
+        /**
+         * Sets the number of HTTP/2 connections opened to the API host.
+         *
+         * @param connections number of connections
+         * @return this builder
+         */
+        public Builder http2Connections(int connections) {
+            this.http2Connections = connections;
+            return this;
+        }
+
+        /**
+         * Enables the virtual-thread execution model.
+         *
+         * @param enabled whether to use virtual threads
+         * @return this builder
+         */
+        public Builder virtualThreads(boolean enabled) {
+            this.virtualThreads = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the client-side rate limit. {@code 0} disables the corresponding limit.
+         *
+         * @param callsPerMinute calls allowed per minute
+         * @param callsPerDay    calls allowed per day
+         * @return this builder
+         */
+        public Builder rateLimit(int callsPerMinute, int callsPerDay) {
+            this.rateLimitPerMinute = callsPerMinute;
+            this.rateLimitPerDay = callsPerDay;
+            return this;
+        }
+
+        /**
+         * Sets how calls are handled when the rate limit is reached.
+         *
+         * @param mode rate limit mode
+         * @return this builder
+         */
+        public Builder rateLimitMode(RateLimitMode mode) {
+            this.rateLimitMode = mode;
+            return this;
+        }
+
+        /**
+         * Sets the longest wait for a permit in {@link RateLimitMode#QUEUE} mode.
+         *
+         * @param millis maximum wait in milliseconds
+         * @return this builder
+         */
+        public Builder rateLimitMaxWaitMillis(long millis) {
+            this.rateLimitMaxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Enables the adaptive concurrency limit on in-flight requests.
+         *
+         * @param enabled whether to bound in-flight requests adaptively
+         * @return this builder
+         */
+        public Builder adaptiveConcurrency(boolean enabled) {
+            this.adaptiveConcurrency = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the longest wait for an in-flight slot.
+         *
+         * @param millis maximum wait in milliseconds
+         * @return this builder
+         */
+        public Builder concurrencyMaxWaitMillis(long millis) {
+            this.concurrencyMaxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Enables hedged requests.
+         *
+         * @param enabled whether to hedge slow attempts
+         * @return this builder
+         */
+        public Builder hedging(boolean enabled) {
+            this.hedging = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the latency percentile after which a hedge is sent.
+         *
+         * @param percentile percentile, e.g. {@code 95.0}
+         * @return this builder
+         */
+        public Builder hedgingPercentile(double percentile) {
+            this.hedgingPercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the maximum extra calls caused by hedging.
+         *
+         * @param percent maximum extra calls in percent of regular calls
+         * @return this builder
+         */
+        public Builder hedgingBudgetPercent(double percent) {
+            this.hedgingBudgetPercent = percent;
+            return this;
+        }
+
+        /**
+         * Sets the number of connections opened while the client is built.
+         *
+         * @param connections number of connections, {@code 0} to disable warm-up
+         * @return this builder
+         */
+        public Builder warmUp(int connections) {
+            this.warmUpConnections = connections;
+            return this;
+        }
+
+        /**
+         * Sets the longest time spent on warm-up.
+         *
+         * @param millis timeout in milliseconds
+         * @return this builder
+         */
+        public Builder warmUpTimeoutMillis(long millis) {
+            this.warmUpTimeoutMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets whether warm-up runs in the background instead of blocking client creation.
+         *
+         * @param async {@code true} to warm up in the background
+         * @return this builder
+         */
+        public Builder warmUpAsync(boolean async) {
+            this.warmUpAsync = async;
+            return this;
+        }
+
+        /**
+         * Sets the largest response body accepted.
+         *
+         * @param maxBytes maximum body size in bytes
+         * @return this builder
+         */
+        public Builder maxResponseBytes(long maxBytes) {
+            this.maxResponseBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets further API keys that requests are spread across together with the main key,
+         * with equal weights.
+         *
+         * @param apiKeys additional API keys
+         * @return this builder
+         */
+        public Builder additionalApiKeys(String... apiKeys) {
+            this.additionalApiKeys = List.of(apiKeys);
+            return this;
+        }
+
         /**
          * Builds a validated {@link ClientConfig} instance.
          *
@@ -136,7 +393,7 @@ public class ClientConfig {
          */
         public ClientConfig build() {
             validateApiKey(apiKey);
-            return new ClientConfig(apiKey, mode, retryPolicyType, logLevel, loggerType, httpTimeoutSeconds);
+            return new ClientConfig(this);
         }
 
         /**
@@ -154,17 +411,32 @@ public class ClientConfig {
         }
     }
 
-    private ClientConfig(String apiKey, SdkMode mode,
-                         RetryPolicyType retryPolicyType,
-                         LogLevel logLevel,
-                         LoggerType loggerType,
-                         int httpTimeoutSeconds) {
-        this.apiKey = apiKey;
-        this.mode = mode;
-        this.retryPolicyType = retryPolicyType;
-        this.logLevel = logLevel;
-        this.loggerType = loggerType;
-        this.httpTimeoutSeconds = httpTimeoutSeconds;
+    private ClientConfig(Builder builder) {
+        this.apiKey = builder.apiKey;
+        this.baseUrl = builder.baseUrl;
+        this.mode = builder.mode;
+        this.retryPolicyType = builder.retryPolicyType;
+        this.retryBudgetPercent = builder.retryBudgetPercent;
+        this.logLevel = builder.logLevel;
+        this.loggerType = builder.loggerType;
+        this.httpTimeoutSeconds = builder.httpTimeoutSeconds;
+        this.httpProtocol = builder.httpProtocol;
+        this.http2Connections = builder.http2Connections;
+        this.virtualThreads = builder.virtualThreads;
+        this.rateLimitPerMinute = builder.rateLimitPerMinute;
+        this.rateLimitPerDay = builder.rateLimitPerDay;
+        this.rateLimitMode = builder.rateLimitMode;
+        this.rateLimitMaxWaitMillis = builder.rateLimitMaxWaitMillis;
+        this.adaptiveConcurrency = builder.adaptiveConcurrency;
+        this.concurrencyMaxWaitMillis = builder.concurrencyMaxWaitMillis;
+        this.hedging = builder.hedging;
+        this.hedgingPercentile = builder.hedgingPercentile;
+        this.hedgingBudgetPercent = builder.hedgingBudgetPercent;
+        this.warmUpConnections = builder.warmUpConnections;
+        this.warmUpTimeoutMillis = builder.warmUpTimeoutMillis;
+        this.warmUpAsync = builder.warmUpAsync;
+        this.maxResponseBytes = builder.maxResponseBytes;
+        this.additionalApiKeys = builder.additionalApiKeys;
     }
 
     /**
@@ -174,6 +446,13 @@ public class ClientConfig {
      */
     public String getApiKey() { return apiKey; }
 
+    /**
+     * Returns the base URL requests are sent to.
+     *
+     * @return base URL
+     */
+    public String getBaseUrl() { return baseUrl; }
+
     /**
      * Returns the configured SDK mode.
      *
@@ -188,6 +467,13 @@ public class ClientConfig {
      */
     public RetryPolicyType getRetryPolicyType() { return retryPolicyType; }
 
+    /**
+     * Returns the retries allowed as a percentage of recent successful calls.
+     *
+     * @return retry budget in percent of successful calls
+     */
+    public double getRetryBudgetPercent() { return retryBudgetPercent; }
+
     /**
      * Returns the minimum log level used by the SDK.
      *
@@ -208,4 +494,123 @@ public class ClientConfig {
      * @return timeout value in seconds
      */
     public int getHttpTimeoutSeconds() { return httpTimeoutSeconds; }
+
+    /**
+     * Returns the HTTP protocol version.
+     *
+     * @return HTTP protocol version
+     */
+    public HttpProtocol getHttpProtocol() { return httpProtocol; }
+
+    /**
+     * Returns the number of HTTP/2 connections opened to the API host.
+     *
+     * @return number of connections
+     */
+    public int getHttp2Connections() { return http2Connections; }
+
+    /**
+     * Returns whether the virtual-thread execution model is enabled.
+     *
+     * @return {@code true} if virtual threads are used
+     */
+    public boolean isVirtualThreads() { return virtualThreads; }
+
+    /**
+     * Returns the number of calls allowed per minute.
+     *
+     * @return calls per minute, {@code 0} if unlimited
+     */
+    public int getRateLimitPerMinute() { return rateLimitPerMinute; }
+
+    /**
+     * Returns the number of calls allowed per day.
+     *
+     * @return calls per day, {@code 0} if unlimited
+     */
+    public int getRateLimitPerDay() { return rateLimitPerDay; }
+
+    /**
+     * Returns how calls are handled when the rate limit is reached.
+     *
+     * @return rate limit mode
+     */
+    public RateLimitMode getRateLimitMode() { return rateLimitMode; }
+
+    /**
+     * Returns the longest wait for a permit in {@link RateLimitMode#QUEUE} mode.
+     *
+     * @return maximum wait in milliseconds
+     */
+    public long getRateLimitMaxWaitMillis() { return rateLimitMaxWaitMillis; }
+
+    /**
+     * Returns whether in-flight requests are bounded by the adaptive concurrency limit.
+     *
+     * @return {@code true} if adaptive concurrency is enabled
+     */
+    public boolean isAdaptiveConcurrency() { return adaptiveConcurrency; }
+
+    /**
+     * Returns the longest wait for an in-flight slot.
+     *
+     * @return maximum wait in milliseconds
+     */
+    public long getConcurrencyMaxWaitMillis() { return concurrencyMaxWaitMillis; }
+
+    /**
+     * Returns whether slow attempts are hedged.
+     *
+     * @return {@code true} if hedging is enabled
+     */
+    public boolean isHedging() { return hedging; }
+
+    /**
+     * Returns the latency percentile after which a hedge is sent.
+     *
+     * @return percentile
+     */
+    public double getHedgingPercentile() { return hedgingPercentile; }
+
+    /**
+     * Returns the maximum extra calls caused by hedging.
+     *
+     * @return budget in percent of regular calls
+     */
+    public double getHedgingBudgetPercent() { return hedgingBudgetPercent; }
+
+    /**
+     * Returns the number of connections opened while the client is built.
+     *
+     * @return number of connections, {@code 0} if warm-up is disabled
+     */
+    public int getWarmUpConnections() { return warmUpConnections; }
+
+    /**
+     * Returns the longest time spent on warm-up.
+     *
+     * @return timeout in milliseconds
+     */
+    public long getWarmUpTimeoutMillis() { return warmUpTimeoutMillis; }
+
+    /**
+     * Returns whether warm-up runs in the background.
+     *
+     * @return {@code true} if client creation does not wait for warm-up
+     */
+    public boolean isWarmUpAsync() { return warmUpAsync; }
+
+    /**
+     * Returns the largest response body accepted.
+     *
+     * @return maximum body size in bytes
+     */
+    public long getMaxResponseBytes() { return maxResponseBytes; }
+
+    /**
+     * Returns the API keys used together with the main key.
+     *
+     * @return additional API keys, empty if requests use only the main key
+     */
+    public List<String> getAdditionalApiKeys() { return additionalApiKeys; }
 }
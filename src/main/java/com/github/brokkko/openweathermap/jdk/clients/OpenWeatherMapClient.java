@@ -1,26 +1,49 @@
 package com.github.brokkko.openweathermap.jdk.clients;
 
+import com.github.brokkko.openweathermap.jdk.enums.HttpProtocol;
+import com.github.brokkko.openweathermap.jdk.enums.JitterMode;
 import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
 import com.github.brokkko.openweathermap.jdk.enums.LoggerType;
+import com.github.brokkko.openweathermap.jdk.enums.RateLimitMode;
 import com.github.brokkko.openweathermap.jdk.enums.RetryPolicyType;
 import com.github.brokkko.openweathermap.jdk.enums.SdkMode;
+import com.github.brokkko.openweathermap.jdk.factories.HttpClientFactory;
 import com.github.brokkko.openweathermap.jdk.factories.LoggerFactory;
 import com.github.brokkko.openweathermap.jdk.factories.RetryPolicyFactory;
+import com.github.brokkko.openweathermap.jdk.http.HedgingPolicy;
+import com.github.brokkko.openweathermap.jdk.http.WarmUpReport;
 import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.AimdConcurrencyLimiter;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.TokenBucketRateLimiter;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import com.github.brokkko.openweathermap.jdk.request.requsters.WeatherLocationRequester;
+import com.github.brokkko.openweathermap.jdk.request.terminaters.WeatherRequestTerminator;
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
+import com.github.brokkko.openweathermap.jdk.retries.RetryClassifier;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.ExponentialBackoffRetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.impl.NoRetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.SlidingWindowRetryBudget;
+import com.github.brokkko.openweathermap.jdk.services.CityBatcher;
+import com.github.brokkko.openweathermap.jdk.services.RequestCoalescer;
 import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
 import com.github.brokkko.openweathermap.jdk.schedulers.WeatherPollingScheduler;
 import com.github.brokkko.openweathermap.jdk.services.impl.WeatherCacheServiceImpl;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
 
-import java.net.http.HttpClient;
 import java.time.Duration;
+import java.net.URI;
+import java.net.http.HttpClient;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.*;
@@ -49,9 +72,15 @@ public class OpenWeatherMapClient {
     private final SdkMode sdkMode;
     private final WeatherHttpExecutor httpExecutor;
     private final WeatherCacheService cacheService;
+    private final RequestCoalescer requestCoalescer;
     private final ScheduledExecutorService pollingExecutor;
+    private final ExecutorService refreshExecutor;
     private final WeatherPollingScheduler pollingScheduler;
     private final WeatherLogger logger;
+    private volatile CompletableFuture<WarmUpReport> warmUp;
+    private volatile RetryBudget retryBudget;
+    private volatile CityBatcher cityBatcher;
+    private volatile ExecutorService virtualThreadExecutor;
 
     /**
      * Creates a new OpenWeatherMap SDK client instance.
@@ -74,20 +103,59 @@ public class OpenWeatherMapClient {
                                 WeatherHttpExecutor executor,
                                 WeatherLogger logger,
                                 int pollingIntervalMinutes) {
+        this(apiKey, sdkMode, baseUrl, cacheService, executor, logger, pollingIntervalMinutes, false);
+    }
+
+    /**
+     * Creates a new OpenWeatherMap SDK client instance.
+     *
+     * @param apiKey                 your OpenWeatherMap API key (must not be null)
+     * @param sdkMode                SDK operation mode (ON_DEMAND or POLLING_MODE)
+     * @param baseUrl                base API URL (must not be null)
+     * @param cacheService           cache implementation used by the client
+     * @param executor               HTTP executor responsible for performing requests
+     * @param logger                 logger instance used for internal diagnostics
+     * @param pollingIntervalMinutes interval (in minutes) between polling iterations
+     *                               when {@link SdkMode#POLLING_MODE} is enabled
+     * @param virtualThreads         if {@code true}, the polling loop runs on a virtual thread and
+     *                               every cached entry is refreshed on its own virtual thread
+     *
+     * @throws NullPointerException if any required argument is null
+     */
+    public OpenWeatherMapClient(String apiKey,
+                                SdkMode sdkMode,
+                                String baseUrl,
+                                WeatherCacheService cacheService,
+                                WeatherHttpExecutor executor,
+                                WeatherLogger logger,
+                                int pollingIntervalMinutes,
+                                boolean virtualThreads) {
         this.apiKey = Objects.requireNonNull(apiKey, "apiKey must not be null");
         this.sdkMode = Objects.requireNonNull(sdkMode, "sdkMode must not be null");
         this.baseUrl = Objects.requireNonNull(baseUrl, "baseUrl must not be null");
         this.cacheService = Objects.requireNonNull(cacheService, "cacheService must not be null");
         this.httpExecutor = Objects.requireNonNull(executor, "httpExecutor must not be null");
         this.logger = logger;
+        this.requestCoalescer = new RequestCoalescer(logger);
 
         if (this.sdkMode == SdkMode.POLLING_MODE) {
-            this.pollingExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "owm-poller-" + Math.abs(apiKey.hashCode()));
-                t.setDaemon(true);
-                return t;
-            });
-            this.pollingScheduler = new WeatherPollingScheduler(this.cacheService, this.httpExecutor, this.logger);
+            String pollerName = "owm-poller-" + Math.abs(apiKey.hashCode());
+            ThreadFactory pollerFactory;
+            if (virtualThreads) {
+                pollerFactory = Thread.ofVirtual().name(pollerName).factory();
+                this.refreshExecutor = Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name(pollerName + "-refresh-", 0).factory());
+            } else {
+                pollerFactory = r -> {
+                    Thread t = new Thread(r, pollerName);
+                    t.setDaemon(true);
+                    return t;
+                };
+                this.refreshExecutor = null;
+            }
+            this.pollingExecutor = Executors.newSingleThreadScheduledExecutor(pollerFactory);
+            this.pollingScheduler = new WeatherPollingScheduler(this.cacheService, this.httpExecutor, this.logger,
+                    this.refreshExecutor);
             // schedule with initial delay 0 (first run immediately), then fixed interval
             this.pollingExecutor.scheduleAtFixedRate(() -> {
                 try {
@@ -99,6 +167,7 @@ public class OpenWeatherMapClient {
             logger.info(String.format(POLLING_STARTED_MESSAGE, pollingIntervalMinutes));
         } else {
             this.pollingExecutor = null;
+            this.refreshExecutor = null;
             this.pollingScheduler = null;
         }
     }
@@ -119,6 +188,15 @@ public class OpenWeatherMapClient {
         return this.cacheService;
     }
 
+    /**
+     * Gets request coalescer.
+     * @return single-flight coordinator shared by all requests of this client, so that
+     *         concurrent cache misses for the same key issue a single HTTP call
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
     /**
      * Gets HTTP executor.
      * @return HTTP executor used to send OpenWeatherMap API requests
@@ -143,6 +221,32 @@ public class OpenWeatherMapClient {
         return baseUrl;
     }
 
+    /**
+     * Gets connection warm-up.
+     * @return future completed with the report of the connection warm-up performed by the
+     *         builder, or {@code null} if no warm-up was requested
+     */
+    public CompletableFuture<WarmUpReport> getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Gets the retry budget shared by all calls of this client, e.g. to alert on its utilization.
+     * @return budget retries are taken from, or {@code null} if the client does not retry or was
+     *         given a ready-made retry policy
+     */
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * Gets the city batcher merging concurrent city-ID lookups into group requests.
+     * @return city batcher, or {@code null} if city batching is disabled
+     */
+    public CityBatcher getCityBatcher() {
+        return cityBatcher;
+    }
+
     /**
      * Creates a new {@link WeatherLocationRequester} used to build and execute
      * fluent weather requests.
@@ -159,6 +263,19 @@ public class OpenWeatherMapClient {
         return new WeatherLocationRequester(this, logger, settings);
     }
 
+    /**
+     * Returns the terminal stage for a request prepared with
+     * {@link com.github.brokkko.openweathermap.jdk.request.customizers.WeatherResultCustomizer#prepare()}.
+     * Neither the URL nor the cache key is rebuilt, so hot requests can be issued repeatedly
+     * without per-call string work.
+     *
+     * @param request prepared request
+     * @return terminator executing {@code request}
+     */
+    public WeatherRequestTerminator retrieve(PreparedWeatherRequest request) {
+        return new WeatherRequestTerminator(this, logger, request);
+    }
+
     /**
      * Gracefully shuts down the client and releases resources.
      * <p>
@@ -167,6 +284,8 @@ public class OpenWeatherMapClient {
      *     <li>Stops polling executor (if the client is in POLLING_MODE)</li>
      *     <li>Waits for running tasks to complete</li>
      *     <li>Clears weather cache</li>
+     *     <li>Closes the transport</li>
+     *     <li>Shuts down the virtual-thread executor the builder created, if any</li>
      *     <li>Logs shutdown lifecycle events</li>
      * </ul>
      *
@@ -185,11 +304,21 @@ public class OpenWeatherMapClient {
                 logger.error(POLLING_INTERRUPTED_MESSAGE, e);
             }
         }
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
         try {
             cacheService.clear();
         } catch (Throwable t) {
             logger.error(POLLING_CACHE_ERROR_MESSAGE, t);
         }
+        WeatherTransport transport = httpExecutor.getTransport();
+        if (transport != null) {
+            transport.close();
+        }
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdownNow();
+        }
         logger.info(String.format(CLIENT_DESTROY_MESSAGE, apiKey));
     }
 
@@ -205,8 +334,8 @@ public class OpenWeatherMapClient {
     /**
      * Builder for configuring and constructing {@link OpenWeatherMapClient}.
      * <p>
-     * Provides fluent methods for defining API key, timeouts, retry policy,
-     * logging, polling intervals, and SDK mode.
+     * Provides fluent methods for defining API key, timeouts, HTTP protocol,
+     * retry policy, logging, polling intervals, and SDK mode.
      *
      * <p>Minimal valid configuration requires only an API key. All other fields
      * have reasonable defaults.
@@ -214,17 +343,47 @@ public class OpenWeatherMapClient {
     public static class Builder {
         private String apiKey;
         private SdkMode mode = SdkMode.ON_DEMAND;
+        private String baseUrl = DEFAULT_BASE_URL;
 
         private HttpClient httpClient;
         private RetryPolicy retryPolicy;
         private RetryPolicyType retryPolicyType;
+        private RetryClassifier retryClassifier;
+        private RetryBudget retryBudget;
+        private JitterMode retryJitter = DEFAULT_RETRY_POLICY_JITTER;
         private WeatherLogger logger;
         private LogLevel logLevel;
 
         private int httpTimeoutSeconds = DEFAULT_HTTP_TIMEOUT_SEC;
 
+        private HttpProtocol httpProtocol = HttpProtocol.HTTP_1_1;
+        private int http2Connections = DEFAULT_HTTP2_CONNECTIONS;
+
+        private boolean virtualThreads;
+        private Executor httpClientExecutor;
+        private WeatherTransport transport;
+
         private int pollingIntervalMinutes = DEFAULT_POLLING_INTERVAL_MIN;
 
+        private int rateLimitPerMinute;
+        private int rateLimitPerDay;
+        private RateLimitMode rateLimitMode = RateLimitMode.QUEUE;
+        private long rateLimitMaxWaitMillis = DEFAULT_RATE_LIMIT_MAX_WAIT_MS;
+
+        private boolean adaptiveConcurrency;
+        private long concurrencyMaxWaitMillis = DEFAULT_CONCURRENCY_MAX_WAIT_MS;
+
+        private boolean hedging;
+        private double hedgingPercentile = DEFAULT_HEDGING_PERCENTILE;
+        private double hedgingBudgetPercent = DEFAULT_HEDGING_BUDGET_PERCENT;
+
+        private int warmUpConnections;
+        private long warmUpTimeoutMillis = DEFAULT_WARM_UP_TIMEOUT_MS;
+        private boolean warmUpAsync;
+        private long maxResponseBytes = DEFAULT_MAX_RESPONSE_BYTES;
+        private ApiKeyPool apiKeyPool;
+        private long cityBatchWindowMillis = DEFAULT_CITY_BATCH_WINDOW_MS;
+
         /**
          * Creates builder instance.
          */
@@ -242,6 +401,18 @@ public class OpenWeatherMapClient {
             return this;
         }
 
+        /**
+         * Sets the base URL requests are sent to, e.g. a stub server or a proxy
+         * ({@code http://localhost:8080/data/2.5}). Defaults to the public OpenWeatherMap API.
+         *
+         * @param baseUrl base URL without a trailing slash, {@code null} for the default
+         * @return this builder
+         */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl != null ? baseUrl : DEFAULT_BASE_URL;
+            return this;
+        }
+
         /**
          * Configures SDK operation mode.
          *
@@ -264,6 +435,44 @@ public class OpenWeatherMapClient {
             return this;
         }
 
+        /**
+         * Sets which failures the retry policy retries. By default permanent failures such as
+         * {@code 401} or {@code 404} answers fail at once and {@code Retry-After} is honoured
+         * (see {@link com.github.brokkko.openweathermap.jdk.retries.impl.StatusRetryClassifier}).
+         *
+         * @param classifier retry classifier
+         * @return this builder
+         */
+        public Builder retryClassifier(RetryClassifier classifier) {
+            this.retryClassifier = classifier;
+            return this;
+        }
+
+        /**
+         * Sets the budget all retries of the client are taken from. By default retries are capped at
+         * 10% of the calls that succeeded in the last 10 seconds, plus 10
+         * (see {@link SlidingWindowRetryBudget}); use {@link RetryBudget#unlimited()} to lift the cap.
+         *
+         * @param budget retry budget, {@code null} for the default
+         * @return this builder
+         */
+        public Builder retryBudget(RetryBudget budget) {
+            this.retryBudget = budget;
+            return this;
+        }
+
+        /**
+         * Sets how the retry policy randomizes its backoff delays. Defaults to {@link JitterMode#FULL},
+         * so that callers failing together do not retry together.
+         *
+         * @param jitter jitter mode, {@code null} for none
+         * @return this builder
+         */
+        public Builder retryJitter(JitterMode jitter) {
+            this.retryJitter = jitter;
+            return this;
+        }
+
         /**
          * Sets SDK log verbosity level.
          *
@@ -297,6 +506,77 @@ public class OpenWeatherMapClient {
             return this;
         }
 
+        /**
+         * Sets the HTTP protocol version used for API requests.
+         * <p>
+         * With {@link HttpProtocol#HTTP_2} concurrent requests are multiplexed over
+         * a shared connection instead of opening one connection per in-flight request.
+         * Servers that do not negotiate {@code h2} are served over HTTP/1.1.
+         *
+         * @param protocol HTTP protocol version
+         * @return this builder
+         */
+        public Builder httpProtocol(HttpProtocol protocol) {
+            this.httpProtocol = protocol;
+            return this;
+        }
+
+        /**
+         * Sets the number of HTTP/2 connections opened to the API host.
+         * Requests are distributed round-robin across the connections.
+         * Applies only if protocol = HTTP_2.
+         *
+         * @param connections number of multiplexed connections (at least 1)
+         * @return this builder
+         */
+        public Builder http2Connections(int connections) {
+            this.http2Connections = connections;
+            return this;
+        }
+
+        /**
+         * Enables the virtual-thread execution model.
+         * <p>
+         * When enabled, asynchronous HTTP handling, asynchronous retry attempts and polling
+         * refreshes run on virtual threads, so the number of in-flight requests is not bounded
+         * by a platform thread pool. Blocking calls such as {@code asJava()} issued from virtual
+         * threads park instead of pinning their carrier.
+         *
+         * @param enabled whether to use virtual threads
+         * @return this builder
+         */
+        public Builder virtualThreads(boolean enabled) {
+            this.virtualThreads = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the executor used by the underlying {@link HttpClient} for asynchronous tasks
+         * and by asynchronous retry attempts. Takes precedence over the executor created by
+         * {@link #virtualThreads(boolean)}.
+         *
+         * @param executor executor for HTTP client tasks
+         * @return this builder
+         */
+        public Builder httpClientExecutor(Executor executor) {
+            this.httpClientExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the transport requests are sent with, e.g. a
+         * {@link com.github.brokkko.openweathermap.jdk.transport.impl.NioPipeliningTransport}.
+         * When set, no {@link HttpClient} is created and the HTTP protocol settings are ignored.
+         * The transport is closed by {@link OpenWeatherMapClient#destroy()}.
+         *
+         * @param transport transport for all requests of the client
+         * @return this builder
+         */
+        public Builder transport(WeatherTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
         /**
          * Sets interval for background polling (minutes).
          * Applies only if mode = POLLING_MODE.
@@ -309,14 +589,205 @@ public class OpenWeatherMapClient {
             return this;
         }
 
+        /**
+         * Limits the outbound call rate to match the OpenWeatherMap plan quota.
+         * Every HTTP attempt, including retries and polling refreshes, takes a permit.
+         * {@code 0} disables the corresponding limit.
+         *
+         * @param callsPerMinute calls allowed per minute
+         * @param callsPerDay    calls allowed per day
+         * @return this builder
+         */
+        public Builder rateLimit(int callsPerMinute, int callsPerDay) {
+            this.rateLimitPerMinute = callsPerMinute;
+            this.rateLimitPerDay = callsPerDay;
+            return this;
+        }
+
+        /**
+         * Sets how calls are handled when the rate limit is reached:
+         * wait for a permit ({@link RateLimitMode#QUEUE}, default) or fail immediately
+         * ({@link RateLimitMode#FAIL_FAST}).
+         * Applies only if a rate limit is configured.
+         *
+         * @param mode rate limit mode
+         * @return this builder
+         */
+        public Builder rateLimitMode(RateLimitMode mode) {
+            if (mode != null) {
+                this.rateLimitMode = mode;
+            }
+            return this;
+        }
+
+        /**
+         * Sets the longest time a call waits for a permit in {@link RateLimitMode#QUEUE} mode.
+         * Calls that would wait longer are rejected.
+         *
+         * @param millis maximum wait in milliseconds
+         * @return this builder
+         */
+        public Builder rateLimitMaxWaitMillis(long millis) {
+            this.rateLimitMaxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Enables the adaptive concurrency limit on in-flight HTTP requests.
+         * <p>
+         * The limit starts at {@code DEFAULT_CONCURRENCY_INITIAL_LIMIT} and follows the API: it grows while responses stay fast and shrinks on timeouts,
+         * {@code 429} / {@code 5xx} answers and rising latency. Calls over the limit wait for a slot;
+         * calls that cannot get one fail with
+         * {@link com.github.brokkko.openweathermap.jdk.exceptions.WeatherOverloadException}.
+         *
+         * @param enabled whether to bound in-flight requests adaptively
+         * @return this builder
+         */
+        public Builder adaptiveConcurrency(boolean enabled) {
+            this.adaptiveConcurrency = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the longest time a call waits for an in-flight slot.
+         * Applies only if adaptive concurrency is enabled.
+         *
+         * @param millis maximum wait in milliseconds
+         * @return this builder
+         */
+        public Builder concurrencyMaxWaitMillis(long millis) {
+            this.concurrencyMaxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Enables hedged requests: an attempt still pending after the hedging percentile of
+         * recent latencies is raced by an identical second request, and the slower one is cancelled.
+         *
+         * @param enabled whether to hedge slow attempts
+         * @return this builder
+         */
+        public Builder hedging(boolean enabled) {
+            this.hedging = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the latency percentile after which a hedge is sent.
+         * Applies only if hedging is enabled.
+         *
+         * @param percentile percentile, e.g. {@code 95.0}
+         * @return this builder
+         */
+        public Builder hedgingPercentile(double percentile) {
+            this.hedgingPercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Caps the extra calls caused by hedging, so hedges cannot exhaust the API quota.
+         * Applies only if hedging is enabled.
+         *
+         * @param percent maximum extra calls in percent of regular calls
+         * @return this builder
+         */
+        public Builder hedgingBudgetPercent(double percent) {
+            this.hedgingBudgetPercent = percent;
+            return this;
+        }
+
+        /**
+         * Pre-establishes connections to the API host while the client is built, so the first
+         * requests do not pay DNS, TCP and TLS setup. The outcome and time spent are logged and
+         * available from {@link OpenWeatherMapClient#getWarmUp()}.
+         *
+         * @param connections number of connections to open; {@code 0} disables warm-up
+         * @return this builder
+         */
+        public Builder warmUp(int connections) {
+            this.warmUpConnections = connections;
+            return this;
+        }
+
+        /**
+         * Sets the longest time spent on warm-up. Connections not ready by then are given up.
+         * Applies only if warm-up is enabled.
+         *
+         * @param millis timeout in milliseconds
+         * @return this builder
+         */
+        public Builder warmUpTimeoutMillis(long millis) {
+            this.warmUpTimeoutMillis = millis;
+            return this;
+        }
+
+        /**
+         * Selects whether {@link #build()} returns immediately and warms up in the background,
+         * or blocks until warm-up completes or times out. Applies only if warm-up is enabled.
+         *
+         * @param async {@code true} to warm up in the background
+         * @return this builder
+         */
+        public Builder warmUpAsync(boolean async) {
+            this.warmUpAsync = async;
+            return this;
+        }
+
+        /**
+         * Sets the largest response body accepted, both as received and after decompression.
+         * Larger responses fail with
+         * {@link com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException}.
+         * Applies to the default transport; a custom transport enforces its own limit on receipt.
+         *
+         * @param maxBytes maximum body size in bytes
+         * @return this builder
+         */
+        public Builder maxResponseBytes(long maxBytes) {
+            this.maxResponseBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Spreads requests across the keys of {@code pool} instead of sending them all with one key,
+         * e.g. a {@link com.github.brokkko.openweathermap.jdk.limiters.impl.BalancedApiKeyPool}.
+         * Responses are cached under the client's API key, which defaults to the first key of the
+         * pool, so every key shares the same cache entries.
+         *
+         * @param pool API key pool
+         * @return this builder
+         */
+        public Builder apiKeyPool(ApiKeyPool pool) {
+            this.apiKeyPool = pool;
+            return this;
+        }
+
+        /**
+         * Sets how long concurrent city-ID lookups are collected before they are sent as one
+         * {@code /group} request of up to 20 cities (see {@link CityBatcher}). Defaults to 5 ms;
+         * {@code 0} sends every city-ID lookup as its own request.
+         *
+         * @param millis batching window in milliseconds
+         * @return this builder
+         */
+        public Builder cityBatchWindowMillis(long millis) {
+            this.cityBatchWindowMillis = millis;
+            return this;
+        }
+
         /**
          * Builds and returns a fully configured {@link OpenWeatherMapClient}.
          * <p>
          * The builder:
          * <ul>
-         *     <li>Creates an HTTP client if one is not provided</li>
-         *     <li>Creates a retry policy instance</li>
+         *     <li>Creates an HTTP client if neither a client nor a transport is provided</li>
+         *     <li>Creates a retry policy instance and its retry budget</li>
+         *     <li>Creates a rate limiter if call limits are configured</li>
+         *     <li>Creates a concurrency limiter if adaptive concurrency is enabled</li>
+         *     <li>Creates a hedging policy if hedging is enabled</li>
+         *     <li>Takes the API key from the key pool if only a pool is given</li>
          *     <li>Creates internal cache service</li>
+         *     <li>Creates a city batcher unless city batching is disabled</li>
+         *     <li>Warms up connections to the API host if requested</li>
          *     <li>Configures logger and executor</li>
          *     <li>Instantiates the client</li>
          * </ul>
@@ -325,36 +796,95 @@ public class OpenWeatherMapClient {
          * @throws IllegalArgumentException if apiKey is missing or invalid
          */
         public OpenWeatherMapClient build() {
-            if (httpClient == null) {
-                httpClient = HttpClient.newBuilder()
-                        .connectTimeout(Duration.ofSeconds(httpTimeoutSeconds))
-                        .version(HttpClient.Version.HTTP_1_1)
-                        .build();
+            if (apiKey == null && apiKeyPool != null && !apiKeyPool.getApiKeys().isEmpty()) {
+                apiKey = apiKeyPool.getApiKeys().get(0);
+            }
+            Executor asyncExecutor = httpClientExecutor;
+            ExecutorService ownedExecutor = null;
+            if (asyncExecutor == null && virtualThreads) {
+                ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                asyncExecutor = ownedExecutor;
+            }
+
+            if (transport == null && httpClient == null) {
+                httpClient = HttpClientFactory.create(httpProtocol, httpTimeoutSeconds, http2Connections, asyncExecutor);
             }
 
+            RetryBudget budget = null;
             if (retryPolicy == null) {
-                retryPolicy = new NoRetryPolicy();
-            } else {
-                retryPolicy = RetryPolicyFactory.create(retryPolicyType ,logger);
+                if (retryPolicyType != null && retryPolicyType != RetryPolicyType.NONE) {
+                    budget = retryBudget != null ? retryBudget : SlidingWindowRetryBudget.defaults();
+                }
+                retryPolicy = retryPolicyType == null
+                        ? new NoRetryPolicy()
+                        : RetryPolicyFactory.create(retryPolicyType, logger, ExponentialBackoffRetryPolicy.builder()
+                        .asyncExecutor(asyncExecutor)
+                        .classifier(retryClassifier)
+                        .budget(budget)
+                        .jitter(retryJitter));
             }
 
-            WeatherHttpExecutor executor = new WeatherHttpExecutor(
-                    httpClient,
-                    retryPolicy,
-                    logger
-            );
+            WeatherHttpExecutor.Builder executorBuilder = WeatherHttpExecutor.builder()
+                    .retryPolicy(retryPolicy)
+                    .logger(logger);
+            if (transport != null) {
+                executorBuilder.transport(transport);
+            } else {
+                executorBuilder.httpClient(httpClient);
+            }
+            if (maxResponseBytes > 0) {
+                executorBuilder.maxResponseBytes(maxResponseBytes);
+            }
+            if (apiKeyPool != null) {
+                executorBuilder.apiKeyPool(apiKeyPool);
+            }
+            if (httpTimeoutSeconds > 0) {
+                executorBuilder.requestTimeout(Duration.ofSeconds(httpTimeoutSeconds));
+            }
+            if (rateLimitPerMinute > 0 || rateLimitPerDay > 0) {
+                executorBuilder.rateLimiter(new TokenBucketRateLimiter(
+                        rateLimitPerMinute, rateLimitPerDay, rateLimitMode, rateLimitMaxWaitMillis, logger));
+            }
+            if (adaptiveConcurrency) {
+                executorBuilder.concurrencyLimiter(new AimdConcurrencyLimiter(
+                        DEFAULT_CONCURRENCY_INITIAL_LIMIT, DEFAULT_CONCURRENCY_MIN_LIMIT, DEFAULT_CONCURRENCY_MAX_LIMIT,
+                        DEFAULT_CONCURRENCY_MAX_QUEUE, concurrencyMaxWaitMillis, logger));
+            }
+            if (hedging) {
+                executorBuilder.hedgingPolicy(HedgingPolicy.builder()
+                        .percentile(hedgingPercentile)
+                        .budgetPercent(hedgingBudgetPercent)
+                        .logger(logger)
+                        .build());
+            }
+            WeatherHttpExecutor executor = executorBuilder.build();
 
             WeatherCacheService cacheService = new WeatherCacheServiceImpl(DEFAULT_CACHE_MAX_ENTRIES, DEFAULT_CACHE_TTL_MS, logger);
 
-            return new OpenWeatherMapClient(
+            OpenWeatherMapClient client = new OpenWeatherMapClient(
                     apiKey,
                     mode,
-                    DEFAULT_BASE_URL,
+                    baseUrl,
                     cacheService,
                     executor,
                     logger,
-                    pollingIntervalMinutes
+                    pollingIntervalMinutes,
+                    virtualThreads
             );
+            client.retryBudget = budget;
+            client.virtualThreadExecutor = ownedExecutor;
+            if (cityBatchWindowMillis > 0) {
+                client.cityBatcher = new CityBatcher(executor, cacheService, baseUrl, cityBatchWindowMillis,
+                        DEFAULT_CITY_BATCH_MAX_SIZE, logger);
+            }
+            if (warmUpConnections > 0 && warmUpTimeoutMillis > 0) {
+                client.warmUp = executor.warmUp(URI.create(baseUrl), warmUpConnections,
+                        Duration.ofMillis(warmUpTimeoutMillis));
+                if (!warmUpAsync) {
+                    client.warmUp.join();
+                }
+            }
+            return client;
         }
     }
 }
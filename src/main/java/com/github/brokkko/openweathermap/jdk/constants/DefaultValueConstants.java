@@ -1,5 +1,9 @@
 package com.github.brokkko.openweathermap.jdk.constants;
 
+import com.github.brokkko.openweathermap.jdk.enums.JitterMode;
+
+import java.util.Set;
+
 /**
  * A collection of default values used by the OpenWeather SDK when performing requests.
  * <p>
@@ -18,6 +22,12 @@ public final class DefaultValueConstants {
     /** HTTP timeout value (seconds). */
     public static final int DEFAULT_HTTP_TIMEOUT_SEC = 10;
 
+    /** Value of the Accept-Encoding header sent with every request. */
+    public static final String DEFAULT_ACCEPT_ENCODING = "gzip, deflate";
+
+    /** Number of HTTP/2 connections opened per origin. */
+    public static final int DEFAULT_HTTP2_CONNECTIONS = 1;
+
 
     /** Maximum number of cache entries before eviction. */
     public static final int DEFAULT_CACHE_MAX_ENTRIES = 100;
@@ -32,6 +42,126 @@ public final class DefaultValueConstants {
     /** Retry policy delay (ms). */
     public static final int DEFAULT_RETRY_POLICY_DELAY_MS = 500;
 
+    /** Longest backoff delay of a retry policy (ms). */
+    public static final long DEFAULT_RETRY_POLICY_MAX_DELAY_MS = 10_000L;
+
+    /** Jitter applied to the backoff delay of retry policies created by the factory. */
+    public static final JitterMode DEFAULT_RETRY_POLICY_JITTER = JitterMode.FULL;
+
+    /** HTTP statuses retried by default: timeouts, rate limiting and transient server errors. */
+    public static final Set<Integer> DEFAULT_RETRYABLE_STATUSES = Set.of(408, 425, 429, 500, 502, 503, 504);
+
+    /** Longest {@code Retry-After} delay a retry policy waits for (ms). */
+    public static final long DEFAULT_RETRY_AFTER_MAX_MS = 30_000L;
+
+    /** Retries a retry budget allows, as a percentage of the successful calls in its window. */
+    public static final double DEFAULT_RETRY_BUDGET_PERCENT = 10.0;
+
+    /** Retries a retry budget always allows per window, so that low traffic can still retry. */
+    public static final int DEFAULT_RETRY_BUDGET_MIN_RETRIES = 10;
+
+    /** Length of the sliding window of a retry budget (ms). */
+    public static final long DEFAULT_RETRY_BUDGET_WINDOW_MS = 10_000L;
+
+    /** Number of buckets the retry budget window is divided into. */
+    public static final int DEFAULT_RETRY_BUDGET_BUCKETS = 10;
+
+    /** Number of most recent calls in the circuit breaker sliding window. */
+    public static final int DEFAULT_CIRCUIT_WINDOW_SIZE = 20;
+
+    /** Minimum number of recorded calls before the circuit breaker evaluates its window. */
+    public static final int DEFAULT_CIRCUIT_MINIMUM_CALLS = 10;
+
+    /** Failure rate (percent) at which the circuit opens. */
+    public static final float DEFAULT_CIRCUIT_FAILURE_RATE_THRESHOLD = 50.0f;
+
+    /** Slow-call rate (percent) at which the circuit opens. */
+    public static final float DEFAULT_CIRCUIT_SLOW_CALL_RATE_THRESHOLD = 80.0f;
+
+    /** Duration above which a call counts as slow (ms). */
+    public static final long DEFAULT_CIRCUIT_SLOW_CALL_DURATION_MS = 5_000L;
+
+    /** Time the circuit stays open before trial calls are allowed (ms). */
+    public static final long DEFAULT_CIRCUIT_OPEN_DURATION_MS = 30_000L;
+
+    /** Number of trial calls allowed in the half-open state. */
+    public static final int DEFAULT_CIRCUIT_HALF_OPEN_CALLS = 3;
+
+    /** Longest wait for a rate limiter permit in queueing mode (ms). */
+    public static final long DEFAULT_RATE_LIMIT_MAX_WAIT_MS = 5_000L;
+
+    /** Time a pooled API key answered with {@code 401 Unauthorized} is left out of rotation (ms). */
+    public static final long DEFAULT_KEY_UNAUTHORIZED_COOLDOWN_MS = 10 * 60 * 1000L;
+
+    /** Time a pooled API key answered with {@code 429} without {@code Retry-After} is left out of rotation (ms). */
+    public static final long DEFAULT_KEY_RATE_LIMITED_COOLDOWN_MS = 60_000L;
+
+    /** Initial in-flight request limit of the adaptive concurrency limiter. */
+    public static final int DEFAULT_CONCURRENCY_INITIAL_LIMIT = 20;
+
+    /** Lower bound of the adaptive in-flight request limit. */
+    public static final int DEFAULT_CONCURRENCY_MIN_LIMIT = 1;
+
+    /** Upper bound of the adaptive in-flight request limit. */
+    public static final int DEFAULT_CONCURRENCY_MAX_LIMIT = 200;
+
+    /** Maximum number of calls waiting for an in-flight slot before new calls are shed. */
+    public static final int DEFAULT_CONCURRENCY_MAX_QUEUE = 1_000;
+
+    /** Longest wait for an in-flight slot (ms). */
+    public static final long DEFAULT_CONCURRENCY_MAX_WAIT_MS = 5_000L;
+
+    /** Latency percentile after which a hedged request is sent. */
+    public static final double DEFAULT_HEDGING_PERCENTILE = 95.0;
+
+    /** Maximum share of extra calls caused by hedging (percent of primary calls). */
+    public static final double DEFAULT_HEDGING_BUDGET_PERCENT = 5.0;
+
+    /** Lower bound of the hedge delay (ms). */
+    public static final long DEFAULT_HEDGING_MIN_DELAY_MS = 20L;
+
+    /** Number of recent latencies the hedge delay is derived from. */
+    public static final int DEFAULT_HEDGING_WINDOW_SIZE = 200;
+
+    /** Number of latencies required before hedging starts. */
+    public static final int DEFAULT_HEDGING_MIN_SAMPLES = 20;
+
+    /** Number of new latencies after which the hedge delay is recomputed. */
+    public static final int DEFAULT_HEDGING_RECOMPUTE_INTERVAL = 20;
+
+    /** Number of hedges that may be sent back to back when the budget is full. */
+    public static final int DEFAULT_HEDGING_MAX_BURST = 10;
+
+    /** Longest time spent pre-establishing connections when a client is built (ms). */
+    public static final long DEFAULT_WARM_UP_TIMEOUT_MS = 2_000L;
+
+    /** Maximum size of a response body, compressed or decoded (bytes). */
+    public static final long DEFAULT_MAX_RESPONSE_BYTES = 4L * 1024 * 1024;
+
+    /** Size of one pooled response buffer segment (bytes). */
+    public static final int DEFAULT_BUFFER_SEGMENT_BYTES = 8 * 1024;
+
+    /** Maximum number of idle buffer segments kept for reuse. */
+    public static final int DEFAULT_BUFFER_POOL_SEGMENTS = 256;
+
+    /** Maximum number of keep-alive connections per host opened by the NIO pipelining transport. */
+    public static final int DEFAULT_NIO_MAX_CONNECTIONS = 4;
+
+    /** Maximum number of requests pipelined on one connection by the NIO transport. */
+    public static final int DEFAULT_NIO_PIPELINE_DEPTH = 8;
+
+    /** Connect timeout of the NIO pipelining transport (ms). */
+    public static final long DEFAULT_NIO_CONNECT_TIMEOUT_MS = 5_000L;
+
+    /** Size of the direct read buffer of every NIO transport connection (bytes). */
+    public static final int DEFAULT_NIO_READ_BUFFER_BYTES = 16 * 1024;
+
+    /** Time concurrent city-ID lookups are collected before they are sent as one group request (ms). */
+    public static final long DEFAULT_CITY_BATCH_WINDOW_MS = 5L;
+
+    /** Largest number of city IDs the {@code /group} endpoint accepts in one request. */
+    public static final int DEFAULT_CITY_BATCH_MAX_SIZE = 20;
+
     /** Default base URL for OpenWeatherMap API. */
     public static final String DEFAULT_BASE_URL =
             "https://api.openweathermap.org/data/2.5";
@@ -111,4 +111,7 @@ public final class JsonFieldNameConstants {
 
     /** Shift in seconds from UTC for the location's timezone. */
     public static final String TIMEZONE = "timezone";
+
+    /** Per-city results of a group request. */
+    public static final String LIST = "list";
 }
@@ -66,6 +66,10 @@ public final class LogMessages {
     public static final String POLLING_REFRESH_ERROR_MESSAGE =
             "[Polling] failed to refresh %s";
 
+    /** Message logged when a polling refresh is answered with 304 Not Modified. */
+    public static final String POLLING_NOT_MODIFIED_MESSAGE =
+            "[Polling] %s not modified, entry revalidated";
+
     /** Message logged when a polling refresh cycle completes. */
     public static final String POLLING_FINISHED_MESSAGE =
             "Polling: finished refresh cycle.";
@@ -92,6 +96,26 @@ public final class LogMessages {
     public static final String CACHE_PUT_MESSAGE =
             "[Polling] put [%s]: %s";
 
+    /** Message logged when a raw byte payload is stored in cache. */
+    public static final String CACHE_PUT_BYTES_MESSAGE =
+            "[Polling] put [%s]: %d bytes";
+
+    /** Message logged when a cached entry is revalidated without a new body. */
+    public static final String CACHE_TOUCH_MESSAGE =
+            "[Polling] touch [%s]";
+
+    /** Message logged when a cache miss joins an identical request already in flight. */
+    public static final String COALESCER_JOINED_MESSAGE =
+            "Joined in-flight request for key: %s";
+
+    /** Message logged when collected city-ID lookups are sent as one group request. */
+    public static final String CITY_BATCH_SENT_MESSAGE =
+            "[Batch] requesting %d cities in one group call";
+
+    /** Message used when a group response has no entry for a requested city. */
+    public static final String CITY_NOT_IN_GROUP_MESSAGE =
+            "City %d is missing from the group response";
+
     /** Message logged when a value is removed from cache by the poller. */
     public static final String CACHE_REMOVE_MESSAGE =
             "[Polling] remove [%s]";
@@ -106,10 +130,40 @@ public final class LogMessages {
     public static final String RETRY_FAILED_MESSAGE =
             "Operation failed: %s. Retrying in %dms...";
 
+    /** Message logged when a retry is skipped because the deadline cannot cover the backoff. */
+    public static final String RETRY_DEADLINE_MESSAGE =
+            "Operation failed: %s. Not retrying, %dms left before the deadline";
+
+    /** Message used when a call cannot complete within its deadline. */
+    public static final String DEADLINE_EXCEEDED_MESSAGE =
+            "Deadline of %dms exceeded";
+
+    /** Message logged when a failure is classified as not retryable. */
+    public static final String RETRY_NOT_RETRYABLE_MESSAGE =
+            "Operation failed: %s. Not retrying a permanent failure";
+
+    /** Message logged when a retry is skipped because the retry budget is spent. */
+    public static final String RETRY_BUDGET_EXHAUSTED_MESSAGE =
+            "Operation failed: %s. Not retrying, retry budget exhausted (%d of %d retries used)";
+
+    /** Message used when the thread waiting for a retry is interrupted. */
+    public static final String RETRY_INTERRUPTED_MESSAGE =
+            "Interrupted while waiting %dms before attempt #%d";
+
     /** Message logged when all retry attempts are exhausted. */
     public static final String RETRY_EXHAUSTED_MESSAGE =
             "All retry attempts failed after %d attempts";
 
+    // --- Circuit breaker messages ---
+
+    /** Message logged when the circuit breaker changes state. */
+    public static final String CIRCUIT_STATE_TRANSITION_MESSAGE =
+            "Circuit breaker %s -> %s (failure rate %.1f%%, slow-call rate %.1f%%)";
+
+    /** Message used when a call is rejected because the circuit is open. */
+    public static final String CIRCUIT_OPEN_MESSAGE =
+            "Circuit breaker is %s, call not permitted";
+
     // --- HTTP executor messages ---
 
     /** Message logged when an HTTP timeout occurs. */
@@ -128,10 +182,68 @@ public final class LogMessages {
     public static final String HTTP_INTERRUPTED_MESSAGE =
             "Execution interrupted";
 
+    /** Message used when a response arrives with a Content-Encoding the SDK did not negotiate. */
+    public static final String HTTP_UNSUPPORTED_CONTENT_ENCODING_MESSAGE =
+            "Unsupported Content-Encoding: %s";
+
+    /** Message logged when a hedged request is sent. */
+    public static final String HEDGE_FIRED_MESSAGE =
+            "No response within %dms, sending hedged request";
+
+    /** Message logged when connection warm-up completes. */
+    public static final String WARM_UP_FINISHED_MESSAGE =
+            "Warm-up opened %d of %d connections in %dms";
+
+    /** Message logged when connection warm-up stops at its timeout. */
+    public static final String WARM_UP_TIMED_OUT_MESSAGE =
+            "Warm-up timed out after %dms with %d of %d connections open";
+
+    /** Message of the exception raised when a response body exceeds the size limit. */
+    public static final String RESPONSE_TOO_LARGE_MESSAGE =
+            "Response body exceeds the limit of %d bytes";
+
     /** Message logged when the API returns an unexpected HTTP status code. */
     public static final String HTTP_UNEXPECTED_STATUS_MESSAGE =
             "HTTP %d from API";
 
+    // --- Rate limiter messages ---
+
+    /** Message logged when a call has to wait for a rate limiter permit. */
+    public static final String RATE_LIMIT_DELAYED_MESSAGE =
+            "Rate limit reached, call delayed by %dms";
+
+    /** Message used when the rate limiter rejects a call. */
+    public static final String RATE_LIMIT_REJECTED_MESSAGE =
+            "Rate limit exceeded, next permit in %dms";
+
+    // --- API key pool messages ---
+
+    /** Message logged when a key of the pool is sidelined after being rejected by the API. */
+    public static final String KEY_SIDELINED_MESSAGE =
+            "API key ...%s rejected with HTTP %d, sidelined for %dms";
+
+    /** Message logged when a request rejected on its key is sent again at once with another key. */
+    public static final String KEY_FAILOVER_MESSAGE =
+            "API key rejected with HTTP %d, sending the request again with another key";
+
+    /** Message used when no key of the pool is available. */
+    public static final String KEY_POOL_EXHAUSTED_MESSAGE =
+            "All API keys are sidelined or out of quota, next key available in %dms";
+
+    // --- Concurrency limiter messages ---
+
+    /** Message used when a call is shed because the wait queue is full. */
+    public static final String CONCURRENCY_QUEUE_FULL_MESSAGE =
+            "Too many requests in flight (limit %d, queued %d), call rejected";
+
+    /** Message used when a queued call does not get a slot in time. */
+    public static final String CONCURRENCY_WAIT_TIMEOUT_MESSAGE =
+            "No request slot became available within %dms (limit %d)";
+
+    /** Message logged when the adaptive concurrency limit decreases. */
+    public static final String CONCURRENCY_LIMIT_DECREASED_MESSAGE =
+            "Congestion detected, concurrency limit decreased to %d";
+
     // --- Serialization ---
 
     /** Message logged when JSON parsing fails. */
@@ -0,0 +1,22 @@
+package com.github.brokkko.openweathermap.jdk.enums;
+
+/**
+ * States of the circuit breaker guarding calls to the API.
+ */
+public enum CircuitBreakerState {
+    /**
+     * Calls are sent and their outcomes are recorded in the sliding window.
+     */
+    CLOSED,
+
+    /**
+     * Calls fail fast without contacting the API until the open duration elapses.
+     */
+    OPEN,
+
+    /**
+     * A limited number of trial calls is sent; their outcomes decide whether the
+     * circuit closes again or reopens.
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,17 @@
+package com.github.brokkko.openweathermap.jdk.enums;
+
+/**
+ * Represents HTTP protocol versions used by the SDK transport.
+ */
+public enum HttpProtocol {
+    /**
+     * HTTP/1.1: every concurrent request occupies its own keep-alive connection.
+     */
+    HTTP_1_1,
+
+    /**
+     * HTTP/2: concurrent requests are multiplexed as streams over a shared connection.
+     * If the server does not negotiate {@code h2}, requests transparently fall back to HTTP/1.1.
+     */
+    HTTP_2
+}
@@ -0,0 +1,23 @@
+package com.github.brokkko.openweathermap.jdk.enums;
+
+/**
+ * Represents how a backoff retry policy randomizes the delay before each retry, so that
+ * callers failing at the same moment do not retry in lockstep.
+ */
+public enum JitterMode {
+    /**
+     * No randomization: the delay doubles on every retry, up to the maximum delay.
+     */
+    NONE,
+
+    /**
+     * The delay is drawn uniformly between zero and the doubled delay, capped by the maximum delay.
+     */
+    FULL,
+
+    /**
+     * The delay is drawn uniformly between the initial delay and three times the previous delay,
+     * capped by the maximum delay.
+     */
+    DECORRELATED
+}
@@ -0,0 +1,18 @@
+package com.github.brokkko.openweathermap.jdk.enums;
+
+/**
+ * Strategies for picking the key of the next request from an API key pool.
+ */
+public enum KeySelectionStrategy {
+    /**
+     * Keys take turns in proportion to their weights, interleaved smoothly
+     * (weights 2 and 1 give {@code A B A A B A ...} rather than bursts).
+     */
+    WEIGHTED_ROUND_ROBIN,
+
+    /**
+     * The key with the lowest share of its quota used in the current minute is picked,
+     * balancing keys with different quotas or usage outside this client.
+     */
+    LEAST_USED
+}
@@ -0,0 +1,17 @@
+package com.github.brokkko.openweathermap.jdk.enums;
+
+/**
+ * Represents how a client-side rate limiter treats a call when no permit is available.
+ */
+public enum RateLimitMode {
+    /**
+     * The call waits for the next permit, up to a configured maximum wait.
+     * Calls that would have to wait longer are rejected.
+     */
+    QUEUE,
+
+    /**
+     * The call is rejected immediately when no permit is available.
+     */
+    FAIL_FAST
+}
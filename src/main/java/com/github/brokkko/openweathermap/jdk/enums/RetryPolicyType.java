@@ -13,5 +13,12 @@ public enum RetryPolicyType {
      * Retries failed requests using exponential backoff delays.
      * Each subsequent retry waits longer than the previous one.
      */
-    EXPONENTIAL_BACKOFF
+    EXPONENTIAL_BACKOFF,
+
+    /**
+     * Retries failed requests using exponential backoff behind a circuit breaker.
+     * While the API keeps failing the circuit opens and calls fail fast instead of
+     * waiting through every retry.
+     */
+    CIRCUIT_BREAKER
 }
@@ -0,0 +1,18 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+/**
+ * Exception thrown when the thread waiting for the next retry attempt is interrupted.
+ * The interrupt status of the thread is restored before it is thrown.
+ */
+public class RetryInterruptedException extends RetryException {
+
+    /**
+     * Creates a new {@code RetryInterruptedException}.
+     *
+     * @param message description of the interrupted retry
+     * @param cause   failure of the last attempt
+     */
+    public RetryInterruptedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,7 +2,8 @@ package com.github.brokkko.openweathermap.jdk.exceptions;
 
 /**
  * Exception representing an error returned by the weather API.
- * Includes the HTTP status code for reference.
+ * Includes the HTTP status code for reference and the delay requested
+ * by a {@code Retry-After} header, if the response carried one.
  */
 public class WeatherApiException extends WeatherSdkException {
 
@@ -11,6 +12,11 @@ public class WeatherApiException extends WeatherSdkException {
      */
     private final int statusCode;
 
+    /**
+     * Delay requested by the {@code Retry-After} header, {@code -1} if absent.
+     */
+    private final long retryAfterMillis;
+
     /**
      * Creates a new {@code WeatherApiException}.
      *
@@ -18,8 +24,20 @@ public class WeatherApiException extends WeatherSdkException {
      * @param statusCode exception status code
      */
     public WeatherApiException(String message, int statusCode) {
+        this(message, statusCode, -1L);
+    }
+
+    /**
+     * Creates a new {@code WeatherApiException} for a response carrying a {@code Retry-After} header.
+     *
+     * @param message description of the api condition
+     * @param statusCode exception status code
+     * @param retryAfterMillis delay requested by the server, {@code -1} if none
+     */
+    public WeatherApiException(String message, int statusCode, long retryAfterMillis) {
         super(message);
         this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
     }
 
     /**
@@ -32,6 +50,7 @@ public class WeatherApiException extends WeatherSdkException {
     public WeatherApiException(String message, int statusCode, Throwable cause) {
         super(message, cause);
         this.statusCode = statusCode;
+        this.retryAfterMillis = -1L;
     }
 
     /**
@@ -42,4 +61,13 @@ public class WeatherApiException extends WeatherSdkException {
     public int getStatusCode() {
         return statusCode;
     }
+
+    /**
+     * Gets the delay requested by the server before the call is repeated.
+     *
+     * @return delay in milliseconds, or {@code -1} if the response had no {@code Retry-After} header
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
 }
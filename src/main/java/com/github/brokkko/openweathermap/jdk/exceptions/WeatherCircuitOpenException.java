@@ -0,0 +1,19 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+/**
+ * Exception thrown without contacting the API while the circuit breaker is open.
+ * <p>
+ * It is a {@link WeatherNetworkException}, so callers handling API outages need no
+ * extra branch, but retry policies do not retry it.
+ */
+public class WeatherCircuitOpenException extends WeatherNetworkException {
+
+    /**
+     * Creates a new {@code WeatherCircuitOpenException}.
+     *
+     * @param message description of the circuit state
+     */
+    public WeatherCircuitOpenException(String message) {
+        super(message, null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+/**
+ * Exception thrown when a call cannot complete within its deadline, either because
+ * the deadline has already passed or because the remaining time is too short for
+ * another attempt.
+ */
+public class WeatherDeadlineExceededException extends WeatherTimeoutException {
+
+    /**
+     * Creates a new {@code WeatherDeadlineExceededException}.
+     *
+     * @param message description of the deadline condition
+     * @param cause   failure of the last attempt, or {@code null} if none was made
+     */
+    public WeatherDeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
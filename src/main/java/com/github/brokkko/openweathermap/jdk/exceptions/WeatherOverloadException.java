@@ -0,0 +1,17 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+/**
+ * Exception thrown when the adaptive concurrency limiter sheds a call
+ * because too many requests are already in flight or queued.
+ */
+public class WeatherOverloadException extends WeatherSdkException {
+
+    /**
+     * Creates a new {@code WeatherOverloadException}.
+     *
+     * @param message description of the overload condition
+     */
+    public WeatherOverloadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+/**
+ * Exception thrown when the client-side rate limiter rejects a call
+ * instead of letting it exceed the configured API quota.
+ */
+public class WeatherRateLimitException extends WeatherSdkException {
+
+    /**
+     * Time after which a permit is expected to become available.
+     */
+    private final long retryAfterMillis;
+
+    /**
+     * Creates a new {@code WeatherRateLimitException}.
+     *
+     * @param message          description of the rate limit condition
+     * @param retryAfterMillis time after which a permit is expected to become available
+     */
+    public WeatherRateLimitException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Gets the time after which a permit is expected to become available.
+     *
+     * @return delay in milliseconds
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
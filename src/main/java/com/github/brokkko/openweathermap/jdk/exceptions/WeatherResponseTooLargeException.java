@@ -0,0 +1,33 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+/**
+ * Exception thrown when a response body exceeds the configured maximum size.
+ * Reading stops as soon as the limit is crossed, so the oversized body is never held in memory.
+ */
+public class WeatherResponseTooLargeException extends WeatherSdkException {
+
+    /**
+     * Maximum body size that was exceeded, in bytes.
+     */
+    private final long maxBytes;
+
+    /**
+     * Creates a new {@code WeatherResponseTooLargeException}.
+     *
+     * @param message  description of the condition
+     * @param maxBytes maximum body size that was exceeded, in bytes
+     */
+    public WeatherResponseTooLargeException(String message, long maxBytes) {
+        super(message);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the exceeded limit.
+     *
+     * @return maximum body size in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.brokkko.openweathermap.jdk.factories;
+
+import com.github.brokkko.openweathermap.jdk.enums.HttpProtocol;
+import com.github.brokkko.openweathermap.jdk.http.RoundRobinHttpClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Factory class responsible for creating the {@link HttpClient} used by the SDK
+ * based on the selected {@link HttpProtocol}.
+ * <p>
+ * For {@link HttpProtocol#HTTP_2} the JDK client negotiates {@code h2} via ALPN and
+ * falls back to HTTP/1.1 automatically when the server does not support it.
+ * When more than one connection is requested, a {@link RoundRobinHttpClient}
+ * spreading requests over that many clients is returned.
+ */
+public class HttpClientFactory {
+
+    /**
+     * Creates a {@link HttpClientFactory} instance.
+     */
+    public HttpClientFactory() {}
+
+    /**
+     * Creates a configured {@link HttpClient}.
+     *
+     * @param protocol              HTTP protocol version; {@code null} means {@link HttpProtocol#HTTP_1_1}
+     * @param connectTimeoutSeconds connection timeout in seconds
+     * @param connections           number of HTTP/2 connections per origin (ignored for HTTP/1.1,
+     *                              values below 1 are treated as 1)
+     * @return a configured {@link HttpClient} instance
+     */
+    public static HttpClient create(HttpProtocol protocol, int connectTimeoutSeconds, int connections) {
+        return create(protocol, connectTimeoutSeconds, connections, null);
+    }
+
+    /**
+     * Creates a configured {@link HttpClient} running its asynchronous tasks on the given executor.
+     *
+     * @param protocol              HTTP protocol version; {@code null} means {@link HttpProtocol#HTTP_1_1}
+     * @param connectTimeoutSeconds connection timeout in seconds
+     * @param connections           number of HTTP/2 connections per origin (ignored for HTTP/1.1,
+     *                              values below 1 are treated as 1)
+     * @param executor              executor for the client's asynchronous tasks and dependent stages;
+     *                              {@code null} keeps the JDK default thread pool
+     * @return a configured {@link HttpClient} instance
+     */
+    public static HttpClient create(HttpProtocol protocol, int connectTimeoutSeconds, int connections,
+                                    Executor executor) {
+        if (protocol != HttpProtocol.HTTP_2) {
+            return newClient(HttpClient.Version.HTTP_1_1, connectTimeoutSeconds, executor);
+        }
+        if (connections <= 1) {
+            return newClient(HttpClient.Version.HTTP_2, connectTimeoutSeconds, executor);
+        }
+        List<HttpClient> delegates = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            delegates.add(newClient(HttpClient.Version.HTTP_2, connectTimeoutSeconds, executor));
+        }
+        return new RoundRobinHttpClient(delegates);
+    }
+
+    private static HttpClient newClient(HttpClient.Version version, int connectTimeoutSeconds, Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .version(version);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
+    }
+}
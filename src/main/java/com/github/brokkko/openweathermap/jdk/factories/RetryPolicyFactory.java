@@ -3,18 +3,16 @@ package com.github.brokkko.openweathermap.jdk.factories;
 import com.github.brokkko.openweathermap.jdk.enums.RetryPolicyType;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.CircuitBreakerRetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.impl.ExponentialBackoffRetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.impl.NoRetryPolicy;
 
-import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_RETRY_POLICY_DELAY_MS;
-import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_RETRY_POLICY_MAX_ATTEMPTS;
-
 /**
  * Factory class for creating {@link RetryPolicy} implementations based on
  * the selected {@link RetryPolicyType}.
  * <p>
  * The factory encapsulates the logic of selecting and configuring retry policies,
- * such as no-retry or exponential backoff strategies.
+ * such as no-retry or exponential backoff strategies, and of guarding them with a circuit breaker.
  */
 public class RetryPolicyFactory {
 
@@ -32,14 +30,41 @@ public class RetryPolicyFactory {
      * @throws NullPointerException if {@code type} or {@code logger} is null
      */
     public static RetryPolicy create(RetryPolicyType type, WeatherLogger logger) {
+        return create(type, logger, ExponentialBackoffRetryPolicy.builder());
+    }
+
+    /**
+     * Creates a {@link RetryPolicy} instance for the specified retry policy type, backing off as
+     * configured by {@code backoff}. The backoff is ignored by {@link RetryPolicyType#NONE}.
+     *
+     * @param type    the type of retry strategy
+     * @param logger  the logger used by retry policy implementations
+     * @param backoff configures the backoff, classifier and budget of the retries; its logger is replaced
+     * @return a configured {@link RetryPolicy} instance
+     * @throws NullPointerException if {@code type} or {@code backoff} is null
+     */
+    public static RetryPolicy create(RetryPolicyType type, WeatherLogger logger,
+                                     ExponentialBackoffRetryPolicy.Builder backoff) {
         return switch (type) {
             case NONE -> new NoRetryPolicy();
-            case EXPONENTIAL_BACKOFF -> new ExponentialBackoffRetryPolicy(
-                    DEFAULT_RETRY_POLICY_MAX_ATTEMPTS,
-                    DEFAULT_RETRY_POLICY_DELAY_MS,
-                    logger
-            );
+            case EXPONENTIAL_BACKOFF -> backoff.logger(logger).build();
+            case CIRCUIT_BREAKER -> withCircuitBreaker(backoff.logger(logger).build(), logger);
         };
     }
+
+    /**
+     * Guards an existing retry policy with a circuit breaker using the default thresholds.
+     * Use {@link CircuitBreakerRetryPolicy#builder()} to tune them.
+     *
+     * @param delegate retry policy whose attempts are recorded and short-circuited
+     * @param logger   the logger used for state transitions
+     * @return a circuit breaker wrapping {@code delegate}
+     */
+    public static CircuitBreakerRetryPolicy withCircuitBreaker(RetryPolicy delegate, WeatherLogger logger) {
+        return CircuitBreakerRetryPolicy.builder()
+                .delegate(delegate)
+                .logger(logger)
+                .build();
+    }
 }
 
@@ -0,0 +1,34 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
+
+/**
+ * Result of a conditional GET performed by
+ * {@link WeatherHttpExecutor#executeConditional(com.github.brokkko.openweathermap.jdk.request.RequestSettings, CacheValidators, ResponseBodyReader)}.
+ *
+ * @param notModified {@code true} if the server answered {@code 304 Not Modified}; the body was not transferred
+ * @param body        value produced from the response body, {@code null} when {@code notModified}
+ * @param validators  validators to store for the next conditional request
+ * @param <T>         type produced by the body reader
+ */
+public record ConditionalResponse<T>(boolean notModified, T body, CacheValidators validators) {
+
+    /**
+     * @param validators validators to keep for the resource
+     * @param <T>        body type
+     * @return a {@code 304 Not Modified} result
+     */
+    public static <T> ConditionalResponse<T> notModified(CacheValidators validators) {
+        return new ConditionalResponse<>(true, null, validators);
+    }
+
+    /**
+     * @param body       new body
+     * @param validators validators of the new body
+     * @param <T>        body type
+     * @return a result carrying a fresh body
+     */
+    public static <T> ConditionalResponse<T> modified(T body, CacheValidators validators) {
+        return new ConditionalResponse<>(false, body, validators);
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.HTTP_UNSUPPORTED_CONTENT_ENCODING_MESSAGE;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RESPONSE_TOO_LARGE_MESSAGE;
+
+/**
+ * Decodes {@code Content-Encoding} of a response body as a stream.
+ * <p>
+ * The compressed stream is inflated on the fly while the consumer reads it, so no
+ * intermediate buffer of the whole (de)compressed body is built. Both sides of the
+ * decoder are metered into {@link TransferMetrics}. The decoded side can be bounded, which
+ * stops a small compressed body from inflating into an unbounded one.
+ */
+final class ContentDecoder {
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+    private static final String IDENTITY = "identity";
+
+    private ContentDecoder() {}
+
+    /**
+     * Wraps {@code body} into a decoding stream matching {@code contentEncoding}.
+     *
+     * @param body            raw body as received from the wire
+     * @param contentEncoding value of the {@code Content-Encoding} header, may be {@code null}
+     * @param metrics         counters to update while the body is read
+     * @return stream producing the decoded body
+     * @throws IOException if the encoding is not supported or the gzip header is malformed
+     */
+    static InputStream decode(InputStream body, String contentEncoding, TransferMetrics metrics) throws IOException {
+        return decode(body, contentEncoding, metrics, Long.MAX_VALUE);
+    }
+
+    /**
+     * Wraps {@code body} into a decoding stream matching {@code contentEncoding} that fails with
+     * {@link WeatherResponseTooLargeException} once more than {@code maxBytes} decoded bytes are read.
+     *
+     * @param body            raw body as received from the wire
+     * @param contentEncoding value of the {@code Content-Encoding} header, may be {@code null}
+     * @param metrics         counters to update while the body is read
+     * @param maxBytes        maximum size of the decoded body
+     * @return stream producing the decoded body
+     * @throws IOException if the encoding is not supported or the gzip header is malformed
+     */
+    static InputStream decode(InputStream body, String contentEncoding, TransferMetrics metrics, long maxBytes)
+            throws IOException {
+        String encoding = contentEncoding == null ? IDENTITY : contentEncoding.trim().toLowerCase(Locale.ROOT);
+        InputStream wire = new CountingInputStream(body, metrics.compressedBytesCounter());
+
+        InputStream decoded = switch (encoding) {
+            case "", IDENTITY -> wire;
+            case GZIP, X_GZIP -> new GZIPInputStream(wire);
+            case DEFLATE -> inflate(wire);
+            default -> throw new IOException(String.format(HTTP_UNSUPPORTED_CONTENT_ENCODING_MESSAGE, contentEncoding));
+        };
+        metrics.recordResponse(decoded != wire);
+
+        InputStream counted = new CountingInputStream(decoded, metrics.uncompressedBytesCounter());
+        return maxBytes == Long.MAX_VALUE ? counted : new LimitedInputStream(counted, maxBytes);
+    }
+
+    /**
+     * HTTP {@code deflate} is specified as zlib-wrapped, but some servers send a raw
+     * deflate stream. The zlib header is detected from the first two bytes.
+     */
+    private static InputStream inflate(InputStream wire) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(wire, 2);
+        int b0 = in.read();
+        int b1 = b0 == -1 ? -1 : in.read();
+        if (b1 != -1) in.unread(b1);
+        if (b0 != -1) in.unread(b0);
+
+        boolean zlib = b0 != -1 && b1 != -1 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+        return new InflaterInputStream(in, new Inflater(!zlib)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds every byte read through it to the given counter.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final LongAdder counter;
+
+        CountingInputStream(InputStream in, LongAdder counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) counter.increment();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) counter.add(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counter.add(skipped);
+            return skipped;
+        }
+    }
+
+    /**
+     * Fails with {@link WeatherResponseTooLargeException} when more than {@code maxBytes} are read.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, (int) Math.min(len, maxBytes - read + 1));
+            if (n > 0) count(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, maxBytes - read + 1));
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) {
+            read += n;
+            if (read > maxBytes) {
+                throw new WeatherResponseTooLargeException(String.format(RESPONSE_TOO_LARGE_MESSAGE, maxBytes), maxBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.*;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.HEDGE_FIRED_MESSAGE;
+
+/**
+ * Hedged requests for a {@link WeatherHttpExecutor}: when an attempt has not completed
+ * within the configured latency percentile, an identical second attempt is started and
+ * whichever succeeds first wins; the other one is cancelled.
+ * <p>
+ * The hedge delay is derived from the latencies of recent successful attempts, so it
+ * follows the API without hand-tuning. No hedge is sent before {@code minSamples}
+ * latencies are known. Recording a latency only stores it; the percentile is recomputed from a
+ * copy of the window every {@code recomputeInterval} samples, outside the lock.
+ * <p>
+ * Hedges are paid for from a budget: every primary attempt adds {@code budgetPercent / 100}
+ * of a token (up to {@code maxBurst} tokens) and every hedge takes one, so hedging never
+ * adds more than {@code budgetPercent} extra calls over time.
+ */
+public final class HedgingPolicy {
+
+    private static final long TOKEN = 1_000;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final int recomputeInterval;
+    private final long tokensPerCall;
+    private final long maxTokens;
+    private final WeatherLogger logger;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final long[] samples;
+    private int sampleIndex;
+    private int sampleCount;
+    private int sinceRecompute;
+    private volatile long hedgeDelayNanos = -1;
+
+    private final AtomicLong tokens;
+
+    private final LongAdder primaryCalls = new LongAdder();
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+
+    private HedgingPolicy(Builder builder) {
+        if (builder.logger == null) {
+            throw new IllegalArgumentException("Logger is required");
+        }
+        if (builder.percentile <= 0 || builder.percentile >= 100) {
+            throw new IllegalArgumentException("Hedging percentile must be between 0 and 100 (exclusive)");
+        }
+        if (builder.budgetPercent < 0 || builder.windowSize < 1 || builder.minSamples < 1 || builder.maxBurst < 1
+                || builder.recomputeInterval < 1) {
+            throw new IllegalArgumentException(
+                    "Hedging budget, window size, minimum samples, recompute interval and burst must be positive");
+        }
+        this.percentile = builder.percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.minDelayMillis);
+        this.samples = new long[builder.windowSize];
+        this.minSamples = Math.min(builder.minSamples, builder.windowSize);
+        this.recomputeInterval = builder.recomputeInterval;
+        this.tokensPerCall = Math.round(builder.budgetPercent * TOKEN / 100);
+        this.maxTokens = builder.maxBurst * TOKEN;
+        this.tokens = new AtomicLong(maxTokens);
+        this.logger = builder.logger;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @return builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs {@code attempt} and, if it is still pending after the hedge delay and the budget
+     * allows it, runs it a second time. The first successful result completes the returned
+     * future and the other attempt is cancelled; if all started attempts fail, the failure of
+     * the last one is propagated.
+     *
+     * @param attempt starts one attempt; called once or twice
+     * @param <T>     type of the result
+     * @return future completed with the winning result
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> attempt) {
+        primaryCalls.increment();
+        refill();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean settled = new AtomicBoolean();
+        CompletableFuture<T> primary = start(attempt, result, pending, settled, false);
+
+        long delay = hedgeDelayNanos;
+        if (delay >= 0 && !primary.isDone()) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone() || primary.isDone()) {
+                    return;
+                }
+                if (!tryTakeToken()) {
+                    hedgesDenied.increment();
+                    return;
+                }
+                hedgesFired.increment();
+                logger.debug(String.format(HEDGE_FIRED_MESSAGE, TimeUnit.NANOSECONDS.toMillis(delay)));
+                pending.incrementAndGet();
+                CompletableFuture<T> hedge = start(attempt, result, pending, settled, true);
+                result.whenComplete((value, error) -> hedge.cancel(true));
+            });
+        }
+        result.whenComplete((value, error) -> primary.cancel(true));
+        return result;
+    }
+
+    private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> attempt, CompletableFuture<T> result,
+                                           AtomicInteger pending, AtomicBoolean settled, boolean hedge) {
+        long startNanos = nanoClock.getAsLong();
+        CompletableFuture<T> future;
+        try {
+            future = attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                recordLatency(nanoClock.getAsLong() - startNanos);
+                if (settled.compareAndSet(false, true)) {
+                    if (hedge) {
+                        hedgesWon.increment();
+                    }
+                    result.complete(value);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    private void refill() {
+        tokens.accumulateAndGet(tokensPerCall, (current, add) -> Math.min(maxTokens, current + add));
+    }
+
+    private boolean tryTakeToken() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stores a latency and, once enough new ones arrived, recomputes the hedge delay. The first
+     * delay is computed as soon as {@code minSamples} latencies are known.
+     */
+    private void recordLatency(long nanos) {
+        long[] window = null;
+        lock.lock();
+        try {
+            samples[sampleIndex] = nanos;
+            sampleIndex = (sampleIndex + 1) % samples.length;
+            if (sampleCount < samples.length) {
+                sampleCount++;
+            }
+            sinceRecompute++;
+            if (sampleCount == minSamples || (sampleCount > minSamples && sinceRecompute >= recomputeInterval)) {
+                sinceRecompute = 0;
+                window = Arrays.copyOf(samples, sampleCount);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (window != null) {
+            Arrays.sort(window);
+            int rank = (int) Math.ceil(percentile / 100 * window.length) - 1;
+            hedgeDelayNanos = Math.max(minDelayNanos, window[Math.max(0, rank)]);
+        }
+    }
+
+    /**
+     * @return current hedge delay in milliseconds, or {@code -1} while too few latencies are known
+     */
+    public long getHedgeDelayMillis() {
+        long delay = hedgeDelayNanos;
+        return delay < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delay);
+    }
+
+    /**
+     * @return number of primary attempts
+     */
+    public long getPrimaryCalls() {
+        return primaryCalls.sum();
+    }
+
+    /**
+     * @return number of hedge attempts sent
+     */
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    /**
+     * @return number of hedge attempts that completed before their primary
+     */
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * @return number of hedges not sent because the budget was exhausted
+     */
+    public long getHedgesDenied() {
+        return hedgesDenied.sum();
+    }
+
+    /**
+     * Builder for {@link HedgingPolicy}. The logger is required; other parameters default to the SDK defaults.
+     */
+    public static class Builder {
+        private double percentile = DEFAULT_HEDGING_PERCENTILE;
+        private double budgetPercent = DEFAULT_HEDGING_BUDGET_PERCENT;
+        private long minDelayMillis = DEFAULT_HEDGING_MIN_DELAY_MS;
+        private int windowSize = DEFAULT_HEDGING_WINDOW_SIZE;
+        private int minSamples = DEFAULT_HEDGING_MIN_SAMPLES;
+        private int recomputeInterval = DEFAULT_HEDGING_RECOMPUTE_INTERVAL;
+        private int maxBurst = DEFAULT_HEDGING_MAX_BURST;
+        private WeatherLogger logger;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the latency percentile after which a hedge is sent.
+         *
+         * @param percentile percentile, e.g. {@code 95.0}
+         * @return this builder
+         */
+        public Builder percentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the maximum share of extra calls caused by hedging.
+         *
+         * @param percent budget in percent of primary calls
+         * @return this builder
+         */
+        public Builder budgetPercent(double percent) {
+            this.budgetPercent = percent;
+            return this;
+        }
+
+        /**
+         * Sets the lower bound of the hedge delay.
+         *
+         * @param millis minimum delay in milliseconds
+         * @return this builder
+         */
+        public Builder minDelayMillis(long millis) {
+            this.minDelayMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the number of recent latencies the percentile is computed from.
+         *
+         * @param windowSize number of samples
+         * @return this builder
+         */
+        public Builder windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of latencies required before hedging starts.
+         *
+         * @param minSamples number of samples
+         * @return this builder
+         */
+        public Builder minSamples(int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * Sets the number of new latencies after which the hedge delay is recomputed.
+         *
+         * @param samples number of samples
+         * @return this builder
+         */
+        public Builder recomputeInterval(int samples) {
+            this.recomputeInterval = samples;
+            return this;
+        }
+
+        /**
+         * Sets the number of hedges that may be sent back to back when the budget is full.
+         *
+         * @param maxBurst number of hedges
+         * @return this builder
+         */
+        public Builder maxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+            return this;
+        }
+
+        /**
+         * Sets the logger.
+         *
+         * @param logger logger for fired hedges
+         * @return this builder
+         */
+        public Builder logger(WeatherLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return new hedging policy
+         * @throws IllegalArgumentException if the logger is missing or a parameter is out of range
+         */
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
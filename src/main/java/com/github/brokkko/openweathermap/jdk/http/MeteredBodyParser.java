@@ -0,0 +1,38 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link BodyParser} counting the bytes it is fed into {@link TransferMetrics}, like
+ * {@link ContentDecoder} does for buffered bodies. A parsed body is never content-encoded, so it
+ * counts on both sides of the metrics.
+ *
+ * @param <T> the type produced by the parser
+ */
+final class MeteredBodyParser<T> implements BodyParser<T> {
+
+    private final BodyParser<T> delegate;
+    private final TransferMetrics metrics;
+
+    MeteredBodyParser(BodyParser<T> delegate, TransferMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void feed(ByteBuffer chunk) throws IOException {
+        int bytes = chunk.remaining();
+        metrics.compressedBytesCounter().add(bytes);
+        metrics.uncompressedBytesCounter().add(bytes);
+        delegate.feed(chunk);
+    }
+
+    @Override
+    public T finish() throws IOException {
+        metrics.recordResponse(false);
+        return delegate.finish();
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Functional interface consuming a successful (2xx) HTTP response body.
+ * <p>
+ * The body is handed over as an {@link InputStream} so that it can be fed
+ * directly into a parser without first materializing it as a {@link String}.
+ * The stream is closed by {@link WeatherHttpExecutor} after the reader returns.
+ * <p>
+ * A reader may also offer a {@link BodyParser}, which asynchronous calls let consume an
+ * unencoded body while it is received; see {@link #incremental(ResponseBodyReader, Supplier)}.
+ *
+ * @param <T> the type produced from the body
+ */
+@FunctionalInterface
+public interface ResponseBodyReader<T> {
+
+    /**
+     * Reads the response body.
+     *
+     * @param body response body stream
+     * @return value produced from the body
+     * @throws IOException if the body cannot be read or parsed
+     */
+    T read(InputStream body) throws IOException;
+
+    /**
+     * Returns a parser consuming the body chunk by chunk while it is received, or {@code null}
+     * when this reader needs the whole body. The default returns {@code null}.
+     *
+     * @return new single-use parser, or {@code null}
+     */
+    default BodyParser<T> newParser() {
+        return null;
+    }
+
+    /**
+     * Returns a reader whose bodies are consumed by parsers from {@code parsers} while they are
+     * received, and read by {@code reader} when they arrive buffered, e.g. compressed.
+     *
+     * @param reader  reader of buffered bodies
+     * @param parsers creates one parser per response
+     * @param <T>     the type produced from the body
+     * @return incremental reader
+     */
+    static <T> ResponseBodyReader<T> incremental(ResponseBodyReader<T> reader,
+                                                 Supplier<? extends BodyParser<T>> parsers) {
+        return new ResponseBodyReader<>() {
+            @Override
+            public T read(InputStream body) throws IOException {
+                return reader.read(body);
+            }
+
+            @Override
+            public BodyParser<T> newParser() {
+                return parsers.get();
+            }
+        };
+    }
+
+    /**
+     * Returns a reader decoding the body as UTF-8 text.
+     *
+     * @return UTF-8 text reader
+     */
+    static ResponseBodyReader<String> ofString() {
+        return body -> new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a reader collecting the raw body bytes.
+     *
+     * @return raw bytes reader
+     */
+    static ResponseBodyReader<byte[]> ofBytes() {
+        return InputStream::readAllBytes;
+    }
+}
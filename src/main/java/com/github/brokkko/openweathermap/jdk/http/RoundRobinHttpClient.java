@@ -0,0 +1,169 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link HttpClient} that spreads requests across a fixed set of delegate clients.
+ * <p>
+ * The JDK client keeps a single HTTP/2 connection per origin and multiplexes every
+ * request over it. A single connection is limited by the server's
+ * {@code SETTINGS_MAX_CONCURRENT_STREAMS} and by TCP head-of-line blocking, so for
+ * bursty workloads it is useful to open a small, fixed number of connections.
+ * Each delegate owns exactly one connection per origin; requests are distributed
+ * round-robin, which keeps the handshake count bounded by the number of delegates.
+ * <p>
+ * Configuration getters ({@link #version()}, {@link #connectTimeout()}, etc.) are
+ * answered by the first delegate, since all delegates are built from the same settings.
+ */
+public final class RoundRobinHttpClient extends HttpClient {
+
+    private final List<HttpClient> delegates;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates a client distributing requests across the given delegates.
+     *
+     * @param delegates identically configured clients (must not be empty)
+     * @throws IllegalArgumentException if {@code delegates} is empty
+     */
+    public RoundRobinHttpClient(List<HttpClient> delegates) {
+        Objects.requireNonNull(delegates, "delegates must not be null");
+        if (delegates.isEmpty()) {
+            throw new IllegalArgumentException("delegates must not be empty");
+        }
+        this.delegates = List.copyOf(delegates);
+    }
+
+    /**
+     * Gets the number of underlying clients (and therefore connections per origin).
+     *
+     * @return number of delegates
+     */
+    public int size() {
+        return delegates.size();
+    }
+
+    private HttpClient nextClient() {
+        return delegates.get(Math.floorMod(next.getAndIncrement(), delegates.size()));
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegates.get(0).cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegates.get(0).connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegates.get(0).followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegates.get(0).proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegates.get(0).sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegates.get(0).sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegates.get(0).authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegates.get(0).version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegates.get(0).executor();
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        return nextClient().send(request, responseBodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler) {
+        return nextClient().sendAsync(request, responseBodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return nextClient().sendAsync(request, responseBodyHandler, pushPromiseHandler);
+    }
+
+    /**
+     * Initiates an orderly shutdown of every delegate.
+     */
+    @Override
+    public void shutdown() {
+        delegates.forEach(HttpClient::shutdown);
+    }
+
+    /**
+     * Initiates an immediate shutdown of every delegate.
+     */
+    @Override
+    public void shutdownNow() {
+        delegates.forEach(HttpClient::shutdownNow);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegates.stream().allMatch(HttpClient::isTerminated);
+    }
+
+    @Override
+    public boolean awaitTermination(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (HttpClient delegate : delegates) {
+            Duration remaining = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+            if (!delegate.awaitTermination(remaining)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes every delegate.
+     */
+    @Override
+    public void close() {
+        delegates.forEach(HttpClient::close);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte counters of responses received by a {@link WeatherHttpExecutor}.
+ * <p>
+ * Two sizes are tracked for every response body:
+ * <ul>
+ *     <li><b>compressed</b> — bytes as they crossed the wire (after {@code Content-Encoding})</li>
+ *     <li><b>uncompressed</b> — bytes handed to the JSON parser after decoding</li>
+ * </ul>
+ * For identity-encoded responses both counters grow by the same amount.
+ * {@code 304 Not Modified} answers to conditional requests carry no body and are counted separately.
+ * Counters are updated while the body is streamed, are thread-safe and never reset.
+ */
+public final class TransferMetrics {
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder notModifiedResponses = new LongAdder();
+
+    /**
+     * @return total number of response bodies received
+     */
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    /**
+     * @return number of response bodies received with gzip or deflate encoding
+     */
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    /**
+     * @return bytes received on the wire
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * @return bytes produced after decompression
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    /**
+     * @return number of conditional requests answered with {@code 304 Not Modified}
+     */
+    public long getNotModifiedResponses() {
+        return notModifiedResponses.sum();
+    }
+
+    /**
+     * Returns the ratio of wire bytes to decoded bytes, e.g. {@code 0.2} when
+     * compression saved 80% of the bandwidth.
+     *
+     * @return compression ratio, or {@code 1.0} when nothing was received yet
+     */
+    public double getCompressionRatio() {
+        long uncompressed = getUncompressedBytes();
+        return uncompressed == 0 ? 1.0 : (double) getCompressedBytes() / uncompressed;
+    }
+
+    void recordResponse(boolean compressed) {
+        responses.increment();
+        if (compressed) {
+            compressedResponses.increment();
+        }
+    }
+
+    void recordNotModified() {
+        notModifiedResponses.increment();
+    }
+
+    LongAdder compressedBytesCounter() {
+        return compressedBytes;
+    }
+
+    LongAdder uncompressedBytesCounter() {
+        return uncompressedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferMetrics{responses=" + getResponses()
+                + ", compressedResponses=" + getCompressedResponses()
+                + ", compressedBytes=" + getCompressedBytes()
+                + ", uncompressedBytes=" + getUncompressedBytes()
+                + ", notModifiedResponses=" + getNotModifiedResponses() + '}';
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import java.time.Duration;
+
+/**
+ * Outcome of {@link WeatherHttpExecutor#warmUp(java.net.URI, int, Duration)}.
+ *
+ * @param requested   number of connections the warm-up tried to open
+ * @param established number of warm-up requests answered by the server, i.e. connections ready for reuse
+ * @param elapsed     time spent warming up
+ * @param timedOut    {@code true} if the timeout expired before every warm-up request completed
+ */
+public record WarmUpReport(int requested, int established, Duration elapsed, boolean timedOut) {
+}
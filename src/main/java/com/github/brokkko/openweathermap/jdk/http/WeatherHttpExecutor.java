@@ -2,36 +2,75 @@ package com.github.brokkko.openweathermap.jdk.http;
 
 import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
 import com.github.brokkko.openweathermap.jdk.exceptions.WeatherNetworkException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
 import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
 import com.github.brokkko.openweathermap.jdk.exceptions.WeatherTimeoutException;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.ConcurrencyLimiter;
+import com.github.brokkko.openweathermap.jdk.limiters.RateLimiter;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.AsyncRetryableOperation;
+import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+import com.github.brokkko.openweathermap.jdk.transport.ParsedResponse;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import com.github.brokkko.openweathermap.jdk.transport.impl.JdkHttpTransport;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+import com.github.brokkko.openweathermap.jdk.utils.RetryAfter;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import java.net.ConnectException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.UnknownHostException;
 import java.net.http.*;
 
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_HTTP_TIMEOUT_SEC;
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_MAX_RESPONSE_BYTES;
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
 
 /**
  * HTTP execution component responsible for performing outbound requests to the
- * OpenWeatherMap API using Java {@link HttpClient}.
+ * OpenWeatherMap API through a {@link WeatherTransport}, by default Java {@link HttpClient}.
  * <p>
  * This class acts as the low-level transport layer of the SDK:
  * <ul>
- *     <li>builds an HTTP GET request from {@link RequestSettings}</li>
- *     <li>executes the request using the configured {@link HttpClient}</li>
+ *     <li>builds an HTTP GET request from {@link RequestSettings}, or reuses the one
+ *         precompiled in a {@link PreparedWeatherRequest}</li>
+ *     <li>executes the request using the configured {@link WeatherTransport},
+ *         either blocking or asynchronously</li>
+ *     <li>negotiates gzip/deflate compression and decodes the body as a stream</li>
+ *     <li>bounds response bodies, as received and decoded, and reads them into pooled buffers</li>
+ *     <li>on asynchronous calls, lets an {@linkplain ResponseBodyReader#incremental incremental} reader
+ *         parse an unencoded body while it is received</li>
  *     <li>applies retry logic via {@link RetryPolicy}</li>
+ *     <li>takes a {@link RateLimiter} permit before every attempt, if configured</li>
+ *     <li>bounds the requests in flight with a {@link ConcurrencyLimiter}, if configured</li>
+ *     <li>hedges slow attempts with a {@link HedgingPolicy}, if configured</li>
+ *     <li>bounds every attempt by the request timeout and, when the settings carry a
+ *         {@link Deadline}, by the time left before it</li>
+ *     <li>pre-establishes connections on request, see {@link #warmUp(URI, int, Duration)}</li>
  *     <li>converts network/IO errors into SDK-specific exceptions</li>
  *     <li>logs all outgoing requests and error events</li>
  * </ul>
@@ -42,9 +81,21 @@ import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
  */
 public final class WeatherHttpExecutor {
 
-    private final HttpClient client;
+    private final WeatherTransport transport;
     private final RetryPolicy retryPolicy;
     private final WeatherLogger logger;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final HedgingPolicy hedgingPolicy;
+    private final ApiKeyPool apiKeyPool;
+    private final Duration requestTimeout;
+    private final long maxResponseBytes;
+    private final BufferPool bufferPool;
+    private final TransferMetrics transferMetrics = new TransferMetrics();
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final String API_KEY_PARAM = "appid=";
 
     /**
      * Creates a new HTTP executor.
@@ -54,9 +105,112 @@ public final class WeatherHttpExecutor {
      * @param logger      logger for debug/error output
      */
     public WeatherHttpExecutor(HttpClient client, RetryPolicy retryPolicy, WeatherLogger logger) {
-        this.client = client;
-        this.retryPolicy = retryPolicy;
-        this.logger = logger;
+        this(builder().httpClient(client).retryPolicy(retryPolicy).logger(logger));
+    }
+
+    private WeatherHttpExecutor(Builder builder) {
+        this.maxResponseBytes = builder.maxResponseBytes;
+        this.bufferPool = builder.bufferPool != null ? builder.bufferPool : new BufferPool();
+        this.transport = builder.transport != null || builder.client == null
+                ? builder.transport
+                : new JdkHttpTransport(builder.client, maxResponseBytes, bufferPool);
+        this.retryPolicy = builder.retryPolicy;
+        this.logger = builder.logger;
+        this.rateLimiter = builder.rateLimiter;
+        this.apiKeyPool = builder.apiKeyPool;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.requestTimeout = builder.requestTimeout;
+    }
+
+    /**
+     * Returns a new {@link Builder} for optional executor features.
+     *
+     * @return builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the transport requests are sent with.
+     *
+     * @return transport
+     */
+    public WeatherTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Returns the maximum size of a response body.
+     *
+     * @return limit in bytes, applied to the body as received and after decoding
+     */
+    public long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * Returns the pool response bodies are read into when the default transport is used.
+     *
+     * @return buffer pool
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Returns the rate limiter applied to every attempt.
+     *
+     * @return rate limiter, or {@code null} if outbound calls are not limited
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Returns the limiter bounding the number of requests in flight.
+     *
+     * @return concurrency limiter, or {@code null} if in-flight requests are not bounded
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Returns the policy hedging slow attempts, with its fired/won counters.
+     *
+     * @return hedging policy, or {@code null} if attempts are not hedged
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Returns the pool of API keys requests are spread across.
+     *
+     * @return key pool, or {@code null} if every request uses the key of its settings
+     */
+    public ApiKeyPool getApiKeyPool() {
+        return apiKeyPool;
+    }
+
+    /**
+     * Returns the timeout of a single attempt when no deadline is shorter.
+     *
+     * @return request timeout
+     */
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Returns compressed vs. uncompressed byte counters of the responses received by this executor.
+     *
+     * @return live transfer metrics
+     */
+    public TransferMetrics getTransferMetrics() {
+        return transferMetrics;
     }
 
     /**
@@ -71,78 +225,929 @@ public final class WeatherHttpExecutor {
      * @throws WeatherSdkException for unexpected or internal errors
      */
     public String execute(RequestSettings settings) {
-        return retryPolicy.executeWithRetry(() -> doExecute(settings));
+        return execute(settings, ResponseBodyReader.ofString());
     }
 
     /**
-     * Executes the HTTP call a single time (without retries).
-     * Internal method used by {@link #execute(RequestSettings)}.
+     * Executes an HTTP request defined in {@link RequestSettings}, applying retries
+     * via {@link RetryPolicy}, and streams a successful response body into {@code reader}.
+     * <p>
+     * The body is never materialized as a {@link String} unless the reader does so,
+     * which lets callers feed the bytes straight into a JSON parser. With a
+     * {@link HedgingPolicy} every attempt is sent asynchronously and awaited, so that
+     * a hedge can race it.
+     *
+     * @param settings request configuration (URL + query parameters)
+     * @param reader   consumer of the 2xx response body
+     * @param <T>      type produced by the reader
+     * @return value produced by the reader
+     * @throws WeatherTimeoutException if request timeout occurs
+     * @throws WeatherNetworkException if network connectivity errors occur or the body cannot be read
+     * @throws WeatherApiException if OpenWeatherMap returns a non-2xx response
+     * @throws WeatherSdkException for unexpected or internal errors
+     */
+    public <T> T execute(RequestSettings settings, ResponseBodyReader<T> reader) {
+        return execute(prepare(settings), reader);
+    }
+
+    /**
+     * Executes a prepared request like {@link #execute(RequestSettings, ResponseBodyReader)},
+     * without building its URL again.
+     *
+     * @param request prepared request, see {@link #prepare(RequestSettings)}
+     * @param reader  consumer of the 2xx response body
+     * @param <T>     type produced by the reader
+     * @return value produced by the reader
+     * @throws WeatherTimeoutException if request timeout occurs
+     * @throws WeatherNetworkException if network connectivity errors occur or the body cannot be read
+     * @throws WeatherApiException if OpenWeatherMap returns a non-2xx response
+     * @throws WeatherSdkException for unexpected or internal errors
+     */
+    public <T> T execute(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        return withRetry(request.getDeadline(), () -> doExecute(request, reader));
+    }
+
+    /**
+     * Executes an HTTP request defined in {@link RequestSettings} without blocking
+     * the calling thread, applying retries via {@link RetryPolicy#executeWithRetryAsync}.
+     * <p>
+     * The request is sent with {@link HttpClient#sendAsync}, so no thread is held
+     * while the response is in flight.
+     *
+     * @param settings request configuration (URL + query parameters)
+     * @return future completed with the response body as UTF-8 text, or completed
+     *         exceptionally with the same {@link WeatherSdkException} subclasses
+     *         thrown by {@link #execute(RequestSettings)}
+     */
+    public CompletableFuture<String> executeAsync(RequestSettings settings) {
+        return executeAsync(settings, ResponseBodyReader.ofString());
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #execute(RequestSettings, ResponseBodyReader)}.
+     * <p>
+     * The body is received as a byte array and exposed to {@code reader} as a stream
+     * over that array, so it is not copied again before parsing.
+     *
+     * @param settings request configuration (URL + query parameters)
+     * @param reader   consumer of the 2xx response body
+     * @param <T>      type produced by the reader
+     * @return future completed with the value produced by the reader
      */
-    private String doExecute(RequestSettings settings) {
-        String url = buildUrl(settings);
+    public <T> CompletableFuture<T> executeAsync(RequestSettings settings, ResponseBodyReader<T> reader) {
+        PreparedWeatherRequest request;
+        try {
+            request = prepare(settings);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return executeAsync(request, reader);
+    }
 
-        logger.info("HTTP request: " + url);
+    /**
+     * Non-blocking counterpart of {@link #execute(PreparedWeatherRequest, ResponseBodyReader)}.
+     *
+     * @param request prepared request, see {@link #prepare(RequestSettings)}
+     * @param reader  consumer of the 2xx response body
+     * @param <T>     type produced by the reader
+     * @return future completed with the value produced by the reader
+     */
+    public <T> CompletableFuture<T> executeAsync(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        Deadline deadline = request.getDeadline();
+        if (hedgingPolicy != null) {
+            return withRetryAsync(deadline, () -> hedgingPolicy.execute(() -> doExecuteAsync(request, reader)));
+        }
+        return withRetryAsync(deadline, () -> doExecuteAsync(request, reader));
+    }
+
+    /**
+     * Executes a conditional GET defined in {@link RequestSettings}, applying retries
+     * via {@link RetryPolicy}.
+     * <p>
+     * Non-empty {@code validators} are sent as {@code If-None-Match} / {@code If-Modified-Since}.
+     * On {@code 304 Not Modified} no body is transferred or parsed and {@code reader} is not called;
+     * otherwise the body is read exactly like in {@link #execute(RequestSettings, ResponseBodyReader)}.
+     *
+     * @param settings   request configuration (URL + query parameters)
+     * @param validators validators of the currently held representation, or {@link CacheValidators#NONE}
+     * @param reader     consumer of the 2xx response body
+     * @param <T>        type produced by the reader
+     * @return not-modified marker or the new body, together with validators to keep
+     * @throws WeatherTimeoutException if request timeout occurs
+     * @throws WeatherNetworkException if network connectivity errors occur or the body cannot be read
+     * @throws WeatherApiException if OpenWeatherMap returns a non-2xx response other than 304
+     * @throws WeatherSdkException for unexpected or internal errors
+     */
+    public <T> ConditionalResponse<T> executeConditional(RequestSettings settings, CacheValidators validators,
+                                                         ResponseBodyReader<T> reader) {
+        PreparedWeatherRequest request = prepare(settings);
+        return withRetry(request.getDeadline(), () -> doExecuteConditional(request, validators, reader));
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .timeout(Duration.ofSeconds(10))
+    /**
+     * Opens up to {@code connections} connections to {@code target} ahead of the first real call,
+     * so that DNS lookup, TCP and TLS handshakes are not paid by it.
+     * <p>
+     * One {@code HEAD} request per connection is sent concurrently; any answer, whatever its
+     * status, leaves a connection in the transport's pool. Warm-up requests bypass the retry policy
+     * and the limiters and never fail: errors and requests still pending at {@code timeout} are
+     * reported as not established, and pending requests are cancelled.
+     *
+     * @param target      URI on the API host, e.g. the base URL
+     * @param connections number of connections to open
+     * @param timeout     longest time to wait for the warm-up
+     * @return future completed with the report no later than {@code timeout}
+     */
+    public CompletableFuture<WarmUpReport> warmUp(URI target, int connections, Duration timeout) {
+        long start = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(timeout)
                 .build();
 
-        HttpResponse<String> response;
+        List<CompletableFuture<TransportResponse>> exchanges = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            try {
+                exchanges.add(transport.sendAsync(request));
+            } catch (RuntimeException e) {
+                exchanges.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(exchanges.stream()
+                .map(exchange -> exchange.handle((response, error) -> null))
+                .toArray(CompletableFuture[]::new));
+        return all.copy()
+                .completeOnTimeout(null, timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .handle((ignored, error) -> {
+                    boolean timedOut = !all.isDone();
+                    int established = 0;
+                    for (CompletableFuture<TransportResponse> exchange : exchanges) {
+                        if (!exchange.isDone()) {
+                            exchange.cancel(true);
+                        } else if (!exchange.isCompletedExceptionally()) {
+                            established++;
+                        }
+                    }
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    if (timedOut) {
+                        logger.warn(String.format(WARM_UP_TIMED_OUT_MESSAGE, elapsed.toMillis(), established, connections));
+                    } else {
+                        logger.info(String.format(WARM_UP_FINISHED_MESSAGE, established, connections, elapsed.toMillis()));
+                    }
+                    return new WarmUpReport(connections, established, elapsed, timedOut);
+                });
+    }
 
+    /**
+     * Precompiles {@code settings} into an immutable request whose URI, HTTP request and cache key
+     * are computed once. The HTTP request uses this executor's request timeout.
+     *
+     * @param settings request configuration (URL + query parameters)
+     * @return prepared request, reusable for any number of calls
+     * @throws IllegalArgumentException if the settings do not form a valid URI
+     */
+    public PreparedWeatherRequest prepare(RequestSettings settings) {
+        return PreparedWeatherRequest.of(settings, requestTimeout);
+    }
+
+    /**
+     * Runs {@code operation} through the retry policy, passing the deadline on when there is one.
+     */
+    private <T> T withRetry(Deadline deadline, RetryableOperation<T> operation) {
+        if (deadline == null) {
+            return retryPolicy.executeWithRetry(operation);
+        }
+        deadline.check();
+        return retryPolicy.executeWithRetry(operation, deadline);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #withRetry}; the result fails as soon as the deadline passes.
+     */
+    private <T> CompletableFuture<T> withRetryAsync(Deadline deadline, AsyncRetryableOperation<T> operation) {
+        if (deadline == null) {
+            return retryPolicy.executeWithRetryAsync(operation);
+        }
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(deadline.exceeded(null));
+        }
+        return deadline.bound(retryPolicy.executeWithRetryAsync(operation, deadline));
+    }
+
+    /**
+     * Executes the HTTP call a single time (without retries).
+     * Internal method used by {@link #execute(RequestSettings, ResponseBodyReader)}.
+     */
+    private <T> T doExecute(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        if (hedgingPolicy != null) {
+            return await(hedgingPolicy.execute(() -> doExecuteAsync(request, reader)));
+        }
+        for (int failovers = 0; ; failovers++) {
+            try {
+                return doExecuteOnce(request, reader);
+            } catch (WeatherApiException e) {
+                if (!canFailOver(e, failovers)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the HTTP call once with one key of the pool.
+     */
+    private <T> T doExecuteOnce(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        acquirePermit(request.getDeadline());
+        ConcurrencyLimiter.Permit slot = acquireSlot(request.getDeadline());
+        ApiKeyPool.Lease key = null;
         try {
-            response = client.send(
-                    request,
-                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)
-            );
+            key = acquireKey();
+            TransportResponse response = send(buildRequest(request, CacheValidators.NONE, key));
+            T result = handleResponse(response, reader);
+            releaseSlot(slot, null);
+            releaseKey(key, null);
+            return result;
+        } catch (RuntimeException e) {
+            releaseSlot(slot, e);
+            releaseKey(key, e);
+            throw e;
+        }
+    }
 
-        } catch (HttpTimeoutException e) {
-            logger.error(HTTP_TIMEOUT_MESSAGE, e);
-            throw new WeatherTimeoutException(HTTP_TIMEOUT_MESSAGE, e);
+    /**
+     * Executes the conditional HTTP call a single time (without retries).
+     * Internal method used by {@link #executeConditional(RequestSettings, CacheValidators, ResponseBodyReader)}.
+     */
+    private <T> ConditionalResponse<T> doExecuteConditional(PreparedWeatherRequest request, CacheValidators validators,
+                                                            ResponseBodyReader<T> reader) {
+        for (int failovers = 0; ; failovers++) {
+            try {
+                return doExecuteConditionalOnce(request, validators, reader);
+            } catch (WeatherApiException e) {
+                if (!canFailOver(e, failovers)) {
+                    throw e;
+                }
+            }
+        }
+    }
 
-        } catch (UnknownHostException | ConnectException e) {
-            logger.error(HTTP_NETWORK_UNAVAILABLE_MESSAGE, e);
-            throw new WeatherNetworkException(HTTP_NETWORK_UNAVAILABLE_MESSAGE + e.getMessage(), e);
+    /**
+     * Sends the conditional HTTP call once with one key of the pool.
+     */
+    private <T> ConditionalResponse<T> doExecuteConditionalOnce(PreparedWeatherRequest request,
+                                                                CacheValidators validators,
+                                                                ResponseBodyReader<T> reader) {
+        acquirePermit(request.getDeadline());
+        ConcurrencyLimiter.Permit slot = acquireSlot(request.getDeadline());
+        ApiKeyPool.Lease key = null;
+        try {
+            key = acquireKey();
+            ConditionalResponse<T> result = sendConditional(request, validators, key, reader);
+            releaseSlot(slot, null);
+            releaseKey(key, null);
+            return result;
+        } catch (RuntimeException e) {
+            releaseSlot(slot, e);
+            releaseKey(key, e);
+            throw e;
+        }
+    }
 
-        } catch (IOException e) {
-            logger.error(HTTP_IO_ERROR_MESSAGE, e);
-            throw new WeatherNetworkException(HTTP_IO_ERROR_MESSAGE, e);
+    private <T> ConditionalResponse<T> sendConditional(PreparedWeatherRequest request, CacheValidators validators,
+                                                       ApiKeyPool.Lease key, ResponseBodyReader<T> reader) {
+        TransportResponse response = send(buildRequest(request, validators, key));
+        CacheValidators received = CacheValidators.from(response.headers());
 
+        if (response.statusCode() == HTTP_NOT_MODIFIED) {
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                throw translateIOException(e);
+            }
+            transferMetrics.recordNotModified();
+            return ConditionalResponse.notModified(validators.updatedWith(received));
+        }
+        return ConditionalResponse.modified(handleResponse(response, reader), received);
+    }
+
+    /**
+     * Blocks until a hedged attempt completes and rethrows its failure as an SDK exception.
+     */
+    private <T> T await(CompletableFuture<T> attempt) {
+        try {
+            return attempt.get();
         } catch (InterruptedException e) {
+            attempt.cancel(true);
             Thread.currentThread().interrupt();
             logger.error(HTTP_INTERRUPTED_MESSAGE, e);
             throw new WeatherSdkException(HTTP_INTERRUPTED_MESSAGE, e);
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = CompletableFutures.unwrap(e);
+            if (cause instanceof WeatherSdkException sdk) {
+                throw sdk;
+            }
+            throw new WeatherSdkException(cause.getMessage(), cause);
         }
+    }
 
-        int status = response.statusCode();
-        if (status >= 200 && status < 300) {
-            return response.body();
+    /**
+     * Blocks until the rate limiter grants a permit for the next attempt.
+     * A no-op when no rate limiter is configured. With a deadline, a permit that would only
+     * come after it fails the call at once, without taking a token.
+     *
+     * @throws com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException
+     *         if the permit would come after the deadline
+     */
+    private void acquirePermit(Deadline deadline) {
+        if (rateLimiter == null) {
+            return;
+        }
+        if (deadline == null) {
+            rateLimiter.acquire();
+        } else if (!rateLimiter.tryAcquire(Math.max(0, deadline.remainingNanos()))) {
+            throw deadline.exceeded(null);
         }
+    }
 
-        logger.warn(String.format(HTTP_UNEXPECTED_STATUS_MESSAGE, status));
-        throw new WeatherApiException(
-                String.format(HTTP_UNEXPECTED_STATUS_MESSAGE, status) + " : " + response.body(),
-                status
-        );
+    /**
+     * Blocks until the concurrency limiter grants a slot for the next attempt, for no longer
+     * than the time left before the deadline.
+     *
+     * @return slot to release, or {@code null} when no concurrency limiter is configured
+     * @throws com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException
+     *         if no slot is granted before the deadline
+     */
+    private ConcurrencyLimiter.Permit acquireSlot(Deadline deadline) {
+        if (concurrencyLimiter == null) {
+            return null;
+        }
+        if (deadline == null) {
+            return concurrencyLimiter.acquire();
+        }
+        ConcurrencyLimiter.Permit slot = concurrencyLimiter.tryAcquire(Math.max(0, deadline.remainingNanos()));
+        if (slot == null) {
+            throw deadline.exceeded(null);
+        }
+        return slot;
+    }
+
+    /**
+     * Releases a slot with the outcome of its attempt: answers of an overloaded API
+     * ({@code 429} / {@code 5xx}), timeouts and network failures count as dropped,
+     * other API answers as successful round trips, anything else is not sampled.
+     */
+    private static void releaseSlot(ConcurrencyLimiter.Permit slot, Throwable error) {
+        if (slot == null) {
+            return;
+        }
+        if (error == null) {
+            slot.onSuccess();
+        } else if (error instanceof WeatherTimeoutException || error instanceof WeatherNetworkException) {
+            slot.onDropped();
+        } else if (error instanceof WeatherApiException api) {
+            int status = api.getStatusCode();
+            if (status == HTTP_TOO_MANY_REQUESTS || status >= 500) {
+                slot.onDropped();
+            } else {
+                slot.onSuccess();
+            }
+        } else {
+            slot.onIgnore();
+        }
+    }
+
+    /**
+     * Takes the API key for the next attempt.
+     *
+     * @return key lease, or {@code null} when no key pool is configured
+     */
+    private ApiKeyPool.Lease acquireKey() {
+        return apiKeyPool == null ? null : apiKeyPool.acquire();
     }
 
     /**
-     * Builds the full URL with encoded query parameters.
+     * Tells whether an attempt rejected on its key ({@code 401} / {@code 429}) is sent again at
+     * once with another key of the pool, bypassing the retry policy and with it the rejected
+     * key's {@code Retry-After}. Each attempt fails over at most once per other key.
      */
-    private String buildUrl(RequestSettings requestSettings) {
-        StringBuilder requestUrlBuilder = new StringBuilder();
-        requestUrlBuilder.append(requestSettings.getUrlBuilder());
-        requestUrlBuilder.append('?');
+    private boolean canFailOver(Throwable error, int failovers) {
+        if (apiKeyPool == null || failovers >= apiKeyPool.getApiKeys().size() - 1 || !apiKeyPool.canFailOver(error)) {
+            return false;
+        }
+        logger.debug(String.format(KEY_FAILOVER_MESSAGE, ((WeatherApiException) error).getStatusCode()));
+        return true;
+    }
 
-        String parameters = requestSettings.getRequestParameters().entrySet().stream()
-                .map(entry -> entry.getKey() + "=" + encode(entry.getValue()))
-                .collect(Collectors.joining("&"));
+    /**
+     * Releases a key lease with the outcome of its attempt.
+     */
+    private static void releaseKey(ApiKeyPool.Lease key, Throwable error) {
+        if (key == null) {
+            return;
+        }
+        if (error == null) {
+            key.onSuccess();
+        } else {
+            key.onFailure(error);
+        }
+    }
 
-        return requestUrlBuilder.append(parameters).toString();
+    /**
+     * Sends the request blocking the calling thread, streaming the body.
+     */
+    private TransportResponse send(HttpRequest request) {
+        try {
+            return transport.send(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(HTTP_INTERRUPTED_MESSAGE, e);
+            throw new WeatherSdkException(HTTP_INTERRUPTED_MESSAGE, e);
+        } catch (IOException e) {
+            throw translateIOException(e);
+        }
+    }
+
+    /**
+     * Sends the HTTP call a single time (without retries) asynchronously.
+     * Internal method used by {@link #executeAsync(RequestSettings, ResponseBodyReader)}.
+     */
+    private <T> CompletableFuture<T> doExecuteAsync(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        return doExecuteAsync(request, reader, 0);
+    }
+
+    private <T> CompletableFuture<T> doExecuteAsync(PreparedWeatherRequest request, ResponseBodyReader<T> reader,
+                                                    int failovers) {
+        CompletableFuture<T> attempt = doExecuteOnceAsync(request, reader);
+        if (apiKeyPool == null) {
+            return attempt;
+        }
+        return exceptionallyComposeCancellable(attempt, error -> canFailOver(error, failovers)
+                ? doExecuteAsync(request, reader, failovers + 1)
+                : CompletableFuture.failedFuture(error));
+    }
+
+    /**
+     * Sends the HTTP call once with one key of the pool, asynchronously.
+     */
+    private <T> CompletableFuture<T> doExecuteOnceAsync(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        Deadline deadline = request.getDeadline();
+        long permitDelayNanos;
+        try {
+            if (rateLimiter == null) {
+                permitDelayNanos = 0;
+            } else if (deadline == null) {
+                permitDelayNanos = rateLimiter.reserve();
+            } else {
+                long remaining = Math.max(0, deadline.remainingNanos());
+                permitDelayNanos = rateLimiter.reserve(remaining);
+                if (permitDelayNanos < 0 || permitDelayNanos > remaining) {
+                    return CompletableFuture.failedFuture(deadline.exceeded(null));
+                }
+            }
+        } catch (WeatherRateLimitException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (permitDelayNanos > 0) {
+            return thenComposeCancellable(CompletableFuture.runAsync(() -> {},
+                            CompletableFuture.delayedExecutor(permitDelayNanos, TimeUnit.NANOSECONDS)),
+                    ignored -> sendAsyncWithinLimit(request, reader));
+        }
+        return sendAsyncWithinLimit(request, reader);
+    }
+
+    /**
+     * Waits for a concurrency slot without blocking, sends the request and releases the slot
+     * with the outcome of the attempt.
+     */
+    private <T> CompletableFuture<T> sendAsyncWithinLimit(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        if (concurrencyLimiter == null) {
+            return sendAsync(request, reader);
+        }
+        return thenComposeCancellable(concurrencyLimiter.acquireAsync(), slot -> {
+            CompletableFuture<T> attempt;
+            try {
+                attempt = sendAsync(request, reader);
+            } catch (RuntimeException e) {
+                releaseSlot(slot, e);
+                throw e;
+            }
+            return attempt.whenComplete((result, error) ->
+                    releaseSlot(slot, error == null ? null : CompletableFutures.unwrap(error)));
+        });
+    }
+
+    /**
+     * {@link CompletableFuture#thenCompose} whose result, when cancelled, also cancels the
+     * stage it waits for and the future it composed, so that cancellation reaches the exchange.
+     */
+    private static <A, T> CompletableFuture<T> thenComposeCancellable(CompletableFuture<A> stage,
+                                                                     Function<A, CompletableFuture<T>> next) {
+        AtomicReference<CompletableFuture<T>> inner = new AtomicReference<>();
+        CompletableFuture<T> composed = stage.thenCompose(value -> {
+            CompletableFuture<T> future = next.apply(value);
+            inner.set(future);
+            return future;
+        });
+        composed.whenComplete((value, error) -> {
+            if (composed.isCancelled()) {
+                stage.cancel(true);
+                CompletableFuture<T> future = inner.get();
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return composed;
+    }
+
+    /**
+     * {@link CompletableFuture#exceptionallyCompose} with the cancellation behaviour of
+     * {@link #thenComposeCancellable}; {@code fallback} receives the unwrapped failure.
+     */
+    private static <T> CompletableFuture<T> exceptionallyComposeCancellable(CompletableFuture<T> stage,
+                                                                            Function<Throwable, CompletableFuture<T>> fallback) {
+        AtomicReference<CompletableFuture<T>> inner = new AtomicReference<>();
+        CompletableFuture<T> composed = stage.exceptionallyCompose(error -> {
+            CompletableFuture<T> future = fallback.apply(CompletableFutures.unwrap(error));
+            inner.set(future);
+            return future;
+        });
+        composed.whenComplete((value, error) -> {
+            if (composed.isCancelled()) {
+                stage.cancel(true);
+                CompletableFuture<T> future = inner.get();
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return composed;
+    }
+
+    /**
+     * Sends the request without blocking and handles the response once it arrives.
+     * Cancelling the returned future cancels the exchange, which lets a hedged attempt
+     * abort the slower request. The key is released before the returned future completes,
+     * so a rejected key is already sidelined when the failure is seen.
+     */
+    private <T> CompletableFuture<T> sendAsync(PreparedWeatherRequest request, ResponseBodyReader<T> reader) {
+        ApiKeyPool.Lease key;
+        HttpRequest httpRequest;
+        try {
+            key = acquireKey();
+        } catch (WeatherSdkException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            httpRequest = buildRequest(request, CacheValidators.NONE, key);
+        } catch (WeatherSdkException e) {
+            releaseKey(key, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<ParsedResponse<T>> exchange;
+        try {
+            BodyParser<T> parser = reader.newParser();
+            exchange = parser == null
+                    ? ParsedResponse.buffered(transport.sendAsync(httpRequest))
+                    : transport.sendAsync(httpRequest, new MeteredBodyParser<>(parser, transferMetrics));
+        } catch (RuntimeException e) {
+            releaseKey(key, e);
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = exchange
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return handleResponse(response, reader);
+                    }
+                    Throwable cause = CompletableFutures.unwrap(error);
+                    if (cause instanceof IOException io) {
+                        throw translateIOException(io);
+                    }
+                    if (cause instanceof WeatherSdkException sdk) {
+                        throw sdk;
+                    }
+                    throw new WeatherSdkException(cause.getMessage(), cause);
+                });
+        CompletableFuture<T> released = new CompletableFuture<>();
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+                // a response that arrived anyway is never handled; give its body back to the pool
+                exchange.thenAccept(response -> discard(response.response()));
+            }
+            releaseKey(key, error == null ? null : CompletableFutures.unwrap(error));
+            if (error == null) {
+                released.complete(value);
+            } else {
+                released.completeExceptionally(CompletableFutures.unwrap(error));
+            }
+        });
+        released.whenComplete((value, error) -> {
+            if (released.isCancelled()) {
+                result.cancel(true);
+            }
+        });
+        return released;
     }
 
-    private static String encode(String value) {
-        return java.net.URLEncoder.encode(value, StandardCharsets.UTF_8);
+    /**
+     * Closes the body of a response nobody will read.
+     */
+    private static void discard(TransportResponse response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
+    /**
+     * Returns the HTTP request of one attempt and logs it: the prepared request itself, or a copy
+     * whose timeout is shortened to the time left before the deadline, which carries non-empty
+     * validators as conditional headers and which is sent with the leased API key.
+     *
+     * @throws com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException
+     *         if the deadline has already passed
+     */
+    private HttpRequest buildRequest(PreparedWeatherRequest request, CacheValidators validators,
+                                     ApiKeyPool.Lease key) {
+        HttpRequest prepared = request.getHttpRequest();
+        logger.info("HTTP request: " + prepared.uri());
+
+        Deadline deadline = request.getDeadline();
+        if (deadline == null && validators.isEmpty() && key == null) {
+            return prepared;
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(prepared, (name, value) -> true);
+        if (key != null) {
+            builder.uri(withApiKey(prepared.uri(), key.apiKey()));
+        }
+        if (deadline != null) {
+            builder.timeout(deadline.cap(prepared.timeout().orElse(requestTimeout)));
+        }
+        if (validators.etag() != null) {
+            builder.header("If-None-Match", validators.etag());
+        }
+        if (validators.lastModified() != null) {
+            builder.header("If-Modified-Since", validators.lastModified());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Replaces the value of the {@code appid} query parameter of {@code uri}.
+     */
+    static URI withApiKey(URI uri, String apiKey) {
+        String value = uri.toString();
+        int queryStart = value.indexOf('?');
+        if (queryStart < 0) {
+            return URI.create(value + "?" + API_KEY_PARAM + URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+        }
+        StringBuilder rewritten = new StringBuilder(value.length() + apiKey.length()).append(value, 0, queryStart + 1);
+        boolean replaced = false;
+        for (String parameter : value.substring(queryStart + 1).split("&")) {
+            if (rewritten.length() > queryStart + 1) {
+                rewritten.append('&');
+            }
+            if (parameter.startsWith(API_KEY_PARAM)) {
+                rewritten.append(API_KEY_PARAM).append(URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+                replaced = true;
+            } else {
+                rewritten.append(parameter);
+            }
+        }
+        if (!replaced) {
+            rewritten.append('&').append(API_KEY_PARAM).append(URLEncoder.encode(apiKey, StandardCharsets.UTF_8));
+        }
+        return URI.create(rewritten.toString());
+    }
+
+    /**
+     * Returns the value parsed while the body was received, or handles the buffered body
+     * like {@link #handleResponse(TransportResponse, ResponseBodyReader)}.
+     */
+    private <T> T handleResponse(ParsedResponse<T> response, ResponseBodyReader<T> reader) {
+        if (response.isParsed()) {
+            return response.value();
+        }
+        return handleResponse(response.response(), reader);
+    }
+
+    /**
+     * Passes the decoded body of a 2xx response to {@code reader} or throws {@link WeatherApiException}.
+     * The body stream is always closed.
+     */
+    private <T> T handleResponse(TransportResponse response, ResponseBodyReader<T> reader) {
+        int status = response.statusCode();
+        String contentEncoding = response.headers().firstValue("Content-Encoding").orElse(null);
+
+        try (InputStream raw = response.body();
+             InputStream in = ContentDecoder.decode(raw, contentEncoding, transferMetrics, maxResponseBytes)) {
+            if (status >= 200 && status < 300) {
+                return reader.read(in);
+            }
+
+            logger.warn(String.format(HTTP_UNEXPECTED_STATUS_MESSAGE, status));
+            throw new WeatherApiException(
+                    String.format(HTTP_UNEXPECTED_STATUS_MESSAGE, status) + " : "
+                            + new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                    status,
+                    RetryAfter.parseMillis(response.headers().firstValue("Retry-After").orElse(null),
+                            System.currentTimeMillis())
+            );
+        } catch (IOException e) {
+            throw translateIOException(e);
+        }
+    }
+
+    /**
+     * Converts transport-level I/O failures into SDK exceptions.
+     */
+    private WeatherSdkException translateIOException(IOException e) {
+        if (e instanceof HttpTimeoutException) {
+            logger.error(HTTP_TIMEOUT_MESSAGE, e);
+            return new WeatherTimeoutException(HTTP_TIMEOUT_MESSAGE, e);
+        }
+        if (e instanceof UnknownHostException || e instanceof ConnectException) {
+            logger.error(HTTP_NETWORK_UNAVAILABLE_MESSAGE, e);
+            return new WeatherNetworkException(HTTP_NETWORK_UNAVAILABLE_MESSAGE + e.getMessage(), e);
+        }
+        logger.error(HTTP_IO_ERROR_MESSAGE, e);
+        return new WeatherNetworkException(HTTP_IO_ERROR_MESSAGE, e);
+    }
+
+    /**
+     * Builder for {@link WeatherHttpExecutor}.
+     * A transport (or HTTP client), retry policy and logger are required; everything else is optional.
+     */
+    public static class Builder {
+        private HttpClient client;
+        private WeatherTransport transport;
+        private RetryPolicy retryPolicy;
+        private WeatherLogger logger;
+        private RateLimiter rateLimiter;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private HedgingPolicy hedgingPolicy;
+        private ApiKeyPool apiKeyPool;
+        private Duration requestTimeout = Duration.ofSeconds(DEFAULT_HTTP_TIMEOUT_SEC);
+        private long maxResponseBytes = DEFAULT_MAX_RESPONSE_BYTES;
+        private BufferPool bufferPool;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the underlying HTTP client, wrapped in a {@link JdkHttpTransport} that reads
+         * bodies into the executor's buffer pool.
+         *
+         * @param client HTTP client used for request execution
+         * @return this builder
+         */
+        public Builder httpClient(HttpClient client) {
+            this.client = client;
+            this.transport = null;
+            return this;
+        }
+
+        /**
+         * Sets the transport requests are sent with, replacing any HTTP client set before.
+         *
+         * @param transport transport used for request execution
+         * @return this builder
+         */
+        public Builder transport(WeatherTransport transport) {
+            this.transport = transport;
+            this.client = null;
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of a response body. The limit applies to the body as received
+         * (enforced by the default transport) and to the decoded body, so a small compressed
+         * body cannot inflate past it either. Larger bodies fail with
+         * {@link com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException}.
+         *
+         * @param maxResponseBytes positive limit in bytes
+         * @return this builder
+         * @throws IllegalArgumentException if {@code maxResponseBytes} is not positive
+         */
+        public Builder maxResponseBytes(long maxResponseBytes) {
+            if (maxResponseBytes < 1) {
+                throw new IllegalArgumentException("Maximum response size must be positive");
+            }
+            this.maxResponseBytes = maxResponseBytes;
+            return this;
+        }
+
+        /**
+         * Sets the pool the default transport reads response bodies into, e.g. to share one pool
+         * between several clients.
+         *
+         * @param bufferPool buffer pool, {@code null} for a pool of the executor's own
+         * @return this builder
+         */
+        public Builder bufferPool(BufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * Sets the retry strategy.
+         *
+         * @param retryPolicy retry strategy used when execution fails
+         * @return this builder
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the logger.
+         *
+         * @param logger logger for debug/error output
+         * @return this builder
+         */
+        public Builder logger(WeatherLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter consulted before every attempt.
+         *
+         * @param rateLimiter rate limiter, {@code null} to send calls unthrottled
+         * @return this builder
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the limiter bounding the number of requests in flight.
+         * A slot is held for the duration of every attempt, including reading the body.
+         *
+         * @param concurrencyLimiter concurrency limiter, {@code null} to leave in-flight requests unbounded
+         * @return this builder
+         */
+        public Builder concurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the policy hedging slow attempts of {@code execute} and {@code executeAsync}.
+         * Conditional requests are never hedged. Hedges take rate limiter permits and
+         * concurrency slots like any other attempt.
+         *
+         * @param hedgingPolicy hedging policy, {@code null} to send every attempt once
+         * @return this builder
+         */
+        public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the pool of API keys every attempt takes its key from, replacing the {@code appid}
+         * of the request. A retry takes a new key, so it moves away from a key rejected with
+         * {@code 401} or {@code 429}.
+         *
+         * @param apiKeyPool key pool, {@code null} to send every request with the key of its settings
+         * @return this builder
+         */
+        public Builder apiKeyPool(ApiKeyPool apiKeyPool) {
+            this.apiKeyPool = apiKeyPool;
+            return this;
+        }
+
+        /**
+         * Sets the timeout of a single attempt. A per-call deadline shortens it further.
+         *
+         * @param requestTimeout positive timeout
+         * @return this builder
+         * @throws IllegalArgumentException if {@code requestTimeout} is not positive
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            if (requestTimeout == null || requestTimeout.isZero() || requestTimeout.isNegative()) {
+                throw new IllegalArgumentException("Request timeout must be positive");
+            }
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Builds the executor.
+         *
+         * @return new executor
+         */
+        public WeatherHttpExecutor build() {
+            return new WeatherHttpExecutor(this);
+        }
     }
 }
@@ -0,0 +1,71 @@
+package com.github.brokkko.openweathermap.jdk.limiters;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+
+import java.util.List;
+
+/**
+ * Pool of API keys that HTTP requests are spread across, so that throughput is not capped
+ * by the quota of a single key.
+ * <p>
+ * A {@link Lease} is taken before every attempt and must be released exactly once when its
+ * outcome is known; the outcome lets the pool sideline keys that are rejected by the API.
+ * All keys query the same data, so responses are cached under the client's own key and
+ * shared by every key of the pool.
+ */
+public interface ApiKeyPool {
+
+    /**
+     * Selects the key for the next attempt.
+     *
+     * @return lease on one key
+     * @throws WeatherRateLimitException if every key is sidelined or out of quota
+     */
+    Lease acquire();
+
+    /**
+     * Tells whether an attempt that failed with {@code error} may be sent again at once with
+     * another key: the API rejected the key rather than the request, and another key is
+     * available now. The rejected lease is expected to have been released already.
+     *
+     * @param error failure of the attempt
+     * @return {@code true} to repeat the attempt without waiting; {@code false} by default
+     */
+    default boolean canFailOver(Throwable error) {
+        return false;
+    }
+
+    /**
+     * @return all keys of the pool, in the order they were configured
+     */
+    List<String> getApiKeys();
+
+    /**
+     * @return usage snapshot of every key, in the order they were configured
+     */
+    List<ApiKeyUsage> getUsage();
+
+    /**
+     * A key taken for one attempt.
+     */
+    interface Lease {
+
+        /**
+         * @return API key to send the attempt with
+         */
+        String apiKey();
+
+        /**
+         * Releases the lease after the API answered the attempt.
+         */
+        void onSuccess();
+
+        /**
+         * Releases the lease after the attempt failed; keys rejected with
+         * {@code 401} or {@code 429} are sidelined for a while.
+         *
+         * @param error failure of the attempt
+         */
+        void onFailure(Throwable error);
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.brokkko.openweathermap.jdk.limiters;
+
+/**
+ * Point-in-time usage of one key of an {@link ApiKeyPool}.
+ *
+ * @param apiKey          API key
+ * @param weight          share of the traffic the key is meant to take
+ * @param callsThisMinute calls sent with the key in the current minute
+ * @param callsToday      calls sent with the key in the current day
+ * @param totalCalls      calls sent with the key since the pool was created
+ * @param rejectedCalls   calls answered with {@code 401} or {@code 429}
+ * @param sidelinedMillis time left before a sidelined key is used again, {@code 0} if it is available
+ */
+public record ApiKeyUsage(String apiKey, int weight, int callsThisMinute, int callsToday, long totalCalls,
+                          long rejectedCalls, long sidelinedMillis) {
+
+    /**
+     * @return {@code true} if the key is currently sidelined
+     */
+    public boolean isSidelined() {
+        return sidelinedMillis > 0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.brokkko.openweathermap.jdk.limiters;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherOverloadException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Limiter of the number of HTTP requests in flight at the same time.
+ * <p>
+ * A {@link Permit} is taken before a request is sent and must be released exactly
+ * once when its outcome is known; the outcome feeds back into the limit.
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * Takes a permit, blocking the calling thread while the limit is reached.
+     *
+     * @return permit for one request
+     * @throws WeatherOverloadException if the call is shed
+     * @throws WeatherSdkException if the thread is interrupted while waiting
+     */
+    Permit acquire();
+
+    /**
+     * Takes a permit, blocking the calling thread for at most {@code maxWaitNanos}.
+     * A permit granted just as the wait ends is handed back.
+     *
+     * @param maxWaitNanos longest wait, e.g. the time left before the deadline of the call
+     * @return permit for one request, or {@code null} if none was granted in time
+     * @throws WeatherOverloadException if the call is shed
+     * @throws WeatherSdkException if the thread is interrupted while waiting
+     */
+    default Permit tryAcquire(long maxWaitNanos) {
+        CompletableFuture<Permit> waiter = acquireAsync();
+        try {
+            return waiter.get(Math.max(0, maxWaitNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            giveBack(waiter);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveBack(waiter);
+            throw new WeatherSdkException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof WeatherSdkException sdk) {
+                throw sdk;
+            }
+            throw new WeatherSdkException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Takes a permit without blocking the calling thread.
+     *
+     * @return future completed with a permit, or completed exceptionally with
+     *         {@link WeatherOverloadException} if the call is shed
+     */
+    CompletableFuture<Permit> acquireAsync();
+
+    private static void giveBack(CompletableFuture<Permit> waiter) {
+        if (!waiter.cancel(false)) {
+            // granted concurrently with the end of the wait
+            waiter.thenAccept(Permit::onIgnore);
+        }
+    }
+
+    /**
+     * A slot for one in-flight request.
+     */
+    interface Permit {
+
+        /**
+         * Releases the permit after the server answered in time.
+         */
+        void onSuccess();
+
+        /**
+         * Releases the permit after a timeout, network failure or overload answer
+         * ({@code 429} / {@code 5xx}); signals congestion.
+         */
+        void onDropped();
+
+        /**
+         * Releases the permit without feeding its outcome back into the limit.
+         */
+        void onIgnore();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.brokkko.openweathermap.jdk.limiters;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+
+import java.time.Duration;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.HTTP_INTERRUPTED_MESSAGE;
+
+/**
+ * Client-side limiter of the outbound API call rate.
+ * <p>
+ * Every HTTP attempt (including retries) takes one permit before it is sent.
+ */
+@FunctionalInterface
+public interface RateLimiter {
+
+    /**
+     * Takes a permit without blocking.
+     * <p>
+     * The returned delay is the time the caller must wait before sending the call;
+     * the permit is already reserved for that moment, so callers must not ask again.
+     *
+     * @return delay in nanoseconds, {@code 0} if the call may be sent immediately
+     * @throws WeatherRateLimitException if the call is rejected
+     */
+    long reserve();
+
+    /**
+     * Takes a permit without blocking, unless the caller could not wait for it.
+     * <p>
+     * Implementations should leave the permit untouched when it is only available after
+     * {@code maxDelayNanos}. The default implementation cannot tell in advance: it reserves
+     * through {@link #reserve()} and returns the delay, which the caller then finds too long.
+     *
+     * @param maxDelayNanos longest delay the caller can wait
+     * @return delay in nanoseconds, or {@code -1} if the permit would come later than
+     *         {@code maxDelayNanos} and nothing was reserved
+     * @throws WeatherRateLimitException if the call is rejected
+     */
+    default long reserve(long maxDelayNanos) {
+        return reserve();
+    }
+
+    /**
+     * Takes a permit, blocking the calling thread for the reserved delay.
+     *
+     * @throws WeatherRateLimitException if the call is rejected
+     * @throws WeatherSdkException if the thread is interrupted while waiting
+     */
+    default void acquire() {
+        sleep(reserve());
+    }
+
+    /**
+     * Takes a permit, blocking the calling thread for the reserved delay if it is no longer
+     * than {@code maxDelayNanos}.
+     *
+     * @param maxDelayNanos longest delay the caller can wait, e.g. the time left before its deadline
+     * @return {@code false} without waiting if the permit would come too late
+     * @throws WeatherRateLimitException if the call is rejected
+     * @throws WeatherSdkException if the thread is interrupted while waiting
+     */
+    default boolean tryAcquire(long maxDelayNanos) {
+        long delayNanos = reserve(maxDelayNanos);
+        if (delayNanos < 0 || delayNanos > maxDelayNanos) {
+            return false;
+        }
+        sleep(delayNanos);
+        return true;
+    }
+
+    private static void sleep(long delayNanos) {
+        if (delayNanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(delayNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherSdkException(HTTP_INTERRUPTED_MESSAGE, e);
+        }
+    }
+}
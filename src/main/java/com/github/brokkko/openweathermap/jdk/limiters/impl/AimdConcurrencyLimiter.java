@@ -0,0 +1,325 @@
+package com.github.brokkko.openweathermap.jdk.limiters.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherOverloadException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+import com.github.brokkko.openweathermap.jdk.limiters.ConcurrencyLimiter;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
+
+/**
+ * Adaptive concurrency limiter using additive-increase / multiplicative-decrease (AIMD).
+ * <p>
+ * The limit is not configured per environment; it follows the observed behaviour of the API:
+ * <ul>
+ *     <li>a successful response while at least half of the limit is in use raises it by one</li>
+ *     <li>a dropped request (timeout, network failure, {@code 429} / {@code 5xx}) or a response
+ *         slower than {@code rttTolerance} times the baseline RTT lowers it by {@code backoffRatio}</li>
+ * </ul>
+ * The baseline RTT is the minimum observed over the previous window of samples, so it follows
+ * lasting changes of network latency. Requests started before the last decrease do not lower the
+ * limit again, which keeps one burst of congestion from collapsing it to the minimum.
+ * <p>
+ * Calls over the limit wait in a FIFO queue for at most {@code maxWaitMillis}. When the queue is
+ * full or the wait expires the call is shed with {@link WeatherOverloadException}.
+ */
+public class AimdConcurrencyLimiter implements ConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double RTT_TOLERANCE = 2.0;
+    private static final int RTT_WINDOW_SAMPLES = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final WeatherLogger logger;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+    // guarded by lock
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private long baselineRttNanos;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates an adaptive concurrency limiter.
+     *
+     * @param initialLimit  in-flight limit before any feedback is observed
+     * @param minLimit      lower bound of the limit
+     * @param maxLimit      upper bound of the limit
+     * @param maxQueue      maximum number of calls waiting for a slot, {@code 0} to shed immediately
+     * @param maxWaitMillis longest time a call waits for a slot
+     * @param logger        logger for limit changes and shed calls
+     * @throws IllegalArgumentException if the bounds are inconsistent or a value is negative
+     */
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue,
+                                  long maxWaitMillis, WeatherLogger logger) {
+        this(initialLimit, minLimit, maxLimit, maxQueue, maxWaitMillis, logger, System::nanoTime);
+    }
+
+    AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue,
+                           long maxWaitMillis, WeatherLogger logger, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (maxQueue < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Queue size and maximum wait must not be negative");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWaitMillis = maxWaitMillis;
+        this.logger = logger;
+        this.nanoClock = nanoClock;
+        this.lastDecreaseNanos = nanoClock.getAsLong();
+    }
+
+    @Override
+    public Permit acquire() {
+        CompletableFuture<Permit> waiter = acquireAsync();
+        try {
+            return waiter.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!waiter.cancel(false)) {
+                // granted concurrently with the interrupt: hand the slot back
+                waiter.thenAccept(Permit::onIgnore);
+            }
+            throw new WeatherSdkException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof WeatherSdkException sdk) {
+                throw sdk;
+            }
+            throw new WeatherSdkException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Permit> acquireAsync() {
+        CompletableFuture<Permit> waiter;
+        lock.lock();
+        try {
+            if (inFlight < (int) limit && waiters.isEmpty()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new AimdPermit(nanoClock.getAsLong()));
+            }
+            if (waiters.size() >= maxQueue) {
+                rejected.increment();
+                String message = String.format(CONCURRENCY_QUEUE_FULL_MESSAGE, (int) limit, waiters.size());
+                logger.warn(message);
+                return CompletableFuture.failedFuture(new WeatherOverloadException(message));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture.delayedExecutor(maxWaitMillis, TimeUnit.MILLISECONDS).execute(() -> expire(waiter));
+        waiter.whenComplete((permit, error) -> {
+            if (waiter.isCancelled()) {
+                removeWaiter(waiter);
+            }
+        });
+        return waiter;
+    }
+
+    /**
+     * Fails a waiter that did not get a slot within {@code maxWaitMillis}.
+     */
+    private void expire(CompletableFuture<Permit> waiter) {
+        if (!removeWaiter(waiter)) {
+            return;
+        }
+        timedOut.increment();
+        String message = String.format(CONCURRENCY_WAIT_TIMEOUT_MESSAGE, maxWaitMillis, getLimit());
+        logger.warn(message);
+        waiter.completeExceptionally(new WeatherOverloadException(message));
+    }
+
+    private boolean removeWaiter(CompletableFuture<Permit> waiter) {
+        lock.lock();
+        try {
+            return waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot, feeds the sample into the limit and hands freed slots to waiters.
+     */
+    private void release(long startNanos, Outcome outcome) {
+        long now = nanoClock.getAsLong();
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        int decreasedTo = -1;
+
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight;
+            inFlight--;
+            if (outcome != Outcome.IGNORED) {
+                long rtt = now - startNanos;
+                boolean congested = outcome == Outcome.DROPPED || isSlow(rtt);
+                recordRtt(rtt);
+                if (congested) {
+                    if (startNanos >= lastDecreaseNanos) {
+                        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                        lastDecreaseNanos = now;
+                        decreasedTo = (int) limit;
+                    }
+                } else if (inFlightBefore * 2 >= (int) limit) {
+                    limit = Math.min(maxLimit, limit + 1);
+                }
+            }
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                inFlight++;
+                granted.add(waiters.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (outcome == Outcome.DROPPED) {
+            dropped.increment();
+        }
+        if (decreasedTo >= 0) {
+            logger.debug(String.format(CONCURRENCY_LIMIT_DECREASED_MESSAGE, decreasedTo));
+        }
+        long grantedAt = nanoClock.getAsLong();
+        for (CompletableFuture<Permit> waiter : granted) {
+            if (!waiter.complete(new AimdPermit(grantedAt))) {
+                // the waiter was cancelled in the meantime
+                release(grantedAt, Outcome.IGNORED);
+            }
+        }
+    }
+
+    private boolean isSlow(long rttNanos) {
+        long baseline = baselineRttNanos > 0 ? baselineRttNanos : windowMinRttNanos;
+        return baseline != Long.MAX_VALUE && rttNanos > baseline * RTT_TOLERANCE;
+    }
+
+    private void recordRtt(long rttNanos) {
+        windowMinRttNanos = Math.min(windowMinRttNanos, Math.max(rttNanos, 1));
+        if (++windowSamples == RTT_WINDOW_SAMPLES) {
+            baselineRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    /**
+     * @return current in-flight limit
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of requests currently holding a permit
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of calls waiting for a permit
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of calls shed because the wait queue was full
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of calls shed because no slot became available in time
+     */
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return number of permits released as dropped
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private enum Outcome { SUCCESS, DROPPED, IGNORED }
+
+    /**
+     * Permit remembering when its request started; releasing it twice is a no-op.
+     */
+    private final class AimdPermit implements Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private AimdPermit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onSuccess() {
+            complete(Outcome.SUCCESS);
+        }
+
+        @Override
+        public void onDropped() {
+            complete(Outcome.DROPPED);
+        }
+
+        @Override
+        public void onIgnore() {
+            complete(Outcome.IGNORED);
+        }
+
+        private void complete(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                release(startNanos, outcome);
+            }
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.github.brokkko.openweathermap.jdk.limiters.impl;
+
+import com.github.brokkko.openweathermap.jdk.enums.KeySelectionStrategy;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyUsage;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_KEY_RATE_LIMITED_COOLDOWN_MS;
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_KEY_UNAUTHORIZED_COOLDOWN_MS;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.KEY_POOL_EXHAUSTED_MESSAGE;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.KEY_SIDELINED_MESSAGE;
+
+/**
+ * {@link ApiKeyPool} balancing requests across keys by weight or by quota usage.
+ * <p>
+ * Every key has a weight and, optionally, its plan quota in calls per minute and per day.
+ * Calls are counted per key in fixed minute and day windows; a key whose quota is used up is
+ * skipped until its window rolls over. The next key is picked with the configured
+ * {@link KeySelectionStrategy} among the keys that are available:
+ * <ul>
+ *     <li>{@link KeySelectionStrategy#WEIGHTED_ROUND_ROBIN} — smooth weighted round-robin</li>
+ *     <li>{@link KeySelectionStrategy#LEAST_USED} — the lowest share of the per-minute quota
+ *         (or, without a quota, of the weight) used in the current minute</li>
+ * </ul>
+ * A key answered with {@code 401 Unauthorized} is sidelined for {@code unauthorizedCooldownMillis};
+ * a key answered with {@code 429 Too Many Requests} for the {@code Retry-After} delay, or
+ * {@code rateLimitedCooldownMillis} without one. As long as another key is available such an
+ * answer {@linkplain #canFailOver(Throwable) fails over} to it at once, without waiting out the
+ * rejected key's cooldown. When no key is available the call fails with
+ * {@link WeatherRateLimitException} carrying the time until the first key returns.
+ * <p>
+ * Selection is a short critical section on the pool; the pool is thread-safe.
+ */
+public class BalancedApiKeyPool implements ApiKeyPool {
+
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long DAY_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    private final KeyState[] keys;
+    private final int totalWeight;
+    private final KeySelectionStrategy strategy;
+    private final long unauthorizedCooldownNanos;
+    private final long rateLimitedCooldownNanos;
+    private final WeatherLogger logger;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private BalancedApiKeyPool(Builder builder) {
+        if (builder.keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one API key is required");
+        }
+        if (builder.strategy == null) {
+            throw new IllegalArgumentException("Key selection strategy is required");
+        }
+        if (builder.unauthorizedCooldownMillis < 0 || builder.rateLimitedCooldownMillis < 0) {
+            throw new IllegalArgumentException("Cooldowns must not be negative");
+        }
+        this.keys = new KeyState[builder.keys.size()];
+        int weights = 0;
+        for (int i = 0; i < keys.length; i++) {
+            KeyState configured = builder.keys.get(i);
+            keys[i] = new KeyState(configured.apiKey, configured.weight, configured.callsPerMinute,
+                    configured.callsPerDay);
+            weights += configured.weight;
+        }
+        this.totalWeight = weights;
+        this.strategy = builder.strategy;
+        this.unauthorizedCooldownNanos = TimeUnit.MILLISECONDS.toNanos(builder.unauthorizedCooldownMillis);
+        this.rateLimitedCooldownNanos = TimeUnit.MILLISECONDS.toNanos(builder.rateLimitedCooldownMillis);
+        this.logger = builder.logger;
+        this.nanoClock = builder.nanoClock;
+        long now = nanoClock.getAsLong();
+        for (KeyState key : keys) {
+            key.minuteStart = now;
+            key.dayStart = now;
+            key.sidelinedUntil = now;
+        }
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @return builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Lease acquire() {
+        KeyState chosen;
+        long waitNanos;
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            chosen = strategy == KeySelectionStrategy.LEAST_USED ? leastUsed(now) : roundRobin(now);
+            if (chosen != null) {
+                chosen.minuteCalls++;
+                chosen.dayCalls++;
+                chosen.totalCalls++;
+                return new KeyLease(chosen);
+            }
+            waitNanos = Long.MAX_VALUE;
+            for (KeyState key : keys) {
+                waitNanos = Math.min(waitNanos, key.availableInNanos(now));
+            }
+        } finally {
+            lock.unlock();
+        }
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        throw new WeatherRateLimitException(String.format(KEY_POOL_EXHAUSTED_MESSAGE, waitMillis), waitMillis);
+    }
+
+    @Override
+    public boolean canFailOver(Throwable error) {
+        if (!(error instanceof WeatherApiException api)
+                || (api.getStatusCode() != HTTP_UNAUTHORIZED && api.getStatusCode() != HTTP_TOO_MANY_REQUESTS)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            for (KeyState key : keys) {
+                if (key.isAvailable(now)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Smooth weighted round-robin: every available key earns its weight, the richest one is
+     * picked and pays back the weight of all available keys. Must hold the lock.
+     */
+    private KeyState roundRobin(long now) {
+        KeyState best = null;
+        int earned = 0;
+        for (KeyState key : keys) {
+            if (key.isAvailable(now)) {
+                key.currentWeight += key.weight;
+                earned += key.weight;
+                if (best == null || key.currentWeight > best.currentWeight) {
+                    best = key;
+                }
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= earned;
+        }
+        return best;
+    }
+
+    /**
+     * Picks the available key with the lowest share of its per-minute capacity used. Must hold the lock.
+     */
+    private KeyState leastUsed(long now) {
+        KeyState best = null;
+        double bestUsage = Double.MAX_VALUE;
+        for (KeyState key : keys) {
+            if (key.isAvailable(now)) {
+                double usage = (double) key.minuteCalls / (key.callsPerMinute > 0 ? key.callsPerMinute : key.weight);
+                if (usage < bestUsage) {
+                    best = key;
+                    bestUsage = usage;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sidelines {@code key} after a {@code 401} or {@code 429} answer.
+     */
+    private void onRejected(KeyState key, WeatherApiException error) {
+        long cooldownNanos;
+        if (error.getStatusCode() == HTTP_UNAUTHORIZED) {
+            cooldownNanos = unauthorizedCooldownNanos;
+        } else if (error.getStatusCode() == HTTP_TOO_MANY_REQUESTS) {
+            cooldownNanos = error.getRetryAfterMillis() >= 0
+                    ? TimeUnit.MILLISECONDS.toNanos(error.getRetryAfterMillis())
+                    : rateLimitedCooldownNanos;
+        } else {
+            return;
+        }
+        lock.lock();
+        try {
+            key.rejectedCalls++;
+            key.sidelinedUntil = Math.max(key.sidelinedUntil, nanoClock.getAsLong() + cooldownNanos);
+        } finally {
+            lock.unlock();
+        }
+        if (logger != null) {
+            logger.warn(String.format(KEY_SIDELINED_MESSAGE, key.suffix(), error.getStatusCode(),
+                    TimeUnit.NANOSECONDS.toMillis(cooldownNanos)));
+        }
+    }
+
+    @Override
+    public List<String> getApiKeys() {
+        List<String> apiKeys = new ArrayList<>(keys.length);
+        for (KeyState key : keys) {
+            apiKeys.add(key.apiKey);
+        }
+        return apiKeys;
+    }
+
+    @Override
+    public List<ApiKeyUsage> getUsage() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            List<ApiKeyUsage> usage = new ArrayList<>(keys.length);
+            for (KeyState key : keys) {
+                key.roll(now);
+                usage.add(new ApiKeyUsage(key.apiKey, key.weight, key.minuteCalls, key.dayCalls, key.totalCalls,
+                        key.rejectedCalls, TimeUnit.NANOSECONDS.toMillis(Math.max(0, key.sidelinedUntil - now))));
+            }
+            return usage;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return strategy used to pick keys
+     */
+    public KeySelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return sum of the weights of all keys
+     */
+    public int getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Per-key bookkeeping, guarded by the pool.
+     */
+    private static final class KeyState {
+        final String apiKey;
+        final int weight;
+        final int callsPerMinute;
+        final int callsPerDay;
+        int currentWeight;
+        long minuteStart;
+        int minuteCalls;
+        long dayStart;
+        int dayCalls;
+        long totalCalls;
+        long rejectedCalls;
+        long sidelinedUntil;
+
+        KeyState(String apiKey, int weight, int callsPerMinute, int callsPerDay) {
+            this.apiKey = apiKey;
+            this.weight = weight;
+            this.callsPerMinute = callsPerMinute;
+            this.callsPerDay = callsPerDay;
+        }
+
+        void roll(long now) {
+            if (now - minuteStart >= MINUTE_NANOS) {
+                minuteStart = now;
+                minuteCalls = 0;
+            }
+            if (now - dayStart >= DAY_NANOS) {
+                dayStart = now;
+                dayCalls = 0;
+            }
+        }
+
+        boolean isAvailable(long now) {
+            roll(now);
+            return availableInNanos(now) == 0;
+        }
+
+        long availableInNanos(long now) {
+            long wait = Math.max(0, sidelinedUntil - now);
+            if (callsPerMinute > 0 && minuteCalls >= callsPerMinute) {
+                wait = Math.max(wait, minuteStart + MINUTE_NANOS - now);
+            }
+            if (callsPerDay > 0 && dayCalls >= callsPerDay) {
+                wait = Math.max(wait, dayStart + DAY_NANOS - now);
+            }
+            return wait;
+        }
+
+        String suffix() {
+            return apiKey.length() <= 4 ? apiKey : apiKey.substring(apiKey.length() - 4);
+        }
+    }
+
+    private final class KeyLease implements Lease {
+        private final KeyState key;
+
+        KeyLease(KeyState key) {
+            this.key = key;
+        }
+
+        @Override
+        public String apiKey() {
+            return key.apiKey;
+        }
+
+        @Override
+        public void onSuccess() {
+            // quota usage is counted when the key is taken
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            if (error instanceof WeatherApiException api) {
+                onRejected(key, api);
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link BalancedApiKeyPool}. At least one key is required.
+     */
+    public static class Builder {
+        private final List<KeyState> keys = new ArrayList<>();
+        private KeySelectionStrategy strategy = KeySelectionStrategy.WEIGHTED_ROUND_ROBIN;
+        private long unauthorizedCooldownMillis = DEFAULT_KEY_UNAUTHORIZED_COOLDOWN_MS;
+        private long rateLimitedCooldownMillis = DEFAULT_KEY_RATE_LIMITED_COOLDOWN_MS;
+        private WeatherLogger logger;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Adds a key with weight {@code 1} and no quota.
+         *
+         * @param apiKey API key
+         * @return this builder
+         */
+        public Builder key(String apiKey) {
+            return key(apiKey, 1, 0, 0);
+        }
+
+        /**
+         * Adds a key with the given weight and no quota.
+         *
+         * @param apiKey API key
+         * @param weight share of the traffic the key takes relative to the other keys
+         * @return this builder
+         */
+        public Builder key(String apiKey, int weight) {
+            return key(apiKey, weight, 0, 0);
+        }
+
+        /**
+         * Adds a key with the given weight and plan quota.
+         *
+         * @param apiKey         API key
+         * @param weight         share of the traffic the key takes relative to the other keys
+         * @param callsPerMinute calls allowed per minute, {@code 0} for no per-minute quota
+         * @param callsPerDay    calls allowed per day, {@code 0} for no per-day quota
+         * @return this builder
+         * @throws IllegalArgumentException if the key is blank or duplicated, the weight is not
+         *                                  positive or a quota is negative
+         */
+        public Builder key(String apiKey, int weight, int callsPerMinute, int callsPerDay) {
+            if (apiKey == null || apiKey.isBlank()) {
+                throw new IllegalArgumentException("API key must not be empty or blank");
+            }
+            if (weight < 1 || callsPerMinute < 0 || callsPerDay < 0) {
+                throw new IllegalArgumentException("Weight must be positive and quotas must not be negative");
+            }
+            for (KeyState key : keys) {
+                if (key.apiKey.equals(apiKey)) {
+                    throw new IllegalArgumentException("API key is already in the pool");
+                }
+            }
+            keys.add(new KeyState(apiKey, weight, callsPerMinute, callsPerDay));
+            return this;
+        }
+
+        /**
+         * Sets how the key of the next request is picked.
+         *
+         * @param strategy selection strategy
+         * @return this builder
+         */
+        public Builder strategy(KeySelectionStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Sets how long a key answered with {@code 401} is left out of rotation.
+         *
+         * @param millis cooldown in milliseconds
+         * @return this builder
+         */
+        public Builder unauthorizedCooldownMillis(long millis) {
+            this.unauthorizedCooldownMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets how long a key answered with {@code 429} without {@code Retry-After} is left out of rotation.
+         *
+         * @param millis cooldown in milliseconds
+         * @return this builder
+         */
+        public Builder rateLimitedCooldownMillis(long millis) {
+            this.rateLimitedCooldownMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the logger for sidelined keys.
+         *
+         * @param logger logger instance
+         * @return this builder
+         */
+        public Builder logger(WeatherLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Builds the pool.
+         *
+         * @return new key pool
+         * @throws IllegalArgumentException if no key is configured, the strategy is missing
+         *                                  or a cooldown is negative
+         */
+        public BalancedApiKeyPool build() {
+            return new BalancedApiKeyPool(this);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.brokkko.openweathermap.jdk.limiters.impl;
+
+import com.github.brokkko.openweathermap.jdk.enums.RateLimitMode;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.limiters.RateLimiter;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RATE_LIMIT_DELAYED_MESSAGE;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RATE_LIMIT_REJECTED_MESSAGE;
+
+/**
+ * Token-bucket rate limiter with a calls-per-minute and a calls-per-day bucket,
+ * matching the quotas of OpenWeatherMap plans.
+ * <p>
+ * Each bucket holds up to {@code limit} tokens and is refilled continuously at
+ * {@code limit / window}, so a full burst of {@code limit} calls is allowed after
+ * an idle window. A call must take a token from every bucket.
+ * <p>
+ * The buckets are tracked with the equivalent virtual-scheduling form (the time at
+ * which each bucket will be full again), kept in a single immutable state swapped
+ * with compare-and-set. Taking a permit is therefore lock-free, and both buckets are
+ * debited atomically. When a token is not available:
+ * <ul>
+ *     <li>{@link RateLimitMode#QUEUE} — the permit is reserved for the moment the token
+ *         arrives and the caller waits, unless that is later than the maximum wait</li>
+ *     <li>{@link RateLimitMode#FAIL_FAST} — the call is rejected immediately</li>
+ * </ul>
+ * Rejected calls throw {@link WeatherRateLimitException} and do not consume tokens.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long DAY_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    /** Nanoseconds between two tokens, per bucket. */
+    private final long[] intervals;
+    /** How far ahead of "full again" a bucket may be scheduled, per bucket (window minus one interval). */
+    private final long[] tolerances;
+    private final RateLimitMode mode;
+    private final long maxWaitNanos;
+    private final WeatherLogger logger;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<long[]> fullAt;
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitObserved = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param callsPerMinute calls allowed per minute, {@code 0} for no per-minute limit
+     * @param callsPerDay    calls allowed per day, {@code 0} for no per-day limit
+     * @param mode           behaviour when no token is available
+     * @param maxWaitMillis  longest wait accepted in {@link RateLimitMode#QUEUE} mode
+     * @param logger         logger for delayed and rejected calls
+     * @throws IllegalArgumentException if a limit or the maximum wait is negative
+     */
+    public TokenBucketRateLimiter(int callsPerMinute, int callsPerDay, RateLimitMode mode,
+                                  long maxWaitMillis, WeatherLogger logger) {
+        this(callsPerMinute, callsPerDay, mode, maxWaitMillis, logger, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int callsPerMinute, int callsPerDay, RateLimitMode mode,
+                           long maxWaitMillis, WeatherLogger logger, LongSupplier nanoClock) {
+        if (callsPerMinute < 0 || callsPerDay < 0) {
+            throw new IllegalArgumentException("Rate limits must not be negative");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Maximum wait must not be negative");
+        }
+        List<long[]> buckets = new ArrayList<>(2);
+        if (callsPerMinute > 0) buckets.add(new long[]{callsPerMinute, MINUTE_NANOS});
+        if (callsPerDay > 0) buckets.add(new long[]{callsPerDay, DAY_NANOS});
+
+        this.intervals = new long[buckets.size()];
+        this.tolerances = new long[buckets.size()];
+        for (int i = 0; i < buckets.size(); i++) {
+            long limit = buckets.get(i)[0];
+            long window = buckets.get(i)[1];
+            intervals[i] = window / limit;
+            tolerances[i] = window - intervals[i];
+        }
+        this.mode = mode;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.logger = logger;
+        this.nanoClock = nanoClock;
+
+        long now = nanoClock.getAsLong();
+        long[] initial = new long[buckets.size()];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = now - tolerances[i];
+        }
+        this.fullAt = new AtomicReference<>(initial);
+    }
+
+    /**
+     * Takes a token from every bucket, reserving a future one in {@link RateLimitMode#QUEUE}
+     * mode. The fast path (tokens available) is a single compare-and-set.
+     */
+    @Override
+    public long reserve() {
+        return reserve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #reserve()}, but takes no token when it would only arrive after
+     * {@code maxDelayNanos}.
+     */
+    @Override
+    public long reserve(long maxDelayNanos) {
+        while (true) {
+            long[] current = fullAt.get();
+            long now = nanoClock.getAsLong();
+
+            long wait = 0;
+            for (int i = 0; i < current.length; i++) {
+                wait = Math.max(wait, Math.max(current[i], now) - tolerances[i] - now);
+            }
+
+            if (wait > 0 && (mode == RateLimitMode.FAIL_FAST || wait > maxWaitNanos)) {
+                rejected.increment();
+                long retryAfterMillis = TimeUnit.NANOSECONDS.toMillis(wait) + 1;
+                logger.warn(String.format(RATE_LIMIT_REJECTED_MESSAGE, retryAfterMillis));
+                throw new WeatherRateLimitException(String.format(RATE_LIMIT_REJECTED_MESSAGE, retryAfterMillis),
+                        retryAfterMillis);
+            }
+            if (wait > maxDelayNanos) {
+                return -1;
+            }
+
+            long sendAt = now + wait;
+            long[] next = new long[current.length];
+            for (int i = 0; i < current.length; i++) {
+                next[i] = Math.max(current[i], sendAt) + intervals[i];
+            }
+
+            if (fullAt.compareAndSet(current, next)) {
+                permitted.increment();
+                if (wait > 0) {
+                    delayed.increment();
+                    totalWaitNanos.add(wait);
+                    maxWaitObserved.accumulate(wait);
+                    logger.debug(String.format(RATE_LIMIT_DELAYED_MESSAGE, TimeUnit.NANOSECONDS.toMillis(wait)));
+                }
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * @return configured behaviour when no token is available
+     */
+    public RateLimitMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return number of calls that received a permit (immediately or after waiting)
+     */
+    public long getPermitted() {
+        return permitted.sum();
+    }
+
+    /**
+     * @return number of calls that had to wait for a permit
+     */
+    public long getDelayed() {
+        return delayed.sum();
+    }
+
+    /**
+     * @return number of calls rejected with {@link WeatherRateLimitException}
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return sum of all reserved waits in milliseconds
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    /**
+     * @return longest reserved wait in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitObserved.get());
+    }
+}
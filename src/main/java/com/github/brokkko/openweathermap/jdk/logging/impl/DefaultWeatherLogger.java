@@ -3,7 +3,6 @@ package com.github.brokkko.openweathermap.jdk.logging.impl;
 import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 
-import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -11,7 +10,7 @@ import java.util.logging.Logger;
 /**
  * Default implementation of {@link WeatherLogger} based on the JDK {@link Logger}.
  * <p>
- * This logger prints messages to the console using {@link ConsoleHandler} and a custom
+ * This logger prints messages to the console using {@link WeatherSdkConsoleHandler} and a custom
  * {@link WeatherSdkLogFormatter}. It supports SDK-defined logging levels from
  * {@link LogLevel} and maps them to corresponding JDK {@link Level} values.
  * <p>
@@ -31,7 +30,7 @@ public class DefaultWeatherLogger implements WeatherLogger {
 
     /**
      * Creates a new logger bound to the given class with the specified log level.
-     * The constructor configures a {@link ConsoleHandler} with a custom
+     * The constructor configures a {@link WeatherSdkConsoleHandler} with a custom
      * {@link WeatherSdkLogFormatter} and disables parent handlers to avoid
      * duplicate log output. If multiple instances are created for the same class,
      * handlers are cleared to prevent double-logging.
@@ -48,7 +47,7 @@ public class DefaultWeatherLogger implements WeatherLogger {
             logger.removeHandler(h);
         }
 
-        Handler handler = new ConsoleHandler();
+        Handler handler = new WeatherSdkConsoleHandler();
         handler.setFormatter(new WeatherSdkLogFormatter());
         handler.setLevel(toJdkLevel(level));
         logger.setLevel(toJdkLevel(level));
@@ -0,0 +1,72 @@
+package com.github.brokkko.openweathermap.jdk.logging.impl;
+
+import java.io.PrintStream;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Console {@link Handler} writing formatted records to {@link System#err}.
+ * <p>
+ * The JDK {@link java.util.logging.ConsoleHandler} serializes output with a
+ * {@code synchronized} block around the write, which pins a virtual thread to its
+ * carrier for the duration of the console I/O. This handler guards the write with a
+ * {@link ReentrantLock} instead, so logging from the request hot path never pins
+ * virtual threads.
+ */
+public class WeatherSdkConsoleHandler extends Handler {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PrintStream out;
+
+    /**
+     * Creates a handler writing to {@link System#err}.
+     */
+    public WeatherSdkConsoleHandler() {
+        this(System.err);
+    }
+
+    /**
+     * Creates a handler writing to the given stream.
+     *
+     * @param out target stream
+     */
+    public WeatherSdkConsoleHandler(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        String message;
+        try {
+            message = getFormatter().format(record);
+        } catch (Exception e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        lock.lock();
+        try {
+            out.print(message);
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Flushes the stream. {@link System#err} itself is never closed.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -1,7 +1,7 @@
 package com.github.brokkko.openweathermap.jdk.logging.impl;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -20,7 +20,7 @@ import java.util.logging.LogRecord;
  *
  * <h2>Features:</h2>
  * <ul>
- *     <li>Thread-local date formatter for speed and thread-safety</li>
+ *     <li>Immutable shared date formatter (no per-thread state, cheap on virtual threads)</li>
  *     <li>ANSI color output depending on log level</li>
  *     <li>Custom mapping for DEBUG / INFO / WARN / ERROR</li>
  *     <li>Stacktrace printing</li>
@@ -28,8 +28,8 @@ import java.util.logging.LogRecord;
  */
 public class WeatherSdkLogFormatter extends Formatter {
 
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT =
-            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS"));
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
 
     private static final String RESET = "\u001B[0m";
     private static final String COLOR_DEBUG = "\u001B[90m";  // gray
@@ -44,7 +44,7 @@ public class WeatherSdkLogFormatter extends Formatter {
 
     @Override
     public String format(LogRecord record) {
-        String timestamp = DATE_FORMAT.get().format(new Date(record.getMillis()));
+        String timestamp = DATE_FORMAT.format(record.getInstant());
 
         String owner = extractSimpleClassName(record.getLoggerName());
 
@@ -0,0 +1,167 @@
+package com.github.brokkko.openweathermap.jdk.mappers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSerializationException;
+import com.github.brokkko.openweathermap.jdk.models.Weather;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.JSON_PARSE_ERROR_MESSAGE;
+
+/**
+ * {@link BodyParser} building a {@link Weather} from the chunks of a response body as they arrive.
+ * <p>
+ * Every chunk is handed to Jackson's non-blocking parser and each token it completes is added to the
+ * JSON tree right away, so the body itself is never held in one piece, neither as bytes nor as a
+ * {@link String}. Once the body ends, the tree is mapped by {@link WeatherResponseMapper} with the
+ * same field logic as a body parsed at once.
+ * <p>
+ * Jackson 2.13 only accepts byte arrays, so chunks without an accessible array are copied through a
+ * small scratch array.
+ */
+final class NonBlockingWeatherParser implements BodyParser<Weather> {
+
+    private static final int SCRATCH_BYTES = 8 * 1024;
+
+    private final WeatherResponseMapper mapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<ContainerNode<?>> open = new ArrayDeque<>();
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    private byte[] scratch;
+    private String fieldName;
+    private JsonNode root;
+
+    NonBlockingWeatherParser(JsonFactory factory, WeatherResponseMapper mapper) {
+        this.mapper = mapper;
+        try {
+            this.parser = factory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new WeatherSerializationException(JSON_PARSE_ERROR_MESSAGE, e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    @Override
+    public void feed(ByteBuffer chunk) {
+        try {
+            if (chunk.hasArray()) {
+                int start = chunk.arrayOffset() + chunk.position();
+                feed(chunk.array(), start, start + chunk.remaining());
+                chunk.position(chunk.limit());
+                return;
+            }
+            if (scratch == null) {
+                scratch = new byte[SCRATCH_BYTES];
+            }
+            while (chunk.hasRemaining()) {
+                int length = Math.min(scratch.length, chunk.remaining());
+                chunk.get(scratch, 0, length);
+                feed(scratch, 0, length);
+            }
+        } catch (IOException e) {
+            close();
+            throw mapper.parseFailure(e);
+        }
+    }
+
+    @Override
+    public Weather finish() {
+        try {
+            feeder.endOfInput();
+            drain();
+            if (root == null) {
+                throw new IOException("Response body ended before the JSON value was complete");
+            }
+            return mapper.mapTreeToWeather(root);
+        } catch (WeatherSerializationException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw mapper.parseFailure(e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Feeds one array slice and consumes every token it completes, so that the slice is no longer
+     * referenced by the parser when this returns.
+     */
+    private void feed(byte[] bytes, int start, int end) throws IOException {
+        feeder.feedInput(bytes, start, end);
+        drain();
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (root != null) {
+                throw new IOException("Unexpected content after the JSON value");
+            }
+            switch (token) {
+                case FIELD_NAME -> fieldName = parser.currentName();
+                case START_OBJECT -> open.push(attach(nodes.objectNode()));
+                case START_ARRAY -> open.push(attach(nodes.arrayNode()));
+                case END_OBJECT, END_ARRAY -> {
+                    ContainerNode<?> closed = open.pop();
+                    if (open.isEmpty()) {
+                        root = closed;
+                    }
+                }
+                default -> {
+                    JsonNode scalar = scalar(token);
+                    attach(scalar);
+                    if (open.isEmpty()) {
+                        root = scalar;
+                    }
+                }
+            }
+        }
+    }
+
+    private <N extends JsonNode> N attach(N node) {
+        ContainerNode<?> parent = open.peek();
+        if (parent instanceof ObjectNode object) {
+            object.set(fieldName, node);
+        } else if (parent instanceof ArrayNode array) {
+            array.add(node);
+        }
+        return node;
+    }
+
+    private JsonNode scalar(JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> nodes.textNode(parser.getText());
+            case VALUE_NUMBER_INT -> switch (parser.getNumberType()) {
+                case INT -> nodes.numberNode(parser.getIntValue());
+                case LONG -> nodes.numberNode(parser.getLongValue());
+                default -> nodes.numberNode(parser.getBigIntegerValue());
+            };
+            case VALUE_NUMBER_FLOAT -> nodes.numberNode(parser.getDoubleValue());
+            case VALUE_TRUE -> nodes.booleanNode(true);
+            case VALUE_FALSE -> nodes.booleanNode(false);
+            case VALUE_NULL -> nodes.nullNode();
+            default -> throw new IOException("Unexpected JSON token " + token);
+        };
+    }
+
+    private void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // the parser holds no resource besides recycled buffers
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.github.brokkko.openweathermap.jdk.mappers;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
 import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSerializationException;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.models.*;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TimeZone;
 
 import static com.github.brokkko.openweathermap.jdk.constants.JsonFieldNameConstants.*;
@@ -63,6 +71,9 @@ import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.JSON_P
  * --- cod Internal parameter
  */
 public class WeatherResponseMapper {
+    /** Shared, thread-safe mapper; creating one per call is expensive. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final UnitSystem unitSystem;
     private final WeatherLogger logger;
 
@@ -86,10 +97,9 @@ public class WeatherResponseMapper {
      * @throws WeatherSerializationException when JSON is invalid or cannot be parsed.
      */
     public Weather mapJsonToWeather(String json) {
-        final ObjectMapper objectMapper = new ObjectMapper();
         Weather weather;
         try {
-            final JsonNode root = objectMapper.readTree(json);
+            final JsonNode root = OBJECT_MAPPER.readTree(json);
             weather = parseWeather(root);
         } catch (JsonProcessingException e) {
             logger.error(JSON_PARSE_ERROR_MESSAGE, e);
@@ -98,6 +108,99 @@ public class WeatherResponseMapper {
         return weather;
     }
 
+    /**
+     * Parses raw UTF-8 JSON bytes into a {@link Weather} instance.
+     * The bytes are fed to the parser directly, without decoding them into a {@link String}.
+     *
+     * @param json UTF-8 encoded JSON returned by OpenWeather API.
+     * @return parsed Weather object.
+     * @throws WeatherSerializationException when JSON is invalid or cannot be parsed.
+     */
+    public Weather mapJsonToWeather(byte[] json) {
+        try {
+            return parseWeather(OBJECT_MAPPER.readTree(json));
+        } catch (IOException e) {
+            logger.error(JSON_PARSE_ERROR_MESSAGE, e);
+            throw new WeatherSerializationException(JSON_PARSE_ERROR_MESSAGE, e);
+        }
+    }
+
+    /**
+     * Parses a UTF-8 JSON stream into a {@link Weather} instance, reading it as the parser goes.
+     *
+     * @param json UTF-8 encoded JSON returned by OpenWeather API.
+     * @return parsed Weather object.
+     * @throws WeatherSerializationException when JSON is invalid or cannot be parsed.
+     */
+    public Weather mapJsonToWeather(InputStream json) {
+        try {
+            return parseWeather(OBJECT_MAPPER.readTree(json));
+        } catch (IOException e) {
+            throw parseFailure(e);
+        }
+    }
+
+    /**
+     * Creates a parser building a {@link Weather} from a response body fed to it chunk by chunk,
+     * with the same field logic as {@link #mapJsonToWeather(byte[])}.
+     *
+     * @return new single-use parser
+     */
+    public BodyParser<Weather> newParser() {
+        return new NonBlockingWeatherParser(OBJECT_MAPPER.getFactory(), this);
+    }
+
+    /**
+     * Maps a JSON tree built by {@link NonBlockingWeatherParser}.
+     */
+    Weather mapTreeToWeather(JsonNode root) {
+        return parseWeather(root);
+    }
+
+    /**
+     * Logs a parse failure and wraps it into {@link WeatherSerializationException}.
+     */
+    WeatherSerializationException parseFailure(Exception e) {
+        logger.error(JSON_PARSE_ERROR_MESSAGE, e);
+        return new WeatherSerializationException(JSON_PARSE_ERROR_MESSAGE, e);
+    }
+
+    /**
+     * Splits the response of a {@code /group} request into the responses of its cities.
+     * <p>
+     * Every entry of {@code list} has the shape of a {@code /weather} response; it is returned as
+     * the original bytes of that entry, so each city can be cached and parsed like a single lookup.
+     *
+     * @param json UTF-8 encoded group response.
+     * @return city ID to the UTF-8 encoded JSON of that city, in response order.
+     * @throws WeatherSerializationException when JSON is invalid or has no {@code list} array.
+     */
+    public static Map<Long, byte[]> splitGroupResponse(byte[] json) {
+        Map<Long, byte[]> cities = new LinkedHashMap<>();
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new WeatherSerializationException(JSON_PARSE_ERROR_MESSAGE, null);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                JsonToken value = parser.nextToken();
+                if (!LIST.equals(parser.currentName()) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int start = (int) parser.currentTokenLocation().getByteOffset();
+                    JsonNode city = parser.readValueAsTree();
+                    int end = (int) parser.currentLocation().getByteOffset();
+                    cities.put(city.path(ID).asLong(), Arrays.copyOfRange(json, start, end));
+                }
+                return cities;
+            }
+        } catch (IOException e) {
+            throw new WeatherSerializationException(JSON_PARSE_ERROR_MESSAGE, e);
+        }
+        throw new WeatherSerializationException(JSON_PARSE_ERROR_MESSAGE, null);
+    }
+
     /**
      * Parses the root JSON node into a Weather instance.
      *
@@ -0,0 +1,113 @@
+package com.github.brokkko.openweathermap.jdk.request;
+
+import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_ACCEPT_ENCODING;
+
+/**
+ * Immutable, precompiled form of a {@link RequestSettings}.
+ * <p>
+ * The URI, the {@link HttpRequest} and the cache key are computed once, when the request is
+ * prepared; executing it again performs no URL building, parameter encoding or key sorting.
+ * Instances are thread-safe and meant to be kept and reused for requests issued over and over,
+ * e.g. {@code client.retrieve(prepared).asJava()}.
+ * <p>
+ * Later changes to the settings the request was prepared from do not affect it.
+ */
+public final class PreparedWeatherRequest {
+
+    private final RequestSettings settings;
+    private final String cacheKey;
+    private final HttpRequest httpRequest;
+    private final Deadline deadline;
+
+    private PreparedWeatherRequest(RequestSettings settings, String cacheKey, HttpRequest httpRequest,
+                                   Deadline deadline) {
+        this.settings = settings;
+        this.cacheKey = cacheKey;
+        this.httpRequest = httpRequest;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Prepares {@code settings}: a GET request negotiating compressed responses, with the given timeout.
+     * A deadline attached to the settings is kept.
+     *
+     * @param settings request configuration; copied, not retained
+     * @param timeout  timeout of a single attempt
+     * @return prepared request
+     * @throws IllegalArgumentException if the settings do not form a valid URI
+     */
+    public static PreparedWeatherRequest of(RequestSettings settings, Duration timeout) {
+        RequestSettings frozen = settings.copy();
+        HttpRequest httpRequest = HttpRequest.newBuilder(frozen.toUri())
+                .GET()
+                .header("Accept-Encoding", DEFAULT_ACCEPT_ENCODING)
+                .timeout(timeout)
+                .build();
+        return new PreparedWeatherRequest(frozen, frozen.cacheKey(), httpRequest, settings.getDeadline());
+    }
+
+    /**
+     * Returns this request bound to a deadline. The precomputed parts are shared;
+     * {@code this} is returned when the deadline is unchanged.
+     *
+     * @param deadline deadline of one call, or {@code null} for none
+     * @return request carrying {@code deadline}
+     */
+    public PreparedWeatherRequest withDeadline(Deadline deadline) {
+        if (deadline == this.deadline) {
+            return this;
+        }
+        return new PreparedWeatherRequest(settings, cacheKey, httpRequest, deadline);
+    }
+
+    /**
+     * @return request URI, query parameters included
+     */
+    public URI getUri() {
+        return httpRequest.uri();
+    }
+
+    /**
+     * @return HTTP request sent for this request when no deadline or validators apply
+     */
+    public HttpRequest getHttpRequest() {
+        return httpRequest;
+    }
+
+    /**
+     * @return cache key, equal to {@link RequestSettings#cacheKey()} of the original settings
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    /**
+     * @return deadline of the current call, or {@code null}
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return unit system the response is expressed in, or {@code null} for the API default
+     */
+    public UnitSystem getUnitSystem() {
+        return settings.getUnitSystem();
+    }
+
+    /**
+     * Returns a copy of the settings this request was prepared from.
+     *
+     * @return independent copy of the settings
+     */
+    public RequestSettings getSettings() {
+        return settings.copy();
+    }
+}
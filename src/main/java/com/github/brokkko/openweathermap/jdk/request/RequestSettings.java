@@ -3,10 +3,14 @@ package com.github.brokkko.openweathermap.jdk.request;
 import com.github.brokkko.openweathermap.jdk.enums.Language;
 import com.github.brokkko.openweathermap.jdk.enums.SdkMode;
 import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
 
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 /**
  * Holds query parameters and URL information for building OpenWeather API requests.
@@ -14,6 +18,9 @@ import java.util.stream.Collectors;
  * This class stores request parameters such as API key, language, unit system,
  * response mode, and custom query arguments. It also constructs the final URL
  * and provides a stable cache key for use in caching layers.
+ * <p>
+ * A per-call {@link Deadline} may be attached; it bounds the HTTP attempts made for
+ * these settings but is not part of the cache key and is not copied.
  */
 public class RequestSettings {
     private static final String LANG_PARAM_NAME = "lang";
@@ -25,6 +32,7 @@ public class RequestSettings {
     private SdkMode mode;
     private Language language;
     private UnitSystem unitSystem;
+    private Deadline deadline;
 
     /**
      * Initializes a new instance with the required API key.
@@ -119,6 +127,24 @@ public class RequestSettings {
         this.language = language;
     }
 
+    /**
+     * Gets deadline.
+     *
+     * @return deadline of the current call, or {@code null} if it is bounded only by the HTTP timeout.
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the deadline of the current call.
+     *
+     * @param deadline deadline, or {@code null} to remove it.
+     */
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
     /**
      * Builds a stable cache key by sorting all request parameters
      * and concatenating them in a deterministic format.
@@ -126,15 +152,40 @@ public class RequestSettings {
      * @return cache key string.
      */
     public String cacheKey() {
-        return requestParameters.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(e -> e.getKey() + "=" + e.getValue())
-                .collect(Collectors.joining("&"));
+        StringBuilder key = new StringBuilder(64);
+        for (Map.Entry<String, String> e : new TreeMap<>(requestParameters).entrySet()) {
+            if (!key.isEmpty()) {
+                key.append('&');
+            }
+            key.append(e.getKey()).append('=').append(e.getValue());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Builds the request URI: the URL followed by all request parameters,
+     * with values URL-encoded as UTF-8.
+     *
+     * @return request URI.
+     * @throws IllegalArgumentException if the resulting URI is malformed.
+     */
+    public URI toUri() {
+        StringBuilder url = new StringBuilder(urlBuilder.length() + 64).append(urlBuilder).append('?');
+        boolean first = true;
+        for (Map.Entry<String, String> e : requestParameters.entrySet()) {
+            if (!first) {
+                url.append('&');
+            }
+            first = false;
+            url.append(e.getKey()).append('=').append(URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8));
+        }
+        return URI.create(url.toString());
     }
 
     /**
      * Creates a deep copy of this object, preserving all parameters
      * and URL data while producing an independent instance.
+     * The deadline belongs to a single call and is not copied.
      *
      * @return a cloned instance of RequestSettings.
      */
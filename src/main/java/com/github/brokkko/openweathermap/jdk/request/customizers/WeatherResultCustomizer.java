@@ -4,6 +4,7 @@ import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
 import com.github.brokkko.openweathermap.jdk.enums.Language;
 import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import com.github.brokkko.openweathermap.jdk.request.terminaters.WeatherRequestTerminator;
 
@@ -60,4 +61,15 @@ public class WeatherResultCustomizer {
     public WeatherRequestTerminator retrieve() {
         return new WeatherRequestTerminator(this.client, this.logger, this.requestSettings);
     }
+
+    /**
+     * Finalizes the builder chain into a reusable request whose URI, HTTP request and
+     * cache key are computed once. Execute it with
+     * {@link OpenWeatherMapClient#retrieve(PreparedWeatherRequest)}.
+     *
+     * @return prepared request.
+     */
+    public PreparedWeatherRequest prepare() {
+        return client.getHttpExecutor().prepare(this.requestSettings);
+    }
 }
@@ -5,10 +5,11 @@ import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.models.Coordinate;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import com.github.brokkko.openweathermap.jdk.request.customizers.WeatherResultCustomizer;
+import com.github.brokkko.openweathermap.jdk.services.CityBatcher;
 
 /**
  * Provides fluent entry points for requesting weather data by location:
- * by city name or geographic coordinates.
+ * by city name, city ID or geographic coordinates.
  */
 public class WeatherLocationRequester {
 
@@ -41,6 +42,20 @@ public class WeatherLocationRequester {
         return new WeatherResultCustomizer(this. client, this.logger, this.requestSettings);
     }
 
+    /**
+     * Sets location by OpenWeatherMap city ID (e.g. 2643743 for London).
+     * <p>
+     * Concurrent city-ID lookups of a client with city batching enabled are merged into
+     * {@code /group} requests, see {@link CityBatcher}.
+     *
+     * @param cityId city ID.
+     * @return a customizer to configure extra parameters.
+     */
+    public WeatherResultCustomizer byCityId(long cityId) {
+        requestSettings.putRequestParameter(CityBatcher.CITY_ID_PARAM, String.valueOf(cityId));
+        return new WeatherResultCustomizer(this.client, this.logger, this.requestSettings);
+    }
+
     /**
      * Sets location by coordinates.
      *
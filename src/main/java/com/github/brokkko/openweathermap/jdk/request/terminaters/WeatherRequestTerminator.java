@@ -3,12 +3,24 @@ package com.github.brokkko.openweathermap.jdk.request.terminaters;
 import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
 import com.github.brokkko.openweathermap.jdk.exceptions.*;
 import com.github.brokkko.openweathermap.jdk.enums.SdkMode;
+import com.github.brokkko.openweathermap.jdk.http.ResponseBodyReader;
+import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.mappers.WeatherResponseMapper;
 import com.github.brokkko.openweathermap.jdk.models.Weather;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.services.CityBatcher;
+import com.github.brokkko.openweathermap.jdk.services.RequestCoalescer;
+import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
 
@@ -16,13 +28,85 @@ import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
  * Final stage of the fluent API. Responsible for:
  * - selecting cache or live HTTP request depending on SDK mode,
  * - retrieving raw JSON or mapping it into {@link Weather},
+ *   either blocking or as a {@link CompletableFuture},
  * - handling caching rules and failures.
+ * <p>
+ * {@code asJava*} terminals never materialize the response as a {@link String}:
+ * the body is kept as UTF-8 bytes from the socket (or the cache) straight into the JSON parser.
+ * <p>
+ * Cache misses go through the client's {@link RequestCoalescer}: concurrent misses for the same
+ * cache key (and response representation) share a single HTTP call and its result or failure.
+ * <p>
+ * City-ID lookups missing the cache are handed to the client's {@link CityBatcher}, when it has
+ * one, and answered from a shared {@code /group} request that also fills the cache.
+ * <p>
+ * A terminator created for a {@link PreparedWeatherRequest} reuses its precomputed cache key,
+ * URI and HTTP request on every call.
+ * <p>
+ * {@link #within(Duration)} bounds each terminal call end to end: the deadline starts when the
+ * terminal is invoked, caps every HTTP attempt and stops the retries once it cannot be met.
+ * A fetch shared with concurrent misses runs until the latest deadline among its callers, or without
+ * one as soon as a caller without a deadline joins, so one impatient caller cannot fail it for the others.
+ * <p>
+ * {@link #uncached()} bypasses the cache. {@link #asJavaAsync()} then has no bytes to keep and lets
+ * the transport feed the response to the JSON parser while it is received.
  */
 public class WeatherRequestTerminator {
 
+    /** Single-flight key prefix of calls parsing the response while it is received. */
+    private static final String WEATHER_FLIGHT = "weather";
+
+    /**
+     * Representation of the raw response a terminal operates on: how it is read
+     * from the cache, fetched over HTTP and stored back. The name qualifies
+     * single-flight keys, so only callers expecting the same type share a fetch.
+     */
+    private record BodyFormat<T>(String name, CacheLookup<T> lookup, Fetch<T> fetch, AsyncFetch<T> fetchAsync,
+                                 ResponseBodyReader<T> reader, CacheStore<T> store, Function<byte[], T> fromBytes) {
+        private static final BodyFormat<String> JSON = new BodyFormat<>(
+                "json",
+                WeatherCacheService::get,
+                WeatherHttpExecutor::execute,
+                WeatherHttpExecutor::executeAsync,
+                ResponseBodyReader.ofString(),
+                WeatherCacheService::put,
+                bytes -> new String(bytes, StandardCharsets.UTF_8));
+        private static final BodyFormat<byte[]> BYTES = new BodyFormat<>(
+                "bytes",
+                WeatherCacheService::getBytes,
+                (executor, settings) -> executor.execute(settings, ResponseBodyReader.ofBytes()),
+                (executor, settings) -> executor.executeAsync(settings, ResponseBodyReader.ofBytes()),
+                ResponseBodyReader.ofBytes(),
+                WeatherCacheService::putBytes,
+                Function.identity());
+    }
+
+    @FunctionalInterface
+    private interface CacheLookup<T> {
+        Optional<T> get(WeatherCacheService cache, String cacheKey);
+    }
+
+    @FunctionalInterface
+    private interface Fetch<T> {
+        T execute(WeatherHttpExecutor executor, RequestSettings settings);
+    }
+
+    @FunctionalInterface
+    private interface AsyncFetch<T> {
+        CompletableFuture<T> execute(WeatherHttpExecutor executor, RequestSettings settings);
+    }
+
+    @FunctionalInterface
+    private interface CacheStore<T> {
+        void put(WeatherCacheService cache, String cacheKey, T body, RequestSettings settings);
+    }
+
     private final RequestSettings requestSettings;
+    private final PreparedWeatherRequest prepared;
     private final OpenWeatherMapClient client;
     private final WeatherLogger logger;
+    private Duration timeout;
+    private boolean uncached;
 
     /**
      * Creates a terminating stage with required context.
@@ -33,26 +117,64 @@ public class WeatherRequestTerminator {
      */
     public WeatherRequestTerminator(OpenWeatherMapClient client, WeatherLogger logger, RequestSettings requestSettings) {
         this.requestSettings = requestSettings;
+        this.prepared = null;
         this.client = client;
         this.logger = logger;
     }
 
+    /**
+     * Creates a terminating stage for a prepared request.
+     *
+     * @param client   API client.
+     * @param logger   logger.
+     * @param prepared prepared request.
+     */
+    public WeatherRequestTerminator(OpenWeatherMapClient client, WeatherLogger logger, PreparedWeatherRequest prepared) {
+        this.requestSettings = prepared.getSettings();
+        this.prepared = prepared;
+        this.client = client;
+        this.logger = logger;
+    }
+
+    /**
+     * Limits every following terminal call of this stage to {@code timeout}, retries included.
+     * Each attempt only gets the time left, and the call fails with
+     * {@link WeatherDeadlineExceededException} as soon as the deadline cannot be met.
+     *
+     * @param timeout end-to-end time budget of one call
+     * @return this terminator
+     * @throws IllegalArgumentException if {@code timeout} is not positive
+     */
+    public WeatherRequestTerminator within(Duration timeout) {
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("Deadline timeout must be positive");
+        }
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Bypasses the response cache for every following terminal call of this stage: the cache is
+     * neither read nor filled, and city-ID lookups are sent on their own instead of being batched.
+     * Concurrent calls for the same request still share one HTTP call.
+     * <p>
+     * Without a cache to fill, {@link #asJavaAsync()} parses an unencoded response while it is
+     * received, without holding the body in one piece.
+     *
+     * @return this terminator
+     */
+    public WeatherRequestTerminator uncached() {
+        this.uncached = true;
+        return this;
+    }
+
     /**
      * Executes the request and maps the response into a {@link Weather} object.
      *
      * @return parsed Weather result.
      */
     public Weather asJava() {
-        try {
-            String json = getRawResponse();
-            return new WeatherResponseMapper(requestSettings.getUnitSystem(), logger).mapJsonToWeather(json);
-        } catch (WeatherSdkException e) {
-            // перекидываем специфичные исключения дальше
-            throw e;
-        } catch (Exception e) {
-            logger.error(UNABLE_PARSE_JSON_TO_WEATHER_OBJECT_MESSAGE, e);
-            throw new WeatherSerializationException(UNABLE_PARSE_JSON_TO_WEATHER_OBJECT_MESSAGE, e);
-        }
+        return mapToWeather(getRawResponse(BodyFormat.BYTES));
     }
 
     /**
@@ -61,7 +183,59 @@ public class WeatherRequestTerminator {
      * @return JSON response.
      */
     public String asJSON() {
-        return getRawResponse();
+        return getRawResponse(BodyFormat.JSON);
+    }
+
+    /**
+     * Executes the request without blocking the calling thread and maps the
+     * response into a {@link Weather} object.
+     * <p>
+     * The cache is consulted first; on a miss the HTTP call is sent asynchronously
+     * (with retries) and the response is stored in the cache before mapping.
+     * {@linkplain #uncached() Uncached}, the response is parsed while it is received.
+     *
+     * @return future completed with the parsed Weather result, or completed
+     *         exceptionally with a {@link WeatherSdkException}.
+     */
+    public CompletableFuture<Weather> asJavaAsync() {
+        if (uncached) {
+            return parseWhileReceivingAsync();
+        }
+        return getRawResponseAsync(BodyFormat.BYTES).thenApply(this::mapToWeather);
+    }
+
+    /**
+     * Executes the request without blocking the calling thread and returns the
+     * response as a raw JSON string.
+     *
+     * @return future completed with the JSON response, or completed exceptionally
+     *         with a {@link WeatherSdkException}.
+     */
+    public CompletableFuture<String> asJSONAsync() {
+        return getRawResponseAsync(BodyFormat.JSON);
+    }
+
+    /**
+     * Maps raw JSON into a {@link Weather} object, wrapping unexpected failures
+     * into {@link WeatherSerializationException}.
+     *
+     * @param json raw UTF-8 encoded JSON response
+     * @return parsed Weather result
+     */
+    private Weather mapToWeather(byte[] json) {
+        return mapToWeather(mapper -> mapper.mapJsonToWeather(json));
+    }
+
+    private Weather mapToWeather(Function<WeatherResponseMapper, Weather> mapping) {
+        try {
+            return mapping.apply(new WeatherResponseMapper(requestSettings.getUnitSystem(), logger));
+        } catch (WeatherSdkException e) {
+            // перекидываем специфичные исключения дальше
+            throw e;
+        } catch (Exception e) {
+            logger.error(UNABLE_PARSE_JSON_TO_WEATHER_OBJECT_MESSAGE, e);
+            throw new WeatherSerializationException(UNABLE_PARSE_JSON_TO_WEATHER_OBJECT_MESSAGE, e);
+        }
     }
 
     /**
@@ -72,17 +246,19 @@ public class WeatherRequestTerminator {
      * keeps cache entries up-to-date and will retrieve data from the cache when possible.
      * </p>
      *
+     * @param format representation of the raw response
      * @return raw JSON response from cache or HTTP executor
      * @throws WeatherSdkException if an unexpected error occurs or a low-level exception must be wrapped
      */
-    private String getRawResponse() {
-        String cacheKey = requestSettings.cacheKey();
+    private <T> T getRawResponse(BodyFormat<T> format) {
+        String cacheKey = cacheKey();
 
         try {
+            RequestSettings settings = callSettings();
             if (client.getSdkMode() == SdkMode.ON_DEMAND) {
-               return handleOnDemand(cacheKey);
+               return handleOnDemand(cacheKey, format, settings);
             }
-            return handleOnPolling(cacheKey);
+            return handleOnPolling(cacheKey, format, settings);
         } catch (Exception e) {
             if (e instanceof WeatherSdkException) {
                 throw e;
@@ -91,28 +267,208 @@ public class WeatherRequestTerminator {
         }
     }
 
+    /**
+     * Non-blocking counterpart of {@link #getRawResponse(BodyFormat)}.
+     * <p>
+     * The cache lookup is performed on the calling thread (it is an in-memory read);
+     * a miss is resolved with {@link WeatherHttpExecutor#executeAsync}, coalesced with
+     * concurrent misses for the same key, and the response is stored in the cache once it arrives.
+     * </p>
+     *
+     * @param format representation of the raw response
+     * @return future with the raw JSON response from cache or HTTP executor
+     */
+    private <T> CompletableFuture<T> getRawResponseAsync(BodyFormat<T> format) {
+        String cacheKey = cacheKey();
+        boolean onDemand = client.getSdkMode() == SdkMode.ON_DEMAND;
+
+        try {
+            Optional<T> cached = lookup(format, cacheKey);
+            if (cached.isPresent()) {
+                logger.debug(String.format(onDemand ? CACHE_HIT_ON_DEMAND_MESSAGE : CACHE_HIT_POLLING_MESSAGE, cacheKey));
+                return CompletableFuture.completedFuture(cached.get());
+            }
+            logger.debug(String.format(onDemand ? CACHE_MISS_ON_DEMAND_MESSAGE : CACHE_MISS_POLLING_MESSAGE, cacheKey));
+
+            return client.getRequestCoalescer()
+                    .executeAsync(flightKey(format, cacheKey),
+                            deadline -> fetchAndStoreAsync(cacheKey, format, deadline), callSettings().getDeadline())
+                    .handle((resp, error) -> {
+                        if (error == null) {
+                            return resp;
+                        }
+                        throw toSdkException(CompletableFutures.unwrap(error), cacheKey);
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(toSdkException(e, cacheKey));
+        }
+    }
+
+    /**
+     * Uncached {@link #asJavaAsync()}: the executor lets the transport feed an unencoded response to
+     * the mapper's non-blocking parser while it is received, and reads any other (e.g. gzip) response
+     * as a stream. Concurrent uncached calls for the same request share the HTTP call.
+     */
+    private CompletableFuture<Weather> parseWhileReceivingAsync() {
+        String cacheKey = cacheKey();
+        try {
+            WeatherResponseMapper mapper = new WeatherResponseMapper(requestSettings.getUnitSystem(), logger);
+            ResponseBodyReader<Weather> reader = ResponseBodyReader.incremental(
+                    body -> mapToWeather(m -> m.mapJsonToWeather(body)), mapper::newParser);
+            WeatherHttpExecutor executor = client.getHttpExecutor();
+            return client.getRequestCoalescer()
+                    .executeAsync(WEATHER_FLIGHT + ':' + cacheKey, deadline -> prepared == null
+                                    ? executor.executeAsync(withDeadline(deadline), reader)
+                                    : executor.executeAsync(prepared.withDeadline(deadline), reader),
+                            callSettings().getDeadline())
+                    .handle((weather, error) -> {
+                        if (error == null) {
+                            return weather;
+                        }
+                        throw toSdkException(CompletableFutures.unwrap(error), cacheKey);
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(toSdkException(e, cacheKey));
+        }
+    }
+
+    /**
+     * Leader side of an asynchronous cache miss: re-checks the cache (a previous flight may
+     * have just filled it), otherwise sends the request and stores the response.
+     * The request runs under the shared deadline of the flight, extended by the callers joining it.
+     */
+    private <T> CompletableFuture<T> fetchAndStoreAsync(String cacheKey, BodyFormat<T> format, Deadline deadline) {
+        Optional<T> cached = lookup(format, cacheKey);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        CityBatcher batcher = cityBatcher();
+        if (batcher != null) {
+            return batcher.fetch(requestSettings, cacheKey).thenApply(format.fromBytes());
+        }
+        RequestSettings settingsCopy = requestSettings.copy();
+        CompletableFuture<T> response = prepared == null
+                ? format.fetchAsync().execute(client.getHttpExecutor(), withDeadline(deadline))
+                : client.getHttpExecutor().executeAsync(prepared.withDeadline(deadline), format.reader());
+        return response
+                .thenApply(resp -> {
+                    store(format, cacheKey, resp, settingsCopy);
+                    return resp;
+                });
+    }
+
+    /**
+     * Resolves a blocking cache miss through the client's {@link RequestCoalescer}: the leader
+     * re-checks the cache, otherwise sends the request and stores the response; concurrent
+     * callers for the same key wait for the leader's outcome.
+     * <p>
+     * A caller with a deadline does not run the shared fetch on its own thread: it starts or
+     * joins the asynchronous flight and waits for it no longer than its deadline, leaving the
+     * fetch to complete for the other callers.
+     */
+    private <T> T fetchAndStore(String cacheKey, BodyFormat<T> format, RequestSettings settings) {
+        Deadline deadline = settings.getDeadline();
+        if (deadline != null) {
+            return CompletableFutures.await(client.getRequestCoalescer().executeAsync(flightKey(format, cacheKey),
+                    shared -> fetchAndStoreAsync(cacheKey, format, shared), deadline), deadline);
+        }
+        return client.getRequestCoalescer().execute(flightKey(format, cacheKey), () -> {
+            Optional<T> cached = lookup(format, cacheKey);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            CityBatcher batcher = cityBatcher();
+            if (batcher != null) {
+                return format.fromBytes().apply(CompletableFutures.await(batcher.fetch(requestSettings, cacheKey), null));
+            }
+            T resp = prepared == null
+                    ? format.fetch().execute(client.getHttpExecutor(), requestSettings)
+                    : client.getHttpExecutor().execute(prepared, format.reader());
+            store(format, cacheKey, resp, requestSettings.copy());
+            return resp;
+        });
+    }
+
+    /**
+     * Returns the settings of one terminal call: the configured settings themselves, or a copy
+     * carrying a deadline that starts now when {@link #within(Duration)} was used.
+     */
+    private RequestSettings callSettings() {
+        return withDeadline(timeout == null ? null : Deadline.after(timeout));
+    }
+
+    /**
+     * Returns the configured settings, or a copy carrying {@code deadline} when there is one.
+     */
+    private RequestSettings withDeadline(Deadline deadline) {
+        if (deadline == null) {
+            return requestSettings;
+        }
+        RequestSettings settings = requestSettings.copy();
+        settings.setDeadline(deadline);
+        return settings;
+    }
+
+    /**
+     * Returns the client's city batcher if this is a city-ID lookup it can merge, else {@code null}.
+     */
+    private CityBatcher cityBatcher() {
+        CityBatcher batcher = client.getCityBatcher();
+        return batcher != null && !uncached && requestSettings.getRequestParameters().containsKey(CityBatcher.CITY_ID_PARAM)
+                ? batcher
+                : null;
+    }
+
+    private <T> Optional<T> lookup(BodyFormat<T> format, String cacheKey) {
+        return uncached ? Optional.empty() : format.lookup().get(client.getCacheService(), cacheKey);
+    }
+
+    private <T> void store(BodyFormat<T> format, String cacheKey, T body, RequestSettings settings) {
+        if (!uncached) {
+            format.store().put(client.getCacheService(), cacheKey, body, settings);
+        }
+    }
+
+    private String cacheKey() {
+        return prepared == null ? requestSettings.cacheKey() : prepared.getCacheKey();
+    }
+
+    private static String flightKey(BodyFormat<?> format, String cacheKey) {
+        return format.name() + ':' + cacheKey;
+    }
+
+    /**
+     * Passes SDK exceptions through and wraps everything else into {@link WeatherSdkException}.
+     */
+    private WeatherSdkException toSdkException(Throwable error, String cacheKey) {
+        if (error instanceof WeatherSdkException sdk) {
+            return sdk;
+        }
+        return new WeatherSdkException(String.format(TERMINATOR_UNEXPECTED_MESSAGE, cacheKey), error);
+    }
+
     /**
      * Handles response retrieval in ON_DEMAND mode:
      * <ul>
      *     <li>returns a cached value when present</li>
      *     <li>logs cache hit/miss events</li>
-     *     <li>executes an HTTP request when no cached value is available</li>
+     *     <li>executes an HTTP request when no cached value is available, shared with concurrent misses</li>
      *     <li>stores the response in the cache using a copy of the current request settings</li>
      * </ul>
      *
      * @param cacheKey key used to look up cached responses
+     * @param format   representation of the raw response
+     * @param settings settings of this call
      * @return raw JSON response, either from cache or via HTTP
      */
-    private String handleOnDemand(String cacheKey) {
-        Optional<String> cached = client.getCacheService().get(cacheKey);
+    private <T> T handleOnDemand(String cacheKey, BodyFormat<T> format, RequestSettings settings) {
+        Optional<T> cached = lookup(format, cacheKey);
         if (cached.isPresent()) {
             logger.debug(String.format(CACHE_HIT_ON_DEMAND_MESSAGE, cacheKey));
             return cached.get();
         }
         logger.debug(String.format(CACHE_MISS_ON_DEMAND_MESSAGE, cacheKey));
-        String resp = client.getHttpExecutor().execute(requestSettings);
-        client.getCacheService().put(cacheKey, resp, requestSettings.copy());
-        return resp;
+        return fetchAndStore(cacheKey, format, settings);
     }
 
     /**
@@ -125,18 +481,18 @@ public class WeatherRequestTerminator {
      * </ul>
      *
      * @param cacheKey key used to look up cached responses
+     * @param format   representation of the raw response
+     * @param settings settings of this call
      * @return raw JSON response, either from cache or via HTTP
      */
-    private String handleOnPolling(String cacheKey) {
-        Optional<String> cached = client.getCacheService().get(cacheKey);
+    private <T> T handleOnPolling(String cacheKey, BodyFormat<T> format, RequestSettings settings) {
+        Optional<T> cached = lookup(format, cacheKey);
         if (cached.isPresent()) {
             logger.debug(String.format(CACHE_HIT_POLLING_MESSAGE,  cacheKey));
             return cached.get();
         } else {
             logger.debug(String.format(CACHE_MISS_POLLING_MESSAGE, cacheKey));
-            String resp = client.getHttpExecutor().execute(requestSettings);
-            client.getCacheService().put(cacheKey, resp, requestSettings.copy());
-            return resp;
+            return fetchAndStore(cacheKey, format, settings);
         }
     }
 }
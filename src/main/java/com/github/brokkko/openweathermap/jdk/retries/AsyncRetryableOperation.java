@@ -0,0 +1,24 @@
+package com.github.brokkko.openweathermap.jdk.retries;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Functional interface representing a non-blocking operation that can be
+ * executed with retry logic applied by a {@link RetryPolicy}.
+ * <p>
+ * Unlike {@link RetryableOperation}, a failure is signalled by completing
+ * the returned future exceptionally rather than by throwing.
+ *
+ * @param <T> the type of result produced by the operation
+ */
+@FunctionalInterface
+public interface AsyncRetryableOperation<T> {
+
+    /**
+     * Starts the operation.
+     *
+     * @return a future completed with the result of the operation, or
+     *         completed exceptionally if the attempt failed
+     */
+    CompletableFuture<T> run();
+}
@@ -0,0 +1,93 @@
+package com.github.brokkko.openweathermap.jdk.retries;
+
+/**
+ * Client-wide cap on the number of retries, shared by all calls of a client.
+ * <p>
+ * Without a budget every call retries on its own, so an upstream brownout multiplies the
+ * outbound traffic by the number of attempts exactly when the API is weakest. A budget ties the
+ * retries to the recent successful calls instead: once it is spent, failures are returned without
+ * retrying until enough calls succeed again. Implementations must be thread-safe.
+ */
+public interface RetryBudget {
+
+    /**
+     * Records a successful call, adding to the retries the budget allows.
+     */
+    void onSuccess();
+
+    /**
+     * Takes one retry from the budget.
+     *
+     * @return {@code true} if the retry may be sent, {@code false} if the budget is spent
+     */
+    boolean tryAcquireRetry();
+
+    /**
+     * @return successful calls in the current window
+     */
+    long getRecentSuccesses();
+
+    /**
+     * @return retries taken in the current window
+     */
+    long getRecentRetries();
+
+    /**
+     * @return retries allowed in the current window
+     */
+    long getRetryLimit();
+
+    /**
+     * @return total number of retries refused since the budget was created
+     */
+    long getRejectedRetries();
+
+    /**
+     * Returns how much of the budget is used, e.g. to alert before retries start being refused.
+     *
+     * @return retries taken divided by retries allowed in the current window; {@code 1} or more
+     *         when the budget is spent
+     */
+    default double getUtilization() {
+        long limit = getRetryLimit();
+        return limit <= 0 ? (getRecentRetries() > 0 ? 1 : 0) : (double) getRecentRetries() / limit;
+    }
+
+    /**
+     * Returns a budget that never refuses a retry.
+     *
+     * @return unlimited budget
+     */
+    static RetryBudget unlimited() {
+        return new RetryBudget() {
+            @Override
+            public void onSuccess() {
+            }
+
+            @Override
+            public boolean tryAcquireRetry() {
+                return true;
+            }
+
+            @Override
+            public long getRecentSuccesses() {
+                return 0;
+            }
+
+            @Override
+            public long getRecentRetries() {
+                return 0;
+            }
+
+            @Override
+            public long getRetryLimit() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public long getRejectedRetries() {
+                return 0;
+            }
+        };
+    }
+}
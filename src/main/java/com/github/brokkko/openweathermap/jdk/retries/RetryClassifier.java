@@ -0,0 +1,42 @@
+package com.github.brokkko.openweathermap.jdk.retries;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+
+/**
+ * Decides which failures a {@link RetryPolicy} retries and how long it waits first.
+ * <p>
+ * A failure that cannot succeed on another attempt (e.g. {@code 401 Unauthorized} or
+ * {@code 404 Not Found}) should not be retried: doing so only spends calls of the API quota.
+ */
+@FunctionalInterface
+public interface RetryClassifier {
+
+    /**
+     * Tells whether another attempt may succeed after {@code failure}.
+     *
+     * @param failure failure of the last attempt
+     * @return {@code true} to retry, {@code false} to fail the call with {@code failure}
+     */
+    boolean isRetryable(Throwable failure);
+
+    /**
+     * Returns the delay requested by the server or the client-side rate limiter before the next
+     * attempt, taking precedence over the backoff delay of the policy.
+     * <p>
+     * The default implementation reads {@link WeatherApiException#getRetryAfterMillis()} and
+     * {@link WeatherRateLimitException#getRetryAfterMillis()}.
+     *
+     * @param failure failure of the last attempt
+     * @return delay in milliseconds, or {@code -1} if none was requested
+     */
+    default long retryAfterMillis(Throwable failure) {
+        if (failure instanceof WeatherApiException api) {
+            return api.getRetryAfterMillis();
+        }
+        if (failure instanceof WeatherRateLimitException rateLimit) {
+            return rateLimit.getRetryAfterMillis();
+        }
+        return -1;
+    }
+}
@@ -1,5 +1,9 @@
 package com.github.brokkko.openweathermap.jdk.retries;
 
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Functional interface representing a retry policy strategy.
  * <p>
@@ -20,4 +24,53 @@ public interface RetryPolicy {
      * @return the result of the executed operation
      */
     <T> T executeWithRetry(RetryableOperation<T> operation);
+
+    /**
+     * Executes the given operation like {@link #executeWithRetry(RetryableOperation)}, but gives
+     * up as soon as the remaining time before {@code deadline} cannot cover another attempt.
+     * <p>
+     * The default implementation ignores the deadline; the operation itself is expected to
+     * bound each attempt by the remaining time.
+     *
+     * @param operation the operation to execute with retry logic
+     * @param deadline  deadline of the whole call
+     * @param <T> the return type of the operation
+     * @return the result of the executed operation
+     */
+    default <T> T executeWithRetry(RetryableOperation<T> operation, Deadline deadline) {
+        return executeWithRetry(operation);
+    }
+
+    /**
+     * Executes the given non-blocking operation using the retry strategy
+     * implemented by this policy. No thread is parked between attempts:
+     * the next attempt is chained to the completion of the previous one.
+     * <p>
+     * The default implementation runs the operation exactly once.
+     *
+     * @param operation the operation to execute with retry logic
+     * @param <T> the return type of the operation
+     * @return a future completed with the result of the operation
+     */
+    default <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation) {
+        try {
+            return operation.run();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #executeWithRetry(RetryableOperation, Deadline)}.
+     * <p>
+     * The default implementation ignores the deadline.
+     *
+     * @param operation the operation to execute with retry logic
+     * @param deadline  deadline of the whole call
+     * @param <T> the return type of the operation
+     * @return a future completed with the result of the operation
+     */
+    default <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation, Deadline deadline) {
+        return executeWithRetryAsync(operation);
+    }
 }
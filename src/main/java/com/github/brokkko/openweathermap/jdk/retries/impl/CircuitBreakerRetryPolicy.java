@@ -0,0 +1,608 @@
+package com.github.brokkko.openweathermap.jdk.retries.impl;
+
+import com.github.brokkko.openweathermap.jdk.enums.CircuitBreakerState;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherCircuitOpenException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherNetworkException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherTimeoutException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.retries.AsyncRetryableOperation;
+import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.*;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CIRCUIT_OPEN_MESSAGE;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CIRCUIT_STATE_TRANSITION_MESSAGE;
+
+/**
+ * A retry policy decorator that guards another {@link RetryPolicy} with a circuit breaker.
+ * <p>
+ * Every attempt made by the wrapped policy is recorded in a count-based sliding window.
+ * Timeouts, network failures and {@code 429} / {@code 5xx} answers count as failures,
+ * attempts slower than {@code slowCallDurationMillis} as slow calls; other API answers are
+ * successful round trips. Once the window holds at least {@code minimumCalls} outcomes and
+ * the failure rate or slow-call rate reaches its threshold, the circuit opens:
+ * <ul>
+ *     <li>{@link CircuitBreakerState#OPEN} — calls fail immediately with
+ *         {@link WeatherCircuitOpenException}, without sleeping through retries</li>
+ *     <li>{@link CircuitBreakerState#HALF_OPEN} — after {@code openDurationMillis} a few trial
+ *         calls are let through; if all of them succeed the circuit closes, otherwise it reopens</li>
+ * </ul>
+ * The breaker is checked before the wrapped policy is entered, so a call rejected by an open
+ * circuit is not wrapped into a retry exception.
+ */
+public class CircuitBreakerRetryPolicy implements RetryPolicy {
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final RetryPolicy delegate;
+    private final WeatherLogger logger;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final BiConsumer<CircuitBreakerState, CircuitBreakerState> stateListener;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private int windowSlowCalls;
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+
+    private final LongAdder successfulCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder stateTransitions = new LongAdder();
+
+    private CircuitBreakerRetryPolicy(Builder builder) {
+        if (builder.delegate == null) {
+            throw new IllegalArgumentException("Delegate retry policy is required");
+        }
+        if (builder.logger == null) {
+            throw new IllegalArgumentException("Logger is required");
+        }
+        if (builder.windowSize < 1 || builder.minimumCalls < 1 || builder.halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Window size, minimum calls and half-open calls must be positive");
+        }
+        this.delegate = builder.delegate;
+        this.logger = builder.logger;
+        this.window = new byte[builder.windowSize];
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowCallDurationMillis);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(builder.openDurationMillis);
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.stateListener = builder.stateListener;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @return builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Executes the operation through the wrapped policy, recording every attempt.
+     *
+     * @param operation operation to execute
+     * @param <T>       return type
+     * @return operation result
+     * @throws WeatherCircuitOpenException if the circuit does not permit the call
+     */
+    @Override
+    public <T> T executeWithRetry(RetryableOperation<T> operation) {
+        return executeWithRetry(operation, null);
+    }
+
+    /**
+     * Executes the operation through the wrapped policy, passing the deadline on to it.
+     *
+     * @param operation operation to execute
+     * @param deadline  deadline of the whole call, or {@code null}
+     * @param <T>       return type
+     * @return operation result
+     * @throws WeatherCircuitOpenException if the circuit does not permit the call
+     */
+    @Override
+    public <T> T executeWithRetry(RetryableOperation<T> operation, Deadline deadline) {
+        AtomicBoolean firstAttemptPermitted = new AtomicBoolean(acquirePermission());
+        RetryableOperation<T> recorded = () -> {
+            if (!firstAttemptPermitted.getAndSet(false)) {
+                acquirePermission();
+            }
+            long start = nanoClock.getAsLong();
+            T result;
+            try {
+                result = operation.run();
+            } catch (RuntimeException e) {
+                onComplete(start, e);
+                throw e;
+            }
+            onComplete(start, null);
+            return result;
+        };
+        return deadline == null
+                ? delegate.executeWithRetry(recorded)
+                : delegate.executeWithRetry(recorded, deadline);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #executeWithRetry(RetryableOperation)}.
+     *
+     * @param operation non-blocking operation to execute
+     * @param <T>       return type
+     * @return future with the operation result, completed exceptionally with
+     *         {@link WeatherCircuitOpenException} if the circuit does not permit the call
+     */
+    @Override
+    public <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation) {
+        return executeWithRetryAsync(operation, null);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #executeWithRetry(RetryableOperation, Deadline)}.
+     *
+     * @param operation non-blocking operation to execute
+     * @param deadline  deadline of the whole call, or {@code null}
+     * @param <T>       return type
+     * @return future with the operation result
+     */
+    @Override
+    public <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation, Deadline deadline) {
+        AtomicBoolean firstAttemptPermitted;
+        try {
+            firstAttemptPermitted = new AtomicBoolean(acquirePermission());
+        } catch (WeatherCircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        AsyncRetryableOperation<T> recorded = () -> {
+            if (!firstAttemptPermitted.getAndSet(false)) {
+                acquirePermission();
+            }
+            long start = nanoClock.getAsLong();
+            CompletableFuture<T> attempt;
+            try {
+                attempt = operation.run();
+            } catch (RuntimeException e) {
+                onComplete(start, e);
+                throw e;
+            }
+            return attempt.whenComplete((value, error) ->
+                    onComplete(start, error == null ? null : CompletableFutures.unwrap(error)));
+        };
+        return deadline == null
+                ? delegate.executeWithRetryAsync(recorded)
+                : delegate.executeWithRetryAsync(recorded, deadline);
+    }
+
+    /**
+     * Lets the call through or throws {@link WeatherCircuitOpenException}.
+     * Moves an open circuit to half-open once the open duration has elapsed.
+     *
+     * @return always {@code true}
+     */
+    private boolean acquirePermission() {
+        Transition transition = null;
+        CircuitBreakerState rejectedIn = null;
+        lock.lock();
+        try {
+            if (state == CircuitBreakerState.OPEN && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos) {
+                transition = transitionTo(CircuitBreakerState.HALF_OPEN);
+            }
+            if (state == CircuitBreakerState.HALF_OPEN) {
+                if (halfOpenInFlight + halfOpenSucceeded < halfOpenCalls) {
+                    halfOpenInFlight++;
+                } else {
+                    rejectedIn = state;
+                }
+            } else if (state == CircuitBreakerState.OPEN) {
+                rejectedIn = state;
+            }
+        } finally {
+            lock.unlock();
+        }
+        publish(transition);
+        if (rejectedIn != null) {
+            rejectedCalls.increment();
+            throw new WeatherCircuitOpenException(String.format(CIRCUIT_OPEN_MESSAGE, rejectedIn));
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of a permitted attempt.
+     */
+    private void onComplete(long startNanos, Throwable error) {
+        boolean slow = nanoClock.getAsLong() - startNanos > slowCallDurationNanos;
+        Boolean failed = classify(error);
+        if (failed == null) {
+            releaseUnrecorded();
+            return;
+        }
+        if (failed) {
+            failedCalls.increment();
+        } else {
+            successfulCalls.increment();
+        }
+        if (slow) {
+            slowCalls.increment();
+        }
+
+        Transition transition = null;
+        CircuitBreakerState to = null;
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> {
+                    record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+                    if (windowCount >= minimumCalls
+                            && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold)) {
+                        to = CircuitBreakerState.OPEN;
+                    }
+                }
+                case HALF_OPEN -> {
+                    halfOpenInFlight--;
+                    if (failed || slow) {
+                        to = CircuitBreakerState.OPEN;
+                    } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                        to = CircuitBreakerState.CLOSED;
+                    }
+                }
+                case OPEN -> {
+                    // attempt started before the circuit opened; its outcome is stale
+                }
+            }
+            if (to != null) {
+                transition = transitionTo(to);
+            }
+        } finally {
+            lock.unlock();
+        }
+        publish(transition);
+    }
+
+    /**
+     * Frees a half-open trial slot taken by an attempt whose outcome is not recorded.
+     */
+    private void releaseUnrecorded() {
+        lock.lock();
+        try {
+            if (state == CircuitBreakerState.HALF_OPEN && halfOpenInFlight > 0) {
+                halfOpenInFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} for failures, {@code false} for successful round trips,
+     *         {@code null} for outcomes that say nothing about the API health
+     */
+    private static Boolean classify(Throwable error) {
+        if (error == null) {
+            return false;
+        }
+        if (error instanceof WeatherCircuitOpenException) {
+            return null;
+        }
+        if (error instanceof WeatherTimeoutException || error instanceof WeatherNetworkException) {
+            return true;
+        }
+        if (error instanceof WeatherApiException api) {
+            return api.getStatusCode() == 429 || api.getStatusCode() >= 500;
+        }
+        return null;
+    }
+
+    private void record(byte outcome) {
+        if (windowCount == window.length) {
+            byte evicted = window[windowIndex];
+            if ((evicted & FAILED) != 0) windowFailures--;
+            if ((evicted & SLOW) != 0) windowSlowCalls--;
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        if ((outcome & FAILED) != 0) windowFailures++;
+        if ((outcome & SLOW) != 0) windowSlowCalls++;
+    }
+
+    /**
+     * Switches state and resets the per-state bookkeeping. Must hold the lock.
+     *
+     * @return the transition, to be published once the lock is released
+     */
+    private Transition transitionTo(CircuitBreakerState next) {
+        Transition transition = new Transition(state, next, failureRate(), slowCallRate());
+        state = next;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (next == CircuitBreakerState.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        }
+        if (next == CircuitBreakerState.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+            windowSlowCalls = 0;
+        }
+        stateTransitions.increment();
+        return transition;
+    }
+
+    /**
+     * Logs a transition and notifies the state listener. Called without holding the lock.
+     */
+    private void publish(Transition transition) {
+        if (transition == null) {
+            return;
+        }
+        logger.info(String.format(CIRCUIT_STATE_TRANSITION_MESSAGE, transition.from, transition.to,
+                transition.failureRate, transition.slowCallRate));
+        if (stateListener != null) {
+            stateListener.accept(transition.from, transition.to);
+        }
+    }
+
+    /**
+     * State change with the window rates that caused it.
+     */
+    private record Transition(CircuitBreakerState from, CircuitBreakerState to, float failureRate, float slowCallRate) {}
+
+    private float failureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100.0f / windowCount;
+    }
+
+    private float slowCallRate() {
+        return windowCount == 0 ? 0 : windowSlowCalls * 100.0f / windowCount;
+    }
+
+    /**
+     * @return current circuit state; an open circuit whose open duration has elapsed is
+     *         reported as open until the next call moves it to half-open
+     */
+    public CircuitBreakerState getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return failure rate (percent) of the current sliding window
+     */
+    public float getFailureRate() {
+        lock.lock();
+        try {
+            return failureRate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return slow-call rate (percent) of the current sliding window
+     */
+    public float getSlowCallRate() {
+        lock.lock();
+        try {
+            return slowCallRate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of recorded successful attempts
+     */
+    public long getSuccessfulCalls() {
+        return successfulCalls.sum();
+    }
+
+    /**
+     * @return number of recorded failed attempts
+     */
+    public long getFailedCalls() {
+        return failedCalls.sum();
+    }
+
+    /**
+     * @return number of recorded attempts slower than the slow-call duration
+     */
+    public long getSlowCalls() {
+        return slowCalls.sum();
+    }
+
+    /**
+     * @return number of calls rejected with {@link WeatherCircuitOpenException}
+     */
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    /**
+     * @return number of state transitions since creation
+     */
+    public long getStateTransitions() {
+        return stateTransitions.sum();
+    }
+
+    /**
+     * Builder for {@link CircuitBreakerRetryPolicy}.
+     * The wrapped policy and logger are required; thresholds default to the SDK defaults.
+     */
+    public static class Builder {
+        private RetryPolicy delegate;
+        private WeatherLogger logger;
+        private int windowSize = DEFAULT_CIRCUIT_WINDOW_SIZE;
+        private int minimumCalls = DEFAULT_CIRCUIT_MINIMUM_CALLS;
+        private float failureRateThreshold = DEFAULT_CIRCUIT_FAILURE_RATE_THRESHOLD;
+        private float slowCallRateThreshold = DEFAULT_CIRCUIT_SLOW_CALL_RATE_THRESHOLD;
+        private long slowCallDurationMillis = DEFAULT_CIRCUIT_SLOW_CALL_DURATION_MS;
+        private long openDurationMillis = DEFAULT_CIRCUIT_OPEN_DURATION_MS;
+        private int halfOpenCalls = DEFAULT_CIRCUIT_HALF_OPEN_CALLS;
+        private BiConsumer<CircuitBreakerState, CircuitBreakerState> stateListener;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the retry policy guarded by the circuit breaker.
+         *
+         * @param delegate wrapped retry policy
+         * @return this builder
+         */
+        public Builder delegate(RetryPolicy delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the logger for state transitions.
+         *
+         * @param logger logger instance
+         * @return this builder
+         */
+        public Builder logger(WeatherLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * Sets the number of most recent attempts kept in the sliding window.
+         *
+         * @param windowSize window size
+         * @return this builder
+         */
+        public Builder windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of recorded attempts required before the rates are evaluated.
+         *
+         * @param minimumCalls minimum number of attempts
+         * @return this builder
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets the failure rate at which the circuit opens.
+         *
+         * @param percent threshold in percent
+         * @return this builder
+         */
+        public Builder failureRateThreshold(float percent) {
+            this.failureRateThreshold = percent;
+            return this;
+        }
+
+        /**
+         * Sets the slow-call rate at which the circuit opens.
+         *
+         * @param percent threshold in percent
+         * @return this builder
+         */
+        public Builder slowCallRateThreshold(float percent) {
+            this.slowCallRateThreshold = percent;
+            return this;
+        }
+
+        /**
+         * Sets the duration above which an attempt counts as slow.
+         *
+         * @param millis duration in milliseconds
+         * @return this builder
+         */
+        public Builder slowCallDurationMillis(long millis) {
+            this.slowCallDurationMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets how long the circuit stays open before trial calls are allowed.
+         *
+         * @param millis duration in milliseconds
+         * @return this builder
+         */
+        public Builder openDurationMillis(long millis) {
+            this.openDurationMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the number of trial calls allowed in the half-open state.
+         *
+         * @param calls number of trial calls
+         * @return this builder
+         */
+        public Builder halfOpenCalls(int calls) {
+            this.halfOpenCalls = calls;
+            return this;
+        }
+
+        /**
+         * Sets a listener notified after every state transition with the previous and new state.
+         *
+         * @param listener transition listener
+         * @return this builder
+         */
+        public Builder stateListener(BiConsumer<CircuitBreakerState, CircuitBreakerState> listener) {
+            this.stateListener = listener;
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return new circuit breaker policy
+         * @throws IllegalArgumentException if the delegate or the logger is missing or a size is not positive
+         */
+        public CircuitBreakerRetryPolicy build() {
+            return new CircuitBreakerRetryPolicy(this);
+        }
+    }
+}
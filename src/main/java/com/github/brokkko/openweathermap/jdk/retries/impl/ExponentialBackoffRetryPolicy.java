@@ -1,38 +1,113 @@
 package com.github.brokkko.openweathermap.jdk.retries.impl;
 
+import com.github.brokkko.openweathermap.jdk.enums.JitterMode;
 import com.github.brokkko.openweathermap.jdk.exceptions.RetryExhaustedException;
+import com.github.brokkko.openweathermap.jdk.exceptions.RetryInterruptedException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherCircuitOpenException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.retries.AsyncRetryableOperation;
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
+import com.github.brokkko.openweathermap.jdk.retries.RetryClassifier;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.*;
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
 
 /**
  * A retry policy that retries a failed operation using exponential backoff.
  * <p>
  * Each failed attempt doubles the delay before the next retry. The delay starts
- * from {@code initialDelayMs}. The policy logs every retry attempt, warning when a retry
- * fails, and logs an error when the maximum number of attempts is exhausted.
+ * from {@code initialDelayMs} and never exceeds {@code maxDelayMs}; a {@link JitterMode}
+ * randomizes it so that callers failing together do not retry together. The policy logs every
+ * retry attempt, warning when a retry fails, and logs an error when the maximum number of
+ * attempts is exhausted.
  * </p>
  *
- * <p>When all attempts fail, a {@link RetryExhaustedException} is thrown.</p>
+ * <p>Asynchronous retries are scheduled on the shared delay timer of {@link CompletableFuture}
+ * and run on the async executor, so no thread waits for the backoff. Cancelling the returned
+ * future cancels the attempt in flight and any retry still waiting. A synchronous caller waits
+ * for the backoff on its own thread; interrupting it ends the call with
+ * {@link RetryInterruptedException} and keeps the interrupt status set.</p>
+ *
+ * <p>When all attempts fail, a {@link RetryExhaustedException} is thrown.
+ * A {@link WeatherCircuitOpenException} is never retried and is rethrown as is, and so is every
+ * failure its {@link RetryClassifier} deems permanent (by default {@link StatusRetryClassifier}:
+ * e.g. {@code 401} or {@code 404} answers). A {@code Retry-After} delay requested by the server
+ * replaces the backoff delay of that retry.</p>
+ *
+ * <p>With a {@link Deadline}, no retry is scheduled whose backoff would end after the deadline;
+ * the call then fails immediately with {@link WeatherDeadlineExceededException}.</p>
+ *
+ * <p>With a {@link RetryBudget}, every retry is taken from the budget and every successful call
+ * adds to it; once the budget is spent the failure is returned as is, without retrying.</p>
  */
 public class ExponentialBackoffRetryPolicy implements RetryPolicy {
     private final int maxAttempts;
     private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final JitterMode jitter;
+    private final DoubleSupplier random;
     private final WeatherLogger logger;
+    private final Executor asyncExecutor;
+    private final RetryClassifier classifier;
+    private final RetryBudget budget;
+    private final LongAdder retriedFailures = new LongAdder();
+    private final LongAdder nonRetryableFailures = new LongAdder();
 
     /**
-     * Constructs the exponential backoff policy.
+     * Constructs the exponential backoff policy. The delay doubles without jitter;
+     * use {@link #builder()} to randomize it.
      *
      * @param maxAttempts    maximum number of retry attempts before giving up
      * @param initialDelayMs initial delay before the first retry
      * @param logger         logger used to record retry progress
      */
     public ExponentialBackoffRetryPolicy(int maxAttempts, long initialDelayMs, WeatherLogger logger) {
-        this.maxAttempts = maxAttempts;
-        this.initialDelayMs = initialDelayMs;
-        this.logger = logger;
+        this(new Builder()
+                .maxAttempts(maxAttempts)
+                .initialDelayMs(initialDelayMs)
+                .maxDelayMs(Math.max(initialDelayMs, DEFAULT_RETRY_POLICY_MAX_DELAY_MS))
+                .jitter(JitterMode.NONE)
+                .logger(logger));
+    }
+
+    private ExponentialBackoffRetryPolicy(Builder builder) {
+        if (builder.maxAttempts < 1) {
+            throw new IllegalArgumentException("Maximum attempts must be positive");
+        }
+        if (builder.initialDelayMs < 0 || builder.maxDelayMs < builder.initialDelayMs) {
+            throw new IllegalArgumentException("Delays must not be negative and the maximum delay must cover the initial delay");
+        }
+        this.budget = builder.budget != null ? builder.budget : RetryBudget.unlimited();
+        this.classifier = builder.classifier != null ? builder.classifier : StatusRetryClassifier.defaults();
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelayMs = builder.initialDelayMs;
+        this.maxDelayMs = builder.maxDelayMs;
+        this.jitter = builder.jitter != null ? builder.jitter : JitterMode.NONE;
+        this.random = builder.random;
+        this.logger = builder.logger;
+        this.asyncExecutor = builder.asyncExecutor != null ? builder.asyncExecutor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Creates a builder. Policies built with it apply {@link JitterMode#FULL} unless told otherwise.
+     *
+     * @return new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -46,20 +121,53 @@ public class ExponentialBackoffRetryPolicy implements RetryPolicy {
      */
     @Override
     public <T> T executeWithRetry(RetryableOperation<T> operation) {
-        long delay = initialDelayMs;
+        return executeWithRetry(operation, null);
+    }
+
+    /**
+     * Executes the given retryable operation, retrying with exponential backoff only while
+     * the backoff ends before {@code deadline}.
+     *
+     * @param operation operation to execute
+     * @param deadline  deadline of the whole call, or {@code null}
+     * @param <T>       return type
+     * @return operation result
+     *
+     * @throws RetryExhaustedException if all attempts fail
+     * @throws WeatherDeadlineExceededException if the deadline does not leave time for another attempt
+     */
+    @Override
+    public <T> T executeWithRetry(RetryableOperation<T> operation, Deadline deadline) {
+        long previous = initialDelayMs;
 
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
                 logger.debug(String.format(RETRY_ATTEMPT_MESSAGE, attempt));
-                return operation.run();
+                T result = operation.run();
+                budget.onSuccess();
+                return result;
+            } catch (WeatherCircuitOpenException | WeatherDeadlineExceededException ex) {
+                throw ex;
             } catch (Exception ex) {
+                if (!isRetryable(ex)) {
+                    throw ex;
+                }
                 if (attempt == maxAttempts) {
                     logger.error(String.format(RETRY_EXHAUSTED_MESSAGE, attempt), ex);
                     throw new RetryExhaustedException(attempt, ex);
                 }
-                logger.warn(String.format(RETRY_FAILED_MESSAGE, ex.getMessage(), delay));
-                sleep(delay);
-                delay *= 2;
+                long delay = nextDelay(attempt, previous);
+                long wait = backoff(delay, ex);
+                if (!fitsDeadline(deadline, wait, ex)) {
+                    throw deadline.exceeded(ex);
+                }
+                if (!withinBudget(ex)) {
+                    throw ex;
+                }
+                retriedFailures.increment();
+                logger.warn(String.format(RETRY_FAILED_MESSAGE, ex.getMessage(), wait));
+                sleep(wait, attempt + 1, ex);
+                previous = delay;
             }
         }
 
@@ -67,14 +175,363 @@ public class ExponentialBackoffRetryPolicy implements RetryPolicy {
     }
 
     /**
-     * Sleeps for the given amount of milliseconds. Extracted into its own method
-     * to allow predictable testing via mocking/spying.
+     * Executes the given non-blocking operation. On failure, the next attempt is
+     * scheduled on a delayed executor instead of parking the calling thread, so
+     * no thread is held while waiting for the backoff to elapse.
      *
-     * @param ms delay in milliseconds
+     * @param operation operation to execute
+     * @param <T>       return type
+     * @return future with the operation result, completed exceptionally with
+     *         {@link RetryExhaustedException} if all attempts fail; cancelling it stops the retries
      */
-    private void sleep(long ms) {
+    @Override
+    public <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation) {
+        return executeWithRetryAsync(operation, null);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #executeWithRetry(RetryableOperation, Deadline)}.
+     *
+     * @param operation operation to execute
+     * @param deadline  deadline of the whole call, or {@code null}
+     * @param <T>       return type
+     * @return future with the operation result, completed exceptionally with
+     *         {@link RetryExhaustedException} if all attempts fail or with
+     *         {@link WeatherDeadlineExceededException} if the deadline does not leave time for another attempt
+     */
+    @Override
+    public <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation, Deadline deadline) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(operation, 1, initialDelayMs, deadline, result);
+        return result;
+    }
+
+    /**
+     * Tells whether the classifier lets {@code failure} be retried; counts and logs permanent failures.
+     */
+    private boolean isRetryable(Throwable failure) {
+        if (classifier.isRetryable(failure)) {
+            return true;
+        }
+        nonRetryableFailures.increment();
+        logger.warn(String.format(RETRY_NOT_RETRYABLE_MESSAGE, failure.getMessage()));
+        return false;
+    }
+
+    /**
+     * Returns the backoff delay before retry number {@code retry} (1-based), jittered and capped.
+     *
+     * @param retry    number of the retry about to be scheduled
+     * @param previous backoff delay of the previous retry, or the initial delay before the first one
+     */
+    private long nextDelay(int retry, long previous) {
+        return switch (jitter) {
+            case NONE -> exponential(retry);
+            case FULL -> (long) (random.getAsDouble() * (exponential(retry) + 1));
+            case DECORRELATED -> {
+                long upper = previous > maxDelayMs / 3 ? maxDelayMs : Math.max(initialDelayMs, previous * 3);
+                yield initialDelayMs + (long) (random.getAsDouble() * (upper - initialDelayMs + 1));
+            }
+        };
+    }
+
+    /**
+     * Returns {@code initialDelayMs * 2^(retry - 1)}, capped by the maximum delay without overflowing.
+     */
+    private long exponential(int retry) {
+        int shift = Math.min(retry - 1, Long.SIZE - 2);
+        return initialDelayMs > maxDelayMs >> shift ? maxDelayMs : initialDelayMs << shift;
+    }
+
+    /**
+     * Returns the delay before the next attempt: the requested {@code Retry-After}, else the backoff delay.
+     */
+    private long backoff(long delay, Throwable failure) {
+        long retryAfter = classifier.retryAfterMillis(failure);
+        return retryAfter >= 0 ? retryAfter : delay;
+    }
+
+    /**
+     * Tells whether a retry after {@code delay} can still start before the deadline; logs when it cannot.
+     */
+    private boolean fitsDeadline(Deadline deadline, long delay, Throwable failure) {
+        if (deadline == null) {
+            return true;
+        }
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos());
+        if (remainingMs > delay) {
+            return true;
+        }
+        logger.warn(String.format(RETRY_DEADLINE_MESSAGE, failure.getMessage(), Math.max(0, remainingMs)));
+        return false;
+    }
+
+    /**
+     * Takes a retry from the budget; logs when it is spent.
+     */
+    private boolean withinBudget(Throwable failure) {
+        if (budget.tryAcquireRetry()) {
+            return true;
+        }
+        logger.warn(String.format(RETRY_BUDGET_EXHAUSTED_MESSAGE, failure.getMessage(),
+                budget.getRecentRetries(), budget.getRetryLimit()));
+        return false;
+    }
+
+    /**
+     * Runs a single asynchronous attempt and chains the next one on failure.
+     *
+     * @param operation operation to execute
+     * @param attempt   current attempt number (1-based)
+     * @param previous  backoff delay before this attempt, in milliseconds
+     * @param deadline  deadline of the whole call, or {@code null}
+     * @param result    future completed once the operation succeeds or retries are exhausted
+     */
+    private <T> void attemptAsync(AsyncRetryableOperation<T> operation, int attempt, long previous, Deadline deadline,
+                                  CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        logger.debug(String.format(RETRY_ATTEMPT_MESSAGE, attempt));
+
+        CompletableFuture<T> future;
+        try {
+            future = operation.run();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> inFlight = future;
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                inFlight.cancel(true);
+            }
+        });
+
+        future.whenComplete((value, error) -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (error == null) {
+                budget.onSuccess();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = CompletableFutures.unwrap(error);
+            if (cause instanceof WeatherCircuitOpenException || cause instanceof WeatherDeadlineExceededException
+                    || !isRetryable(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (attempt == maxAttempts) {
+                logger.error(String.format(RETRY_EXHAUSTED_MESSAGE, attempt), cause);
+                result.completeExceptionally(new RetryExhaustedException(attempt, cause));
+                return;
+            }
+            long delay = nextDelay(attempt, previous);
+            long wait = backoff(delay, cause);
+            if (!fitsDeadline(deadline, wait, cause)) {
+                result.completeExceptionally(deadline.exceeded(cause));
+                return;
+            }
+            if (!withinBudget(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            retriedFailures.increment();
+            logger.warn(String.format(RETRY_FAILED_MESSAGE, cause.getMessage(), wait));
+            CompletableFuture.delayedExecutor(wait, TimeUnit.MILLISECONDS, asyncExecutor)
+                    .execute(() -> attemptAsync(operation, attempt + 1, delay, deadline, result));
+        });
+    }
+
+    /**
+     * @return jitter applied to the backoff delay
+     */
+    public JitterMode getJitter() {
+        return jitter;
+    }
+
+    /**
+     * @return longest backoff delay, in milliseconds
+     */
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    /**
+     * @return classifier deciding which failures are retried
+     */
+    public RetryClassifier getClassifier() {
+        return classifier;
+    }
+
+    /**
+     * @return budget every retry is taken from
+     */
+    public RetryBudget getRetryBudget() {
+        return budget;
+    }
+
+    /**
+     * @return number of failed attempts that were followed by another attempt
+     */
+    public long getRetriedFailures() {
+        return retriedFailures.sum();
+    }
+
+    /**
+     * @return number of failures that were not retried because the classifier deemed them permanent
+     */
+    public long getNonRetryableFailures() {
+        return nonRetryableFailures.sum();
+    }
+
+    /**
+     * Waits for the backoff on the calling thread. An interrupt restores the interrupt status
+     * and ends the call instead of being swallowed.
+     *
+     * @param ms          delay in milliseconds
+     * @param nextAttempt number of the attempt waited for
+     * @param failure     failure of the last attempt
+     * @throws RetryInterruptedException if the thread is interrupted while waiting
+     */
+    private void sleep(long ms, int nextAttempt, Exception failure) {
         try {
             Thread.sleep(ms);
-        } catch (InterruptedException ignored) {}
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetryInterruptedException(String.format(RETRY_INTERRUPTED_MESSAGE, ms, nextAttempt), failure);
+        }
+    }
+
+    /**
+     * Builder for {@link ExponentialBackoffRetryPolicy}.
+     */
+    public static class Builder {
+        private int maxAttempts = DEFAULT_RETRY_POLICY_MAX_ATTEMPTS;
+        private long initialDelayMs = DEFAULT_RETRY_POLICY_DELAY_MS;
+        private long maxDelayMs = DEFAULT_RETRY_POLICY_MAX_DELAY_MS;
+        private JitterMode jitter = DEFAULT_RETRY_POLICY_JITTER;
+        private WeatherLogger logger;
+        private Executor asyncExecutor;
+        private RetryClassifier classifier;
+        private RetryBudget budget;
+        private DoubleSupplier random = () -> ThreadLocalRandom.current().nextDouble();
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the maximum number of attempts, the first one included.
+         *
+         * @param maxAttempts maximum number of attempts
+         * @return this builder
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the backoff delay before the first retry.
+         *
+         * @param initialDelayMs initial delay in milliseconds
+         * @return this builder
+         */
+        public Builder initialDelayMs(long initialDelayMs) {
+            this.initialDelayMs = initialDelayMs;
+            return this;
+        }
+
+        /**
+         * Sets the longest backoff delay. A {@code Retry-After} requested by the server is
+         * bounded by the classifier instead.
+         *
+         * @param maxDelayMs maximum delay in milliseconds
+         * @return this builder
+         */
+        public Builder maxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+            return this;
+        }
+
+        /**
+         * Sets how the backoff delay is randomized.
+         *
+         * @param jitter jitter mode; {@code null} for {@link JitterMode#NONE}
+         * @return this builder
+         */
+        public Builder jitter(JitterMode jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets the logger used to record retry progress.
+         *
+         * @param logger logger instance
+         * @return this builder
+         */
+        public Builder logger(WeatherLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * Sets the executor running delayed asynchronous attempts.
+         *
+         * @param asyncExecutor executor; {@code null} uses the common fork-join pool
+         * @return this builder
+         */
+        public Builder asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        /**
+         * Sets which failures are retried.
+         *
+         * @param classifier retry classifier; {@code null} uses {@link StatusRetryClassifier#defaults()}
+         * @return this builder
+         */
+        public Builder classifier(RetryClassifier classifier) {
+            this.classifier = classifier;
+            return this;
+        }
+
+        /**
+         * Sets the budget every retry is taken from.
+         *
+         * @param budget retry budget; {@code null} for {@link RetryBudget#unlimited()}
+         * @return this builder
+         */
+        public Builder budget(RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets the source of uniformly distributed values in {@code [0, 1)} used for jitter.
+         *
+         * @param random random source
+         * @return this builder
+         */
+        Builder random(DoubleSupplier random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return configured policy
+         * @throws IllegalArgumentException if {@code maxAttempts} is not positive, a delay is negative
+         *                                  or the maximum delay is below the initial delay
+         */
+        public ExponentialBackoffRetryPolicy build() {
+            return new ExponentialBackoffRetryPolicy(this);
+        }
     }
 }
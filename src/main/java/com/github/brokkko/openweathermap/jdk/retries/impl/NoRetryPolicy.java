@@ -1,8 +1,12 @@
 package com.github.brokkko.openweathermap.jdk.retries.impl;
 
 import com.github.brokkko.openweathermap.jdk.exceptions.NoRetryException;
+import com.github.brokkko.openweathermap.jdk.retries.AsyncRetryableOperation;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A retry policy that performs no retries.
@@ -35,4 +39,31 @@ public class NoRetryPolicy implements RetryPolicy {
             throw new NoRetryException(e);
         }
     }
+
+    /**
+     * Starts the operation once without retrying.
+     *
+     * @param operation non-blocking retryable operation
+     * @param <T>       result type
+     * @return future with the result of the operation, completed exceptionally
+     *         with {@link NoRetryException} if the operation fails
+     */
+    @Override
+    public <T> CompletableFuture<T> executeWithRetryAsync(AsyncRetryableOperation<T> operation) {
+        CompletableFuture<T> attempt;
+        try {
+            attempt = operation.run();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new NoRetryException(e));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(new NoRetryException(CompletableFutures.unwrap(error)));
+            }
+        });
+        return result;
+    }
 }
@@ -0,0 +1,221 @@
+package com.github.brokkko.openweathermap.jdk.retries.impl;
+
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.*;
+
+/**
+ * {@link RetryBudget} allowing retries up to a percentage of the successful calls of a sliding
+ * time window, plus a fixed number of retries per window so that low-traffic clients can still
+ * retry (by default 10% of the calls of the last 10 seconds, plus 10).
+ * <p>
+ * The window is divided into buckets. Each bucket is a single {@code long} packing the index of
+ * the time slice it counts (high 32 bits) with its count (low 32 bits), so recording an event is
+ * one compare-and-set and a bucket left over from an earlier slice is reset by the same
+ * operation. No lock is taken. Checking and taking a retry are two steps, so under heavy
+ * contention a few more retries than the limit may be let through.
+ */
+public final class SlidingWindowRetryBudget implements RetryBudget {
+
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+    private final double ratio;
+    private final int minRetries;
+    private final int buckets;
+    private final long bucketNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray retries;
+    private final LongAdder rejected = new LongAdder();
+
+    private SlidingWindowRetryBudget(Builder builder) {
+        if (builder.percent < 0 || builder.minRetries < 0 || builder.windowMillis < 1 || builder.buckets < 1
+                || builder.windowMillis * 1_000_000L / builder.buckets < 1) {
+            throw new IllegalArgumentException("Retry budget percentage, minimum retries, window and buckets must be valid");
+        }
+        this.ratio = builder.percent / 100;
+        this.minRetries = builder.minRetries;
+        this.buckets = builder.buckets;
+        this.bucketNanos = TimeUnit.MILLISECONDS.toNanos(builder.windowMillis) / builder.buckets;
+        this.nanoClock = builder.nanoClock;
+        this.origin = nanoClock.getAsLong();
+        this.successes = new AtomicLongArray(buckets);
+        this.retries = new AtomicLongArray(buckets);
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return budget with the default percentage, minimum and window
+     */
+    public static SlidingWindowRetryBudget defaults() {
+        return builder().build();
+    }
+
+    @Override
+    public void onSuccess() {
+        increment(successes, slice());
+    }
+
+    @Override
+    public boolean tryAcquireRetry() {
+        long slice = slice();
+        if (sum(retries, slice) >= limit(slice)) {
+            rejected.increment();
+            return false;
+        }
+        increment(retries, slice);
+        return true;
+    }
+
+    @Override
+    public long getRecentSuccesses() {
+        return sum(successes, slice());
+    }
+
+    @Override
+    public long getRecentRetries() {
+        return sum(retries, slice());
+    }
+
+    @Override
+    public long getRetryLimit() {
+        return limit(slice());
+    }
+
+    @Override
+    public long getRejectedRetries() {
+        return rejected.sum();
+    }
+
+    private long limit(long slice) {
+        return minRetries + (long) (ratio * sum(successes, slice));
+    }
+
+    /**
+     * @return index of the current time slice, counted from the creation of the budget
+     */
+    private long slice() {
+        return ((nanoClock.getAsLong() - origin) / bucketNanos) & COUNT_MASK;
+    }
+
+    private void increment(AtomicLongArray counters, long slice) {
+        int index = (int) (slice % buckets);
+        while (true) {
+            long current = counters.get(index);
+            long next = (current >>> 32) == slice ? current + 1 : (slice << 32) | 1;
+            if ((next & COUNT_MASK) == 0) {
+                return; // saturated
+            }
+            if (counters.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private long sum(AtomicLongArray counters, long slice) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long value = counters.get(i);
+            long age = (slice - (value >>> 32)) & COUNT_MASK;
+            if (age < buckets) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Builder for {@link SlidingWindowRetryBudget}.
+     */
+    public static class Builder {
+        private double percent = DEFAULT_RETRY_BUDGET_PERCENT;
+        private int minRetries = DEFAULT_RETRY_BUDGET_MIN_RETRIES;
+        private long windowMillis = DEFAULT_RETRY_BUDGET_WINDOW_MS;
+        private int buckets = DEFAULT_RETRY_BUDGET_BUCKETS;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the retries allowed as a percentage of the successful calls in the window.
+         *
+         * @param percent percentage, e.g. {@code 10} for one retry per ten successful calls
+         * @return this builder
+         */
+        public Builder percent(double percent) {
+            this.percent = percent;
+            return this;
+        }
+
+        /**
+         * Sets the retries allowed per window regardless of traffic.
+         *
+         * @param minRetries retries always allowed; {@code 0} ties retries to successes only
+         * @return this builder
+         */
+        public Builder minRetries(int minRetries) {
+            this.minRetries = minRetries;
+            return this;
+        }
+
+        /**
+         * Sets the length of the sliding window.
+         *
+         * @param windowMillis window length in milliseconds
+         * @return this builder
+         */
+        public Builder windowMillis(long windowMillis) {
+            this.windowMillis = windowMillis;
+            return this;
+        }
+
+        /**
+         * Sets the number of buckets the window slides by; more buckets slide more smoothly.
+         *
+         * @param buckets number of buckets
+         * @return this builder
+         */
+        public Builder buckets(int buckets) {
+            this.buckets = buckets;
+            return this;
+        }
+
+        /**
+         * Sets the clock, for tests.
+         *
+         * @param nanoClock source of {@link System#nanoTime()}-like timestamps
+         * @return this builder
+         */
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Builds the budget.
+         *
+         * @return new budget
+         * @throws IllegalArgumentException if a setting is negative or the window is empty
+         */
+        public SlidingWindowRetryBudget build() {
+            return new SlidingWindowRetryBudget(this);
+        }
+    }
+}
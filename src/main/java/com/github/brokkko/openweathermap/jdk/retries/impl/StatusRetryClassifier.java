@@ -0,0 +1,159 @@
+package com.github.brokkko.openweathermap.jdk.retries.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.InvalidWeatherValueException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherOverloadException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSerializationException;
+import com.github.brokkko.openweathermap.jdk.retries.RetryClassifier;
+
+import java.util.Set;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_RETRYABLE_STATUSES;
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_RETRY_AFTER_MAX_MS;
+
+/**
+ * Default {@link RetryClassifier}, classifying failures by exception type and HTTP status.
+ * <ul>
+ *     <li>{@link WeatherApiException} — retried only for the retryable statuses
+ *         ({@code 408}, {@code 425}, {@code 429}, {@code 500}, {@code 502}, {@code 503}, {@code 504}
+ *         by default); other {@code 4xx} answers are permanent</li>
+ *     <li>{@link WeatherSerializationException}, {@link WeatherResponseTooLargeException} and
+ *         {@link InvalidWeatherValueException} — never retried, the same answer would fail again</li>
+ *     <li>{@link WeatherOverloadException} — never retried: the call was shed by the client's own
+ *         concurrency limiter, and retrying it would send the load straight back into it</li>
+ *     <li>{@link WeatherRateLimitException} — never retried: the call was refused by the client's own
+ *         rate limiter or key pool, which already waited as long as it is allowed to; sleeping out
+ *         its delay and trying again would defeat fail-fast limiting</li>
+ *     <li>any failure whose requested {@code Retry-After} exceeds {@code maxRetryAfterMillis} —
+ *         not retried rather than blocking the caller that long</li>
+ *     <li>timeouts, network failures and anything else — retried, unless
+ *         {@code retryUnknownFailures} is disabled for failures that are not SDK exceptions</li>
+ * </ul>
+ * Instances are immutable and thread-safe.
+ */
+public class StatusRetryClassifier implements RetryClassifier {
+
+    private final Set<Integer> retryableStatuses;
+    private final long maxRetryAfterMillis;
+    private final boolean retryUnknownFailures;
+
+    private StatusRetryClassifier(Builder builder) {
+        this.retryableStatuses = Set.copyOf(builder.retryableStatuses);
+        this.maxRetryAfterMillis = builder.maxRetryAfterMillis;
+        this.retryUnknownFailures = builder.retryUnknownFailures;
+    }
+
+    /**
+     * Returns a classifier with the default retryable statuses and {@code Retry-After} cap.
+     *
+     * @return default classifier
+     */
+    public static StatusRetryClassifier defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @return builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean isRetryable(Throwable failure) {
+        if (retryAfterMillis(failure) > maxRetryAfterMillis) {
+            return false;
+        }
+        if (failure instanceof WeatherApiException api) {
+            return retryableStatuses.contains(api.getStatusCode());
+        }
+        if (failure instanceof WeatherSerializationException
+                || failure instanceof WeatherResponseTooLargeException
+                || failure instanceof InvalidWeatherValueException
+                || failure instanceof WeatherOverloadException
+                || failure instanceof WeatherRateLimitException) {
+            return false;
+        }
+        return retryUnknownFailures || failure instanceof WeatherSdkException;
+    }
+
+    /**
+     * @return HTTP statuses answered by the API that are retried
+     */
+    public Set<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    /**
+     * @return longest {@code Retry-After} delay the classifier accepts to wait for
+     */
+    public long getMaxRetryAfterMillis() {
+        return maxRetryAfterMillis;
+    }
+
+    /**
+     * Builder for {@link StatusRetryClassifier}.
+     */
+    public static class Builder {
+        private Set<Integer> retryableStatuses = DEFAULT_RETRYABLE_STATUSES;
+        private long maxRetryAfterMillis = DEFAULT_RETRY_AFTER_MAX_MS;
+        private boolean retryUnknownFailures = true;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the HTTP statuses that are retried; every other API answer is permanent.
+         *
+         * @param statuses retryable statuses
+         * @return this builder
+         */
+        public Builder retryableStatuses(Set<Integer> statuses) {
+            this.retryableStatuses = statuses;
+            return this;
+        }
+
+        /**
+         * Sets the longest {@code Retry-After} delay worth waiting for.
+         *
+         * @param millis delay in milliseconds
+         * @return this builder
+         */
+        public Builder maxRetryAfterMillis(long millis) {
+            this.maxRetryAfterMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets whether failures that are not SDK exceptions (e.g. a bug in a response reader) are retried.
+         *
+         * @param retry {@code true} to retry them
+         * @return this builder
+         */
+        public Builder retryUnknownFailures(boolean retry) {
+            this.retryUnknownFailures = retry;
+            return this;
+        }
+
+        /**
+         * Builds the classifier.
+         *
+         * @return new classifier
+         * @throws IllegalArgumentException if the statuses are missing or the cap is negative
+         */
+        public StatusRetryClassifier build() {
+            if (retryableStatuses == null || maxRetryAfterMillis < 0) {
+                throw new IllegalArgumentException(
+                        "Retryable statuses are required and the Retry-After cap must not be negative");
+            }
+            return new StatusRetryClassifier(this);
+        }
+    }
+}
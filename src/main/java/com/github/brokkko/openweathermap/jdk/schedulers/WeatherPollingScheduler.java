@@ -1,11 +1,16 @@
 package com.github.brokkko.openweathermap.jdk.schedulers;
 
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
+import com.github.brokkko.openweathermap.jdk.http.ConditionalResponse;
+import com.github.brokkko.openweathermap.jdk.http.ResponseBodyReader;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
 import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
 
@@ -18,14 +23,27 @@ import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.*;
  * </p>
  *
  * <p>
+ * Refreshes are conditional GETs: the {@link CacheValidators} kept with an entry are sent as
+ * {@code If-None-Match} / {@code If-Modified-Since}. On {@code 304 Not Modified} the entry is only
+ * {@linkplain WeatherCacheService#touch touched}, so no body is transferred, copied or parsed.
+ * </p>
+ *
+ * <p>
  * Errors during refresh of individual entries are logged, but they do not stop the polling cycle.
  * </p>
+ *
+ * <p>
+ * When a refresh {@link Executor} is supplied (e.g. a virtual-thread-per-task executor),
+ * entries are refreshed concurrently and the cycle completes once every refresh has finished.
+ * Otherwise entries are refreshed sequentially on the polling thread.
+ * </p>
  */
 public class WeatherPollingScheduler {
 
     private final WeatherCacheService cacheService;
     private final WeatherHttpExecutor httpExecutor;
     private final WeatherLogger logger;
+    private final Executor refreshExecutor;
 
     /**
      * Creates a new polling scheduler.
@@ -35,9 +53,23 @@ public class WeatherPollingScheduler {
      * @param logger       logger for debug/error messages
      */
     public WeatherPollingScheduler(WeatherCacheService cacheService, WeatherHttpExecutor httpExecutor, WeatherLogger logger) {
+        this(cacheService, httpExecutor, logger, null);
+    }
+
+    /**
+     * Creates a new polling scheduler refreshing entries concurrently.
+     *
+     * @param cacheService    cache used to read and update stored weather responses
+     * @param httpExecutor    executor used to perform HTTP requests for refreshing entries
+     * @param logger          logger for debug/error messages
+     * @param refreshExecutor executor running individual refreshes; {@code null} refreshes sequentially
+     */
+    public WeatherPollingScheduler(WeatherCacheService cacheService, WeatherHttpExecutor httpExecutor,
+                                   WeatherLogger logger, Executor refreshExecutor) {
         this.cacheService = cacheService;
         this.httpExecutor = httpExecutor;
         this.logger = logger;
+        this.refreshExecutor = refreshExecutor;
     }
 
     /**
@@ -58,16 +90,40 @@ public class WeatherPollingScheduler {
 
         logger.debug(String.format(POLLING_REFRESHING_MESSAGE, snapshot.size()));
 
-        for (Map.Entry<String, RequestSettings> e : snapshot.entrySet()) {
-            String key = e.getKey();
-            RequestSettings settings = e.getValue();
-            try {
-                String newJson = httpExecutor.execute(settings);
-                cacheService.put(key, newJson, settings.copy());
-            } catch (Exception ex) {
-                logger.error(String.format(POLLING_REFRESH_ERROR_MESSAGE, key), ex);
+        if (refreshExecutor == null) {
+            for (Map.Entry<String, RequestSettings> e : snapshot.entrySet()) {
+                refresh(e.getKey(), e.getValue());
+            }
+        } else {
+            CompletableFuture<?>[] refreshes = new CompletableFuture<?>[snapshot.size()];
+            int i = 0;
+            for (Map.Entry<String, RequestSettings> e : snapshot.entrySet()) {
+                refreshes[i++] = CompletableFuture.runAsync(() -> refresh(e.getKey(), e.getValue()), refreshExecutor);
             }
+            CompletableFuture.allOf(refreshes).join();
         }
         logger.debug(POLLING_FINISHED_MESSAGE);
     }
+
+    /**
+     * Revalidates a single cached entry with a conditional GET. Errors are logged and swallowed.
+     *
+     * @param key      cache key
+     * @param settings request settings associated with the entry
+     */
+    private void refresh(String key, RequestSettings settings) {
+        try {
+            CacheValidators validators = cacheService.getValidators(key).orElse(CacheValidators.NONE);
+            ConditionalResponse<byte[]> response =
+                    httpExecutor.executeConditional(settings, validators, ResponseBodyReader.ofBytes());
+            if (response.notModified()) {
+                cacheService.touch(key, response.validators());
+                logger.debug(String.format(POLLING_NOT_MODIFIED_MESSAGE, key));
+            } else {
+                cacheService.putBytes(key, response.body(), settings.copy(), response.validators());
+            }
+        } catch (Exception ex) {
+            logger.error(String.format(POLLING_REFRESH_ERROR_MESSAGE, key), ex);
+        }
+    }
 }
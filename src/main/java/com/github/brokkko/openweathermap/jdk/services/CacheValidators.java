@@ -0,0 +1,53 @@
+package com.github.brokkko.openweathermap.jdk.services;
+
+import java.net.http.HttpHeaders;
+
+/**
+ * HTTP cache validators returned with a response and replayed on the next
+ * request for the same resource as a conditional GET.
+ * <p>
+ * {@code etag} is sent back as {@code If-None-Match} and {@code lastModified}
+ * as {@code If-Modified-Since}. Either value may be {@code null} when the
+ * server did not provide it.
+ *
+ * @param etag         value of the {@code ETag} response header
+ * @param lastModified value of the {@code Last-Modified} response header
+ */
+public record CacheValidators(String etag, String lastModified) {
+
+    /** No validators: the request is sent unconditionally. */
+    public static final CacheValidators NONE = new CacheValidators(null, null);
+
+    /**
+     * Extracts validators from response headers.
+     *
+     * @param headers response headers
+     * @return validators, or {@link #NONE} if the response carries none
+     */
+    public static CacheValidators from(HttpHeaders headers) {
+        String etag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+        return etag == null && lastModified == null ? NONE : new CacheValidators(etag, lastModified);
+    }
+
+    /**
+     * @return {@code true} if neither validator is present
+     */
+    public boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+
+    /**
+     * Returns validators where values present in {@code newer} replace the current ones.
+     * A {@code 304 Not Modified} response may omit validators it did not change.
+     *
+     * @param newer validators from a more recent response
+     * @return merged validators
+     */
+    public CacheValidators updatedWith(CacheValidators newer) {
+        return new CacheValidators(
+                newer.etag != null ? newer.etag : etag,
+                newer.lastModified != null ? newer.lastModified : lastModified
+        );
+    }
+}
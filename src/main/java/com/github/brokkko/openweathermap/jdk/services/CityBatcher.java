@@ -0,0 +1,229 @@
+package com.github.brokkko.openweathermap.jdk.services;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.http.ResponseBodyReader;
+import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.mappers.WeatherResponseMapper;
+import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CITY_BATCH_SENT_MESSAGE;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CITY_NOT_IN_GROUP_MESSAGE;
+
+/**
+ * Micro-batching of concurrent city-ID lookups into OpenWeatherMap {@code /group} requests.
+ * <p>
+ * Lookups that share every request parameter but the city ID (API key, units, language) are
+ * collected for a short window, then sent as a single {@code /group?id=...} request; a batch
+ * reaching the maximum size is sent at once. The list response is split back into the
+ * {@code /weather}-shaped entry of every city, which is stored in the {@link WeatherCacheService}
+ * under the key of the single lookup and handed to its callers. A city missing from the response
+ * fails with a {@code 404} {@link WeatherApiException}; a failed group request fails every city
+ * of the batch.
+ * <p>
+ * The class is thread-safe.
+ */
+public final class CityBatcher {
+
+    /** Request parameter carrying the city ID, and the comma-separated IDs of a group request. */
+    public static final String CITY_ID_PARAM = "id";
+
+    private static final String GROUP_PATH = "/group";
+
+    private final WeatherHttpExecutor executor;
+    private final WeatherCacheService cacheService;
+    private final String baseUrl;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final WeatherLogger logger;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder groupRequests = new LongAdder();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final Map<String, Batch> open = new HashMap<>();
+
+    /**
+     * Creates a batcher.
+     *
+     * @param executor     executor sending the group requests, with its retries and limits
+     * @param cacheService cache every city is stored in
+     * @param baseUrl      base API URL the {@code /group} path is appended to
+     * @param windowMillis time lookups are collected before their batch is sent
+     * @param maxBatchSize number of cities that makes a batch be sent at once
+     * @param logger       logger for batching events
+     * @throws IllegalArgumentException if the window or the batch size is not positive
+     */
+    public CityBatcher(WeatherHttpExecutor executor, WeatherCacheService cacheService, String baseUrl,
+                       long windowMillis, int maxBatchSize, WeatherLogger logger) {
+        if (windowMillis <= 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch window and batch size must be positive");
+        }
+        this.executor = executor;
+        this.cacheService = cacheService;
+        this.baseUrl = baseUrl;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.logger = logger;
+    }
+
+    /**
+     * Adds the lookup described by {@code settings} to the batch of its parameters.
+     *
+     * @param settings settings of a single lookup carrying {@link #CITY_ID_PARAM}
+     * @param cacheKey key the city is cached under
+     * @return future completed with the UTF-8 encoded JSON of the city once its batch is answered
+     * @throws NumberFormatException if the city ID is not a number
+     */
+    public CompletableFuture<byte[]> fetch(RequestSettings settings, String cacheKey) {
+        long cityId = Long.parseLong(settings.getRequestParameters().get(CITY_ID_PARAM));
+        RequestSettings template = settings.copy();
+        template.removeRequestParameter(CITY_ID_PARAM);
+        String batchKey = template.cacheKey();
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        lookups.increment();
+
+        Batch full = null;
+        lock.lock();
+        try {
+            Batch batch = open.get(batchKey);
+            if (batch == null) {
+                batch = new Batch(template);
+                open.put(batchKey, batch);
+                Batch scheduled = batch;
+                CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS)
+                        .execute(() -> flush(batchKey, scheduled));
+            }
+            batch.add(cityId, new Waiter(cacheKey, settings.copy(), result));
+            if (batch.waiters.size() >= maxBatchSize) {
+                open.remove(batchKey);
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            send(full);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of lookups received
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return number of group requests sent
+     */
+    public long getGroupRequests() {
+        return groupRequests.sum();
+    }
+
+    /**
+     * Sends {@code batch} once its window has elapsed, unless it was already sent because it filled up.
+     */
+    private void flush(String batchKey, Batch batch) {
+        lock.lock();
+        try {
+            if (!open.remove(batchKey, batch)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        RequestSettings group = batch.template.copy();
+        group.getUrlBuilder().setLength(0);
+        group.appendToURL(baseUrl + GROUP_PATH);
+        StringBuilder ids = new StringBuilder(batch.waiters.size() * 8);
+        for (Long cityId : batch.waiters.keySet()) {
+            if (!ids.isEmpty()) {
+                ids.append(',');
+            }
+            ids.append(cityId);
+        }
+        group.putRequestParameter(CITY_ID_PARAM, ids.toString());
+        groupRequests.increment();
+        logger.debug(String.format(CITY_BATCH_SENT_MESSAGE, batch.waiters.size()));
+
+        CompletableFuture<byte[]> response;
+        try {
+            response = executor.executeAsync(group, ResponseBodyReader.ofBytes());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((body, error) -> {
+            if (error != null) {
+                batch.fail(CompletableFutures.unwrap(error));
+                return;
+            }
+            Map<Long, byte[]> cities;
+            try {
+                cities = WeatherResponseMapper.splitGroupResponse(body);
+            } catch (RuntimeException e) {
+                batch.fail(e);
+                return;
+            }
+            batch.waiters.forEach((cityId, waiters) -> complete(cityId, cities.get(cityId), waiters));
+        });
+    }
+
+    private void complete(long cityId, byte[] city, List<Waiter> waiters) {
+        if (city == null) {
+            WeatherApiException missing = new WeatherApiException(String.format(CITY_NOT_IN_GROUP_MESSAGE, cityId), 404);
+            waiters.forEach(waiter -> waiter.result.completeExceptionally(missing));
+            return;
+        }
+        Waiter first = waiters.get(0);
+        try {
+            cacheService.putBytes(first.cacheKey, city, first.settings);
+        } catch (RuntimeException e) {
+            waiters.forEach(waiter -> waiter.result.completeExceptionally(e));
+            return;
+        }
+        waiters.forEach(waiter -> waiter.result.complete(city));
+    }
+
+    /**
+     * Lookup waiting for its batch: the cache key and settings its city is stored with.
+     */
+    private record Waiter(String cacheKey, RequestSettings settings, CompletableFuture<byte[]> result) {}
+
+    /**
+     * Lookups sharing the same parameters, keyed by city ID in arrival order.
+     */
+    private static final class Batch {
+        private final RequestSettings template;
+        private final Map<Long, List<Waiter>> waiters = new LinkedHashMap<>();
+
+        private Batch(RequestSettings template) {
+            this.template = template;
+        }
+
+        private void add(long cityId, Waiter waiter) {
+            waiters.computeIfAbsent(cityId, id -> new ArrayList<>(1)).add(waiter);
+        }
+
+        private void fail(Throwable error) {
+            waiters.values().forEach(list -> list.forEach(waiter -> waiter.result.completeExceptionally(error)));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.brokkko.openweathermap.jdk.services;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.utils.CompletableFutures;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.COALESCER_JOINED_MESSAGE;
+
+/**
+ * Single-flight coordination of concurrent fetches for the same key.
+ * <p>
+ * The first caller for a key (the <i>leader</i>) performs the fetch; every caller
+ * arriving while it is in flight joins it and receives the same result or the same
+ * failure instead of issuing its own request. Once the fetch completes the key is
+ * released, so a later call starts a new fetch.
+ * <p>
+ * Blocking and non-blocking callers share the same in-flight table: a blocking
+ * follower simply waits for the leader's future.
+ * <p>
+ * An asynchronous fetch started with a {@link Deadline} runs under a {@linkplain Deadline#share() shared}
+ * copy of it. Every caller joining the fetch extends that copy to its own deadline, or lifts it when
+ * it has none, so the fetch is only given up once no caller is waiting for it any more.
+ * <p>
+ * The class is thread-safe and lock-free on the fast path.
+ */
+public final class RequestCoalescer {
+
+    /**
+     * Fetch in flight for one key.
+     *
+     * @param result   outcome shared with every caller
+     * @param deadline deadline the fetch runs under, or {@code null} for none
+     */
+    private record Flight(CompletableFuture<Object> result, Deadline deadline) {}
+
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final WeatherLogger logger;
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param logger logger for coalescing events
+     */
+    public RequestCoalescer(WeatherLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Runs {@code fetch} on the calling thread unless a fetch for {@code key} is already
+     * in flight, in which case the calling thread waits for that fetch instead.
+     *
+     * @param key   coalescing key
+     * @param fetch blocking fetch executed by the leader
+     * @param <T>   result type; all callers for one key must use the same type
+     * @return result of the (possibly shared) fetch
+     * @throws RuntimeException the failure of the shared fetch
+     * @throws WeatherSdkException if a waiting follower is interrupted
+     */
+    public <T> T execute(String key, Supplier<T> fetch) {
+        return execute(key, fetch, null);
+    }
+
+    /**
+     * Like {@link #execute(String, Supplier)}, but a follower stops waiting for the shared
+     * fetch once {@code deadline} passes. The leader's fetch is expected to honour the
+     * deadline itself.
+     *
+     * @param key      coalescing key
+     * @param fetch    blocking fetch executed by the leader
+     * @param deadline deadline of the calling thread, or {@code null} to wait indefinitely
+     * @param <T>      result type; all callers for one key must use the same type
+     * @return result of the (possibly shared) fetch
+     * @throws RuntimeException the failure of the shared fetch
+     * @throws com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException
+     *         if a waiting follower runs out of time
+     * @throws WeatherSdkException if a waiting follower is interrupted
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> fetch, Deadline deadline) {
+        Flight flight = new Flight(new CompletableFuture<>(), null);
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            join(key, existing, deadline);
+            return (T) CompletableFutures.await(existing.result(), deadline);
+        }
+
+        fetches.increment();
+        try {
+            T result = fetch.get();
+            inFlight.remove(key, flight);
+            flight.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts {@code fetch} unless a fetch for {@code key} is already in flight, in which
+     * case the returned future completes with the outcome of that fetch.
+     * <p>
+     * Every caller receives its own dependent future, so cancelling it does not
+     * affect the shared fetch or the other callers.
+     *
+     * @param key   coalescing key
+     * @param fetch non-blocking fetch started by the leader
+     * @param <T>   result type; all callers for one key must use the same type
+     * @return future completed with the outcome of the (possibly shared) fetch
+     */
+    public <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> fetch) {
+        return executeAsync(key, shared -> fetch.get(), null);
+    }
+
+    /**
+     * Like {@link #executeAsync(String, Supplier)}, but the fetch runs under a deadline.
+     * <p>
+     * The leader's fetch receives a {@linkplain Deadline#share() shared} copy of {@code deadline}
+     * and is expected to honour it. A caller joining the fetch extends the shared deadline to its
+     * own, or lifts it when it has none. Each caller's future fails with
+     * {@link com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException}
+     * at its own deadline, leaving the fetch running for the others.
+     *
+     * @param key      coalescing key
+     * @param fetch    non-blocking fetch started by the leader, given the deadline it must honour
+     *                 ({@code null} for none)
+     * @param deadline deadline of the calling thread, or {@code null} to wait indefinitely
+     * @param <T>      result type; all callers for one key must use the same type
+     * @return future completed with the outcome of the (possibly shared) fetch
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Function<Deadline, CompletableFuture<T>> fetch,
+                                                 Deadline deadline) {
+        Flight flight = new Flight(new CompletableFuture<>(), deadline == null ? null : deadline.share());
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            join(key, existing, deadline);
+            return bound((CompletableFuture<T>) existing.result().copy(), deadline);
+        }
+
+        fetches.increment();
+        CompletableFuture<T> source;
+        try {
+            source = fetch.apply(flight.deadline());
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((result, error) -> {
+            inFlight.remove(key, flight);
+            if (error == null) {
+                flight.result().complete(result);
+            } else {
+                flight.result().completeExceptionally(CompletableFutures.unwrap(error));
+            }
+        });
+        return bound((CompletableFuture<T>) flight.result().copy(), deadline);
+    }
+
+    /**
+     * @return number of fetches actually started
+     */
+    public long getFetches() {
+        return fetches.sum();
+    }
+
+    /**
+     * @return number of callers that joined an in-flight fetch instead of starting their own
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    /**
+     * @return number of keys currently being fetched
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private void join(String key, Flight flight, Deadline deadline) {
+        if (flight.deadline() != null) {
+            flight.deadline().extendTo(deadline);
+        }
+        coalescedCalls.increment();
+        logger.debug(String.format(COALESCER_JOINED_MESSAGE, key));
+    }
+
+    private static <T> CompletableFuture<T> bound(CompletableFuture<T> result, Deadline deadline) {
+        return deadline == null ? result : deadline.bound(result);
+    }
+}
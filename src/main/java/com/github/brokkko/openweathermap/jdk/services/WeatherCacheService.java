@@ -2,6 +2,7 @@ package com.github.brokkko.openweathermap.jdk.services;
 
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -24,6 +25,56 @@ public interface WeatherCacheService {
      * @param settings request settings
      */
     void put(String cacheKey, String jsonResponse, RequestSettings settings);
+    /**
+     * Retrieves a cached value by key as raw UTF-8 bytes, suitable for feeding
+     * a JSON parser without decoding into a {@link String}.
+     * The returned array must not be modified.
+     * @param cacheKey cache key
+     * @return UTF-8 encoded json entry
+     */
+    default Optional<byte[]> getBytes(String cacheKey) {
+        return get(cacheKey).map(json -> json.getBytes(StandardCharsets.UTF_8));
+    }
+    /**
+     * Stores a new response given as raw UTF-8 bytes. The cache takes ownership of the array.
+     * If capacity is exceeded, evicts the oldest entry.
+     * @param cacheKey cache key
+     * @param jsonResponse UTF-8 encoded json response
+     * @param settings request settings
+     */
+    default void putBytes(String cacheKey, byte[] jsonResponse, RequestSettings settings) {
+        put(cacheKey, new String(jsonResponse, StandardCharsets.UTF_8), settings);
+    }
+    /**
+     * Stores a new response given as raw UTF-8 bytes together with the HTTP validators
+     * ({@code ETag} / {@code Last-Modified}) used to revalidate it later.
+     * Caches that do not keep validators store the body only.
+     * @param cacheKey cache key
+     * @param jsonResponse UTF-8 encoded json response
+     * @param settings request settings
+     * @param validators validators returned with the response
+     */
+    default void putBytes(String cacheKey, byte[] jsonResponse, RequestSettings settings, CacheValidators validators) {
+        putBytes(cacheKey, jsonResponse, settings);
+    }
+    /**
+     * Retrieves the HTTP validators stored with an entry.
+     * @param cacheKey cache key
+     * @return validators, or {@link Optional#empty()} if the entry is absent or has none
+     */
+    default Optional<CacheValidators> getValidators(String cacheKey) {
+        return Optional.empty();
+    }
+    /**
+     * Marks an entry as freshly fetched without replacing its body, e.g. after a
+     * {@code 304 Not Modified} answer. Validators are replaced with the given ones.
+     * @param cacheKey cache key
+     * @param validators validators to keep for the entry
+     * @return {@code true} if the entry was present and has been refreshed
+     */
+    default boolean touch(String cacheKey, CacheValidators validators) {
+        return false;
+    }
     /**
      * Removes an entry by key.
      * @param cacheKey cache key
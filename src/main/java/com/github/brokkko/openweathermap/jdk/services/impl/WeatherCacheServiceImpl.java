@@ -2,31 +2,47 @@ package com.github.brokkko.openweathermap.jdk.services.impl;
 
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
 import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CACHE_PUT_BYTES_MESSAGE;
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CACHE_PUT_MESSAGE;
 import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CACHE_REMOVE_MESSAGE;
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.CACHE_TOUCH_MESSAGE;
 
 /**
  * Thread-safe in-memory cache storing weather API responses.
  * Supports TTL expiration and a size limit. When the capacity is exceeded,
- * the oldest entry is evicted. Each entry stores:
+ * the least recently used entry is evicted. Each entry stores:
  * <ul>
- *   <li>JSON response</li>
+ *   <li>JSON response as UTF-8 bytes (decoded to a {@link String} only when requested)</li>
  *   <li>timestamp of when it was fetched</li>
  *   <li>the {@link RequestSettings} associated with the response</li>
+ *   <li>the {@link CacheValidators} used to revalidate it with a conditional GET</li>
  * </ul>
+ * Recency is kept in a doubly linked list next to the map, so eviction unlinks its head in
+ * constant time. Writes update the map and the list under one lock, which keeps the size within
+ * the capacity even under concurrent inserts. Reads never wait for the lock: a read that finds
+ * it busy skips moving its entry to the tail, so recency is approximate under contention, and
+ * leaves an expired entry in place for the next write to overwrite or evict.
  */
 public class WeatherCacheServiceImpl implements WeatherCacheService {
     private final int capacity;
     private final long ttlMillis;
 
-    private final ConcurrentHashMap<String, CacheEntry> store = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Node> store = new ConcurrentHashMap<>();
     private final WeatherLogger logger;
 
+    // recency list from least to most recently used, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private Node head;
+    private Node tail;
+
     /**
      * Creates a new cache.
      *
@@ -40,7 +56,22 @@ public class WeatherCacheServiceImpl implements WeatherCacheService {
         this.logger = logger;
     }
 
-    private record CacheEntry(String json, long fetchedAtMillis, RequestSettings settings) {
+    private record CacheEntry(byte[] json, long fetchedAtMillis, RequestSettings settings, CacheValidators validators) {
+    }
+
+    /**
+     * Map value and recency list element; the entry is swapped in place on update.
+     */
+    private static final class Node {
+        private final String key;
+        private volatile CacheEntry entry;
+        private Node prev;
+        private Node next;
+
+        private Node(String key, CacheEntry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
     }
 
     /**
@@ -49,36 +80,159 @@ public class WeatherCacheServiceImpl implements WeatherCacheService {
      */
     @Override
     public Optional<String> get(String cacheKey) {
-        CacheEntry entry = store.get(cacheKey);
-        if (entry == null) return Optional.empty();
+        return getBytes(cacheKey).map(json -> new String(json, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retrieves a cached value by key as raw UTF-8 bytes without copying them.
+     * If the entry has expired (based on TTL), {@link Optional#empty()} is returned and the entry
+     * is removed, unless another thread holds the cache lock.
+     * A hit marks the entry as most recently used unless another thread holds the cache lock.
+     */
+    @Override
+    public Optional<byte[]> getBytes(String cacheKey) {
+        Node node = store.get(cacheKey);
+        if (node == null) return Optional.empty();
+        CacheEntry entry = node.entry;
         if (System.currentTimeMillis() - entry.fetchedAtMillis > ttlMillis) {
-            store.remove(cacheKey, entry);
+            if (!lock.tryLock()) {
+                return Optional.empty();
+            }
+            try {
+                if (node.entry == entry && store.remove(cacheKey, node)) {
+                    unlink(node);
+                }
+            } finally {
+                lock.unlock();
+            }
             return Optional.empty();
         }
+        if (lock.tryLock()) {
+            try {
+                if (store.get(cacheKey) == node) {
+                    moveToTail(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
         return Optional.of(entry.json);
     }
 
     /**
-     * Stores a new response. If capacity is exceeded, evicts the oldest entry.
+     * Stores a new response. If capacity is exceeded, evicts the least recently used entry.
      * Logs insertion.
      */
     @Override
     public void put(String cacheKey, String jsonResponse, RequestSettings settings) {
-        if (store.size() >= capacity && !store.containsKey(cacheKey)) {
-            String oldestKey = null;
-            long oldestTime = Long.MAX_VALUE;
-            for (Map.Entry<String, CacheEntry> e : store.entrySet()) {
-                if (e.getValue().fetchedAtMillis < oldestTime) {
-                    oldestTime = e.getValue().fetchedAtMillis;
-                    oldestKey = e.getKey();
-                }
+        store(cacheKey, jsonResponse.getBytes(StandardCharsets.UTF_8), settings, CacheValidators.NONE);
+        logger.info(String.format(CACHE_PUT_MESSAGE, cacheKey, jsonResponse));
+    }
+
+    /**
+     * Stores a new response given as raw UTF-8 bytes. If capacity is exceeded, evicts the least recently used entry.
+     * Logs insertion with the payload size instead of its content.
+     */
+    @Override
+    public void putBytes(String cacheKey, byte[] jsonResponse, RequestSettings settings) {
+        putBytes(cacheKey, jsonResponse, settings, CacheValidators.NONE);
+    }
+
+    /**
+     * Stores a new response given as raw UTF-8 bytes together with its validators.
+     * If capacity is exceeded, evicts the least recently used entry. Logs insertion with the payload size.
+     */
+    @Override
+    public void putBytes(String cacheKey, byte[] jsonResponse, RequestSettings settings, CacheValidators validators) {
+        store(cacheKey, jsonResponse, settings, validators);
+        logger.info(String.format(CACHE_PUT_BYTES_MESSAGE, cacheKey, jsonResponse.length));
+    }
+
+    /**
+     * Returns the validators of a present entry, expired or not: a stale entry is
+     * exactly the one worth revalidating.
+     */
+    @Override
+    public Optional<CacheValidators> getValidators(String cacheKey) {
+        Node node = store.get(cacheKey);
+        if (node == null || node.entry.validators.isEmpty()) return Optional.empty();
+        return Optional.of(node.entry.validators);
+    }
+
+    /**
+     * Resets the fetch timestamp of an entry keeping its body, so it is neither
+     * reported as expired nor chosen for eviction as the least recently used one.
+     */
+    @Override
+    public boolean touch(String cacheKey, CacheValidators validators) {
+        lock.lock();
+        try {
+            Node node = store.get(cacheKey);
+            if (node == null) return false;
+            CacheEntry entry = node.entry;
+            node.entry = new CacheEntry(entry.json, System.currentTimeMillis(), entry.settings, validators);
+            moveToTail(node);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug(String.format(CACHE_TOUCH_MESSAGE, cacheKey));
+        return true;
+    }
+
+    private void store(String cacheKey, byte[] jsonResponse, RequestSettings settings, CacheValidators validators) {
+        CacheEntry entry = new CacheEntry(jsonResponse, System.currentTimeMillis(), settings, validators);
+        lock.lock();
+        try {
+            Node node = store.get(cacheKey);
+            if (node != null) {
+                node.entry = entry;
+                moveToTail(node);
+                return;
             }
-            if (oldestKey != null) {
-                store.remove(oldestKey);
+            while (store.size() >= capacity && head != null) {
+                Node eldest = head;
+                store.remove(eldest.key, eldest);
+                unlink(eldest);
             }
+            node = new Node(cacheKey, entry);
+            store.put(cacheKey, node);
+            linkLast(node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void linkLast(Node node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private void moveToTail(Node node) {
+        if (tail != node) {
+            unlink(node);
+            linkLast(node);
         }
-        store.put(cacheKey, new CacheEntry(jsonResponse, System.currentTimeMillis(), settings));
-        logger.info(String.format(CACHE_PUT_MESSAGE, cacheKey, jsonResponse));
     }
 
     /**
@@ -86,7 +240,15 @@ public class WeatherCacheServiceImpl implements WeatherCacheService {
      */
     @Override
     public void remove(String cacheKey) {
-        store.remove(cacheKey);
+        lock.lock();
+        try {
+            Node node = store.remove(cacheKey);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
         logger.info(String.format(CACHE_REMOVE_MESSAGE, cacheKey));
     }
 
@@ -105,8 +267,8 @@ public class WeatherCacheServiceImpl implements WeatherCacheService {
     @Override
     public Map<String, RequestSettings> getAllRequestSettingsSnapshot() {
         Map<String, RequestSettings> snapshot = new HashMap<>();
-        for (Map.Entry<String, CacheEntry> e : store.entrySet()) {
-            snapshot.put(e.getKey(), e.getValue().settings);
+        for (Map.Entry<String, Node> e : store.entrySet()) {
+            snapshot.put(e.getKey(), e.getValue().entry.settings);
         }
         return snapshot;
     }
@@ -116,6 +278,13 @@ public class WeatherCacheServiceImpl implements WeatherCacheService {
      */
     @Override
     public void clear() {
-        store.clear();
+        lock.lock();
+        try {
+            store.clear();
+            head = null;
+            tail = null;
+        } finally {
+            lock.unlock();
+        }
     }
 }
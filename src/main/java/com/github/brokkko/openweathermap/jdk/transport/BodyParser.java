@@ -0,0 +1,32 @@
+package com.github.brokkko.openweathermap.jdk.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Consumer of a response body fed chunk by chunk while it is received, so that parsing overlaps
+ * with the transfer and the body is never held in one piece.
+ * <p>
+ * A parser is used for a single body and by one thread at a time; the chunks are handed over in
+ * order, followed by one call to {@link #finish()}.
+ *
+ * @param <T> the type produced from the body
+ */
+public interface BodyParser<T> {
+
+    /**
+     * Consumes the next chunk of the body. The chunk is only valid during the call.
+     *
+     * @param chunk next bytes of the body, as received
+     * @throws IOException if the bytes received so far cannot be parsed
+     */
+    void feed(ByteBuffer chunk) throws IOException;
+
+    /**
+     * Signals the end of the body and returns what was parsed from it.
+     *
+     * @return value produced from the body, never {@code null}
+     * @throws IOException if the body is incomplete or cannot be parsed
+     */
+    T finish() throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.github.brokkko.openweathermap.jdk.transport;
+
+/**
+ * Metadata of one exchange stored in a capture file by
+ * {@link com.github.brokkko.openweathermap.jdk.transport.impl.RecordingTransport}.
+ *
+ * @param offsetNanos  time the request was sent, relative to the start of the recording
+ * @param latencyNanos time from sending the request to receiving the whole body
+ * @param statusCode   HTTP status code of the response
+ * @param requestKey   method, path and query of the request, without the API key
+ * @param bodyBytes    size of the recorded body as received, in bytes
+ */
+public record CapturedExchange(long offsetNanos, long latencyNanos, int statusCode, String requestKey, int bodyBytes) {
+}
@@ -0,0 +1,48 @@
+package com.github.brokkko.openweathermap.jdk.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Response of an exchange whose body a {@link BodyParser} may have consumed while it was received.
+ *
+ * @param response status, headers and body of the exchange; the body is empty when {@code value} is set
+ * @param value    value the parser produced, or {@code null} when the body was buffered instead
+ * @param <T>      the type produced by the parser
+ */
+public record ParsedResponse<T>(TransportResponse response, T value) {
+
+    /**
+     * @return {@code true} if the body was consumed by the parser
+     */
+    public boolean isParsed() {
+        return value != null;
+    }
+
+    /**
+     * Adapts an exchange whose body is buffered. Cancelling the returned future cancels
+     * {@code exchange} and closes the body of a response that arrives anyway.
+     *
+     * @param exchange exchange in flight
+     * @param <T>      the type the parser would have produced
+     * @return future completed with the unparsed response
+     */
+    public static <T> CompletableFuture<ParsedResponse<T>> buffered(CompletableFuture<TransportResponse> exchange) {
+        CompletableFuture<ParsedResponse<T>> result = exchange.thenApply(response -> new ParsedResponse<>(response, null));
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+                exchange.thenAccept(ParsedResponse::close);
+            }
+        });
+        return result;
+    }
+
+    private static void close(TransportResponse response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+}
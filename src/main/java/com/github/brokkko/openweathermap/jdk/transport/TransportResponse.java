@@ -0,0 +1,15 @@
+package com.github.brokkko.openweathermap.jdk.transport;
+
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+
+/**
+ * Response of a single exchange performed by a {@link WeatherTransport}.
+ *
+ * @param statusCode HTTP status code
+ * @param headers    response headers
+ * @param body       raw response body, still encoded as announced by {@code Content-Encoding};
+ *                   must be closed by the consumer
+ */
+public record TransportResponse(int statusCode, HttpHeaders headers, InputStream body) {
+}
@@ -0,0 +1,65 @@
+package com.github.brokkko.openweathermap.jdk.transport;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport SPI used by {@link com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor}
+ * to put a single request on the wire.
+ * <p>
+ * A transport only moves bytes: it sends the given request once and hands back the status,
+ * headers and raw (possibly compressed) body. Retries, rate and concurrency limits, hedging,
+ * content decoding and error mapping stay in the executor. Failures are reported as
+ * {@link IOException}s, using {@link java.net.http.HttpTimeoutException} for timeouts and
+ * {@link java.net.ConnectException} / {@link java.net.UnknownHostException} for unreachable hosts,
+ * so that the executor can classify them.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface WeatherTransport extends AutoCloseable {
+
+    /**
+     * Sends the request and blocks until the response headers are available.
+     *
+     * @param request request to send; its timeout, if any, bounds the exchange
+     * @return response; the caller closes its body
+     * @throws IOException          if the request cannot be sent or the response cannot be read
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    TransportResponse send(HttpRequest request) throws IOException, InterruptedException;
+
+    /**
+     * Sends the request without blocking the calling thread.
+     * <p>
+     * Cancelling the returned future abandons the exchange.
+     *
+     * @param request request to send; its timeout, if any, bounds the exchange
+     * @return future completed with the response, or exceptionally with an {@link IOException}
+     */
+    CompletableFuture<TransportResponse> sendAsync(HttpRequest request);
+
+    /**
+     * Sends the request without blocking the calling thread, letting {@code parser} consume the
+     * body of a successful ({@code 2xx}) response that is not content-encoded while it is received.
+     * Any other response is returned with its body buffered, as by {@link #sendAsync(HttpRequest)}.
+     * <p>
+     * The default does not stream: it always buffers the body.
+     *
+     * @param request request to send; its timeout, if any, bounds the exchange
+     * @param parser  parser for the body; used at most once
+     * @param <T>     the type produced by the parser
+     * @return future completed with the response, or exceptionally with an {@link IOException}
+     *         or the failure of {@code parser}
+     */
+    default <T> CompletableFuture<ParsedResponse<T>> sendAsync(HttpRequest request, BodyParser<T> parser) {
+        return ParsedResponse.buffered(sendAsync(request));
+    }
+
+    /**
+     * Releases connections and threads held by the transport. The default does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
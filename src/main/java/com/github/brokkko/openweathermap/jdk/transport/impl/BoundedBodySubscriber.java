@@ -0,0 +1,103 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.github.brokkko.openweathermap.jdk.utils.SegmentedBuffer;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RESPONSE_TOO_LARGE_MESSAGE;
+
+/**
+ * Body subscriber collecting a response into pooled segments, up to a maximum size.
+ * <p>
+ * A body announced larger than the limit by {@code Content-Length} is refused before any byte
+ * is read; a body crossing the limit while streaming cancels the subscription at that point.
+ * Both fail with {@link WeatherResponseTooLargeException}. The resulting stream returns its
+ * segments to the pool when closed.
+ */
+final class BoundedBodySubscriber implements HttpResponse.BodySubscriber<InputStream> {
+
+    private final SegmentedBuffer buffer;
+    private final long maxBytes;
+    private final CompletableFuture<InputStream> body = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    private BoundedBodySubscriber(BufferPool pool, long maxBytes) {
+        this.buffer = new SegmentedBuffer(pool, maxBytes);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a body handler creating a bounded subscriber for every response.
+     *
+     * @param maxBytes maximum body size in bytes
+     * @param pool     pool the body is read into
+     * @return body handler
+     */
+    static HttpResponse.BodyHandler<InputStream> handler(long maxBytes, BufferPool pool) {
+        return info -> {
+            BoundedBodySubscriber subscriber = new BoundedBodySubscriber(pool, maxBytes);
+            long announced = info.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (announced > maxBytes) {
+                subscriber.body.completeExceptionally(subscriber.tooLarge());
+            }
+            return subscriber;
+        };
+    }
+
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (body.isDone()) {
+            subscription.cancel();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        if (body.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer item : items) {
+                buffer.write(item);
+            }
+        } catch (WeatherResponseTooLargeException e) {
+            subscription.cancel();
+            body.completeExceptionally(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        buffer.release();
+        body.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        if (!body.complete(buffer.asInputStream())) {
+            buffer.release();
+        }
+    }
+
+    private WeatherResponseTooLargeException tooLarge() {
+        return new WeatherResponseTooLargeException(String.format(RESPONSE_TOO_LARGE_MESSAGE, maxBytes), maxBytes);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Layout of the capture files written by {@link RecordingTransport} and read by
+ * {@link ReplayTransport}.
+ * <p>
+ * A file starts with {@link #MAGIC} and is followed by records appended one after another, all
+ * integers big-endian:
+ * <pre>
+ * int    length of the rest of the record
+ * long   offset of the request from the start of the recording (ns)
+ * long   latency until the whole body was received (ns)
+ * int    status code
+ * int    length, then UTF-8 request key ({@link #requestKey(HttpRequest)})
+ * int    length, then UTF-8 headers, one {@code name:value} per line
+ * int    length, then body bytes as received (still content-encoded)
+ * </pre>
+ * A record cut short at the end of the file, e.g. by a crash while recording, is ignored.
+ */
+final class CaptureFormat {
+
+    /** First bytes of every capture file. */
+    static final byte[] MAGIC = {'O', 'W', 'M', 'C', 'A', 'P', 0, 1};
+
+    /** Size of the fixed part of a record, before the variable-length sections. */
+    static final int FIXED_BYTES = Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+
+    private static final String API_KEY_PARAM = "appid";
+
+    private CaptureFormat() {}
+
+    /**
+     * Returns the key requests are recorded and looked up under: method, path and query with the
+     * parameters sorted and the API key removed, so that a capture neither leaks the key nor
+     * depends on the host or key it is replayed with.
+     */
+    static String requestKey(HttpRequest request) {
+        return requestKey(request.method(), request.uri());
+    }
+
+    static String requestKey(String method, URI uri) {
+        StringBuilder key = new StringBuilder(method).append(' ').append(uri.getRawPath());
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] parameters = Arrays.stream(query.split("&"))
+                    .filter(parameter -> !parameter.equals(API_KEY_PARAM) && !parameter.startsWith(API_KEY_PARAM + "="))
+                    .sorted()
+                    .toArray(String[]::new);
+            if (parameters.length > 0) {
+                key.append('?').append(String.join("&", parameters));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Encodes one record, including its leading length.
+     */
+    static ByteBuffer encode(long offsetNanos, long latencyNanos, int status, String requestKey,
+                             HttpHeaders headers, byte[] body) {
+        byte[] key = requestKey.getBytes(StandardCharsets.UTF_8);
+        byte[] encodedHeaders = encodeHeaders(headers);
+        int length = FIXED_BYTES - Integer.BYTES + 3 * Integer.BYTES + key.length + encodedHeaders.length + body.length;
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length)
+                .putInt(length)
+                .putLong(offsetNanos)
+                .putLong(latencyNanos)
+                .putInt(status)
+                .putInt(key.length).put(key)
+                .putInt(encodedHeaders.length).put(encodedHeaders)
+                .putInt(body.length).put(body);
+        return record.flip();
+    }
+
+    static HttpHeaders decodeHeaders(ByteBuffer source) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String text = StandardCharsets.UTF_8.decode(source).toString();
+        for (String line : text.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.computeIfAbsent(line.substring(0, colon), name -> new ArrayList<>()).add(line.substring(colon + 1));
+            }
+        }
+        return HttpHeaders.of(headers, (name, value) -> true);
+    }
+
+    private static byte[] encodeHeaders(HttpHeaders headers) {
+        StringBuilder out = new StringBuilder();
+        headers.map().forEach((name, values) -> {
+            for (String value : values) {
+                out.append(name).append(':').append(value).append('\n');
+            }
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+import com.github.brokkko.openweathermap.jdk.transport.ParsedResponse;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_MAX_RESPONSE_BYTES;
+
+/**
+ * Default {@link WeatherTransport} backed by a {@link HttpClient}.
+ * <p>
+ * Bodies are received into {@link BufferPool} segments, up to a maximum size: an oversized body
+ * fails with {@link WeatherResponseTooLargeException} as soon as it announces or crosses the
+ * limit, and the segments of a consumed body are reused by later responses. No thread is held
+ * while a body is in flight. HTTP/2, connection pooling and TLS are provided by the JDK client.
+ * <p>
+ * Given a {@link BodyParser}, the body of a successful response without {@code Content-Encoding}
+ * is fed to the parser chunk by chunk as it is received instead, under the same size limit.
+ */
+public final class JdkHttpTransport implements WeatherTransport {
+
+    /**
+     * Body of an exchange started with a parser: either the parsed value or the buffered stream.
+     */
+    private record Body<T>(InputStream stream, T value) {}
+
+    private static final String IDENTITY = "identity";
+
+    private final HttpClient client;
+    private final long maxBytes;
+    private final HttpResponse.BodyHandler<InputStream> bodyHandler;
+
+    /**
+     * Creates a transport sending requests with {@code client}, with the default body size limit
+     * and a pool of its own.
+     *
+     * @param client underlying HTTP client
+     */
+    public JdkHttpTransport(HttpClient client) {
+        this(client, DEFAULT_MAX_RESPONSE_BYTES, new BufferPool());
+    }
+
+    /**
+     * Creates a transport sending requests with {@code client}.
+     *
+     * @param client   underlying HTTP client
+     * @param maxBytes maximum size of a response body as received, in bytes
+     * @param pool     pool response bodies are read into
+     * @throws IllegalArgumentException if {@code maxBytes} is not positive
+     */
+    public JdkHttpTransport(HttpClient client, long maxBytes, BufferPool pool) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Maximum response size must be positive");
+        }
+        this.client = Objects.requireNonNull(client, "client must not be null");
+        this.maxBytes = maxBytes;
+        this.bodyHandler = BoundedBodySubscriber.handler(maxBytes, Objects.requireNonNull(pool, "pool must not be null"));
+    }
+
+    /**
+     * @return underlying HTTP client
+     */
+    public HttpClient getHttpClient() {
+        return client;
+    }
+
+    @Override
+    public TransportResponse send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, bodyHandler);
+        } catch (IOException e) {
+            if (e.getCause() instanceof WeatherResponseTooLargeException tooLarge) {
+                throw tooLarge;
+            }
+            throw e;
+        }
+        return new TransportResponse(response.statusCode(), response.headers(), body(response.body()));
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(HttpRequest request) {
+        CompletableFuture<HttpResponse<InputStream>> exchange = client.sendAsync(request, bodyHandler);
+        CompletableFuture<TransportResponse> result = exchange.thenApply(response -> new TransportResponse(
+                response.statusCode(), response.headers(), body(response.body())));
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+                // a response that arrived anyway is never handed out; give its segments back
+                exchange.thenAccept(response -> close(response.body()));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public <T> CompletableFuture<ParsedResponse<T>> sendAsync(HttpRequest request, BodyParser<T> parser) {
+        CompletableFuture<HttpResponse<Body<T>>> exchange = client.sendAsync(request, info -> subscriber(info, parser));
+        CompletableFuture<ParsedResponse<T>> result = exchange.thenApply(response -> {
+            Body<T> body = response.body();
+            return new ParsedResponse<>(new TransportResponse(response.statusCode(), response.headers(),
+                    body(body == null ? null : body.stream())), body == null ? null : body.value());
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+                exchange.thenAccept(response -> close(response.body() == null ? null : response.body().stream()));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Parses the body of a successful, unencoded response; buffers any other body.
+     */
+    private <T> HttpResponse.BodySubscriber<Body<T>> subscriber(HttpResponse.ResponseInfo info, BodyParser<T> parser) {
+        String encoding = info.headers().firstValue("Content-Encoding").orElse("").trim();
+        if (info.statusCode() >= 200 && info.statusCode() < 300
+                && (encoding.isEmpty() || encoding.equalsIgnoreCase(IDENTITY))) {
+            return HttpResponse.BodySubscribers.mapping(ParsingBodySubscriber.of(parser, maxBytes, info),
+                    value -> new Body<>(InputStream.nullInputStream(), value));
+        }
+        return HttpResponse.BodySubscribers.mapping(bodyHandler.apply(info), stream -> new Body<>(stream, null));
+    }
+
+    private static InputStream body(InputStream body) {
+        return body == null ? InputStream.nullInputStream() : body;
+    }
+
+    private static void close(InputStream body) {
+        if (body == null) {
+            return;
+        }
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.github.brokkko.openweathermap.jdk.utils.SegmentedBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RESPONSE_TOO_LARGE_MESSAGE;
+
+/**
+ * One persistent HTTP/1.1 connection of a {@link NioPipeliningTransport}.
+ * <p>
+ * Requests are written back to back without waiting for earlier responses; a reader virtual
+ * thread parses the responses into a direct buffer and completes the pending exchanges in the
+ * order their requests were written. Bodies are copied into pooled segments, up to a maximum
+ * size. Any read or protocol error, and any oversized body, closes the connection and fails
+ * every exchange still pending on it.
+ * <p>
+ * A server may close an idle keep-alive connection just as new requests are written to it.
+ * When a connection that has already served a response reaches end of stream between two
+ * responses, or a response announces {@code Connection: close}, the unanswered exchanges are
+ * handed back to the pool once instead of failing; all requests of this transport are body-less
+ * and idempotent, so sending them again is safe.
+ */
+final class NioConnection {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer;
+    private final BufferPool pool;
+    private final long maxBodyBytes;
+    private final Consumer<NioConnection> onIdle;
+    private final Consumer<NioConnection> onClosed;
+    private final Consumer<List<Exchange>> onReplay;
+
+    // serializes writes so the pending queue stays in write order; taken before lock, never inside it
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private final ArrayDeque<Exchange> pending = new ArrayDeque<>();
+    private boolean closed;
+
+    NioConnection(SocketChannel channel, int readBufferBytes, BufferPool pool, long maxBodyBytes,
+                  Consumer<NioConnection> onIdle, Consumer<NioConnection> onClosed,
+                  Consumer<List<Exchange>> onReplay) {
+        this.channel = channel;
+        this.readBuffer = ByteBuffer.allocateDirect(readBufferBytes).flip();
+        this.pool = pool;
+        this.maxBodyBytes = maxBodyBytes;
+        this.onIdle = onIdle;
+        this.onClosed = onClosed;
+        this.onReplay = onReplay;
+        Thread.ofVirtual().name("owm-nio-reader").start(this::readLoop);
+    }
+
+    /**
+     * @return number of exchanges written and not yet answered, or {@link Integer#MAX_VALUE} once closed
+     */
+    int inFlight() {
+        lock.lock();
+        try {
+            return closed ? Integer.MAX_VALUE : pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the request of {@code exchange} and queues it for its response. The socket write
+     * happens outside the state lock, so a slow write never blocks {@link #inFlight()}.
+     */
+    void send(Exchange exchange) {
+        IOException failure = null;
+        writeLock.lock();
+        try {
+            boolean queued;
+            lock.lock();
+            try {
+                queued = !closed;
+                if (queued) {
+                    exchange.connection = this;
+                    pending.addLast(exchange);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!queued) {
+                failure = new IOException("Connection closed");
+            } else {
+                try {
+                    ByteBuffer out = ByteBuffer.wrap(exchange.encoded);
+                    while (out.hasRemaining()) {
+                        channel.write(out);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (failure != null) {
+            if (exchange.connection == this) {
+                close(failure);
+            } else {
+                exchange.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Closes the socket and fails the pending exchanges with {@code cause}. Idempotent.
+     */
+    void close(IOException cause) {
+        close(cause, null, null);
+    }
+
+    /**
+     * Closes the connection because of {@code culprit}, e.g. a timed-out request: it fails with
+     * {@code failure}, the exchanges pipelined with it with {@code cause}. The connection is marked
+     * closed before any future completes, so a caller reacting to the failure never gets this
+     * connection again.
+     */
+    void close(IOException cause, Exchange culprit, Throwable failure) {
+        List<Exchange> failed;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            failed = new ArrayList<>(pending);
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+        closeChannel();
+        if (culprit != null) {
+            culprit.future.completeExceptionally(failure);
+        }
+        for (Exchange exchange : failed) {
+            exchange.future.completeExceptionally(cause);
+        }
+        onClosed.accept(this);
+    }
+
+    /**
+     * Closes the connection after the server ended it between two responses. Unanswered exchanges
+     * never sent again before are replayed if {@code replay} is set; the others fail.
+     */
+    private void closeBetweenResponses(boolean replay) {
+        List<Exchange> unanswered;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            unanswered = new ArrayList<>(pending);
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+        closeChannel();
+        onClosed.accept(this);
+        List<Exchange> resend = new ArrayList<>();
+        IOException cause = new IOException("Connection closed by server");
+        for (Exchange exchange : unanswered) {
+            if (replay && !exchange.replayed && !exchange.future.isDone()) {
+                exchange.replayed = true;
+                resend.add(exchange);
+            } else {
+                exchange.future.completeExceptionally(cause);
+            }
+        }
+        if (!resend.isEmpty()) {
+            onReplay.accept(resend);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
+    private void readLoop() {
+        int served = 0;
+        try {
+            while (true) {
+                if (!readBuffer.hasRemaining() && !fill(false)) {
+                    closeBetweenResponses(served > 0);
+                    return;
+                }
+                String statusLine = readLine();
+                Exchange exchange;
+                lock.lock();
+                try {
+                    exchange = pending.peekFirst();
+                } finally {
+                    lock.unlock();
+                }
+                if (exchange == null) {
+                    throw new IOException("Unsolicited response: " + statusLine);
+                }
+                int status = parseStatus(statusLine);
+                Map<String, List<String>> headers = readHeaders();
+                if (status >= 100 && status < 200) {
+                    continue;
+                }
+                HttpHeaders httpHeaders = HttpHeaders.of(headers, (name, value) -> true);
+                InputStream body;
+                try {
+                    body = hasBody(exchange, status) ? readBody(httpHeaders) : InputStream.nullInputStream();
+                } catch (WeatherResponseTooLargeException e) {
+                    close(new IOException("Connection closed after an oversized response"), exchange, e);
+                    return;
+                }
+                lock.lock();
+                try {
+                    pending.pollFirst();
+                } finally {
+                    lock.unlock();
+                }
+                served++;
+                boolean reusable = keepAlive(statusLine, httpHeaders);
+                if (!reusable) {
+                    // closed before the response is handed out, so the caller's next request
+                    // cannot be written to this connection
+                    closeBetweenResponses(true);
+                }
+                if (!exchange.future.complete(new TransportResponse(status, httpHeaders, body))) {
+                    body.close();
+                }
+                if (!reusable) {
+                    return;
+                }
+                onIdle.accept(this);
+            }
+        } catch (IOException e) {
+            close(e instanceof EOFException ? new IOException("Connection closed by server", e) : e);
+        }
+    }
+
+    private static boolean hasBody(Exchange exchange, int status) {
+        return !exchange.head && status != 204 && status != 304;
+    }
+
+    private static int parseStatus(String statusLine) throws IOException {
+        int first = statusLine.indexOf(' ');
+        if (!statusLine.startsWith("HTTP/") || first < 0 || statusLine.length() < first + 4) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+        try {
+            return Integer.parseInt(statusLine.substring(first + 1, first + 4));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed status line: " + statusLine, e);
+        }
+    }
+
+    private Map<String, List<String>> readHeaders() throws IOException {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new IOException("Malformed header: " + line);
+            }
+            headers.computeIfAbsent(line.substring(0, colon).trim(), name -> new ArrayList<>())
+                    .add(line.substring(colon + 1).trim());
+        }
+        return headers;
+    }
+
+    private InputStream readBody(HttpHeaders headers) throws IOException {
+        SegmentedBuffer body = new SegmentedBuffer(pool, maxBodyBytes);
+        try {
+            if (headers.firstValue("Transfer-Encoding").map(value -> value.toLowerCase().contains("chunked")).orElse(false)) {
+                readChunked(body);
+            } else {
+                long length = headers.firstValueAsLong("Content-Length").orElse(-1);
+                if (length > maxBodyBytes) {
+                    throw new WeatherResponseTooLargeException(
+                            String.format(RESPONSE_TOO_LARGE_MESSAGE, maxBodyBytes), maxBodyBytes);
+                }
+                if (length < 0) {
+                    readToEnd(body);
+                } else {
+                    readFully(body, length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            body.release();
+            throw e;
+        }
+        return body.asInputStream();
+    }
+
+    private void readChunked(SegmentedBuffer body) throws IOException {
+        while (true) {
+            String sizeLine = readLine();
+            int extension = sizeLine.indexOf(';');
+            long size;
+            try {
+                size = Long.parseLong((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed chunk size: " + sizeLine, e);
+            }
+            if (size == 0) {
+                while (!readLine().isEmpty()) {
+                    // trailers are not used
+                }
+                return;
+            }
+            if (body.size() + size > maxBodyBytes) {
+                throw new WeatherResponseTooLargeException(
+                        String.format(RESPONSE_TOO_LARGE_MESSAGE, maxBodyBytes), maxBodyBytes);
+            }
+            readFully(body, size);
+            if (!readLine().isEmpty()) {
+                throw new IOException("Malformed chunk terminator");
+            }
+        }
+    }
+
+    private void readToEnd(SegmentedBuffer body) throws IOException {
+        while (readBuffer.hasRemaining() || fill(false)) {
+            body.write(readBuffer);
+        }
+    }
+
+    private void readFully(SegmentedBuffer body, long length) throws IOException {
+        while (length > 0) {
+            if (!readBuffer.hasRemaining()) {
+                fill(true);
+            }
+            int n = (int) Math.min(length, readBuffer.remaining());
+            body.write(readBuffer.slice(readBuffer.position(), n));
+            readBuffer.position(readBuffer.position() + n);
+            length -= n;
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            if (!readBuffer.hasRemaining()) {
+                fill(true);
+            }
+            char c = (char) (readBuffer.get() & 0xFF);
+            if (c == '\n') {
+                int end = line.length();
+                if (end > 0 && line.charAt(end - 1) == '\r') {
+                    line.setLength(end - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IOException("Response line exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+            line.append(c);
+        }
+    }
+
+    /**
+     * Reads more bytes from the socket into the buffer.
+     *
+     * @return {@code false} at end of stream, unless {@code required}, in which case it throws
+     */
+    private boolean fill(boolean required) throws IOException {
+        readBuffer.compact();
+        int n;
+        try {
+            n = channel.read(readBuffer);
+        } finally {
+            readBuffer.flip();
+        }
+        if (n < 0) {
+            if (required) {
+                throw new EOFException();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean keepAlive(String statusLine, HttpHeaders headers) {
+        String connection = headers.firstValue("Connection").orElse("").toLowerCase();
+        if (connection.contains("close")) {
+            return false;
+        }
+        if (headers.firstValue("Content-Length").isEmpty()
+                && headers.firstValue("Transfer-Encoding").isEmpty()
+                && !statusLine.contains(" 204") && !statusLine.contains(" 304")) {
+            return false;
+        }
+        return !statusLine.startsWith("HTTP/1.0") || connection.contains("keep-alive");
+    }
+
+    /**
+     * Encodes the request line and headers of a body-less HTTP/1.1 request.
+     */
+    static byte[] encode(HttpRequest request, String host) {
+        String path = request.uri().getRawPath();
+        String query = request.uri().getRawQuery();
+        StringBuilder out = new StringBuilder(256)
+                .append(request.method()).append(' ')
+                .append(path == null || path.isEmpty() ? "/" : path);
+        if (query != null) {
+            out.append('?').append(query);
+        }
+        out.append(" HTTP/1.1\r\nHost: ").append(host).append("\r\n");
+        request.headers().map().forEach((name, values) -> {
+            for (String value : values) {
+                out.append(name).append(": ").append(value).append("\r\n");
+            }
+        });
+        return out.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * A request and the future of its response.
+     */
+    static final class Exchange {
+        final byte[] encoded;
+        final boolean head;
+        final CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+        volatile NioConnection connection;
+        boolean replayed;
+
+        Exchange(byte[] encoded, boolean head) {
+            this.encoded = encoded;
+            this.head = head;
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.*;
+
+/**
+ * {@link WeatherTransport} speaking HTTP/1.1 directly over NIO {@link SocketChannel}s.
+ * <p>
+ * Every host gets a small pool of persistent connections. Requests are pipelined: up to
+ * {@code pipelineDepth} requests are written on a connection before the first response is read,
+ * so a burst of small calls shares a few sockets instead of waiting for one round trip each.
+ * Responses are parsed by one reader virtual thread per connection from a direct buffer and
+ * delivered in request order; bodies are copied into {@link BufferPool} segments and bounded by
+ * {@code maxBodyBytes}, failing with
+ * {@link com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException} when
+ * exceeded. Requests beyond {@code maxConnections * pipelineDepth} wait in a
+ * per-host queue.
+ * <p>
+ * Only plain {@code http} URIs and body-less requests are supported; use it with a local
+ * TLS-terminating proxy or a plain-HTTP endpoint, and keep {@link JdkHttpTransport} for
+ * {@code https}. A request timeout covers queueing and the exchange; when it fires, the
+ * connection carrying the request is closed, because later responses on it can no longer be
+ * matched, and the requests pipelined behind it fail with an {@link IOException} so that the
+ * retry policy can send them again.
+ */
+public final class NioPipeliningTransport implements WeatherTransport {
+
+    private final int maxConnections;
+    private final int pipelineDepth;
+    private final Duration connectTimeout;
+    private final int readBufferBytes;
+    private final long maxBodyBytes;
+    private final BufferPool bufferPool;
+
+    private final Map<String, HostPool> pools = new ConcurrentHashMap<>();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private volatile boolean closed;
+
+    private NioPipeliningTransport(Builder builder) {
+        if (builder.maxConnections < 1 || builder.pipelineDepth < 1 || builder.readBufferBytes < 1
+                || builder.maxBodyBytes < 1) {
+            throw new IllegalArgumentException(
+                    "Connections, pipeline depth, read buffer and maximum body size must be positive");
+        }
+        if (builder.connectTimeout == null || builder.connectTimeout.isZero() || builder.connectTimeout.isNegative()) {
+            throw new IllegalArgumentException("Connect timeout must be positive");
+        }
+        this.maxConnections = builder.maxConnections;
+        this.pipelineDepth = builder.pipelineDepth;
+        this.connectTimeout = builder.connectTimeout;
+        this.readBufferBytes = builder.readBufferBytes;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.bufferPool = builder.bufferPool != null ? builder.bufferPool : new BufferPool();
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @return builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public TransportResponse send(HttpRequest request) throws IOException, InterruptedException {
+        CompletableFuture<TransportResponse> future = sendAsync(request);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        } catch (CancellationException e) {
+            throw new IOException("Request cancelled", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The future fails with {@link IllegalArgumentException} for {@code https} URIs and
+     * requests with a body.
+     */
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(HttpRequest request) {
+        URI uri = request.uri();
+        if (!"http".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "NIO pipelining transport supports plain http URIs only: " + uri));
+        }
+        if (request.bodyPublisher().map(body -> body.contentLength() > 0).orElse(false)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "NIO pipelining transport supports requests without a body only"));
+        }
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Transport closed"));
+        }
+
+        int port = uri.getPort() < 0 ? 80 : uri.getPort();
+        String host = uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + port;
+        NioConnection.Exchange exchange = new NioConnection.Exchange(
+                NioConnection.encode(request, host), "HEAD".equalsIgnoreCase(request.method()));
+        request.timeout().ifPresent(timeout -> scheduleTimeout(exchange, timeout));
+
+        HostPool pool = pools.computeIfAbsent(host, key -> new HostPool(uri.getHost(), port));
+        pool.submit(exchange);
+        return exchange.future;
+    }
+
+    private static void scheduleTimeout(NioConnection.Exchange exchange, Duration timeout) {
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (exchange.future.isDone()) {
+                return;
+            }
+            HttpTimeoutException timedOut = new HttpTimeoutException("request timed out");
+            NioConnection connection = exchange.connection;
+            if (connection == null) {
+                exchange.future.completeExceptionally(timedOut);
+            } else {
+                connection.close(new IOException("Connection closed after a pipelined request timed out"),
+                        exchange, timedOut);
+            }
+        });
+    }
+
+    /**
+     * @return number of connections currently open, over all hosts
+     */
+    public int getOpenConnections() {
+        int open = 0;
+        for (HostPool pool : pools.values()) {
+            open += pool.size();
+        }
+        return open;
+    }
+
+    /**
+     * @return pool response bodies are read into
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * @return number of connections opened since the transport was created
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    /**
+     * Closes every connection and fails requests still queued or in flight.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (HostPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    /**
+     * Connections and queued requests of one host.
+     */
+    private final class HostPool {
+        private final String host;
+        private final int port;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // guarded by lock
+        private final List<NioConnection> connections = new ArrayList<>();
+        private final ArrayDeque<NioConnection.Exchange> waiting = new ArrayDeque<>();
+        private int connecting;
+
+        HostPool(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        void submit(NioConnection.Exchange exchange) {
+            lock.lock();
+            try {
+                waiting.addLast(exchange);
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return connections.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Hands queued requests to the least loaded connection with room in its pipeline and
+         * opens a connection when all are full and the pool is not.
+         */
+        private void dispatch() {
+            while (true) {
+                NioConnection target = null;
+                NioConnection.Exchange exchange;
+                lock.lock();
+                try {
+                    while (!waiting.isEmpty() && waiting.peekFirst().future.isDone()) {
+                        waiting.pollFirst();
+                    }
+                    if (waiting.isEmpty()) {
+                        return;
+                    }
+                    int lowest = pipelineDepth;
+                    for (NioConnection connection : connections) {
+                        int inFlight = connection.inFlight();
+                        if (inFlight < lowest) {
+                            lowest = inFlight;
+                            target = connection;
+                        }
+                    }
+                    if (target == null) {
+                        if (!closed && connections.size() + connecting < maxConnections) {
+                            connecting++;
+                            Thread.ofVirtual().name("owm-nio-connect").start(this::open);
+                        }
+                        return;
+                    }
+                    exchange = waiting.pollFirst();
+                } finally {
+                    lock.unlock();
+                }
+                target.send(exchange);
+            }
+        }
+
+        private void open() {
+            NioConnection connection;
+            try {
+                connection = connect();
+            } catch (IOException e) {
+                List<NioConnection.Exchange> failed = new ArrayList<>();
+                lock.lock();
+                try {
+                    connecting--;
+                    if (connections.isEmpty() && connecting == 0) {
+                        failed.addAll(waiting);
+                        waiting.clear();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                failed.forEach(exchange -> exchange.future.completeExceptionally(e));
+                return;
+            }
+            boolean added;
+            lock.lock();
+            try {
+                connecting--;
+                added = !closed;
+                if (added) {
+                    connections.add(connection);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!added) {
+                connection.close(new IOException("Transport closed"));
+                return;
+            }
+            connectionsOpened.increment();
+            dispatch();
+        }
+
+        private NioConnection connect() throws IOException {
+            InetSocketAddress address = new InetSocketAddress(host, port);
+            if (address.isUnresolved()) {
+                throw new UnknownHostException(host);
+            }
+            SocketChannel channel = SocketChannel.open();
+            try {
+                channel.socket().setTcpNoDelay(true);
+                channel.socket().setKeepAlive(true);
+                channel.socket().connect(address, (int) Math.min(Integer.MAX_VALUE, connectTimeout.toMillis()));
+                return new NioConnection(channel, readBufferBytes, bufferPool, maxBodyBytes,
+                        idle -> dispatch(), this::remove, this::replay);
+            } catch (SocketTimeoutException e) {
+                channel.close();
+                HttpConnectTimeoutException timeout = new HttpConnectTimeoutException("connect timed out: " + host);
+                timeout.initCause(e);
+                throw timeout;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Puts exchanges cut off by a closed connection back at the head of the queue.
+         */
+        private void replay(List<NioConnection.Exchange> exchanges) {
+            if (closed) {
+                IOException cause = new IOException("Transport closed");
+                exchanges.forEach(exchange -> exchange.future.completeExceptionally(cause));
+                return;
+            }
+            lock.lock();
+            try {
+                for (int i = exchanges.size() - 1; i >= 0; i--) {
+                    waiting.addFirst(exchanges.get(i));
+                }
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }
+
+        private void remove(NioConnection connection) {
+            lock.lock();
+            try {
+                connections.remove(connection);
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }
+
+        void close() {
+            List<NioConnection> open;
+            List<NioConnection.Exchange> queued;
+            lock.lock();
+            try {
+                open = new ArrayList<>(connections);
+                queued = new ArrayList<>(waiting);
+                waiting.clear();
+            } finally {
+                lock.unlock();
+            }
+            IOException cause = new IOException("Transport closed");
+            open.forEach(connection -> connection.close(cause));
+            queued.forEach(exchange -> exchange.future.completeExceptionally(cause));
+        }
+    }
+
+    /**
+     * Builder for {@link NioPipeliningTransport}.
+     */
+    public static class Builder {
+        private int maxConnections = DEFAULT_NIO_MAX_CONNECTIONS;
+        private int pipelineDepth = DEFAULT_NIO_PIPELINE_DEPTH;
+        private Duration connectTimeout = Duration.ofMillis(DEFAULT_NIO_CONNECT_TIMEOUT_MS);
+        private int readBufferBytes = DEFAULT_NIO_READ_BUFFER_BYTES;
+        private long maxBodyBytes = DEFAULT_MAX_RESPONSE_BYTES;
+        private BufferPool bufferPool;
+
+        /**
+         * Creates builder instance.
+         */
+        public Builder() {}
+
+        /**
+         * Sets the maximum number of connections opened to one host.
+         *
+         * @param maxConnections number of connections
+         * @return this builder
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests written on a connection before their responses
+         * are read; {@code 1} disables pipelining but keeps connections alive.
+         *
+         * @param pipelineDepth number of requests
+         * @return this builder
+         */
+        public Builder pipelineDepth(int pipelineDepth) {
+            this.pipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        /**
+         * Sets the connect timeout.
+         *
+         * @param connectTimeout positive timeout
+         * @return this builder
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the size of the direct buffer every connection reads responses into.
+         *
+         * @param readBufferBytes buffer size in bytes
+         * @return this builder
+         */
+        public Builder readBufferBytes(int readBufferBytes) {
+            this.readBufferBytes = readBufferBytes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of a response body as received. A larger body fails its request
+         * and closes the connection it arrived on.
+         *
+         * @param maxBodyBytes limit in bytes
+         * @return this builder
+         */
+        public Builder maxBodyBytes(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        /**
+         * Sets the pool response bodies are read into.
+         *
+         * @param bufferPool buffer pool, {@code null} for a pool of the transport's own
+         * @return this builder
+         */
+        public Builder bufferPool(BufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * Builds the transport.
+         *
+         * @return new transport
+         * @throws IllegalArgumentException if a parameter is out of range
+         */
+        public NioPipeliningTransport build() {
+            return new NioPipeliningTransport(this);
+        }
+    }
+}
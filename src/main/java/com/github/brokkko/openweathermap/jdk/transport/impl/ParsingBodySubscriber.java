@@ -0,0 +1,113 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RESPONSE_TOO_LARGE_MESSAGE;
+
+/**
+ * Body subscriber handing every received chunk to a {@link BodyParser}, up to a maximum size.
+ * <p>
+ * Chunks are requested one at a time, so the parser keeps pace with the network and no chunk
+ * outlives its call. The size limit is enforced like {@link BoundedBodySubscriber}: a body
+ * announced or streamed beyond it fails with {@link WeatherResponseTooLargeException}. A parse
+ * failure cancels the subscription, so the rest of the body is not received.
+ *
+ * @param <T> the type produced by the parser
+ */
+final class ParsingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+    private final BodyParser<T> parser;
+    private final long maxBytes;
+    private final CompletableFuture<T> body = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private long received;
+
+    private ParsingBodySubscriber(BodyParser<T> parser, long maxBytes) {
+        this.parser = parser;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates a subscriber feeding the body of the response described by {@code info} to {@code parser}.
+     *
+     * @param parser   parser consuming the body
+     * @param maxBytes maximum body size in bytes
+     * @param info     status and headers of the response
+     * @param <T>      the type produced by the parser
+     * @return body subscriber
+     */
+    static <T> ParsingBodySubscriber<T> of(BodyParser<T> parser, long maxBytes, HttpResponse.ResponseInfo info) {
+        ParsingBodySubscriber<T> subscriber = new ParsingBodySubscriber<>(parser, maxBytes);
+        long announced = info.headers().firstValueAsLong("Content-Length").orElse(-1);
+        if (announced > maxBytes) {
+            subscriber.body.completeExceptionally(subscriber.tooLarge());
+        }
+        return subscriber;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (body.isDone()) {
+            subscription.cancel();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        if (body.isDone()) {
+            return;
+        }
+        try {
+            for (ByteBuffer item : items) {
+                received += item.remaining();
+                if (received > maxBytes) {
+                    throw tooLarge();
+                }
+                parser.feed(item);
+            }
+        } catch (IOException | RuntimeException e) {
+            subscription.cancel();
+            body.completeExceptionally(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        body.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        if (body.isDone()) {
+            return;
+        }
+        try {
+            body.complete(parser.finish());
+        } catch (IOException | RuntimeException e) {
+            body.completeExceptionally(e);
+        }
+    }
+
+    private WeatherResponseTooLargeException tooLarge() {
+        return new WeatherResponseTooLargeException(String.format(RESPONSE_TOO_LARGE_MESSAGE, maxBytes), maxBytes);
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link WeatherTransport} decorator appending every exchange of another transport to a capture
+ * file, to be served again by {@link ReplayTransport}.
+ * <p>
+ * For each response the request key (method, path and query without the API key), status,
+ * headers, raw body and timings are written as one record (see {@link CaptureFormat}); the body
+ * is read completely before the response is handed on. Records are only ever appended, so a
+ * capture of a long run grows without rewriting, and a crash loses at most the record being
+ * written. Failed exchanges (timeouts, connection errors) are not recorded. Recording to an
+ * existing capture file continues it.
+ *
+ * <pre>{@code
+ * OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+ *         .apiKey(apiKey)
+ *         .transport(RecordingTransport.open(new JdkHttpTransport(HttpClient.newHttpClient()), capture))
+ *         .build();
+ * }</pre>
+ */
+public final class RecordingTransport implements WeatherTransport {
+
+    private final WeatherTransport delegate;
+    private final FileChannel channel;
+    // keeps appended records contiguous; only the write itself runs under it
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final long startNanos = System.nanoTime();
+    private final LongAdder recorded = new LongAdder();
+
+    private RecordingTransport(WeatherTransport delegate, FileChannel channel) {
+        this.delegate = delegate;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a recording transport, creating the capture file if it does not exist.
+     *
+     * @param delegate transport performing the exchanges; closed with this transport
+     * @param file     capture file records are appended to
+     * @return recording transport
+     * @throws IOException if the file cannot be opened or is not a capture file
+     */
+    public static RecordingTransport open(WeatherTransport delegate, Path file) throws IOException {
+        Objects.requireNonNull(delegate, "delegate must not be null");
+        if (Files.exists(file) && Files.size(file) > 0) {
+            try (FileChannel existing = FileChannel.open(file, StandardOpenOption.READ)) {
+                ReplayTransport.checkMagic(existing, file);
+            }
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(CaptureFormat.MAGIC));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new RecordingTransport(delegate, channel);
+    }
+
+    /**
+     * @return number of exchanges recorded
+     */
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    @Override
+    public TransportResponse send(HttpRequest request) throws IOException, InterruptedException {
+        long sent = System.nanoTime();
+        return record(request, sent, delegate.send(request));
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(HttpRequest request) {
+        long sent = System.nanoTime();
+        return delegate.sendAsync(request).thenApply(response -> {
+            try {
+                return record(request, sent, response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Closes the capture file and the delegate transport.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private TransportResponse record(HttpRequest request, long sent, TransportResponse response) throws IOException {
+        byte[] body;
+        try (InputStream in = response.body()) {
+            body = in.readAllBytes();
+        }
+        long received = System.nanoTime();
+        ByteBuffer record = CaptureFormat.encode(sent - startNanos, received - sent, response.statusCode(),
+                CaptureFormat.requestKey(request), response.headers(), body);
+        appendLock.lock();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        recorded.increment();
+        return new TransportResponse(response.statusCode(), response.headers(), new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,358 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.transport.CapturedExchange;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link WeatherTransport} serving the exchanges of a capture file written by
+ * {@link RecordingTransport}, without any network access.
+ * <p>
+ * The file is memory-mapped in regions of up to 1 GB, so captures of several gigabytes are
+ * indexed in one sequential pass and response bodies are streamed straight from the page cache
+ * without being copied onto the heap. A request is answered with the responses recorded for the
+ * same method, path and query (the API key and parameter order are ignored), in recorded order,
+ * starting over once all have been served; a request that was never recorded fails with an
+ * {@link IOException}.
+ * <p>
+ * Every response is delayed by its recorded latency divided by {@code speedup}: {@code 1}
+ * reproduces the original timing, {@code 10} runs ten times faster, and
+ * {@link Double#POSITIVE_INFINITY} answers at once. A request whose timeout is shorter than the
+ * delay fails with {@link HttpTimeoutException}. The recorded send times are available from
+ * {@link #getExchanges()} to drive a load generator with the original arrival pattern.
+ */
+public final class ReplayTransport implements WeatherTransport {
+
+    /** Largest region of the file mapped at once. */
+    static final long MAX_REGION_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final double speedup;
+    private final List<CapturedExchange> exchanges;
+    private final Map<String, Recorded> index;
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean closed;
+
+    private ReplayTransport(FileChannel channel, double speedup, List<CapturedExchange> exchanges,
+                            Map<String, Recorded> index) {
+        this.channel = channel;
+        this.speedup = speedup;
+        this.exchanges = exchanges;
+        this.index = index;
+    }
+
+    /**
+     * Opens a capture file for replay with the original timing.
+     *
+     * @param file capture file
+     * @return replay transport
+     * @throws IOException if the file cannot be read or is not a valid capture file
+     */
+    public static ReplayTransport open(Path file) throws IOException {
+        return open(file, 1);
+    }
+
+    /**
+     * Opens a capture file for replay.
+     *
+     * @param file    capture file
+     * @param speedup factor recorded latencies are divided by; {@link Double#POSITIVE_INFINITY}
+     *                for no delay
+     * @return replay transport
+     * @throws IOException              if the file cannot be read or is not a valid capture file
+     * @throws IllegalArgumentException if {@code speedup} is not positive
+     */
+    public static ReplayTransport open(Path file, double speedup) throws IOException {
+        return open(file, speedup, MAX_REGION_BYTES);
+    }
+
+    static ReplayTransport open(Path file, double speedup, long maxRegionBytes) throws IOException {
+        if (!(speedup > 0)) {
+            throw new IllegalArgumentException("Replay speedup must be positive");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            checkMagic(channel, file);
+            List<CapturedExchange> exchanges = new ArrayList<>();
+            Map<String, List<Slot>> slots = new HashMap<>();
+            scan(channel, file, maxRegionBytes, exchanges, slots);
+            Map<String, Recorded> index = new HashMap<>(slots.size() * 2);
+            slots.forEach((key, recorded) -> index.put(key, new Recorded(recorded.toArray(Slot[]::new))));
+            return new ReplayTransport(channel, speedup, Collections.unmodifiableList(exchanges), index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Verifies that {@code channel} starts with the capture file header.
+     */
+    static void checkMagic(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(CaptureFormat.MAGIC.length);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // read until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || !Arrays.equals(header.array(), CaptureFormat.MAGIC)) {
+            throw new IOException("Not a capture file: " + file);
+        }
+    }
+
+    /**
+     * Indexes every complete record of the file, mapping a new region whenever the next record
+     * does not fit in the current one.
+     */
+    private static void scan(FileChannel channel, Path file, long maxRegionBytes,
+                             List<CapturedExchange> exchanges, Map<String, List<Slot>> slots) throws IOException {
+        long size = channel.size();
+        long position = CaptureFormat.MAGIC.length;
+        MappedByteBuffer region = null;
+        long regionStart = 0;
+        long regionEnd = 0;
+        while (position + Integer.BYTES <= size) {
+            if (region == null || position + Integer.BYTES > regionEnd) {
+                regionStart = position;
+                regionEnd = Math.min(size, position + maxRegionBytes);
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart);
+            }
+            int length = region.getInt((int) (position - regionStart));
+            long end = position + Integer.BYTES + length;
+            if (length < CaptureFormat.FIXED_BYTES + 2 * Integer.BYTES) {
+                throw corrupt(file, position);
+            }
+            if (end > size) {
+                return; // record cut short while recording
+            }
+            if (end > regionEnd) {
+                if (end - position > maxRegionBytes) {
+                    throw new IOException("Record at offset " + position + " of " + file + " exceeds "
+                            + maxRegionBytes + " bytes");
+                }
+                regionStart = position;
+                regionEnd = Math.min(size, position + maxRegionBytes);
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart);
+            }
+            int at = (int) (position - regionStart) + Integer.BYTES;
+            int limit = (int) (end - regionStart);
+            long offsetNanos = region.getLong(at);
+            long latencyNanos = region.getLong(at + Long.BYTES);
+            int status = region.getInt(at + 2 * Long.BYTES);
+            int keyAt = at + 2 * Long.BYTES + Integer.BYTES;
+            int keyLength = checkedLength(region, keyAt, limit, file, position);
+            String key = StandardCharsets.UTF_8.decode(region.slice(keyAt + Integer.BYTES, keyLength)).toString();
+            int headersAt = keyAt + Integer.BYTES + keyLength;
+            int headersLength = checkedLength(region, headersAt, limit, file, position);
+            int bodyAt = headersAt + Integer.BYTES + headersLength;
+            int bodyLength = checkedLength(region, bodyAt, limit, file, position);
+            if (bodyAt + Integer.BYTES + bodyLength != limit) {
+                throw corrupt(file, position);
+            }
+            exchanges.add(new CapturedExchange(offsetNanos, latencyNanos, status, key, bodyLength));
+            slots.computeIfAbsent(key, k -> new ArrayList<>()).add(new Slot(region, status, latencyNanos,
+                    headersAt + Integer.BYTES, headersLength, bodyAt + Integer.BYTES, bodyLength));
+            position = end;
+        }
+    }
+
+    private static int checkedLength(ByteBuffer region, int at, int limit, Path file, long record) throws IOException {
+        if (at + Integer.BYTES > limit) {
+            throw corrupt(file, record);
+        }
+        int length = region.getInt(at);
+        if (length < 0 || at + Integer.BYTES + (long) length > limit) {
+            throw corrupt(file, record);
+        }
+        return length;
+    }
+
+    private static IOException corrupt(Path file, long position) {
+        return new IOException("Corrupt record at offset " + position + " of " + file);
+    }
+
+    /**
+     * @return metadata of all recorded exchanges, in capture order
+     */
+    public List<CapturedExchange> getExchanges() {
+        return exchanges;
+    }
+
+    /**
+     * @return factor recorded latencies are divided by
+     */
+    public double getSpeedup() {
+        return speedup;
+    }
+
+    /**
+     * @return number of responses served
+     */
+    public long getReplayed() {
+        return replayed.sum();
+    }
+
+    /**
+     * @return number of requests that had no recorded response
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public TransportResponse send(HttpRequest request) throws IOException, InterruptedException {
+        Slot slot = lookup(request);
+        long delay = delayNanos(slot);
+        long timeout = request.timeout().map(Duration::toNanos).orElse(Long.MAX_VALUE);
+        if (delay > timeout) {
+            TimeUnit.NANOSECONDS.sleep(timeout);
+            throw new HttpTimeoutException("request timed out");
+        }
+        TimeUnit.NANOSECONDS.sleep(delay);
+        return respond(slot);
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(HttpRequest request) {
+        Slot slot;
+        try {
+            slot = lookup(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long delay = delayNanos(slot);
+        if (delay == 0) {
+            return CompletableFuture.completedFuture(respond(slot));
+        }
+        long timeout = request.timeout().map(Duration::toNanos).orElse(Long.MAX_VALUE);
+        CompletableFuture<TransportResponse> response = new CompletableFuture<>();
+        if (delay > timeout) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.NANOSECONDS)
+                    .execute(() -> response.completeExceptionally(new HttpTimeoutException("request timed out")));
+        } else {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!response.isDone()) {
+                    response.complete(respond(slot));
+                }
+            });
+        }
+        return response;
+    }
+
+    /**
+     * Closes the capture file. Responses already handed out stay readable; the mapped regions
+     * are released once they are no longer referenced.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Slot lookup(HttpRequest request) throws IOException {
+        if (closed) {
+            throw new IOException("Transport closed");
+        }
+        String key = CaptureFormat.requestKey(request);
+        Recorded recorded = index.get(key);
+        if (recorded == null) {
+            misses.increment();
+            throw new IOException("No recorded response for " + key);
+        }
+        return recorded.next();
+    }
+
+    private long delayNanos(Slot slot) {
+        return speedup == Double.POSITIVE_INFINITY ? 0 : Math.round(slot.latencyNanos / speedup);
+    }
+
+    private TransportResponse respond(Slot slot) {
+        replayed.increment();
+        return new TransportResponse(slot.status,
+                CaptureFormat.decodeHeaders(slot.region.slice(slot.headersAt, slot.headersLength)),
+                new BufferInputStream(slot.region.slice(slot.bodyAt, slot.bodyLength)));
+    }
+
+    /**
+     * Location of one recorded response within a mapped region.
+     */
+    private record Slot(MappedByteBuffer region, int status, long latencyNanos,
+                        int headersAt, int headersLength, int bodyAt, int bodyLength) {
+    }
+
+    /**
+     * Responses recorded for one request key, served round-robin.
+     */
+    private static final class Recorded {
+        private final Slot[] slots;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Recorded(Slot[] slots) {
+            this.slots = slots;
+        }
+
+        Slot next() {
+            return slots[Math.floorMod(next.getAndIncrement(), slots.length)];
+        }
+    }
+
+    /**
+     * Stream over a slice of a mapped region.
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_BUFFER_POOL_SEGMENTS;
+import static com.github.brokkko.openweathermap.jdk.constants.DefaultValueConstants.DEFAULT_BUFFER_SEGMENT_BYTES;
+
+/**
+ * Pool of fixed-size byte segments that response bodies are read into.
+ * <p>
+ * Segments are handed back once the body has been consumed, so that steady-state traffic
+ * (e.g. polling the same locations every few minutes) reads every response into the same few
+ * arrays instead of allocating fresh ones. At most {@code maxPooled} idle segments are retained;
+ * when the pool is empty a new segment is allocated. Thread-safe.
+ */
+public final class BufferPool {
+
+    private final int segmentBytes;
+    private final ArrayBlockingQueue<byte[]> idle;
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+
+    /**
+     * Creates a pool with the default segment size and capacity.
+     */
+    public BufferPool() {
+        this(DEFAULT_BUFFER_SEGMENT_BYTES, DEFAULT_BUFFER_POOL_SEGMENTS);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param segmentBytes size of every segment in bytes
+     * @param maxPooled    maximum number of idle segments retained
+     * @throws IllegalArgumentException if a parameter is not positive
+     */
+    public BufferPool(int segmentBytes, int maxPooled) {
+        if (segmentBytes < 1 || maxPooled < 1) {
+            throw new IllegalArgumentException("Segment size and pool capacity must be positive");
+        }
+        this.segmentBytes = segmentBytes;
+        this.idle = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * Takes an idle segment, or allocates one when none is left.
+     *
+     * @return segment of {@link #getSegmentBytes()} bytes; its content is undefined
+     */
+    public byte[] acquire() {
+        byte[] segment = idle.poll();
+        if (segment != null) {
+            reuses.increment();
+            return segment;
+        }
+        allocations.increment();
+        return new byte[segmentBytes];
+    }
+
+    /**
+     * Returns a segment to the pool. Segments of another size, and segments beyond the pool
+     * capacity, are left to the garbage collector.
+     *
+     * @param segment segment obtained from {@link #acquire()}; must not be used afterwards
+     */
+    public void release(byte[] segment) {
+        if (segment != null && segment.length == segmentBytes) {
+            idle.offer(segment);
+        }
+    }
+
+    /**
+     * @return size of every segment in bytes
+     */
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * @return number of idle segments currently pooled
+     */
+    public int getPooled() {
+        return idle.size();
+    }
+
+    /**
+     * @return number of segments allocated because the pool was empty
+     */
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    /**
+     * @return number of segments served from the pool
+     */
+    public long getReuses() {
+        return reuses.sum();
+    }
+}
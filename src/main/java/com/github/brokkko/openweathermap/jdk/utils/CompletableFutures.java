@@ -0,0 +1,69 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.HTTP_INTERRUPTED_MESSAGE;
+
+/**
+ * Helpers for working with {@link java.util.concurrent.CompletableFuture} chains.
+ * <p>
+ * Dependent stages of a {@code CompletableFuture} wrap the original failure into
+ * {@link CompletionException}. The SDK always reasons about the original cause
+ * (e.g. {@code HttpTimeoutException} or an SDK exception), so it is unwrapped here.
+ */
+public final class CompletableFutures {
+
+    private CompletableFutures() {}
+
+    /**
+     * Strips {@link CompletionException} and {@link ExecutionException} wrappers.
+     *
+     * @param error failure observed in a future callback
+     * @return the innermost meaningful cause
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Blocks until {@code future} completes, but no longer than {@code deadline}, and rethrows
+     * its failure unwrapped.
+     *
+     * @param future   future to wait for
+     * @param deadline deadline of the calling thread, or {@code null} to wait indefinitely
+     * @param <T>      result type
+     * @return result of the future
+     * @throws RuntimeException the failure of the future
+     * @throws com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException
+     *         if the deadline passes first
+     * @throws WeatherSdkException if the calling thread is interrupted
+     */
+    public static <T> T await(CompletableFuture<T> future, Deadline deadline) {
+        try {
+            return deadline == null
+                    ? future.get()
+                    : future.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw deadline.exceeded(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherSdkException(HTTP_INTERRUPTED_MESSAGE, e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new WeatherSdkException(cause.getMessage(), cause);
+        }
+    }
+}
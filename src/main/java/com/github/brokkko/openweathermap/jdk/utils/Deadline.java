@@ -0,0 +1,182 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.DEADLINE_EXCEEDED_MESSAGE;
+
+/**
+ * Point in time by which a whole call — every retry, backoff and wait included — must complete.
+ * <p>
+ * A deadline is created when the call starts and travels with its
+ * {@link com.github.brokkko.openweathermap.jdk.request.RequestSettings}: each attempt gets only the
+ * remaining time as its HTTP timeout, and retry policies stop as soon as the remaining time cannot
+ * cover the next backoff. Instances are thread-safe and immutable, except {@linkplain #share() shared}
+ * deadlines, which the calls joining a shared fetch can only push later.
+ */
+public final class Deadline {
+
+    private final LongSupplier nanoClock;
+    private final boolean shared;
+    private volatile long timeoutMillis;
+    private volatile long expiresAtNanos;
+    private volatile boolean unbounded;
+
+    private Deadline(Duration timeout, LongSupplier nanoClock) {
+        this.timeoutMillis = timeout.toMillis();
+        this.nanoClock = nanoClock;
+        this.expiresAtNanos = nanoClock.getAsLong() + timeout.toNanos();
+        this.shared = false;
+    }
+
+    private Deadline(Deadline origin) {
+        this.timeoutMillis = origin.timeoutMillis;
+        this.nanoClock = origin.nanoClock;
+        this.expiresAtNanos = origin.expiresAtNanos;
+        this.shared = true;
+    }
+
+    /**
+     * Creates a deadline expiring {@code timeout} from now.
+     *
+     * @param timeout time budget of the call
+     * @return new deadline
+     * @throws IllegalArgumentException if {@code timeout} is negative
+     */
+    public static Deadline after(Duration timeout) {
+        return after(timeout, System::nanoTime);
+    }
+
+    static Deadline after(Duration timeout, LongSupplier nanoClock) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("Deadline timeout must not be negative");
+        }
+        return new Deadline(timeout, nanoClock);
+    }
+
+    /**
+     * Creates a copy of this deadline for work shared by several calls, such as a coalesced fetch.
+     * Calls joining the work later {@linkplain #extendTo(Deadline) extend} the copy, so that the
+     * work lasts as long as one of them is still waiting for it.
+     *
+     * @return shared deadline expiring with this one until extended
+     */
+    public Deadline share() {
+        return new Deadline(this);
+    }
+
+    /**
+     * Pushes this shared deadline to {@code other} when that expires later. A {@code null}
+     * deadline lifts the limit for good, since its caller waits indefinitely.
+     *
+     * @param other deadline of a call joining the shared work, or {@code null} for none
+     * @throws IllegalStateException if this deadline was not created by {@link #share()}
+     */
+    public synchronized void extendTo(Deadline other) {
+        if (!shared) {
+            throw new IllegalStateException("Only a shared deadline can be extended");
+        }
+        if (other == null || other.unbounded) {
+            unbounded = true;
+        } else if (other.remainingNanos() > remainingNanos()) {
+            expiresAtNanos = other.expiresAtNanos;
+            timeoutMillis = other.timeoutMillis;
+        }
+    }
+
+    /**
+     * @return time left in nanoseconds; zero or negative once expired,
+     *         {@link Long#MAX_VALUE} once a shared deadline has been lifted
+     */
+    public long remainingNanos() {
+        return unbounded ? Long.MAX_VALUE : expiresAtNanos - nanoClock.getAsLong();
+    }
+
+    /**
+     * @return time left, never negative
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    /**
+     * @return {@code true} once the deadline has passed
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Throws if the deadline has passed.
+     *
+     * @throws WeatherDeadlineExceededException if the deadline has passed
+     */
+    public void check() {
+        if (isExpired()) {
+            throw exceeded(null);
+        }
+    }
+
+    /**
+     * Shortens {@code timeout} to the time left.
+     *
+     * @param timeout timeout of a single step, e.g. one HTTP attempt
+     * @return the smaller of {@code timeout} and the remaining time
+     * @throws WeatherDeadlineExceededException if the deadline has passed
+     */
+    public Duration cap(Duration timeout) {
+        long remaining = remainingNanos();
+        if (remaining <= 0) {
+            throw exceeded(null);
+        }
+        return timeout.toNanos() <= remaining ? timeout : Duration.ofNanos(remaining);
+    }
+
+    /**
+     * Returns a future mirroring {@code future} that fails with {@link WeatherDeadlineExceededException}
+     * when the deadline passes first; {@code future} is then cancelled.
+     *
+     * @param future future to bound
+     * @param <T>    result type
+     * @return bounded future
+     */
+    public <T> CompletableFuture<T> bound(CompletableFuture<T> future) {
+        if (future.isDone() || unbounded) {
+            return future;
+        }
+        CompletableFuture<T> bounded = future.copy();
+        expireLater(future, bounded);
+        return bounded;
+    }
+
+    /**
+     * Fails {@code bounded} and cancels {@code future} once this deadline passes. A shared
+     * deadline is checked again when the timer fires, since it may have been extended meanwhile.
+     */
+    private <T> void expireLater(CompletableFuture<T> future, CompletableFuture<T> bounded) {
+        CompletableFuture.delayedExecutor(Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS).execute(() -> {
+            if (unbounded || bounded.isDone()) {
+                return;
+            }
+            if (shared && !isExpired()) {
+                expireLater(future, bounded);
+            } else if (bounded.completeExceptionally(exceeded(null))) {
+                future.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Creates the exception reported when this deadline cannot be met.
+     *
+     * @param cause failure of the last attempt, or {@code null}
+     * @return exception describing this deadline
+     */
+    public WeatherDeadlineExceededException exceeded(Throwable cause) {
+        return new WeatherDeadlineExceededException(String.format(DEADLINE_EXCEEDED_MESSAGE, timeoutMillis), cause);
+    }
+}
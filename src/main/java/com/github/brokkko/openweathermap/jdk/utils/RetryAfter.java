@@ -0,0 +1,43 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parser for the {@code Retry-After} response header.
+ * <p>
+ * The header carries either a number of seconds ({@code Retry-After: 120}) or an HTTP date
+ * ({@code Retry-After: Wed, 21 Oct 2026 07:28:00 GMT}); both are converted to a delay in milliseconds.
+ */
+public final class RetryAfter {
+
+    private RetryAfter() {}
+
+    /**
+     * Parses a {@code Retry-After} value.
+     *
+     * @param value       header value, may be {@code null}
+     * @param nowMillis   current wall-clock time, used to resolve an HTTP date
+     * @return delay in milliseconds ({@code 0} for a date in the past),
+     *         or {@code -1} if the value is missing or malformed
+     */
+    public static long parseMillis(String value, long nowMillis) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds < 0 ? -1 : Math.multiplyExact(seconds, 1_000L);
+        } catch (NumberFormatException | ArithmeticException ignored) {
+            // not delta-seconds, try an HTTP date
+        }
+        try {
+            long at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - nowMillis);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
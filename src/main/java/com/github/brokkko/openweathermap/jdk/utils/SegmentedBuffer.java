@@ -0,0 +1,170 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.brokkko.openweathermap.jdk.constants.LogMessages.RESPONSE_TOO_LARGE_MESSAGE;
+
+/**
+ * Growable byte buffer made of {@link BufferPool} segments, bounded by a maximum size.
+ * <p>
+ * Bytes are appended while a body is received and read back through {@link #asInputStream()};
+ * closing that stream (or calling {@link #release()}) returns the segments to the pool.
+ * Appending past the limit releases the segments and throws
+ * {@link WeatherResponseTooLargeException}. Not thread-safe: one writer, then one reader.
+ */
+public final class SegmentedBuffer {
+
+    private final BufferPool pool;
+    private final long maxBytes;
+    private final List<byte[]> segments = new ArrayList<>();
+    private long size;
+    private boolean released;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param pool     pool segments are taken from and returned to
+     * @param maxBytes maximum number of bytes the buffer accepts
+     */
+    public SegmentedBuffer(BufferPool pool, long maxBytes) {
+        this.pool = pool;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Appends the remaining bytes of {@code source}, advancing its position.
+     *
+     * @param source bytes to append
+     * @throws WeatherResponseTooLargeException if the buffer would exceed its maximum size
+     */
+    public void write(ByteBuffer source) {
+        ensureCapacity(source.remaining());
+        while (source.hasRemaining()) {
+            int n = Math.min(source.remaining(), room());
+            source.get(currentSegment(), offset(), n);
+            size += n;
+        }
+    }
+
+    /**
+     * Appends {@code length} bytes of {@code source} starting at {@code offset}.
+     *
+     * @param source bytes to append
+     * @param offset first byte to append
+     * @param length number of bytes
+     * @throws WeatherResponseTooLargeException if the buffer would exceed its maximum size
+     */
+    public void write(byte[] source, int offset, int length) {
+        ensureCapacity(length);
+        while (length > 0) {
+            int n = Math.min(length, room());
+            System.arraycopy(source, offset, currentSegment(), offset(), n);
+            size += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the segments to the pool. Idempotent; the buffer must not be used afterwards.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (byte[] segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+    }
+
+    /**
+     * Returns a stream over the written bytes. Closing the stream releases the buffer.
+     *
+     * @return stream reading the buffer from the start
+     */
+    public InputStream asInputStream() {
+        return new SegmentInputStream();
+    }
+
+    private void ensureCapacity(long additional) {
+        if (size + additional > maxBytes) {
+            release();
+            throw new WeatherResponseTooLargeException(String.format(RESPONSE_TOO_LARGE_MESSAGE, maxBytes), maxBytes);
+        }
+    }
+
+    private int room() {
+        int offset = offset();
+        if (offset == 0 && size == (long) segments.size() * pool.getSegmentBytes()) {
+            segments.add(pool.acquire());
+        }
+        return pool.getSegmentBytes() - offset();
+    }
+
+    private byte[] currentSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private int offset() {
+        return (int) (size % pool.getSegmentBytes());
+    }
+
+    private final class SegmentInputStream extends InputStream {
+        private long position;
+
+        @Override
+        public int read() {
+            if (position >= size || released) {
+                return -1;
+            }
+            int segmentBytes = pool.getSegmentBytes();
+            int b = segments.get((int) (position / segmentBytes))[(int) (position % segmentBytes)] & 0xFF;
+            position++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= size || released) {
+                return -1;
+            }
+            int segmentBytes = pool.getSegmentBytes();
+            int total = 0;
+            while (total < length && position < size) {
+                int within = (int) (position % segmentBytes);
+                int n = (int) Math.min(Math.min(length - total, segmentBytes - within), size - position);
+                System.arraycopy(segments.get((int) (position / segmentBytes)), within, target, offset + total, n);
+                position += n;
+                total += n;
+            }
+            return total;
+        }
+
+        @Override
+        public int available() {
+            return released ? 0 : (int) Math.min(Integer.MAX_VALUE, size - position);
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.brokkko.openweathermap.jdk.benchmarks;
+
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.services.impl.WeatherCacheServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures {@link WeatherCacheServiceImpl} filled to its capacity.
+ * <p>
+ * {@code putAtCapacity} inserts a new key on every call, so each insert evicts one entry;
+ * {@code getHit} reads a random resident key. Both run on four threads to include lock contention.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.brokkko.openweathermap.jdk.benchmarks.CacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CacheBenchmark {
+
+    private static final byte[] JSON = "{\"main\":{\"temp\":12.5}}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"1000", "100000"})
+    public int capacity;
+
+    private WeatherCacheServiceImpl cache;
+    private RequestSettings settings;
+    private final AtomicLong nextKey = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        cache = new WeatherCacheServiceImpl(capacity, TimeUnit.HOURS.toMillis(1), new SilentLogger());
+        settings = new RequestSettings("key");
+        for (int i = 0; i < capacity; i++) {
+            cache.putBytes(key(i), JSON, settings);
+        }
+        nextKey.set(capacity);
+    }
+
+    @Benchmark
+    public void putAtCapacity() {
+        cache.putBytes(key(nextKey.getAndIncrement()), JSON, settings);
+    }
+
+    @Benchmark
+    public Optional<byte[]> getHit() {
+        long newest = nextKey.get();
+        return cache.getBytes(key(newest - 1 - ThreadLocalRandom.current().nextInt(capacity)));
+    }
+
+    private static String key(long i) {
+        return "weather?q=city" + i;
+    }
+
+    /**
+     * Discards every message, so formatting is the only logging cost left in the measurement.
+     */
+    private static final class SilentLogger implements WeatherLogger {
+        @Override public void debug(String msg) {}
+        @Override public void info(String msg) {}
+        @Override public void warn(String msg) {}
+        @Override public void error(String msg, Throwable t) {}
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
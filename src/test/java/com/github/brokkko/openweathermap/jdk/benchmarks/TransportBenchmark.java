@@ -0,0 +1,103 @@
+package com.github.brokkko.openweathermap.jdk.benchmarks;
+
+import com.github.brokkko.openweathermap.jdk.stub.OwmStubServer;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import com.github.brokkko.openweathermap.jdk.transport.impl.JdkHttpTransport;
+import com.github.brokkko.openweathermap.jdk.transport.impl.NioPipeliningTransport;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JdkHttpTransport} with {@link NioPipeliningTransport} against an
+ * {@link OwmStubServer} answering with a typical current-weather payload.
+ * <p>
+ * {@code sequential} measures the latency of one blocking call on a warm connection,
+ * {@code burst} the time to complete {@value #BURST} concurrent calls.
+ * The stub server runs with {@code TCP_NODELAY}, otherwise delayed ACKs dominate the latency.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.brokkko.openweathermap.jdk.benchmarks.TransportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class TransportBenchmark {
+
+    private static final int BURST = 32;
+
+    @Param({"JDK", "NIO_PIPELINING"})
+    public String transportType;
+
+    private OwmStubServer server;
+    private WeatherTransport transport;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        server = OwmStubServer.builder().etags(false).start();
+
+        transport = "JDK".equals(transportType)
+                ? new JdkHttpTransport(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build())
+                : NioPipeliningTransport.builder().build();
+        request = HttpRequest.newBuilder(URI.create(server.baseUrl() + "/weather?q=London,GB&appid=key"))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        transport.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int sequential() throws IOException, InterruptedException {
+        return drain(transport.send(request));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public int burst() throws IOException {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<TransportResponse>[] calls = new CompletableFuture[BURST];
+        for (int i = 0; i < BURST; i++) {
+            calls[i] = transport.sendAsync(request);
+        }
+        int bytes = 0;
+        for (CompletableFuture<TransportResponse> call : calls) {
+            bytes += drain(call.join());
+        }
+        return bytes;
+    }
+
+    private static int drain(TransportResponse response) throws IOException {
+        try (InputStream body = response.body()) {
+            return body.readAllBytes().length;
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TransportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,12 +1,16 @@
 package com.github.brokkko.openweathermap.jdk.clients;
 
+import com.github.brokkko.openweathermap.jdk.enums.HttpProtocol;
 import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
 import com.github.brokkko.openweathermap.jdk.enums.LoggerType;
+import com.github.brokkko.openweathermap.jdk.enums.RateLimitMode;
 import com.github.brokkko.openweathermap.jdk.enums.RetryPolicyType;
 import com.github.brokkko.openweathermap.jdk.enums.SdkMode;
 import com.github.brokkko.openweathermap.jdk.exceptions.InvalidWeatherValueException;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ClientConfigTest {
@@ -34,6 +38,8 @@ class ClientConfigTest {
         assertEquals(LoggerType.DEFAULT, config.getLoggerType());
         assertEquals(LogLevel.INFO, config.getLogLevel());
         assertEquals(10, config.getHttpTimeoutSeconds());
+        assertEquals(HttpProtocol.HTTP_1_1, config.getHttpProtocol());
+        assertEquals(1, config.getHttp2Connections());
     }
 
     @Test
@@ -72,4 +78,119 @@ class ClientConfigTest {
         assertNotEquals(config1.getApiKey(), config2.getApiKey());
         assertNotEquals(config1.getMode(), config2.getMode());
     }
+
+    @Test
+    void build_shouldApplyHttpProtocolSettings() {
+        ClientConfig config = ClientConfig.builder()
+                .apiKey("KEY")
+                .httpProtocol(HttpProtocol.HTTP_2)
+                .http2Connections(4)
+                .build();
+
+        assertEquals(HttpProtocol.HTTP_2, config.getHttpProtocol());
+        assertEquals(4, config.getHttp2Connections());
+    }
+
+    @Test
+    void build_shouldApplyVirtualThreads() {
+        assertFalse(ClientConfig.builder().apiKey("KEY").build().isVirtualThreads());
+        assertTrue(ClientConfig.builder().apiKey("KEY").virtualThreads(true).build().isVirtualThreads());
+    }
+
+    @Test
+    void build_shouldApplyRateLimitSettings() {
+        ClientConfig defaults = ClientConfig.builder().apiKey("KEY").build();
+        assertEquals(0, defaults.getRateLimitPerMinute());
+        assertEquals(0, defaults.getRateLimitPerDay());
+        assertEquals(RateLimitMode.QUEUE, defaults.getRateLimitMode());
+        assertEquals(5_000L, defaults.getRateLimitMaxWaitMillis());
+
+        ClientConfig config = ClientConfig.builder()
+                .apiKey("KEY")
+                .rateLimit(60, 1_000_000)
+                .rateLimitMode(RateLimitMode.FAIL_FAST)
+                .rateLimitMaxWaitMillis(250)
+                .build();
+        assertEquals(60, config.getRateLimitPerMinute());
+        assertEquals(1_000_000, config.getRateLimitPerDay());
+        assertEquals(RateLimitMode.FAIL_FAST, config.getRateLimitMode());
+        assertEquals(250L, config.getRateLimitMaxWaitMillis());
+    }
+
+    @Test
+    void build_shouldApplyAdaptiveConcurrencySettings() {
+        ClientConfig defaults = ClientConfig.builder().apiKey("KEY").build();
+        assertFalse(defaults.isAdaptiveConcurrency());
+        assertEquals(5_000L, defaults.getConcurrencyMaxWaitMillis());
+
+        ClientConfig config = ClientConfig.builder()
+                .apiKey("KEY")
+                .adaptiveConcurrency(true)
+                .concurrencyMaxWaitMillis(300)
+                .build();
+        assertTrue(config.isAdaptiveConcurrency());
+        assertEquals(300L, config.getConcurrencyMaxWaitMillis());
+    }
+
+    @Test
+    void build_shouldApplyHedgingSettings() {
+        ClientConfig defaults = ClientConfig.builder().apiKey("KEY").build();
+        assertFalse(defaults.isHedging());
+        assertEquals(95.0, defaults.getHedgingPercentile());
+        assertEquals(5.0, defaults.getHedgingBudgetPercent());
+
+        ClientConfig config = ClientConfig.builder()
+                .apiKey("KEY")
+                .hedging(true)
+                .hedgingPercentile(99.0)
+                .hedgingBudgetPercent(1.5)
+                .build();
+        assertTrue(config.isHedging());
+        assertEquals(99.0, config.getHedgingPercentile());
+        assertEquals(1.5, config.getHedgingBudgetPercent());
+    }
+
+    @Test
+    void build_shouldApplyWarmUpSettings() {
+        ClientConfig defaults = ClientConfig.builder().apiKey("KEY").build();
+        assertEquals(0, defaults.getWarmUpConnections());
+        assertEquals(2_000L, defaults.getWarmUpTimeoutMillis());
+        assertFalse(defaults.isWarmUpAsync());
+
+        ClientConfig config = ClientConfig.builder()
+                .apiKey("KEY")
+                .warmUp(4)
+                .warmUpTimeoutMillis(500)
+                .warmUpAsync(true)
+                .build();
+        assertEquals(4, config.getWarmUpConnections());
+        assertEquals(500L, config.getWarmUpTimeoutMillis());
+        assertTrue(config.isWarmUpAsync());
+    }
+
+    @Test
+    void build_shouldApplyMaxResponseBytes() {
+        assertEquals(4L * 1024 * 1024, ClientConfig.builder().apiKey("KEY").build().getMaxResponseBytes());
+        assertEquals(1_024L, ClientConfig.builder().apiKey("KEY").maxResponseBytes(1_024).build().getMaxResponseBytes());
+    }
+
+    @Test
+    void build_shouldApplyAdditionalApiKeys() {
+        assertEquals(List.of(), ClientConfig.builder().apiKey("KEY").build().getAdditionalApiKeys());
+        assertEquals(List.of("KEY2", "KEY3"),
+                ClientConfig.builder().apiKey("KEY").additionalApiKeys("KEY2", "KEY3").build().getAdditionalApiKeys());
+    }
+
+    @Test
+    void build_shouldApplyRetryBudgetPercent() {
+        assertEquals(10.0, ClientConfig.builder().apiKey("KEY").build().getRetryBudgetPercent());
+        assertEquals(20.0, ClientConfig.builder().apiKey("KEY").retryBudgetPercent(20).build().getRetryBudgetPercent());
+    }
+
+    @Test
+    void build_shouldApplyBaseUrl() {
+        assertEquals("https://api.openweathermap.org/data/2.5", ClientConfig.builder().apiKey("KEY").build().getBaseUrl());
+        assertEquals("http://localhost:8080/data/2.5",
+                ClientConfig.builder().apiKey("KEY").baseUrl("http://localhost:8080/data/2.5").build().getBaseUrl());
+    }
 }
@@ -1,12 +1,28 @@
 package com.github.brokkko.openweathermap.jdk.clients;
 
 import com.github.brokkko.openweathermap.jdk.enums.*;
+import com.github.brokkko.openweathermap.jdk.http.WarmUpReport;
 import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.AimdConcurrencyLimiter;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.BalancedApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.TokenBucketRateLimiter;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
+import com.github.brokkko.openweathermap.jdk.retries.impl.SlidingWindowRetryBudget;
 import com.github.brokkko.openweathermap.jdk.request.requsters.WeatherLocationRequester;
 import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import com.github.brokkko.openweathermap.jdk.transport.impl.JdkHttpTransport;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -31,6 +47,8 @@ class OpenWeatherMapClientTest {
         assertEquals(SdkMode.ON_DEMAND, client.getSdkMode());
         assertEquals("key", client.getApiKey());
         assertEquals("http://test", client.getBaseUrl());
+        assertNotNull(client.getRequestCoalescer());
+        assertEquals(0, client.getRequestCoalescer().getCoalescedCalls());
     }
 
     @Test
@@ -53,6 +71,48 @@ class OpenWeatherMapClientTest {
         verify(logger, atLeastOnce()).info(anyString());
     }
 
+    @Test
+    void constructor_pollingModeWithVirtualThreads_runsPollerOnVirtualThread() throws InterruptedException {
+        WeatherCacheService cache = mock(WeatherCacheService.class);
+        WeatherHttpExecutor executor = mock(WeatherHttpExecutor.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        AtomicBoolean virtual = new AtomicBoolean();
+        CountDownLatch polled = new CountDownLatch(1);
+        when(cache.getAllRequestSettingsSnapshot()).thenAnswer(invocation -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            polled.countDown();
+            return Map.of();
+        });
+
+        OpenWeatherMapClient client = new OpenWeatherMapClient(
+                "key",
+                SdkMode.POLLING_MODE,
+                "http://test",
+                cache,
+                executor,
+                logger,
+                1,
+                true
+        );
+
+        assertTrue(polled.await(5, TimeUnit.SECONDS));
+        assertTrue(virtual.get());
+        client.destroy();
+    }
+
+    @Test
+    void builder_shouldCreateClientWithVirtualThreads() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .virtualThreads(true)
+                .retryPolicy(RetryPolicyType.EXPONENTIAL_BACKOFF)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertNotNull(client.getHttpExecutor());
+    }
+
     @Test
     void query_returnsWeatherLocationRequester() {
         WeatherCacheService cache = mock(WeatherCacheService.class);
@@ -135,6 +195,34 @@ class OpenWeatherMapClientTest {
         assertNotNull(client.getHttpExecutor());
     }
 
+    @Test
+    void builder_shouldCapRetriesWithRetryBudget() {
+        OpenWeatherMapClient defaults = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .retryPolicy(RetryPolicyType.EXPONENTIAL_BACKOFF)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+        RetryBudget budget = RetryBudget.unlimited();
+        OpenWeatherMapClient custom = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .retryPolicy(RetryPolicyType.CIRCUIT_BREAKER)
+                .retryBudget(budget)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+        OpenWeatherMapClient noRetries = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertInstanceOf(SlidingWindowRetryBudget.class, defaults.getRetryBudget());
+        assertEquals(10, defaults.getRetryBudget().getRetryLimit());
+        assertSame(budget, custom.getRetryBudget());
+        assertNull(noRetries.getRetryBudget());
+    }
+
     @Test
     void builder_shouldSetHttpTimeout() {
         OpenWeatherMapClient client = OpenWeatherMapClient.builder()
@@ -147,6 +235,81 @@ class OpenWeatherMapClientTest {
         assertNotNull(client);
     }
 
+    @Test
+    void builder_shouldCreateHttp2Client() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .httpProtocol(HttpProtocol.HTTP_2)
+                .http2Connections(2)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertNotNull(client.getHttpExecutor());
+    }
+
+    @Test
+    void builder_shouldConfigureRateLimiter() {
+        OpenWeatherMapClient limited = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .rateLimit(60, 1_000)
+                .rateLimitMode(RateLimitMode.FAIL_FAST)
+                .build();
+        OpenWeatherMapClient unlimited = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        TokenBucketRateLimiter limiter =
+                assertInstanceOf(TokenBucketRateLimiter.class, limited.getHttpExecutor().getRateLimiter());
+        assertEquals(RateLimitMode.FAIL_FAST, limiter.getMode());
+        assertNull(unlimited.getHttpExecutor().getRateLimiter());
+    }
+
+    @Test
+    void builder_shouldConfigureAdaptiveConcurrency() {
+        OpenWeatherMapClient limited = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .adaptiveConcurrency(true)
+                .concurrencyMaxWaitMillis(100)
+                .build();
+        OpenWeatherMapClient unbounded = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        AimdConcurrencyLimiter limiter =
+                assertInstanceOf(AimdConcurrencyLimiter.class, limited.getHttpExecutor().getConcurrencyLimiter());
+        assertTrue(limiter.getLimit() > 0);
+        assertNull(unbounded.getHttpExecutor().getConcurrencyLimiter());
+    }
+
+    @Test
+    void builder_shouldConfigureHedging() {
+        OpenWeatherMapClient hedged = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .hedging(true)
+                .hedgingPercentile(99)
+                .hedgingBudgetPercent(2)
+                .build();
+        OpenWeatherMapClient plain = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertNotNull(hedged.getHttpExecutor().getHedgingPolicy());
+        assertNull(plain.getHttpExecutor().getHedgingPolicy());
+    }
+
     @Test
     void builder_shouldSetLogLevel() {
         OpenWeatherMapClient client = OpenWeatherMapClient.builder()
@@ -214,4 +377,120 @@ class OpenWeatherMapClientTest {
 
         assertEquals("http://custom-url", client.getBaseUrl());
     }
+
+    @Test
+    void retrieve_preparedRequestUsesHttpTimeout() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .httpTimeoutSeconds(3)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        PreparedWeatherRequest prepared = client.query().byCityName("London").prepare();
+
+        assertEquals(Optional.of(Duration.ofSeconds(3)), prepared.getHttpRequest().timeout());
+        assertTrue(prepared.getUri().toString().contains("q=London"));
+        assertNotNull(client.retrieve(prepared));
+    }
+
+    @Test
+    void builder_warmUpIsReportedWithinTimeout() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .warmUp(2)
+                .warmUpTimeoutMillis(300)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertTrue(client.getWarmUp().isDone());
+        WarmUpReport report = client.getWarmUp().join();
+        assertEquals(2, report.requested());
+        assertTrue(report.elapsed().toMillis() < 5_000);
+    }
+
+    @Test
+    void builder_withoutWarmUpHasNoReport() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertNull(client.getWarmUp());
+    }
+
+    @Test
+    void builder_usesGivenTransportAndClosesItOnDestroy() {
+        WeatherTransport transport = mock(WeatherTransport.class);
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .transport(transport)
+                .build();
+
+        assertSame(transport, client.getHttpExecutor().getTransport());
+        client.destroy();
+        verify(transport).close();
+    }
+
+    @Test
+    void builder_defaultsToJdkTransport() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertInstanceOf(JdkHttpTransport.class, client.getHttpExecutor().getTransport());
+    }
+
+    @Test
+    void builder_passesMaxResponseBytesToExecutor() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .maxResponseBytes(1_024)
+                .build();
+
+        assertEquals(1_024L, client.getHttpExecutor().getMaxResponseBytes());
+    }
+
+    @Test
+    void builder_sendsRequestsToConfiguredBaseUrl() {
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .baseUrl("http://localhost:8080/data/2.5")
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+        OpenWeatherMapClient defaults = OpenWeatherMapClient.builder()
+                .apiKey("test-key")
+                .baseUrl(null)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertEquals("http://localhost:8080/data/2.5", client.getBaseUrl());
+        assertTrue(client.query().byCityName("London").prepare().getUri().toString()
+                .startsWith("http://localhost:8080/data/2.5/weather?"));
+        assertEquals("https://api.openweathermap.org/data/2.5", defaults.getBaseUrl());
+    }
+
+    @Test
+    void builder_takesApiKeyFromKeyPool() {
+        BalancedApiKeyPool pool = BalancedApiKeyPool.builder().key("key-a").key("key-b").build();
+
+        OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                .apiKeyPool(pool)
+                .logLevel(LogLevel.INFO)
+                .logger(LoggerType.DEFAULT)
+                .build();
+
+        assertEquals("key-a", client.getApiKey());
+        assertSame(pool, client.getHttpExecutor().getApiKeyPool());
+    }
 }
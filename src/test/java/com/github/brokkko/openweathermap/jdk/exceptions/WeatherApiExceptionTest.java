@@ -21,4 +21,13 @@ class WeatherApiExceptionTest {
         assertEquals(500, ex.getStatusCode());
         assertEquals(cause, ex.getCause());
     }
+
+    @Test
+    void testRetryAfterConstructor() {
+        WeatherApiException ex = new WeatherApiException("Too many requests", 429, 2_000L);
+        assertEquals(429, ex.getStatusCode());
+        assertEquals(2_000L, ex.getRetryAfterMillis());
+        assertEquals(-1L, new WeatherApiException("API error", 404).getRetryAfterMillis());
+        assertEquals(-1L, new WeatherApiException("API error", 500, new RuntimeException()).getRetryAfterMillis());
+    }
 }
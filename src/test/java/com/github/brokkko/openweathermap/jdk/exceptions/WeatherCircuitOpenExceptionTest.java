@@ -0,0 +1,16 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherCircuitOpenExceptionTest {
+
+    @Test
+    void testConstructor() {
+        WeatherCircuitOpenException ex = new WeatherCircuitOpenException("Circuit open");
+        assertEquals("Circuit open", ex.getMessage());
+        assertNull(ex.getCause());
+        assertInstanceOf(WeatherNetworkException.class, ex);
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherDeadlineExceededExceptionTest {
+
+    @Test
+    void testConstructor() {
+        Throwable cause = new RuntimeException("slow");
+        WeatherDeadlineExceededException ex = new WeatherDeadlineExceededException("Deadline exceeded", cause);
+        assertEquals("Deadline exceeded", ex.getMessage());
+        assertSame(cause, ex.getCause());
+        assertInstanceOf(WeatherTimeoutException.class, ex);
+    }
+}
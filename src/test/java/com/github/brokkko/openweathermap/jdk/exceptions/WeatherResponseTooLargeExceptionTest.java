@@ -0,0 +1,16 @@
+package com.github.brokkko.openweathermap.jdk.exceptions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherResponseTooLargeExceptionTest {
+
+    @Test
+    void testConstructor() {
+        WeatherResponseTooLargeException ex = new WeatherResponseTooLargeException("Too large", 1024);
+        assertEquals("Too large", ex.getMessage());
+        assertEquals(1024, ex.getMaxBytes());
+        assertInstanceOf(WeatherSdkException.class, ex);
+    }
+}
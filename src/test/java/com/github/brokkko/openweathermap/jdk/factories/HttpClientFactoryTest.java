@@ -0,0 +1,62 @@
+package com.github.brokkko.openweathermap.jdk.factories;
+
+import com.github.brokkko.openweathermap.jdk.enums.HttpProtocol;
+import com.github.brokkko.openweathermap.jdk.http.RoundRobinHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientFactoryTest {
+
+    @Test
+    void testConstructor() {
+        assertNotNull(new HttpClientFactory());
+    }
+
+    @Test
+    void testCreateHttp11Client() {
+        HttpClient client = HttpClientFactory.create(HttpProtocol.HTTP_1_1, 7, 4);
+
+        assertEquals(HttpClient.Version.HTTP_1_1, client.version());
+        assertEquals(Duration.ofSeconds(7), client.connectTimeout().orElseThrow());
+        assertFalse(client instanceof RoundRobinHttpClient);
+    }
+
+    @Test
+    void testNullProtocolDefaultsToHttp11() {
+        HttpClient client = HttpClientFactory.create(null, 5, 1);
+
+        assertEquals(HttpClient.Version.HTTP_1_1, client.version());
+    }
+
+    @Test
+    void testCreateSingleConnectionHttp2Client() {
+        HttpClient client = HttpClientFactory.create(HttpProtocol.HTTP_2, 5, 1);
+
+        assertEquals(HttpClient.Version.HTTP_2, client.version());
+        assertFalse(client instanceof RoundRobinHttpClient);
+    }
+
+    @Test
+    void testCreateMultiConnectionHttp2Client() {
+        HttpClient client = HttpClientFactory.create(HttpProtocol.HTTP_2, 5, 3);
+
+        RoundRobinHttpClient pooled = assertInstanceOf(RoundRobinHttpClient.class, client);
+        assertEquals(3, pooled.size());
+        assertEquals(HttpClient.Version.HTTP_2, pooled.version());
+    }
+
+    @Test
+    void testCreateWithCustomExecutor() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClientFactory.create(HttpProtocol.HTTP_2, 5, 1, executor);
+
+            assertSame(executor, client.executor().orElseThrow());
+        }
+    }
+}
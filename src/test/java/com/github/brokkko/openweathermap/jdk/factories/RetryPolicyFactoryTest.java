@@ -1,12 +1,16 @@
 package com.github.brokkko.openweathermap.jdk.factories;
 
+import com.github.brokkko.openweathermap.jdk.enums.JitterMode;
 import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
 import com.github.brokkko.openweathermap.jdk.enums.RetryPolicyType;
 import com.github.brokkko.openweathermap.jdk.logging.impl.DefaultWeatherLogger;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.retries.RetryClassifier;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.CircuitBreakerRetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.impl.ExponentialBackoffRetryPolicy;
 import com.github.brokkko.openweathermap.jdk.retries.impl.NoRetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.StatusRetryClassifier;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,10 +48,65 @@ class RetryPolicyFactoryTest {
         assertInstanceOf(ExponentialBackoffRetryPolicy.class, policy);
     }
 
+    @Test
+    void testCreateWithBackoffBuilder() {
+        RetryPolicy policy = RetryPolicyFactory.create(
+                RetryPolicyType.EXPONENTIAL_BACKOFF,
+                logger,
+                ExponentialBackoffRetryPolicy.builder().asyncExecutor(Runnable::run)
+        );
+
+        assertInstanceOf(ExponentialBackoffRetryPolicy.class, policy);
+    }
+
     @Test
     void testNullArguments() {
         assertThrows(NullPointerException.class,
                 () -> RetryPolicyFactory.create(null, logger)
         );
     }
+
+    @Test
+    void testCreateCircuitBreakerPolicy() {
+        RetryPolicy policy = RetryPolicyFactory.create(
+                RetryPolicyType.CIRCUIT_BREAKER,
+                logger
+        );
+
+        assertInstanceOf(CircuitBreakerRetryPolicy.class, policy);
+    }
+
+    @Test
+    void testWithCircuitBreakerWrapsDelegate() {
+        CircuitBreakerRetryPolicy policy = RetryPolicyFactory.withCircuitBreaker(new NoRetryPolicy(), logger);
+
+        assertEquals("OK", policy.executeWithRetry(() -> "OK"));
+        assertEquals(1, policy.getSuccessfulCalls());
+    }
+
+    @Test
+    void testCreateWithClassifier() {
+        RetryClassifier classifier = failure -> false;
+
+        ExponentialBackoffRetryPolicy policy = (ExponentialBackoffRetryPolicy) RetryPolicyFactory.create(
+                RetryPolicyType.EXPONENTIAL_BACKOFF, logger, ExponentialBackoffRetryPolicy.builder().classifier(classifier));
+
+        assertSame(classifier, policy.getClassifier());
+        assertInstanceOf(StatusRetryClassifier.class, ((ExponentialBackoffRetryPolicy) RetryPolicyFactory.create(
+                RetryPolicyType.EXPONENTIAL_BACKOFF, logger)).getClassifier());
+        assertInstanceOf(CircuitBreakerRetryPolicy.class,
+                RetryPolicyFactory.create(RetryPolicyType.CIRCUIT_BREAKER, logger,
+                        ExponentialBackoffRetryPolicy.builder().classifier(classifier)));
+    }
+
+    @Test
+    void testCreateAppliesJitter() {
+        ExponentialBackoffRetryPolicy jittered = (ExponentialBackoffRetryPolicy) RetryPolicyFactory.create(
+                RetryPolicyType.EXPONENTIAL_BACKOFF, logger);
+        ExponentialBackoffRetryPolicy decorrelated = (ExponentialBackoffRetryPolicy) RetryPolicyFactory.create(
+                RetryPolicyType.EXPONENTIAL_BACKOFF, logger, ExponentialBackoffRetryPolicy.builder().jitter(JitterMode.DECORRELATED));
+
+        assertEquals(JitterMode.FULL, jittered.getJitter());
+        assertEquals(JitterMode.DECORRELATED, decorrelated.getJitter());
+    }
 }
@@ -0,0 +1,118 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentDecoderTest {
+
+    private static final String JSON = "{\"name\":\"London\",\"main\":{\"temp\":10.5}}";
+
+    @Test
+    void testIdentityPassesThroughAndCountsBothSides() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+
+        assertEquals(JSON, read(ContentDecoder.decode(input(utf8(JSON)), null, metrics)));
+
+        assertEquals(1, metrics.getResponses());
+        assertEquals(0, metrics.getCompressedResponses());
+        assertEquals(JSON.length(), metrics.getCompressedBytes());
+        assertEquals(JSON.length(), metrics.getUncompressedBytes());
+        assertEquals(1.0, metrics.getCompressionRatio());
+    }
+
+    @Test
+    void testGzipIsDecodedCaseInsensitively() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+        byte[] body = gzip(utf8(JSON));
+
+        assertEquals(JSON, read(ContentDecoder.decode(input(body), " GZIP ", metrics)));
+
+        assertEquals(1, metrics.getCompressedResponses());
+        assertEquals(body.length, metrics.getCompressedBytes());
+        assertEquals(JSON.length(), metrics.getUncompressedBytes());
+    }
+
+    @Test
+    void testZlibDeflateIsDecoded() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+
+        assertEquals(JSON, read(ContentDecoder.decode(input(deflate(utf8(JSON), false)), "deflate", metrics)));
+    }
+
+    @Test
+    void testRawDeflateIsDecoded() throws Exception {
+        TransferMetrics metrics = new TransferMetrics();
+
+        assertEquals(JSON, read(ContentDecoder.decode(input(deflate(utf8(JSON), true)), "deflate", metrics)));
+    }
+
+    @Test
+    void testUnsupportedEncodingFails() {
+        TransferMetrics metrics = new TransferMetrics();
+
+        IOException ex = assertThrows(IOException.class,
+                () -> ContentDecoder.decode(input(utf8(JSON)), "br", metrics));
+        assertTrue(ex.getMessage().contains("br"));
+        assertEquals(0, metrics.getResponses());
+    }
+
+    @Test
+    void testMalformedGzipFails() {
+        assertThrows(IOException.class,
+                () -> ContentDecoder.decode(input(utf8(JSON)), "gzip", new TransferMetrics()));
+    }
+
+    @Test
+    void testDecodedBodyIsBounded() throws Exception {
+        byte[] bomb = gzip(new byte[64 * 1024]);
+        InputStream in = ContentDecoder.decode(input(bomb), "gzip", new TransferMetrics(), 1024);
+
+        WeatherResponseTooLargeException ex = assertThrows(WeatherResponseTooLargeException.class, in::readAllBytes);
+        assertEquals(1024, ex.getMaxBytes());
+        assertEquals(JSON, read(ContentDecoder.decode(input(utf8(JSON)), null, new TransferMetrics(), JSON.length())));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream input(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        try (DeflaterOutputStream def = new DeflaterOutputStream(out, deflater)) {
+            def.write(data);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherNetworkException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class HedgingPolicyTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private WeatherLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(WeatherLogger.class);
+    }
+
+    private HedgingPolicy.Builder policy() {
+        return HedgingPolicy.builder()
+                .percentile(90)
+                .minDelayMillis(0)
+                .windowSize(10)
+                .minSamples(1)
+                .logger(logger)
+                .nanoClock(clock::get);
+    }
+
+    private void warmUp(HedgingPolicy policy, long latencyMillis) {
+        policy.execute(() -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            return CompletableFuture.completedFuture("warm-up");
+        });
+    }
+
+    /**
+     * Supplier whose first call returns a never-completing future and later calls return {@code value}.
+     */
+    private static Supplier<CompletableFuture<String>> slowThenFast(List<CompletableFuture<String>> started,
+                                                                    CompletableFuture<String> later) {
+        return () -> {
+            CompletableFuture<String> future = started.isEmpty() ? new CompletableFuture<>() : later;
+            started.add(future);
+            return future;
+        };
+    }
+
+    @Test
+    void testNoHedgeBeforeLatenciesAreKnown() throws Exception {
+        HedgingPolicy policy = policy().minSamples(5).build();
+        List<CompletableFuture<String>> started = new CopyOnWriteArrayList<>();
+
+        policy.execute(slowThenFast(started, CompletableFuture.completedFuture("hedge")));
+        Thread.sleep(50);
+
+        assertEquals(1, started.size());
+        assertEquals(-1, policy.getHedgeDelayMillis());
+    }
+
+    @Test
+    void testSlowPrimaryIsHedgedAndCancelled() throws Exception {
+        HedgingPolicy policy = policy().build();
+        warmUp(policy, 5);
+        List<CompletableFuture<String>> started = new CopyOnWriteArrayList<>();
+
+        String result = policy.execute(slowThenFast(started, CompletableFuture.completedFuture("hedge")))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("hedge", result);
+        assertEquals(2, started.size());
+        assertTrue(started.get(0).isCancelled());
+        assertEquals(1, policy.getHedgesFired());
+        assertEquals(1, policy.getHedgesWon());
+        assertEquals(5, policy.getHedgeDelayMillis());
+    }
+
+    @Test
+    void testFastPrimaryIsNotHedged() throws Exception {
+        HedgingPolicy policy = policy().build();
+        warmUp(policy, 1_000);
+        List<CompletableFuture<String>> started = new CopyOnWriteArrayList<>();
+
+        assertEquals("primary", policy.execute(() -> {
+            CompletableFuture<String> future = CompletableFuture.completedFuture("primary");
+            started.add(future);
+            return future;
+        }).get());
+
+        assertEquals(1, started.size());
+        assertEquals(0, policy.getHedgesFired());
+        assertEquals(2, policy.getPrimaryCalls());
+    }
+
+    @Test
+    void testBudgetCapsHedges() throws Exception {
+        HedgingPolicy policy = policy().budgetPercent(0).maxBurst(1).build();
+        warmUp(policy, 1);
+
+        List<CompletableFuture<String>> first = new CopyOnWriteArrayList<>();
+        policy.execute(slowThenFast(first, CompletableFuture.completedFuture("hedge"))).get(5, TimeUnit.SECONDS);
+
+        List<CompletableFuture<String>> second = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> unhedged = policy.execute(slowThenFast(second, CompletableFuture.completedFuture("hedge")));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (policy.getHedgesDenied() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(1, policy.getHedgesFired());
+        assertEquals(1, policy.getHedgesDenied());
+        assertEquals(1, second.size());
+        assertFalse(unhedged.isDone());
+    }
+
+    @Test
+    void testFailsWhenAllAttemptsFail() {
+        HedgingPolicy policy = policy().build();
+        warmUp(policy, 1);
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        List<CompletableFuture<String>> started = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> result = policy.execute(() -> {
+            CompletableFuture<String> future = started.isEmpty()
+                    ? primary
+                    : CompletableFuture.failedFuture(new WeatherNetworkException("hedge failed", null));
+            started.add(future);
+            return future;
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.size() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertFalse(result.isDone());
+        primary.completeExceptionally(new WeatherNetworkException("primary failed", null));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+        assertEquals("primary failed", ex.getCause().getMessage());
+        assertEquals(0, policy.getHedgesWon());
+    }
+
+    @Test
+    void testInvalidParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> policy().percentile(100).build());
+        assertThrows(IllegalArgumentException.class, () -> policy().budgetPercent(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> policy().windowSize(0).build());
+        assertThrows(IllegalArgumentException.class, () -> policy().recomputeInterval(0).build());
+        assertThrows(IllegalArgumentException.class, () -> policy().logger(null).build());
+    }
+
+    @Test
+    void testDelayIsRecomputedEveryIntervalSamples() {
+        HedgingPolicy policy = policy().percentile(50).minSamples(2).recomputeInterval(3).build();
+
+        warmUp(policy, 10);
+        assertEquals(-1, policy.getHedgeDelayMillis());
+        warmUp(policy, 10);
+        assertEquals(10, policy.getHedgeDelayMillis());
+
+        warmUp(policy, 40);
+        warmUp(policy, 40);
+        assertEquals(10, policy.getHedgeDelayMillis());
+        warmUp(policy, 40);
+        assertEquals(40, policy.getHedgeDelayMillis());
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.brokkko.openweathermap.jdk.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RoundRobinHttpClientTest {
+
+    private final HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.test.com/weather")).build();
+
+    @Test
+    void testRejectsEmptyDelegates() {
+        assertThrows(IllegalArgumentException.class, () -> new RoundRobinHttpClient(List.of()));
+        assertThrows(NullPointerException.class, () -> new RoundRobinHttpClient(null));
+    }
+
+    @Test
+    void testSendDistributesRoundRobin() throws Exception {
+        HttpClient first = mock(HttpClient.class);
+        HttpClient second = mock(HttpClient.class);
+        RoundRobinHttpClient client = new RoundRobinHttpClient(List.of(first, second));
+
+        for (int i = 0; i < 4; i++) {
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        verify(first, times(2)).send(any(), any());
+        verify(second, times(2)).send(any(), any());
+    }
+
+    @Test
+    void testSendAsyncDistributesRoundRobin() {
+        HttpClient first = mock(HttpClient.class);
+        HttpClient second = mock(HttpClient.class);
+        when(first.sendAsync(any(), any())).thenReturn(new CompletableFuture<>());
+        when(second.sendAsync(any(), any())).thenReturn(new CompletableFuture<>());
+        RoundRobinHttpClient client = new RoundRobinHttpClient(List.of(first, second));
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+
+        verify(first, times(2)).sendAsync(any(), any());
+        verify(second, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testConfigurationIsReadFromFirstDelegate() {
+        HttpClient first = mock(HttpClient.class);
+        HttpClient second = mock(HttpClient.class);
+        when(first.version()).thenReturn(HttpClient.Version.HTTP_2);
+        RoundRobinHttpClient client = new RoundRobinHttpClient(List.of(first, second));
+
+        assertEquals(HttpClient.Version.HTTP_2, client.version());
+        assertEquals(2, client.size());
+        verify(second, never()).version();
+    }
+
+    @Test
+    void testCloseClosesAllDelegates() {
+        HttpClient first = mock(HttpClient.class);
+        HttpClient second = mock(HttpClient.class);
+        RoundRobinHttpClient client = new RoundRobinHttpClient(List.of(first, second));
+
+        client.close();
+
+        verify(first).close();
+        verify(second).close();
+    }
+}
@@ -1,22 +1,54 @@
 package com.github.brokkko.openweathermap.jdk.http;
 
+import com.github.brokkko.openweathermap.jdk.enums.RateLimitMode;
 import com.github.brokkko.openweathermap.jdk.exceptions.*;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.ConcurrencyLimiter;
+import com.github.brokkko.openweathermap.jdk.limiters.RateLimiter;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.BalancedApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.impl.TokenBucketRateLimiter;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.retries.RetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.ExponentialBackoffRetryPolicy;
+import com.github.brokkko.openweathermap.jdk.retries.impl.NoRetryPolicy;
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+import com.github.brokkko.openweathermap.jdk.utils.SegmentedBuffer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.ConnectException;
+import java.net.URI;
 import java.net.UnknownHostException;
 import java.net.http.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class WeatherHttpExecutorTest {
 
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
     private HttpClient httpClient;
     private RetryPolicy retryPolicy;
     private WeatherLogger logger;
@@ -28,6 +60,12 @@ class WeatherHttpExecutorTest {
         retryPolicy = mock(RetryPolicy.class);
         logger = mock(WeatherLogger.class);
 
+        when(retryPolicy.executeWithRetryAsync(any()))
+                .thenAnswer(invocation -> invocation.getArgument(
+                        0,
+                        com.github.brokkko.openweathermap.jdk.retries.AsyncRetryableOperation.class
+                ).run());
+
         when(retryPolicy.executeWithRetry(any()))
                 .thenAnswer(invocation -> {
                     var op = invocation.getArgument(
@@ -42,9 +80,10 @@ class WeatherHttpExecutorTest {
 
     @Test
     void testExecute_success200() throws Exception {
-        HttpResponse<String> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(200);
-        when(response.body()).thenReturn("{\"ok\":true}");
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"ok\":true}"));
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(response);
@@ -116,9 +155,10 @@ class WeatherHttpExecutorTest {
 
     @Test
     void testExecute_apiError400() throws Exception {
-        HttpResponse<String> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(400);
-        when(response.body()).thenReturn("{\"error\":\"Bad Request\"}");
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"error\":\"Bad Request\"}"));
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(response);
@@ -130,11 +170,30 @@ class WeatherHttpExecutorTest {
         assertEquals(400, ex.getStatusCode());
     }
 
+    @Test
+    void testExecute_apiError429CarriesRetryAfter() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(429);
+        when(response.headers()).thenReturn(HttpHeaders.of(Map.of("Retry-After", List.of("7")), (name, value) -> true));
+        when(response.body()).thenReturn(stream("{\"cod\":429}"));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        WeatherApiException ex = assertThrows(WeatherApiException.class, () -> executor.execute(s));
+        assertEquals(429, ex.getStatusCode());
+        assertEquals(7_000L, ex.getRetryAfterMillis());
+    }
+
     @Test
     void testExecute_apiError401() throws Exception {
-        HttpResponse<String> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(401);
-        when(response.body()).thenReturn("{\"error\":\"Unauthorized\"}");
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"error\":\"Unauthorized\"}"));
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(response);
@@ -148,9 +207,10 @@ class WeatherHttpExecutorTest {
 
     @Test
     void testExecute_apiError500() throws Exception {
-        HttpResponse<String> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(500);
-        when(response.body()).thenReturn("{\"error\":\"Internal Server Error\"}");
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"error\":\"Internal Server Error\"}"));
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(response);
@@ -164,9 +224,10 @@ class WeatherHttpExecutorTest {
 
     @Test
     void testExecute_success299() throws Exception {
-        HttpResponse<String> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(299);
-        when(response.body()).thenReturn("{\"ok\":true}");
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"ok\":true}"));
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(response);
@@ -181,9 +242,10 @@ class WeatherHttpExecutorTest {
 
     @Test
     void testExecute_withMultipleParameters() throws Exception {
-        HttpResponse<String> response = mock(HttpResponse.class);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
         when(response.statusCode()).thenReturn(200);
-        when(response.body()).thenReturn("{\"weather\":\"data\"}");
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"weather\":\"data\"}"));
 
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
                 .thenReturn(response);
@@ -200,4 +262,910 @@ class WeatherHttpExecutorTest {
         verify(logger).info(contains("https://api.test.com/weather"));
     }
 
+    @Test
+    void testExecuteAsync_success200() {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenAnswer(invocation -> stream("{\"ok\":true}"));
+
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertEquals("{\"ok\":true}", executor.executeAsync(s).join());
+        verify(httpClient, never()).sendAsync(any(), any(), any());
+    }
+
+    @Test
+    void testExecuteAsync_timeout() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("Timeout")));
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> executor.executeAsync(s).get());
+        assertInstanceOf(WeatherTimeoutException.class, ex.getCause());
+    }
+
+    @Test
+    void testExecuteAsync_connectException() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("fail")));
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> executor.executeAsync(s).get());
+        assertInstanceOf(WeatherNetworkException.class, ex.getCause());
+    }
+
+    @Test
+    void testExecuteAsync_apiError404() {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(404);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenAnswer(invocation -> stream("{\"error\":\"Not Found\"}"));
+
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> executor.executeAsync(s).get());
+        WeatherApiException api = assertInstanceOf(WeatherApiException.class, ex.getCause());
+        assertEquals(404, api.getStatusCode());
+    }
+
+    @Test
+    void testExecute_withBytesReaderReturnsRawBody() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{\"ok\":true}"));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        byte[] result = executor.execute(s, ResponseBodyReader.ofBytes());
+
+        assertArrayEquals("{\"ok\":true}".getBytes(StandardCharsets.UTF_8), result);
+    }
+
+    @Test
+    void testExecute_readerFailureIsTranslated() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{}"));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ResponseBodyReader<String> failing = body -> {
+            throw new java.io.IOException("connection reset");
+        };
+
+        assertThrows(WeatherNetworkException.class, () -> executor.execute(s, failing));
+    }
+
+    @Test
+    void testExecuteAsync_withBytesReaderReturnsRawBody() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenAnswer(invocation -> stream("{\"ok\":true}"));
+
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        byte[] result = executor.executeAsync(s, ResponseBodyReader.ofBytes()).get();
+
+        assertArrayEquals("{\"ok\":true}".getBytes(StandardCharsets.UTF_8), result);
+    }
+
+    @Test
+    void testExecute_sendsAcceptEncoding() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{}"));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        executor.execute(s);
+
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals(Optional.of("gzip, deflate"), request.getValue().headers().firstValue("Accept-Encoding"));
+    }
+
+    @Test
+    void testExecute_decodesGzipAndCountsBytes() throws Exception {
+        String json = "{\"weather\":\"" + "sunny ".repeat(200) + "\"}";
+        byte[] gzipped = gzip(json);
+
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(contentEncoding("gzip"));
+        when(response.body()).thenReturn(new ByteArrayInputStream(gzipped));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertEquals(json, executor.execute(s));
+
+        TransferMetrics metrics = executor.getTransferMetrics();
+        assertEquals(1, metrics.getResponses());
+        assertEquals(1, metrics.getCompressedResponses());
+        assertEquals(gzipped.length, metrics.getCompressedBytes());
+        assertEquals(json.length(), metrics.getUncompressedBytes());
+        assertTrue(metrics.getCompressionRatio() < 1.0);
+    }
+
+    @Test
+    void testExecuteAsync_decodesGzip() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(contentEncoding("gzip"));
+        when(response.body()).thenAnswer(invocation -> new ByteArrayInputStream(gzip("{\"ok\":true}")));
+
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertEquals("{\"ok\":true}", executor.executeAsync(s).get());
+    }
+
+    @Test
+    void testExecute_decodesGzipErrorBody() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(401);
+        when(response.headers()).thenReturn(contentEncoding("gzip"));
+        when(response.body()).thenReturn(new ByteArrayInputStream(gzip("{\"error\":\"Unauthorized\"}")));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        WeatherApiException ex = assertThrows(WeatherApiException.class, () -> executor.execute(s));
+        assertTrue(ex.getMessage().contains("Unauthorized"));
+    }
+
+    @Test
+    void testExecute_unsupportedEncodingIsNetworkError() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(contentEncoding("br"));
+        when(response.body()).thenReturn(stream("{}"));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertThrows(WeatherNetworkException.class, () -> executor.execute(s));
+    }
+
+    @Test
+    void testExecuteConditional_sendsValidatorsAndReturnsNotModified() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(304);
+        when(response.headers()).thenReturn(HttpHeaders.of(
+                Map.of("ETag", List.of("\"v2\"")), (name, value) -> true));
+        when(response.body()).thenReturn(stream(""));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        CacheValidators validators = new CacheValidators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+        ResponseBodyReader<byte[]> reader = mock(ResponseBodyReader.class);
+
+        ConditionalResponse<byte[]> result = executor.executeConditional(s, validators, reader);
+
+        assertTrue(result.notModified());
+        assertNull(result.body());
+        assertEquals(new CacheValidators("\"v2\"", "Mon, 01 Jan 2024 00:00:00 GMT"), result.validators());
+        verify(reader, never()).read(any());
+        assertEquals(1, executor.getTransferMetrics().getNotModifiedResponses());
+
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals(Optional.of("\"v1\""), request.getValue().headers().firstValue("If-None-Match"));
+        assertEquals(Optional.of("Mon, 01 Jan 2024 00:00:00 GMT"),
+                request.getValue().headers().firstValue("If-Modified-Since"));
+    }
+
+    @Test
+    void testExecuteConditional_returnsBodyAndValidatorsOn200() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(HttpHeaders.of(
+                Map.of("ETag", List.of("\"v1\""), "Last-Modified", List.of("Mon, 01 Jan 2024 00:00:00 GMT")),
+                (name, value) -> true));
+        when(response.body()).thenReturn(stream("{\"ok\":true}"));
+
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ConditionalResponse<String> result = executor.executeConditional(s, CacheValidators.NONE, ResponseBodyReader.ofString());
+
+        assertFalse(result.notModified());
+        assertEquals("{\"ok\":true}", result.body());
+        assertEquals(new CacheValidators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT"), result.validators());
+
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertTrue(request.getValue().headers().firstValue("If-None-Match").isEmpty());
+        assertTrue(request.getValue().headers().firstValue("If-Modified-Since").isEmpty());
+    }
+
+    @Test
+    void testExecute_rateLimitRejectionSkipsHttpCall() throws Exception {
+        RateLimiter limiter = () -> {
+            throw new WeatherRateLimitException("Rate limit exceeded, next permit in 1000ms", 1000);
+        };
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .rateLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertThrows(WeatherRateLimitException.class, () -> limited.execute(s));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> limited.executeAsync(s).get());
+        assertInstanceOf(WeatherRateLimitException.class, ex.getCause());
+        verify(httpClient, never()).send(any(), any());
+        verify(httpClient, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    void testExecute_failFastRateLimitRejectionIsNotRetried() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 0, RateLimitMode.FAIL_FAST, 0, logger);
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve();
+        }
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(new ExponentialBackoffRetryPolicy(3, 1, logger))
+                .logger(logger)
+                .rateLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        long start = System.nanoTime();
+        assertThrows(WeatherRateLimitException.class, () -> limited.execute(s));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> limited.executeAsync(s).get());
+        assertInstanceOf(WeatherRateLimitException.class, ex.getCause());
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500), "rejection must not sleep out Retry-After");
+        assertEquals(2, limiter.getRejected());
+        verify(httpClient, never()).send(any(), any());
+        verify(httpClient, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    void testExecuteAsync_waitsForReservedPermit() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenAnswer(invocation -> stream("{}"));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .rateLimiter(() -> java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(50))
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        long start = System.nanoTime();
+        CompletableFuture<String> result = limited.executeAsync(s);
+        assertEquals("{}", result.get());
+        assertTrue(System.nanoTime() - start >= java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void testExecute_releasesConcurrencySlotWithOutcome() throws Exception {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        ConcurrencyLimiter.Permit ok = mock(ConcurrencyLimiter.Permit.class);
+        ConcurrencyLimiter.Permit overloaded = mock(ConcurrencyLimiter.Permit.class);
+        when(limiter.acquire()).thenReturn(ok, overloaded);
+
+        HttpResponse<InputStream> success = mock(HttpResponse.class);
+        when(success.statusCode()).thenReturn(200);
+        when(success.headers()).thenReturn(NO_HEADERS);
+        when(success.body()).thenReturn(stream("{}"));
+        HttpResponse<InputStream> unavailable = mock(HttpResponse.class);
+        when(unavailable.statusCode()).thenReturn(503);
+        when(unavailable.headers()).thenReturn(NO_HEADERS);
+        when(unavailable.body()).thenReturn(stream("busy"));
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(success, unavailable);
+
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .concurrencyLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertEquals("{}", limited.execute(s));
+        assertThrows(WeatherApiException.class, () -> limited.execute(s));
+
+        verify(ok).onSuccess();
+        verify(overloaded).onDropped();
+        verify(overloaded, never()).onSuccess();
+        assertSame(limiter, limited.getConcurrencyLimiter());
+    }
+
+    @Test
+    void testExecuteAsync_overloadShedsCallWithoutHttpRequest() {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        when(limiter.acquireAsync()).thenReturn(CompletableFuture.failedFuture(new WeatherOverloadException("full")));
+
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .concurrencyLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> limited.executeAsync(s).get());
+        assertInstanceOf(WeatherOverloadException.class, ex.getCause());
+        verify(httpClient, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    void testExecuteAsync_releasesConcurrencySlotOnTimeout() {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        ConcurrencyLimiter.Permit permit = mock(ConcurrencyLimiter.Permit.class);
+        when(limiter.acquireAsync()).thenReturn(CompletableFuture.completedFuture(permit));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("timeout")));
+
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .concurrencyLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> limited.executeAsync(s).get());
+        assertInstanceOf(WeatherTimeoutException.class, ex.getCause());
+        verify(permit).onDropped();
+    }
+
+    @Test
+    void testExecuteAsync_hedgesSlowAttemptAndCancelsExchange() throws Exception {
+        HttpResponse<InputStream> fast = mock(HttpResponse.class);
+        when(fast.statusCode()).thenReturn(200);
+        when(fast.headers()).thenReturn(NO_HEADERS);
+        when(fast.body()).thenAnswer(invocation -> stream("{\"hedged\":true}"));
+        CompletableFuture<HttpResponse<InputStream>> warmUp = CompletableFuture.completedFuture(fast);
+        CompletableFuture<HttpResponse<InputStream>> stuck = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn((CompletableFuture) warmUp, stuck, CompletableFuture.completedFuture(fast));
+
+        HedgingPolicy hedging = HedgingPolicy.builder()
+                .minSamples(1)
+                .minDelayMillis(10)
+                .logger(logger)
+                .build();
+        WeatherHttpExecutor hedged = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .hedgingPolicy(hedging)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        hedged.executeAsync(s).get();
+        String result = hedged.executeAsync(s).get(5, java.util.concurrent.TimeUnit.SECONDS);
+
+        assertEquals("{\"hedged\":true}", result);
+        assertTrue(stuck.isCancelled());
+        assertEquals(1, hedging.getHedgesWon());
+        assertSame(hedging, hedged.getHedgingPolicy());
+        verify(httpClient, times(3)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testExecuteAsync_cancelledHedgeReturnsSegmentsToPool() throws Exception {
+        HttpResponse<InputStream> fast = mock(HttpResponse.class);
+        when(fast.statusCode()).thenReturn(200);
+        when(fast.headers()).thenReturn(NO_HEADERS);
+        when(fast.body()).thenAnswer(invocation -> stream("{\"hedged\":true}"));
+        CompletableFuture<HttpResponse<InputStream>> warmUp = CompletableFuture.completedFuture(fast);
+        CompletableFuture<HttpResponse<InputStream>> late = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return false; // the slow response arrives anyway
+            }
+        };
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn((CompletableFuture) warmUp, late, CompletableFuture.completedFuture(fast));
+
+        WeatherHttpExecutor hedged = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .hedgingPolicy(HedgingPolicy.builder().minSamples(1).minDelayMillis(10).logger(logger).build())
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        hedged.executeAsync(s).get();
+        assertEquals("{\"hedged\":true}", hedged.executeAsync(s).get(5, TimeUnit.SECONDS));
+
+        BufferPool pool = hedged.getBufferPool();
+        SegmentedBuffer body = new SegmentedBuffer(pool, 1 << 20);
+        body.write(new byte[pool.getSegmentBytes() + 1], 0, pool.getSegmentBytes() + 1);
+        HttpResponse<InputStream> slow = mock(HttpResponse.class);
+        when(slow.statusCode()).thenReturn(200);
+        when(slow.headers()).thenReturn(NO_HEADERS);
+        when(slow.body()).thenReturn(body.asInputStream());
+        int idle = pool.getPooled();
+        late.complete(slow);
+
+        assertEquals(idle + 2, pool.getPooled());
+    }
+
+    @Test
+    void testExecute_withHedgingAwaitsAsyncAttempt() {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(404);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenAnswer(invocation -> stream("missing"));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        WeatherHttpExecutor hedged = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .hedgingPolicy(HedgingPolicy.builder().logger(logger).build())
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        WeatherApiException ex = assertThrows(WeatherApiException.class, () -> hedged.execute(s));
+        assertEquals(404, ex.getStatusCode());
+    }
+
+    private static HttpHeaders contentEncoding(String encoding) {
+        return HttpHeaders.of(Map.of("Content-Encoding", List.of(encoding)), (name, value) -> true);
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void testExecute_usesConfiguredRequestTimeout() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{}"));
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+        WeatherHttpExecutor timed = WeatherHttpExecutor.builder()
+                .httpClient(httpClient).retryPolicy(retryPolicy).logger(logger)
+                .requestTimeout(Duration.ofSeconds(3))
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        timed.execute(s);
+
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals(Optional.of(Duration.ofSeconds(3)), request.getValue().timeout());
+        assertEquals(Duration.ofSeconds(10), executor.getRequestTimeout());
+    }
+
+    @Test
+    void testExecute_capsAttemptTimeoutByDeadline() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{}"));
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+        WeatherHttpExecutor bounded = new WeatherHttpExecutor(httpClient, new NoRetryPolicy(), logger);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        s.setDeadline(Deadline.after(Duration.ofSeconds(2)));
+        bounded.execute(s);
+
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        Duration timeout = request.getValue().timeout().orElseThrow();
+        assertTrue(timeout.compareTo(Duration.ofSeconds(2)) <= 0);
+        assertTrue(timeout.compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void testExecute_expiredDeadlineFailsWithoutHttpRequest() throws Exception {
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        s.setDeadline(Deadline.after(Duration.ZERO));
+
+        assertThrows(WeatherDeadlineExceededException.class, () -> executor.execute(s));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> executor.executeAsync(s).get());
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+        verify(httpClient, never()).send(any(), any());
+        verify(httpClient, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    void testExecuteAsync_failsWhenDeadlinePassesDuringExchange() {
+        CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(exchange);
+        WeatherHttpExecutor bounded = new WeatherHttpExecutor(httpClient, new NoRetryPolicy(), logger);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        s.setDeadline(Deadline.after(Duration.ofMillis(30)));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> bounded.executeAsync(s).get());
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+    }
+
+    @Test
+    void testExecute_rateLimitDelayPastDeadlineFailsWithoutWaiting() throws Exception {
+        RateLimiter limiter = mock(RateLimiter.class);
+        when(limiter.reserve(anyLong())).thenReturn(-1L);
+        when(limiter.tryAcquire(anyLong())).thenCallRealMethod();
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(new ExponentialBackoffRetryPolicy(3, 1, logger))
+                .logger(logger)
+                .rateLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        s.setDeadline(Deadline.after(Duration.ofMillis(200)));
+
+        assertThrows(WeatherDeadlineExceededException.class, () -> limited.execute(s));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> limited.executeAsync(s).get());
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+        verify(limiter, never()).reserve();
+        verify(httpClient, never()).send(any(), any());
+        verify(httpClient, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    void testExecute_concurrencySlotWaitIsCappedByDeadline() throws Exception {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        when(limiter.tryAcquire(anyLong())).thenReturn(null);
+        WeatherHttpExecutor limited = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(new ExponentialBackoffRetryPolicy(3, 1, logger))
+                .logger(logger)
+                .concurrencyLimiter(limiter)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        s.setDeadline(Deadline.after(Duration.ofMillis(200)));
+
+        assertThrows(WeatherDeadlineExceededException.class, () -> limited.execute(s));
+        ArgumentCaptor<Long> maxWait = ArgumentCaptor.forClass(Long.class);
+        verify(limiter).tryAcquire(maxWait.capture());
+        assertTrue(maxWait.getValue() <= TimeUnit.MILLISECONDS.toNanos(200));
+        verify(limiter, never()).acquire();
+        verify(httpClient, never()).send(any(), any());
+    }
+
+    @Test
+    void testBuilderRejectsNonPositiveRequestTimeout() {
+        assertThrows(IllegalArgumentException.class,
+                () -> WeatherHttpExecutor.builder().requestTimeout(Duration.ZERO));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExecute_preparedRequestIsSentAsIs() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(stream("{}"), stream("{}"));
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        s.putRequestParameter("q", "London");
+        PreparedWeatherRequest prepared = executor.prepare(s);
+        executor.execute(prepared, ResponseBodyReader.ofString());
+        executor.execute(prepared, ResponseBodyReader.ofString());
+
+        verify(httpClient, times(2)).send(same(prepared.getHttpRequest()), any(HttpResponse.BodyHandler.class));
+        assertEquals(s.cacheKey(), prepared.getCacheKey());
+        assertEquals(Optional.of("gzip, deflate"), prepared.getHttpRequest().headers().firstValue("Accept-Encoding"));
+    }
+
+    @Test
+    void testExecuteAsync_preparedRequestWithDeadlineKeepsUri() {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenAnswer(invocation -> stream("{}"));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+        WeatherHttpExecutor bounded = new WeatherHttpExecutor(httpClient, new NoRetryPolicy(), logger);
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+        PreparedWeatherRequest prepared = bounded.prepare(s).withDeadline(Deadline.after(Duration.ofSeconds(1)));
+
+        assertEquals("{}", bounded.executeAsync(prepared, ResponseBodyReader.ofString()).join());
+
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals(prepared.getUri(), request.getValue().uri());
+        assertTrue(request.getValue().timeout().orElseThrow().compareTo(Duration.ofSeconds(1)) <= 0);
+    }
+
+    @Test
+    void testWarmUp_reportsAnsweredConnections() {
+        HttpResponse<Void> answered = mock(HttpResponse.class);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(answered),
+                        CompletableFuture.completedFuture(answered),
+                        CompletableFuture.failedFuture(new ConnectException("refused")));
+
+        WarmUpReport report = executor.warmUp(URI.create("https://api.test.com"), 3, Duration.ofSeconds(1)).join();
+
+        assertEquals(3, report.requested());
+        assertEquals(2, report.established());
+        assertFalse(report.timedOut());
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(3)).sendAsync(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("HEAD", request.getValue().method());
+        verify(retryPolicy, never()).executeWithRetryAsync(any());
+    }
+
+    @Test
+    void testWarmUp_stopsAtTimeoutAndCancelsPendingRequests() {
+        CompletableFuture<HttpResponse<Void>> pending = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(HttpResponse.class)), pending);
+
+        WarmUpReport report = executor.warmUp(URI.create("https://api.test.com"), 2, Duration.ofMillis(50)).join();
+
+        assertTrue(report.timedOut());
+        assertEquals(1, report.established());
+        assertTrue(report.elapsed().compareTo(Duration.ofMillis(50)) >= 0);
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    void testExecute_sendsThroughConfiguredTransport() throws Exception {
+        WeatherTransport transport = mock(WeatherTransport.class);
+        when(transport.send(any(HttpRequest.class)))
+                .thenReturn(new TransportResponse(200, NO_HEADERS, stream("{\"sync\":true}")));
+        when(transport.sendAsync(any(HttpRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(new TransportResponse(200, NO_HEADERS, stream("{\"async\":true}"))));
+        WeatherHttpExecutor custom = WeatherHttpExecutor.builder()
+                .transport(transport)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        assertEquals("{\"sync\":true}", custom.execute(s));
+        assertEquals("{\"async\":true}", custom.executeAsync(s).get());
+        assertSame(transport, custom.getTransport());
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    void testExecute_decodedBodyOverLimitFailsWithTypedException() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(contentEncoding("gzip"));
+        when(response.body()).thenReturn(new ByteArrayInputStream(gzip("x".repeat(10_000))));
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+        WeatherHttpExecutor bounded = WeatherHttpExecutor.builder()
+                .httpClient(httpClient).retryPolicy(retryPolicy).logger(logger)
+                .maxResponseBytes(1_000)
+                .build();
+
+        RequestSettings s = new RequestSettings("key");
+        s.appendToURL("https://api.test.com/weather");
+
+        WeatherResponseTooLargeException ex = assertThrows(WeatherResponseTooLargeException.class, () -> bounded.execute(s));
+        assertEquals(1_000, ex.getMaxBytes());
+        assertEquals(1_000, bounded.getMaxResponseBytes());
+        assertEquals(4L * 1024 * 1024, executor.getMaxResponseBytes());
+        assertNotNull(bounded.getBufferPool());
+        assertThrows(IllegalArgumentException.class, () -> WeatherHttpExecutor.builder().maxResponseBytes(0));
+    }
+
+    @Test
+    void testExecute_spreadsAttemptsAcrossKeyPoolAndRetriesOnAnotherKey() throws Exception {
+        WeatherTransport transport = mock(WeatherTransport.class);
+        when(transport.send(any(HttpRequest.class)))
+                .thenReturn(new TransportResponse(429, NO_HEADERS, stream("{\"cod\":429}")))
+                .thenAnswer(invocation -> new TransportResponse(200, NO_HEADERS, stream("{\"ok\":true}")));
+        when(transport.sendAsync(any(HttpRequest.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new TransportResponse(200, NO_HEADERS, stream("{\"async\":true}"))));
+        ApiKeyPool pool = BalancedApiKeyPool.builder().key("key-a").key("key-b").key("key-c").build();
+        WeatherHttpExecutor pooled = WeatherHttpExecutor.builder()
+                .transport(transport)
+                .retryPolicy(new ExponentialBackoffRetryPolicy(3, 1, logger))
+                .logger(logger)
+                .apiKeyPool(pool)
+                .build();
+
+        RequestSettings s = new RequestSettings("key-a");
+        s.appendToURL("https://api.test.com/weather");
+        s.putRequestParameter("q", "London");
+
+        assertEquals("{\"ok\":true}", pooled.execute(s));
+        assertEquals("{\"async\":true}", pooled.executeAsync(s).get());
+
+        ArgumentCaptor<HttpRequest> sent = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(transport, times(2)).send(sent.capture());
+        assertTrue(sent.getAllValues().get(0).uri().getQuery().contains("appid=key-a"));
+        assertTrue(sent.getAllValues().get(1).uri().getQuery().contains("appid=key-b"));
+        ArgumentCaptor<HttpRequest> sentAsync = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(transport).sendAsync(sentAsync.capture());
+        assertTrue(sentAsync.getValue().uri().getQuery().contains("appid=key-c"));
+        assertTrue(pool.getUsage().get(0).isSidelined());
+        assertSame(pool, pooled.getApiKeyPool());
+    }
+
+    @Test
+    void testExecute_failsOverToAnotherKeyWithoutWaitingForRetryAfter() throws Exception {
+        HttpHeaders retryAfter = HttpHeaders.of(Map.of("Retry-After", List.of("60")), (name, value) -> true);
+        WeatherTransport transport = mock(WeatherTransport.class);
+        when(transport.send(any(HttpRequest.class)))
+                .thenReturn(new TransportResponse(429, retryAfter, stream("{\"cod\":429}")))
+                .thenAnswer(invocation -> new TransportResponse(200, NO_HEADERS, stream("{\"ok\":true}")));
+        when(transport.sendAsync(any(HttpRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(new TransportResponse(401, NO_HEADERS, stream("{\"cod\":401}"))))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new TransportResponse(200, NO_HEADERS, stream("{\"async\":true}"))));
+        ApiKeyPool pool = BalancedApiKeyPool.builder().key("key-a").key("key-b").key("key-c").build();
+        WeatherHttpExecutor pooled = WeatherHttpExecutor.builder()
+                .transport(transport)
+                .retryPolicy(new NoRetryPolicy())
+                .logger(logger)
+                .apiKeyPool(pool)
+                .build();
+
+        RequestSettings s = new RequestSettings("key-a");
+        s.appendToURL("https://api.test.com/weather");
+
+        long start = System.nanoTime();
+        assertEquals("{\"ok\":true}", pooled.execute(s));
+        assertEquals("{\"async\":true}", pooled.executeAsync(s).get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+
+        ArgumentCaptor<HttpRequest> sent = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(transport, times(2)).send(sent.capture());
+        assertTrue(sent.getAllValues().get(1).uri().getQuery().contains("appid=key-b"));
+        ArgumentCaptor<HttpRequest> sentAsync = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(transport, times(2)).sendAsync(sentAsync.capture());
+        assertTrue(sentAsync.getAllValues().get(0).uri().getQuery().contains("appid=key-c"));
+        assertTrue(sentAsync.getAllValues().get(1).uri().getQuery().contains("appid=key-b"));
+    }
+
+    @Test
+    void testExecute_doesNotFailOverWhenNoOtherKeyIsAvailable() throws Exception {
+        WeatherTransport transport = mock(WeatherTransport.class);
+        when(transport.send(any(HttpRequest.class)))
+                .thenAnswer(invocation -> new TransportResponse(429, NO_HEADERS, stream("{\"cod\":429}")));
+        ApiKeyPool pool = BalancedApiKeyPool.builder().key("key-a").build();
+        WeatherHttpExecutor pooled = WeatherHttpExecutor.builder()
+                .transport(transport)
+                .retryPolicy(retryPolicy)
+                .logger(logger)
+                .apiKeyPool(pool)
+                .build();
+
+        RequestSettings s = new RequestSettings("key-a");
+        s.appendToURL("https://api.test.com/weather");
+
+        WeatherApiException ex = assertThrows(WeatherApiException.class, () -> pooled.execute(s));
+        assertEquals(429, ex.getStatusCode());
+        verify(transport, times(1)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    void testExecute_failsWithoutSendingWhenNoKeyIsAvailable() throws Exception {
+        WeatherTransport transport = mock(WeatherTransport.class);
+        ApiKeyPool pool = BalancedApiKeyPool.builder().key("key-a", 1, 1, 0).build();
+        pool.acquire();
+        WeatherHttpExecutor pooled = WeatherHttpExecutor.builder()
+                .transport(transport)
+                .retryPolicy(new NoRetryPolicy())
+                .logger(logger)
+                .apiKeyPool(pool)
+                .build();
+
+        RequestSettings s = new RequestSettings("key-a");
+        s.appendToURL("https://api.test.com/weather");
+
+        NoRetryException ex = assertThrows(NoRetryException.class, () -> pooled.execute(s));
+        assertInstanceOf(WeatherRateLimitException.class, ex.getCause());
+        ExecutionException async = assertThrows(ExecutionException.class, () -> pooled.executeAsync(s).get());
+        assertInstanceOf(WeatherRateLimitException.class, async.getCause().getCause());
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void testWithApiKey_replacesOnlyTheKeyParameter() {
+        assertEquals(URI.create("https://api.test.com/weather?q=London&appid=b%2Bc&units=metric"),
+                WeatherHttpExecutor.withApiKey(
+                        URI.create("https://api.test.com/weather?q=London&appid=a&units=metric"), "b+c"));
+        assertEquals(URI.create("https://api.test.com/weather?appid=b"),
+                WeatherHttpExecutor.withApiKey(URI.create("https://api.test.com/weather"), "b"));
+        assertEquals(URI.create("https://api.test.com/weather?q=x&appid=b"),
+                WeatherHttpExecutor.withApiKey(URI.create("https://api.test.com/weather?q=x"), "b"));
+    }
 }
@@ -0,0 +1,61 @@
+package com.github.brokkko.openweathermap.jdk.limiters;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void testAcquireWaitsForReservedDelay() {
+        RateLimiter limiter = () -> TimeUnit.MILLISECONDS.toNanos(30);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void testAcquireReturnsImmediatelyWithoutDelay() {
+        RateLimiter limiter = () -> 0;
+
+        assertDoesNotThrow(limiter::acquire);
+    }
+
+    @Test
+    void testBoundedAcquireRefusesDelayLongerThanMaximum() {
+        RateLimiter limiter = () -> TimeUnit.SECONDS.toNanos(10);
+
+        long start = System.nanoTime();
+        assertFalse(limiter.tryAcquire(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testBoundedAcquireWaitsForDelayWithinMaximum() {
+        RateLimiter limiter = () -> TimeUnit.MILLISECONDS.toNanos(30);
+
+        long start = System.nanoTime();
+        assertTrue(limiter.tryAcquire(TimeUnit.SECONDS.toNanos(1)));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void testAcquireRestoresInterruptFlag() {
+        RateLimiter limiter = () -> TimeUnit.SECONDS.toNanos(10);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(WeatherSdkException.class, limiter::acquire);
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.brokkko.openweathermap.jdk.limiters.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherOverloadException;
+import com.github.brokkko.openweathermap.jdk.limiters.ConcurrencyLimiter.Permit;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private WeatherLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(WeatherLogger.class);
+    }
+
+    private AimdConcurrencyLimiter limiter(int initial, int min, int max, int maxQueue, long maxWaitMs) {
+        return new AimdConcurrencyLimiter(initial, min, max, maxQueue, maxWaitMs, logger, clock::get);
+    }
+
+    private List<Permit> acquireAll(AimdConcurrencyLimiter limiter, int count) {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire());
+        }
+        return permits;
+    }
+
+    @Test
+    void testCallsOverLimitAreQueuedAndGrantedOnRelease() throws Exception {
+        AimdConcurrencyLimiter limiter = limiter(2, 1, 10, 10, 5_000);
+        List<Permit> permits = acquireAll(limiter, 2);
+
+        CompletableFuture<Permit> queued = limiter.acquireAsync();
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getQueued());
+
+        permits.get(0).onIgnore();
+
+        assertTrue(queued.isDone());
+        assertNotNull(queued.get());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testFullQueueShedsCallImmediately() {
+        AimdConcurrencyLimiter limiter = limiter(1, 1, 10, 0, 5_000);
+        limiter.acquire();
+
+        assertThrows(WeatherOverloadException.class, limiter::acquire);
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> limiter.acquireAsync().get());
+        assertInstanceOf(WeatherOverloadException.class, ex.getCause());
+        assertEquals(2, limiter.getRejected());
+    }
+
+    @Test
+    void testQueuedCallTimesOut() {
+        AimdConcurrencyLimiter limiter = limiter(1, 1, 10, 10, 20);
+        limiter.acquire();
+
+        assertThrows(WeatherOverloadException.class, limiter::acquire);
+        assertEquals(1, limiter.getTimedOut());
+        assertEquals(0, limiter.getQueued());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void testBoundedAcquireGivesUpAndLeavesQueue() {
+        AimdConcurrencyLimiter limiter = limiter(1, 1, 10, 10, 5_000);
+        Permit held = limiter.acquire();
+
+        assertNull(limiter.tryAcquire(10 * MILLI));
+        assertEquals(0, limiter.getQueued());
+
+        held.onIgnore();
+        assertEquals(0, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire(10 * MILLI));
+    }
+
+    @Test
+    void testSuccessUnderLoadIncreasesLimit() {
+        AimdConcurrencyLimiter limiter = limiter(4, 1, 10, 10, 5_000);
+        List<Permit> permits = acquireAll(limiter, 4);
+
+        clock.addAndGet(10 * MILLI);
+        permits.forEach(Permit::onSuccess);
+
+        assertEquals(6, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testSuccessWhileIdleDoesNotIncreaseLimit() {
+        AimdConcurrencyLimiter limiter = limiter(10, 1, 20, 10, 5_000);
+
+        limiter.acquire().onSuccess();
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitIsCappedAtMaximum() {
+        AimdConcurrencyLimiter limiter = limiter(4, 1, 5, 10, 5_000);
+
+        acquireAll(limiter, 4).forEach(Permit::onSuccess);
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testDropDecreasesLimitOncePerCongestionEvent() {
+        AimdConcurrencyLimiter limiter = limiter(20, 1, 50, 10, 5_000);
+        clock.addAndGet(MILLI);
+        List<Permit> permits = acquireAll(limiter, 5);
+
+        clock.addAndGet(MILLI);
+        permits.forEach(Permit::onDropped);
+
+        assertEquals(18, limiter.getLimit());
+        assertEquals(5, limiter.getDropped());
+
+        clock.addAndGet(MILLI);
+        Permit later = limiter.acquire();
+        clock.addAndGet(MILLI);
+        later.onDropped();
+
+        assertEquals(16, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitIsNotDecreasedBelowMinimum() {
+        AimdConcurrencyLimiter limiter = limiter(2, 2, 10, 10, 5_000);
+        clock.addAndGet(MILLI);
+
+        limiter.acquire().onDropped();
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testRisingLatencyDecreasesLimit() {
+        AimdConcurrencyLimiter limiter = limiter(20, 1, 50, 10, 5_000);
+        clock.addAndGet(MILLI);
+
+        Permit fast = limiter.acquire();
+        clock.addAndGet(10 * MILLI);
+        fast.onSuccess();
+        assertEquals(20, limiter.getLimit());
+
+        Permit slow = limiter.acquire();
+        clock.addAndGet(50 * MILLI);
+        slow.onSuccess();
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void testReleasingTwiceIsNoOp() {
+        AimdConcurrencyLimiter limiter = limiter(2, 1, 10, 10, 5_000);
+        Permit permit = limiter.acquire();
+        limiter.acquire();
+
+        permit.onIgnore();
+        permit.onIgnore();
+
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void testCancelledWaiterLeavesQueueAndDoesNotLeakSlot() {
+        AimdConcurrencyLimiter limiter = limiter(1, 1, 10, 10, 5_000);
+        Permit permit = limiter.acquire();
+
+        CompletableFuture<Permit> queued = limiter.acquireAsync();
+        queued.cancel(false);
+        assertEquals(0, limiter.getQueued());
+
+        permit.onIgnore();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testInvalidBoundsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(0, 0, 10, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> limiter(20, 1, 10, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> limiter(5, 1, 10, -1, 100));
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.brokkko.openweathermap.jdk.limiters.impl;
+
+import com.github.brokkko.openweathermap.jdk.enums.KeySelectionStrategy;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherTimeoutException;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyPool;
+import com.github.brokkko.openweathermap.jdk.limiters.ApiKeyUsage;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BalancedApiKeyPoolTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void weightedRoundRobinInterleavesKeysByWeight() {
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("key-a", 2)
+                .key("key-b", 1)
+                .nanoClock(clock::get)
+                .build();
+
+        List<String> picked = take(pool, 6);
+
+        assertEquals(List.of("key-a", "key-b", "key-a", "key-a", "key-b", "key-a"), picked);
+    }
+
+    @Test
+    void leastUsedBalancesByQuotaShare() {
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("free", 1, 60, 0)
+                .key("paid", 1, 600, 0)
+                .strategy(KeySelectionStrategy.LEAST_USED)
+                .nanoClock(clock::get)
+                .build();
+
+        Map<String, Long> counts = take(pool, 66).stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        assertEquals(6L, counts.get("free"));
+        assertEquals(60L, counts.get("paid"));
+    }
+
+    @Test
+    void skipsKeysOutOfQuotaUntilTheirWindowRolls() {
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("key-a", 1, 2, 0)
+                .key("key-b", 1, 1, 0)
+                .nanoClock(clock::get)
+                .build();
+
+        take(pool, 3);
+        WeatherRateLimitException ex = assertThrows(WeatherRateLimitException.class, pool::acquire);
+        assertEquals(60_000L, ex.getRetryAfterMillis());
+
+        clock.addAndGet(60 * SECOND);
+        assertEquals(3, take(pool, 3).size());
+    }
+
+    @Test
+    void sidelinesKeysRejectedWithUnauthorizedOrTooManyRequests() {
+        WeatherLogger logger = mock(WeatherLogger.class);
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("key-aaaa")
+                .key("key-bbbb")
+                .key("key-cccc")
+                .unauthorizedCooldownMillis(600_000)
+                .logger(logger)
+                .nanoClock(clock::get)
+                .build();
+
+        pool.acquire().onFailure(new WeatherApiException("invalid key", 401));
+        pool.acquire().onFailure(new WeatherApiException("slow down", 429, 5_000L));
+        ApiKeyPool.Lease third = pool.acquire();
+        third.onFailure(new WeatherTimeoutException("timeout", null));
+
+        assertEquals(List.of("key-cccc", "key-cccc"), take(pool, 2));
+        verify(logger).warn(contains("...aaaa rejected with HTTP 401"));
+
+        clock.addAndGet(5 * SECOND);
+        assertTrue(take(pool, 4).contains("key-bbbb"));
+        List<ApiKeyUsage> usage = pool.getUsage();
+        assertTrue(usage.get(0).isSidelined());
+        assertEquals(1, usage.get(0).rejectedCalls());
+        assertFalse(usage.get(1).isSidelined());
+        assertEquals(0, usage.get(2).rejectedCalls());
+    }
+
+    @Test
+    void failsWithEarliestReturnWhenEveryKeyIsSidelined() {
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("key-a")
+                .key("key-b")
+                .rateLimitedCooldownMillis(30_000)
+                .nanoClock(clock::get)
+                .build();
+
+        pool.acquire().onFailure(new WeatherApiException("slow down", 429));
+        pool.acquire().onFailure(new WeatherApiException("slow down", 429, 10_000L));
+
+        WeatherRateLimitException ex = assertThrows(WeatherRateLimitException.class, pool::acquire);
+        assertEquals(10_000L, ex.getRetryAfterMillis());
+    }
+
+    @Test
+    void failsOverOnKeyRejectionWhileAnotherKeyIsAvailable() {
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("key-a")
+                .key("key-b")
+                .nanoClock(clock::get)
+                .build();
+        WeatherApiException rateLimited = new WeatherApiException("slow down", 429, 60_000L);
+
+        pool.acquire().onFailure(rateLimited);
+        assertTrue(pool.canFailOver(rateLimited));
+        assertTrue(pool.canFailOver(new WeatherApiException("invalid key", 401)));
+        assertFalse(pool.canFailOver(new WeatherApiException("server error", 500)));
+        assertFalse(pool.canFailOver(new WeatherTimeoutException("timeout", null)));
+
+        pool.acquire().onFailure(rateLimited);
+        assertFalse(pool.canFailOver(rateLimited));
+    }
+
+    @Test
+    void tracksPerKeyUsage() {
+        ApiKeyPool pool = BalancedApiKeyPool.builder()
+                .key("key-a", 3, 0, 1_000)
+                .key("key-b")
+                .nanoClock(clock::get)
+                .build();
+
+        take(pool, 8);
+        ApiKeyUsage a = pool.getUsage().get(0);
+
+        assertEquals("key-a", a.apiKey());
+        assertEquals(3, a.weight());
+        assertEquals(6, a.callsThisMinute());
+        assertEquals(6, a.callsToday());
+        assertEquals(6, a.totalCalls());
+        assertEquals(List.of("key-a", "key-b"), pool.getApiKeys());
+
+        clock.addAndGet(61 * SECOND);
+        a = pool.getUsage().get(0);
+        assertEquals(0, a.callsThisMinute());
+        assertEquals(6, a.callsToday());
+    }
+
+    @Test
+    void builderRejectsInvalidKeys() {
+        assertThrows(IllegalArgumentException.class, () -> BalancedApiKeyPool.builder().build());
+        assertThrows(IllegalArgumentException.class, () -> BalancedApiKeyPool.builder().key(" "));
+        assertThrows(IllegalArgumentException.class, () -> BalancedApiKeyPool.builder().key("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> BalancedApiKeyPool.builder().key("a").key("a"));
+        assertThrows(IllegalArgumentException.class, () -> BalancedApiKeyPool.builder().key("a", 1, -1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> BalancedApiKeyPool.builder().key("a").rateLimitedCooldownMillis(-1).build());
+    }
+
+    private static List<String> take(ApiKeyPool pool, int count) {
+        List<String> picked = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ApiKeyPool.Lease lease = pool.acquire();
+            picked.add(lease.apiKey());
+            lease.onSuccess();
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.brokkko.openweathermap.jdk.limiters.impl;
+
+import com.github.brokkko.openweathermap.jdk.enums.RateLimitMode;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private WeatherLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(WeatherLogger.class);
+    }
+
+    private TokenBucketRateLimiter limiter(int perMinute, int perDay, RateLimitMode mode, long maxWaitMs) {
+        return new TokenBucketRateLimiter(perMinute, perDay, mode, maxWaitMs, logger, clock::get);
+    }
+
+    @Test
+    void testFullBurstIsAllowedThenFailFastRejects() {
+        TokenBucketRateLimiter limiter = limiter(60, 0, RateLimitMode.FAIL_FAST, 0);
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        WeatherRateLimitException ex = assertThrows(WeatherRateLimitException.class, limiter::reserve);
+
+        assertTrue(ex.getRetryAfterMillis() > 0 && ex.getRetryAfterMillis() <= 1_001);
+        assertEquals(60, limiter.getPermitted());
+        assertEquals(1, limiter.getRejected());
+        assertEquals(0, limiter.getDelayed());
+    }
+
+    @Test
+    void testTokensRefillContinuously() {
+        TokenBucketRateLimiter limiter = limiter(60, 0, RateLimitMode.FAIL_FAST, 0);
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve();
+        }
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.reserve());
+        assertThrows(WeatherRateLimitException.class, limiter::reserve);
+    }
+
+    @Test
+    void testQueueModeReservesFuturePermits() {
+        TokenBucketRateLimiter limiter = limiter(60, 0, RateLimitMode.QUEUE, 5_000);
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve();
+        }
+
+        assertEquals(SECOND, limiter.reserve());
+        assertEquals(2 * SECOND, limiter.reserve());
+
+        assertEquals(2, limiter.getDelayed());
+        assertEquals(3_000, limiter.getTotalWaitMillis());
+        assertEquals(2_000, limiter.getMaxWaitMillis());
+    }
+
+    @Test
+    void testQueueModeRejectsWaitsLongerThanMaximum() {
+        TokenBucketRateLimiter limiter = limiter(60, 0, RateLimitMode.QUEUE, 1_500);
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve();
+        }
+
+        assertEquals(SECOND, limiter.reserve());
+        assertThrows(WeatherRateLimitException.class, limiter::reserve);
+
+        clock.addAndGet(SECOND);
+        assertEquals(SECOND, limiter.reserve(), "rejected call must not consume a token");
+    }
+
+    @Test
+    void testBoundedReserveLeavesTokenWhenDelayIsTooLong() {
+        TokenBucketRateLimiter limiter = limiter(60, 0, RateLimitMode.QUEUE, 5_000);
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve();
+        }
+
+        assertEquals(-1, limiter.reserve(SECOND / 2));
+        assertEquals(0, limiter.getRejected());
+        assertEquals(0, limiter.getDelayed());
+
+        assertEquals(SECOND, limiter.reserve(SECOND), "refused call must not consume a token");
+    }
+
+    @Test
+    void testDailyQuotaCapsBursts() {
+        TokenBucketRateLimiter limiter = limiter(60, 100, RateLimitMode.FAIL_FAST, 0);
+
+        int permitted = 0;
+        for (int minute = 0; minute < 5; minute++) {
+            for (int i = 0; i < 60; i++) {
+                try {
+                    limiter.reserve();
+                    permitted++;
+                } catch (WeatherRateLimitException ignored) {
+                    // quota reached
+                }
+            }
+            clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        }
+
+        assertTrue(permitted >= 100 && permitted <= 101, "permitted=" + permitted);
+    }
+
+    @Test
+    void testConcurrentCallersNeverExceedBucket() throws Exception {
+        TokenBucketRateLimiter limiter = limiter(50, 0, RateLimitMode.FAIL_FAST, 0);
+        int callers = 200;
+        AtomicInteger permitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        limiter.reserve();
+                        permitted.incrementAndGet();
+                    } catch (WeatherRateLimitException ignored) {
+                        // expected for callers beyond the bucket
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(50, permitted.get());
+        assertEquals(50, limiter.getPermitted());
+        assertEquals(150, limiter.getRejected());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(-1, 0, RateLimitMode.QUEUE, 0));
+        assertThrows(IllegalArgumentException.class, () -> limiter(1, 0, RateLimitMode.QUEUE, -1));
+    }
+}
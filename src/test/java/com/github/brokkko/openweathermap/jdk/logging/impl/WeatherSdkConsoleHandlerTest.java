@@ -0,0 +1,60 @@
+package com.github.brokkko.openweathermap.jdk.logging.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherSdkConsoleHandlerTest {
+
+    @Test
+    void testPublishWritesFormattedRecord() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        WeatherSdkConsoleHandler handler = new WeatherSdkConsoleHandler(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        handler.setFormatter(new WeatherSdkLogFormatter());
+
+        LogRecord record = new LogRecord(Level.INFO, "hello");
+        record.setLoggerName("a.b.MyClass");
+        handler.publish(record);
+
+        String output = buffer.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("hello"));
+        assertTrue(output.contains("(MyClass)"));
+    }
+
+    @Test
+    void testPublishSkipsRecordsBelowLevel() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        WeatherSdkConsoleHandler handler = new WeatherSdkConsoleHandler(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        handler.setFormatter(new WeatherSdkLogFormatter());
+        handler.setLevel(Level.WARNING);
+
+        handler.publish(new LogRecord(Level.INFO, "ignored"));
+
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testPublishFromManyVirtualThreadsKeepsLinesIntact() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        WeatherSdkConsoleHandler handler = new WeatherSdkConsoleHandler(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        handler.setFormatter(new WeatherSdkLogFormatter());
+
+        Thread[] threads = new Thread[50];
+        for (int i = 0; i < threads.length; i++) {
+            int n = i;
+            threads[i] = Thread.ofVirtual().start(() -> handler.publish(new LogRecord(Level.INFO, "line-" + n)));
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        String[] lines = buffer.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(50, lines.length);
+    }
+}
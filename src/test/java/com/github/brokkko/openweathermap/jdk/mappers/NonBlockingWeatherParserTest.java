@@ -0,0 +1,107 @@
+package com.github.brokkko.openweathermap.jdk.mappers;
+
+import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSerializationException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.models.Weather;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class NonBlockingWeatherParserTest {
+
+    private static final String JSON = """
+            {
+              "coord": { "lon": -0.13, "lat": 51.51 },
+              "weather": [{ "id": 800, "main": "Clear", "description": "ciel dégagé", "icon": "01d" }],
+              "base": "stations",
+              "main": { "temp": 23.5, "feels_like": 21.0, "temp_min": 20.0, "temp_max": 25.0,
+                        "pressure": 1012, "humidity": 40, "sea_level": 1015, "grnd_level": 1009 },
+              "visibility": 10000,
+              "wind": { "speed": 3.5, "deg": 150, "gust": 7.0 },
+              "rain": { "1h": 0.5 },
+              "clouds": { "all": 10 },
+              "dt": 1700020000,
+              "sys": { "type": 2, "id": 2075535, "country": "GB", "sunrise": 1700000000, "sunset": 1700040000 },
+              "timezone": 3600,
+              "id": 2643743,
+              "name": "London",
+              "cod": 200,
+              "flags": [true, false, null, 12345678901]
+            }
+            """;
+
+    private final WeatherResponseMapper mapper = new WeatherResponseMapper(UnitSystem.METRIC, mock(WeatherLogger.class));
+
+    @Test
+    void testByteByByteFeedMatchesWholeBodyMapping() throws IOException {
+        byte[] json = JSON.getBytes(StandardCharsets.UTF_8);
+        BodyParser<Weather> parser = mapper.newParser();
+
+        for (byte b : json) {
+            parser.feed(ByteBuffer.wrap(new byte[]{b}));
+        }
+
+        Weather weather = parser.finish();
+        assertEquals(mapper.mapJsonToWeather(json), weather);
+        assertEquals("ciel dégagé", weather.getWeatherState().getDescription());
+    }
+
+    @Test
+    void testDirectAndSlicedChunksAreCopiedThroughScratch() throws IOException {
+        byte[] json = JSON.getBytes(StandardCharsets.UTF_8);
+        BodyParser<Weather> parser = mapper.newParser();
+        int half = json.length / 2;
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(half);
+        direct.put(json, 0, half).flip();
+        parser.feed(direct);
+        ByteBuffer backing = ByteBuffer.allocate(json.length + 8);
+        backing.position(4);
+        ByteBuffer slice = backing.slice();
+        slice.put(json, half, json.length - half).flip();
+        parser.feed(slice.asReadOnlyBuffer());
+
+        assertFalse(direct.hasRemaining());
+        assertEquals(mapper.mapJsonToWeather(json), parser.finish());
+    }
+
+    @Test
+    void testMalformedChunkFailsImmediately() throws IOException {
+        BodyParser<Weather> parser = mapper.newParser();
+
+        assertThrows(WeatherSerializationException.class,
+                () -> parser.feed(ByteBuffer.wrap("{\"main\": ]".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testTruncatedBodyFailsOnFinish() throws IOException {
+        BodyParser<Weather> parser = mapper.newParser();
+        parser.feed(ByteBuffer.wrap("{\"main\": {\"temp\": 1".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(WeatherSerializationException.class, parser::finish);
+    }
+
+    @Test
+    void testUnexpectedShapeFailsAsSerializationError() throws IOException {
+        BodyParser<Weather> parser = mapper.newParser();
+        parser.feed(ByteBuffer.wrap("{\"cod\": 200}\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(WeatherSerializationException.class, parser::finish);
+    }
+
+    @Test
+    void testContentAfterRootValueIsRejected() throws IOException {
+        BodyParser<Weather> parser = mapper.newParser();
+        parser.feed(ByteBuffer.wrap("{} ".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(WeatherSerializationException.class,
+                () -> parser.feed(ByteBuffer.wrap("{}".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -9,12 +9,16 @@ import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.models.Weather;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import com.github.brokkko.openweathermap.jdk.request.terminaters.WeatherRequestTerminator;
+import com.github.brokkko.openweathermap.jdk.services.RequestCoalescer;
 import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
 import org.mockito.Mockito;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +40,8 @@ class WeatherResponseMapperTest {
         httpExecutor = mock(WeatherHttpExecutor.class);
 
         when(client.getCacheService()).thenReturn(cache);
+
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
         when(client.getHttpExecutor()).thenReturn(httpExecutor);
 
         rs = mock(RequestSettings.class);
@@ -135,14 +141,15 @@ class WeatherResponseMapperTest {
     @Test
     void testAsJava_success() {
         when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
-        when(cache.get("moscow")).thenReturn(Optional.of("{json-ok}"));
+        byte[] json = "{json-ok}".getBytes(StandardCharsets.UTF_8);
+        when(cache.getBytes("moscow")).thenReturn(Optional.of(json));
 
         Weather mockWeather = mock(Weather.class);
 
         try (MockedConstruction<WeatherResponseMapper> mapperMock =
                      Mockito.mockConstruction(
                              WeatherResponseMapper.class,
-                             (mock, context) -> when(mock.mapJsonToWeather("{json-ok}"))
+                             (mock, context) -> when(mock.mapJsonToWeather(json))
                                      .thenReturn(mockWeather)
                      )) {
 
@@ -157,12 +164,13 @@ class WeatherResponseMapperTest {
     @Test
     void testAsJava_mapperThrows() {
         when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
-        when(cache.get("moscow")).thenReturn(Optional.of("{bad-json}"));
+        byte[] json = "{bad-json}".getBytes(StandardCharsets.UTF_8);
+        when(cache.getBytes("moscow")).thenReturn(Optional.of(json));
 
         try (MockedConstruction<WeatherResponseMapper> mapperMock =
                      Mockito.mockConstruction(
                              WeatherResponseMapper.class,
-                             (mock, context) -> when(mock.mapJsonToWeather("{bad-json}"))
+                             (mock, context) -> when(mock.mapJsonToWeather(json))
                                      .thenThrow(new RuntimeException("parse failed"))
                      )) {
 
@@ -353,4 +361,55 @@ class WeatherResponseMapperTest {
         assertEquals(37.62, w.getLocation().getCoordinate().getLongitude());
     }
 
+
+    @Test
+    void testMapperFromBytes() {
+        WeatherResponseMapper mapper = new WeatherResponseMapper(UnitSystem.METRIC, logger);
+
+        byte[] json = """
+                {
+                  "weather": [{"id": 800, "main": "Clear", "description": "clear sky", "icon": "01d"}],
+                  "main": {"temp": 21.0, "pressure": 1010, "humidity": 55},
+                  "wind": {"speed": 2.0},
+                  "id": 2988507,
+                  "name": "Paris",
+                  "clouds": {"all": 0},
+                  "dt": 1700000000
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        Weather w = mapper.mapJsonToWeather(json);
+
+        assertEquals("Clear", w.getWeatherState().getName());
+        assertEquals(21.0, w.getTemperature().getValue());
+        assertEquals("Paris", w.getLocation().getName());
+    }
+
+    @Test
+    void testMapperWithInvalidJsonBytes() {
+        WeatherResponseMapper mapper = new WeatherResponseMapper(UnitSystem.METRIC, logger);
+
+        byte[] invalidJson = "{ invalid json }".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(WeatherSerializationException.class, () -> mapper.mapJsonToWeather(invalidJson));
+        verify(logger).error(anyString(), any(Exception.class));
+    }
+
+    @Test
+    void testSplitGroupResponseKeepsEveryCityAsItsOwnJson() {
+        String json = "{\"cnt\":2,\"list\":["
+                + "{\"coord\":{\"lon\":37.62,\"lat\":55.75},\"main\":{\"temp\":1.5},\"id\":524901,\"name\":\"Moscow\"},"
+                + "{\"main\":{\"temp\":20},\"id\":703448,\"name\":\"Kyiv\"}]}";
+
+        Map<Long, byte[]> cities = WeatherResponseMapper.splitGroupResponse(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of(524901L, 703448L), List.copyOf(cities.keySet()));
+        assertEquals("{\"main\":{\"temp\":20},\"id\":703448,\"name\":\"Kyiv\"}",
+                new String(cities.get(703448L), StandardCharsets.UTF_8));
+        assertTrue(new String(cities.get(524901L), StandardCharsets.UTF_8).startsWith("{\"coord\":{\"lon\":37.62"));
+        assertThrows(WeatherSerializationException.class,
+                () -> WeatherResponseMapper.splitGroupResponse("{\"cnt\":0}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(WeatherSerializationException.class,
+                () -> WeatherResponseMapper.splitGroupResponse("[1]".getBytes(StandardCharsets.UTF_8)));
+    }
 }
@@ -0,0 +1,70 @@
+package com.github.brokkko.openweathermap.jdk.request;
+
+import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparedWeatherRequestTest {
+
+    private static RequestSettings settings() {
+        RequestSettings rs = new RequestSettings("key");
+        rs.appendToURL("https://api.test.com/weather");
+        rs.putRequestParameter("q", "London");
+        rs.setUnitSystem(UnitSystem.METRIC);
+        return rs;
+    }
+
+    @Test
+    void testPrecomputesUriRequestAndCacheKey() {
+        RequestSettings rs = settings();
+
+        PreparedWeatherRequest prepared = PreparedWeatherRequest.of(rs, Duration.ofSeconds(4));
+
+        assertEquals(rs.toUri(), prepared.getUri());
+        assertEquals(rs.cacheKey(), prepared.getCacheKey());
+        assertEquals("GET", prepared.getHttpRequest().method());
+        assertEquals(Optional.of(Duration.ofSeconds(4)), prepared.getHttpRequest().timeout());
+        assertEquals(UnitSystem.METRIC, prepared.getUnitSystem());
+        assertNull(prepared.getDeadline());
+    }
+
+    @Test
+    void testIsNotAffectedByLaterChangesToSettings() {
+        RequestSettings rs = settings();
+        PreparedWeatherRequest prepared = PreparedWeatherRequest.of(rs, Duration.ofSeconds(1));
+        String cacheKey = prepared.getCacheKey();
+
+        rs.putRequestParameter("q", "Paris");
+        prepared.getSettings().putRequestParameter("q", "Berlin");
+
+        assertEquals(cacheKey, prepared.getCacheKey());
+        assertEquals("London", prepared.getSettings().getRequestParameters().get("q"));
+    }
+
+    @Test
+    void testWithDeadlineSharesPrecomputedParts() {
+        PreparedWeatherRequest prepared = PreparedWeatherRequest.of(settings(), Duration.ofSeconds(1));
+        Deadline deadline = Deadline.after(Duration.ofSeconds(1));
+
+        PreparedWeatherRequest bounded = prepared.withDeadline(deadline);
+
+        assertSame(deadline, bounded.getDeadline());
+        assertSame(prepared.getHttpRequest(), bounded.getHttpRequest());
+        assertSame(prepared.getCacheKey(), bounded.getCacheKey());
+        assertNull(prepared.getDeadline());
+    }
+
+    @Test
+    void testKeepsDeadlineOfSettings() {
+        RequestSettings rs = settings();
+        Deadline deadline = Deadline.after(Duration.ofSeconds(1));
+        rs.setDeadline(deadline);
+
+        assertSame(deadline, PreparedWeatherRequest.of(rs, Duration.ofSeconds(1)).getDeadline());
+    }
+}
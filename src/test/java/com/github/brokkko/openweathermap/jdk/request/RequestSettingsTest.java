@@ -74,4 +74,17 @@ class RequestSettingsTest {
         assertEquals(rs.getRequestParameters(), copy.getRequestParameters());
         assertEquals(rs.getUrlBuilder().toString(), copy.getUrlBuilder().toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testToUriEncodesParameters() {
+        RequestSettings rs = new RequestSettings("key123");
+        rs.appendToURL("https://api.test.com/weather");
+        rs.putRequestParameter("q", "São Paulo");
+
+        String uri = rs.toUri().toString();
+
+        assertTrue(uri.startsWith("https://api.test.com/weather?"));
+        assertTrue(uri.contains("q=S%C3%A3o+Paulo"));
+        assertTrue(uri.contains("appid=key123"));
+    }
+}
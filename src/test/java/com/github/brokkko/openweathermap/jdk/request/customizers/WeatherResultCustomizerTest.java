@@ -3,12 +3,17 @@ package com.github.brokkko.openweathermap.jdk.request.customizers;
 import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
 import com.github.brokkko.openweathermap.jdk.enums.Language;
 import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
+import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class WeatherResultCustomizerTest {
 
@@ -42,4 +47,19 @@ class WeatherResultCustomizerTest {
 
         assertNotNull(c.retrieve());
     }
+
+    @Test
+    void testPrepareDelegatesToHttpExecutor() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+        RequestSettings rs = new RequestSettings("key");
+        rs.appendToURL("https://api.test.com/weather");
+        PreparedWeatherRequest prepared = PreparedWeatherRequest.of(rs, Duration.ofSeconds(1));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(http.prepare(rs)).thenReturn(prepared);
+
+        WeatherResultCustomizer c = new WeatherResultCustomizer(client, mock(WeatherLogger.class), rs);
+
+        assertSame(prepared, c.prepare());
+    }
 }
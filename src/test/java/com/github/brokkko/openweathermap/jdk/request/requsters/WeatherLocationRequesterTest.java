@@ -25,6 +25,20 @@ class WeatherLocationRequesterTest {
         assertEquals("Paris", rs.getRequestParameters().get("q"));
     }
 
+    @Test
+    void testByCityIdSetsParameter() {
+        RequestSettings rs = new RequestSettings("key");
+        WeatherLocationRequester wlr = new WeatherLocationRequester(
+                mock(OpenWeatherMapClient.class),
+                mock(WeatherLogger.class),
+                rs
+        );
+
+        wlr.byCityId(2643743L);
+
+        assertEquals("2643743", rs.getRequestParameters().get("id"));
+    }
+
     @Test
     void testByCoordinatesSetsLatLon() {
         RequestSettings rs = new RequestSettings("key");
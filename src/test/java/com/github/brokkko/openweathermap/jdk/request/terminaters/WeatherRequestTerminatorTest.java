@@ -1,19 +1,45 @@
 package com.github.brokkko.openweathermap.jdk.request.terminaters;
 
 import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
+import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
+import com.github.brokkko.openweathermap.jdk.enums.LoggerType;
 import com.github.brokkko.openweathermap.jdk.enums.SdkMode;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSerializationException;
+import com.github.brokkko.openweathermap.jdk.http.ResponseBodyReader;
 import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.models.Weather;
+import com.github.brokkko.openweathermap.jdk.request.PreparedWeatherRequest;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.retries.impl.ExponentialBackoffRetryPolicy;
+import com.github.brokkko.openweathermap.jdk.services.RequestCoalescer;
 import com.github.brokkko.openweathermap.jdk.services.WeatherCacheService;
 import com.github.brokkko.openweathermap.jdk.services.impl.WeatherCacheServiceImpl;
+import com.github.brokkko.openweathermap.jdk.stub.OwmStubServer;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class WeatherRequestTerminatorTest {
@@ -28,6 +54,7 @@ class WeatherRequestTerminatorTest {
 
         when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
         when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
         when(client.getHttpExecutor()).thenReturn(http);
 
         RequestSettings rs = new RequestSettings("key");
@@ -49,6 +76,7 @@ class WeatherRequestTerminatorTest {
 
         when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
         when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
         when(client.getHttpExecutor()).thenReturn(http);
 
         RequestSettings rs = new RequestSettings("key");
@@ -60,4 +88,367 @@ class WeatherRequestTerminatorTest {
 
         assertEquals("live-json", t.asJSON());
     }
+
+    @Test
+    void testAsJsonAsyncReturnsCachedValueWithoutHttp() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.of("cached-json"));
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, new RequestSettings("key"));
+
+        assertEquals("cached-json", t.asJSONAsync().join());
+        verify(http, never()).executeAsync(any());
+    }
+
+    @Test
+    void testAsJsonAsyncExecutesHttpAndCachesOnMiss() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.POLLING_MODE);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+
+        RequestSettings rs = new RequestSettings("key");
+
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(CompletableFuture.completedFuture("live-json"));
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, rs);
+
+        assertEquals("live-json", t.asJSONAsync().join());
+        verify(cache).put(eq(rs.cacheKey()), eq("live-json"), any(RequestSettings.class));
+    }
+
+    @Test
+    void testAsJavaAsyncFailsWithSerializationExceptionOnInvalidJson() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(cache.getBytes(any())).thenReturn(Optional.of("not-json".getBytes()));
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, new RequestSettings("key"));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> t.asJavaAsync().get());
+        assertInstanceOf(WeatherSerializationException.class, ex.getCause());
+    }
+
+    @Test
+    void testAsJsonAsyncPropagatesHttpFailure() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(
+                CompletableFuture.failedFuture(new WeatherApiException("HTTP 500 from API", 500)));
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, new RequestSettings("key"));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> t.asJSONAsync().get());
+        assertInstanceOf(WeatherApiException.class, ex.getCause());
+        verify(cache, never()).put(any(), any(), any());
+    }
+
+    @Test
+    void testAsJavaStreamsBytesIntoCacheOnMiss() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+
+        RequestSettings rs = new RequestSettings("key");
+        byte[] body = """
+                {
+                  "weather": [{"id": 800, "main": "Clear", "description": "clear sky", "icon": "01d"}],
+                  "main": {"temp": 10.0, "pressure": 1013, "humidity": 50},
+                  "wind": {"speed": 3.0},
+                  "id": 2643743,
+                  "name": "London",
+                  "clouds": {"all": 0},
+                  "dt": 1700000000
+                }
+                """.getBytes();
+
+        when(cache.getBytes(any())).thenReturn(Optional.empty());
+        when(http.execute(eq(rs), any(ResponseBodyReader.class))).thenReturn(body);
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, rs);
+
+        assertEquals("London", t.asJava().getLocation().getName());
+        verify(cache).putBytes(eq(rs.cacheKey()), eq(body), any(RequestSettings.class));
+        verify(http, never()).execute(any());
+    }
+
+    @Test
+    void testConcurrentAsyncMissesShareOneHttpCall() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+        RequestCoalescer coalescer = new RequestCoalescer(logger);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(coalescer);
+        when(client.getHttpExecutor()).thenReturn(http);
+
+        CompletableFuture<String> response = new CompletableFuture<>();
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(response);
+
+        RequestSettings rs = new RequestSettings("key");
+        CompletableFuture<String> first = new WeatherRequestTerminator(client, logger, rs).asJSONAsync();
+        CompletableFuture<String> second = new WeatherRequestTerminator(client, logger, rs.copy()).asJSONAsync();
+        response.complete("live-json");
+
+        assertEquals("live-json", first.join());
+        assertEquals("live-json", second.join());
+        verify(http, times(1)).executeAsync(any());
+        verify(cache, times(1)).put(eq(rs.cacheKey()), eq("live-json"), any(RequestSettings.class));
+        assertEquals(1, coalescer.getCoalescedCalls());
+    }
+
+    @Test
+    void testWithinGivesEachFetchItsOwnDeadline() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(CompletableFuture.completedFuture("live-json"));
+
+        RequestSettings rs = new RequestSettings("key");
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, rs).within(Duration.ofSeconds(5));
+
+        assertEquals("live-json", t.asJSON());
+        assertEquals("live-json", t.asJSON());
+
+        ArgumentCaptor<RequestSettings> sent = ArgumentCaptor.forClass(RequestSettings.class);
+        verify(http, times(2)).executeAsync(sent.capture());
+        verify(http, never()).execute(any());
+        Deadline first = sent.getAllValues().get(0).getDeadline();
+        Deadline second = sent.getAllValues().get(1).getDeadline();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertTrue(second.remainingNanos() <= Duration.ofSeconds(5).toNanos());
+        assertEquals(rs.cacheKey(), sent.getValue().cacheKey());
+        assertNull(rs.getDeadline());
+    }
+
+    @Test
+    void testWithinCapsEachAttemptAndStopsRetrying() throws Exception {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        HttpClient httpClient = mock(HttpClient.class);
+        List<HttpRequest> sent = new CopyOnWriteArrayList<>();
+        when(httpClient.sendAsync(any(), any())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return CompletableFuture.failedFuture(new ConnectException("refused"));
+        });
+        WeatherHttpExecutor http = WeatherHttpExecutor.builder()
+                .httpClient(httpClient)
+                .retryPolicy(new ExponentialBackoffRetryPolicy(10, 100, logger))
+                .logger(logger)
+                .build();
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.empty());
+
+        RequestSettings rs = new RequestSettings("key");
+        rs.appendToURL("https://api.test.com/weather");
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, rs).within(Duration.ofMillis(300));
+
+        assertThrows(WeatherDeadlineExceededException.class, t::asJSON);
+        int attempts = sent.size();
+        Thread.sleep(500);
+
+        assertEquals(attempts, sent.size());
+        assertTrue(attempts >= 1 && attempts <= 3);
+        for (HttpRequest request : sent) {
+            assertTrue(request.timeout().orElseThrow().compareTo(Duration.ofMillis(300)) <= 0);
+        }
+    }
+
+    @Test
+    void testFollowerWithoutDeadlineLiftsTheSharedDeadline() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+        RequestCoalescer coalescer = new RequestCoalescer(logger);
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(coalescer);
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(response);
+
+        RequestSettings rs = new RequestSettings("key");
+        CompletableFuture<String> leader = new WeatherRequestTerminator(client, logger, rs.copy())
+                .within(Duration.ofMillis(20))
+                .asJSONAsync();
+        CompletableFuture<String> follower = new WeatherRequestTerminator(client, logger, rs.copy()).asJSONAsync();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, leader::get);
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+        assertFalse(response.isCancelled());
+
+        ArgumentCaptor<RequestSettings> sent = ArgumentCaptor.forClass(RequestSettings.class);
+        verify(http, times(1)).executeAsync(sent.capture());
+        assertEquals(Long.MAX_VALUE, sent.getValue().getDeadline().remainingNanos());
+
+        response.complete("live-json");
+        assertEquals("live-json", follower.join());
+        verify(cache).put(eq(rs.cacheKey()), eq("live-json"), any(RequestSettings.class));
+        assertEquals(1, coalescer.getCoalescedCalls());
+    }
+
+    @Test
+    void testFollowerExtendsTheSharedDeadline() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(new CompletableFuture<>());
+
+        RequestSettings rs = new RequestSettings("key");
+        new WeatherRequestTerminator(client, logger, rs.copy()).within(Duration.ofMillis(100)).asJSONAsync();
+        new WeatherRequestTerminator(client, logger, rs.copy()).within(Duration.ofSeconds(5)).asJSONAsync();
+
+        ArgumentCaptor<RequestSettings> sent = ArgumentCaptor.forClass(RequestSettings.class);
+        verify(http, times(1)).executeAsync(sent.capture());
+        assertTrue(sent.getValue().getDeadline().remainingNanos() > Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void testWithinFailsAsyncCallWhenDeadlinePasses() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(http.executeAsync(any())).thenReturn(new CompletableFuture<>());
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, new RequestSettings("key"))
+                .within(Duration.ofMillis(20));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> t.asJSONAsync().get());
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+    }
+
+    @Test
+    void testWithinRejectsNonPositiveTimeout() {
+        WeatherRequestTerminator t = new WeatherRequestTerminator(
+                mock(OpenWeatherMapClient.class), mock(WeatherLogger.class), new RequestSettings("key"));
+
+        assertThrows(IllegalArgumentException.class, () -> t.within(Duration.ZERO));
+    }
+
+    @Test
+    void testPreparedRequestUsesPrecomputedCacheKey() {
+        OpenWeatherMapClient client = mock(OpenWeatherMapClient.class);
+        WeatherLogger logger = mock(WeatherLogger.class);
+        WeatherCacheService cache = mock(WeatherCacheServiceImpl.class);
+        WeatherHttpExecutor http = mock(WeatherHttpExecutor.class);
+
+        when(client.getSdkMode()).thenReturn(SdkMode.ON_DEMAND);
+        when(client.getCacheService()).thenReturn(cache);
+        when(client.getRequestCoalescer()).thenReturn(new RequestCoalescer(logger));
+        when(client.getHttpExecutor()).thenReturn(http);
+
+        RequestSettings rs = new RequestSettings("key");
+        rs.appendToURL("https://api.test.com/weather");
+        rs.putRequestParameter("q", "London");
+        PreparedWeatherRequest prepared = PreparedWeatherRequest.of(rs, Duration.ofSeconds(1));
+        when(cache.get(prepared.getCacheKey())).thenReturn(Optional.empty());
+        when(http.execute(any(PreparedWeatherRequest.class), any(ResponseBodyReader.class))).thenReturn("live-json");
+
+        WeatherRequestTerminator t = new WeatherRequestTerminator(client, logger, prepared);
+
+        assertEquals("live-json", t.asJSON());
+        verify(http).execute(eq(prepared), any(ResponseBodyReader.class));
+        verify(cache).put(eq(rs.cacheKey()), eq("live-json"), any(RequestSettings.class));
+    }
+
+    @Test
+    void testUncachedAsJavaAsyncParsesWhileReceiving() throws Exception {
+        try (OwmStubServer stub = OwmStubServer.builder().start()) {
+            OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                    .apiKey("test-key")
+                    .baseUrl(stub.baseUrl())
+                    .logLevel(LogLevel.ERROR)
+                    .logger(LoggerType.DEFAULT)
+                    .build();
+            try {
+                BufferPool pool = client.getHttpExecutor().getBufferPool();
+
+                Weather streamed = client.query().byCityId(42).retrieve().uncached().asJavaAsync().get();
+
+                assertEquals(42, streamed.getLocation().getId());
+                assertEquals(0, pool.getAllocations());
+                assertTrue(client.getCacheService().getAllKeys().isEmpty());
+                assertEquals(1, stub.getRequests());
+
+                Weather buffered = client.query().byCityId(42).retrieve().asJava();
+
+                assertEquals(streamed.getLocation(), buffered.getLocation());
+                assertTrue(pool.getAllocations() > 0);
+                assertEquals(1, client.getCacheService().getAllKeys().size());
+
+                client.query().byCityId(42).retrieve().uncached().asJavaAsync().get();
+                assertEquals(3, stub.getRequests());
+            } finally {
+                client.destroy();
+            }
+        }
+    }
 }
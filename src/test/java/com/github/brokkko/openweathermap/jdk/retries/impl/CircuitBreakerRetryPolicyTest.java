@@ -0,0 +1,216 @@
+package com.github.brokkko.openweathermap.jdk.retries.impl;
+
+import com.github.brokkko.openweathermap.jdk.enums.CircuitBreakerState;
+import com.github.brokkko.openweathermap.jdk.exceptions.NoRetryException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherCircuitOpenException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherNetworkException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherTimeoutException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CircuitBreakerRetryPolicyTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final List<String> transitions = new ArrayList<>();
+    private CircuitBreakerRetryPolicy policy;
+
+    @BeforeEach
+    void init() {
+        policy = CircuitBreakerRetryPolicy.builder()
+                .delegate(new NoRetryPolicy())
+                .logger(mock(WeatherLogger.class))
+                .windowSize(4)
+                .minimumCalls(4)
+                .failureRateThreshold(50)
+                .slowCallRateThreshold(100)
+                .slowCallDurationMillis(1_000)
+                .openDurationMillis(10_000)
+                .halfOpenCalls(2)
+                .stateListener((from, to) -> transitions.add(from + "->" + to))
+                .nanoClock(clock::get)
+                .build();
+    }
+
+    private void fail() {
+        assertThrows(NoRetryException.class, () -> policy.executeWithRetry(() -> {
+            throw new WeatherNetworkException("down", null);
+        }));
+    }
+
+    private void succeed() {
+        assertEquals("OK", policy.executeWithRetry(() -> "OK"));
+    }
+
+    @Test
+    void testOpensWhenFailureRateReachesThreshold() {
+        succeed();
+        succeed();
+        fail();
+        assertEquals(CircuitBreakerState.CLOSED, policy.getState());
+
+        fail();
+
+        assertEquals(CircuitBreakerState.OPEN, policy.getState());
+        assertEquals(50.0f, policy.getFailureRate());
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    void testDoesNotEvaluateBeforeMinimumCalls() {
+        fail();
+        fail();
+        fail();
+
+        assertEquals(CircuitBreakerState.CLOSED, policy.getState());
+    }
+
+    @Test
+    void testOpenCircuitFailsFastWithoutRunningOperation() {
+        for (int i = 0; i < 4; i++) fail();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(WeatherCircuitOpenException.class, () -> policy.executeWithRetry(runs::incrementAndGet));
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> policy.executeWithRetryAsync(() -> CompletableFuture.completedFuture(runs.incrementAndGet())).get());
+
+        assertInstanceOf(WeatherCircuitOpenException.class, ex.getCause());
+        assertEquals(0, runs.get());
+        assertEquals(2, policy.getRejectedCalls());
+    }
+
+    @Test
+    void testHalfOpenTrialsCloseCircuit() {
+        for (int i = 0; i < 4; i++) fail();
+        clock.addAndGet(10_000 * MILLI);
+
+        succeed();
+        assertEquals(CircuitBreakerState.HALF_OPEN, policy.getState());
+        succeed();
+
+        assertEquals(CircuitBreakerState.CLOSED, policy.getState());
+        assertEquals(0.0f, policy.getFailureRate());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+        assertEquals(3, policy.getStateTransitions());
+    }
+
+    @Test
+    void testHalfOpenFailureReopensCircuit() {
+        for (int i = 0; i < 4; i++) fail();
+        clock.addAndGet(10_000 * MILLI);
+
+        fail();
+
+        assertEquals(CircuitBreakerState.OPEN, policy.getState());
+        assertThrows(WeatherCircuitOpenException.class, this::succeed);
+    }
+
+    @Test
+    void testHalfOpenLimitsTrialCalls() {
+        for (int i = 0; i < 4; i++) fail();
+        clock.addAndGet(10_000 * MILLI);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        policy.executeWithRetryAsync(() -> first);
+        policy.executeWithRetryAsync(() -> second);
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> policy.executeWithRetryAsync(() -> CompletableFuture.completedFuture("third")).get());
+
+        assertInstanceOf(WeatherCircuitOpenException.class, ex.getCause());
+        first.complete("OK");
+        second.complete("OK");
+        assertEquals(CircuitBreakerState.CLOSED, policy.getState());
+    }
+
+    @Test
+    void testSlowCallsOpenCircuit() {
+        RetryableOperation<String> slow = () -> {
+            clock.addAndGet(2_000 * MILLI);
+            return "OK";
+        };
+        for (int i = 0; i < 4; i++) {
+            policy.executeWithRetry(slow);
+        }
+
+        assertEquals(CircuitBreakerState.OPEN, policy.getState());
+        assertEquals(4, policy.getSlowCalls());
+        assertEquals(4, policy.getSuccessfulCalls());
+    }
+
+    @Test
+    void testClientErrorsAndServerErrorsAreClassified() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(NoRetryException.class, () -> policy.executeWithRetry(() -> {
+                throw new WeatherApiException("not found", 404);
+            }));
+        }
+        assertEquals(CircuitBreakerState.CLOSED, policy.getState());
+        assertEquals(4, policy.getSuccessfulCalls());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(NoRetryException.class, () -> policy.executeWithRetry(() -> {
+                throw new WeatherApiException("unavailable", 503);
+            }));
+        }
+        assertEquals(CircuitBreakerState.OPEN, policy.getState());
+        assertEquals(2, policy.getFailedCalls());
+    }
+
+    @Test
+    void testAsyncFailuresAreRecorded() {
+        for (int i = 0; i < 4; i++) {
+            policy.executeWithRetryAsync(() ->
+                    CompletableFuture.failedFuture(new WeatherTimeoutException("timeout", null)));
+        }
+
+        assertEquals(CircuitBreakerState.OPEN, policy.getState());
+    }
+
+    @Test
+    void testOpenCircuitStopsRetriesOfWrappedPolicy() {
+        CircuitBreakerRetryPolicy guarded = CircuitBreakerRetryPolicy.builder()
+                .delegate(new ExponentialBackoffRetryPolicy(5, 1, mock(WeatherLogger.class)))
+                .logger(mock(WeatherLogger.class))
+                .windowSize(2)
+                .minimumCalls(2)
+                .nanoClock(clock::get)
+                .build();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(WeatherCircuitOpenException.class, () -> guarded.executeWithRetry(() -> {
+            runs.incrementAndGet();
+            throw new WeatherNetworkException("down", null);
+        }));
+
+        assertEquals(2, runs.get());
+        assertEquals(CircuitBreakerState.OPEN, guarded.getState());
+    }
+
+    @Test
+    void testMissingDelegateIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CircuitBreakerRetryPolicy.builder().logger(mock(WeatherLogger.class)).build());
+    }
+
+    @Test
+    void testMissingLoggerIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CircuitBreakerRetryPolicy.builder().delegate(new NoRetryPolicy()).build());
+    }
+}
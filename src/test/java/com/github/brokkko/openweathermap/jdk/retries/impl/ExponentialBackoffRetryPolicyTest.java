@@ -1,10 +1,26 @@
 package com.github.brokkko.openweathermap.jdk.retries.impl;
 
+import com.github.brokkko.openweathermap.jdk.enums.JitterMode;
 import com.github.brokkko.openweathermap.jdk.exceptions.RetryExhaustedException;
+import com.github.brokkko.openweathermap.jdk.exceptions.RetryInterruptedException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherCircuitOpenException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.retries.AsyncRetryableOperation;
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
 import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -52,4 +68,295 @@ class ExponentialBackoffRetryPolicyTest {
 
         assertThrows(RetryExhaustedException.class, () -> policy.executeWithRetry(op));
     }
+
+    @Test
+    void testAsyncRetriesAndThenSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> calls.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new RuntimeException("fail"))
+                : CompletableFuture.completedFuture("OK");
+
+        assertEquals("OK", policy.executeWithRetryAsync(op).join());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testAsyncExhaustedRetriesCompletesExceptionally() {
+        AtomicInteger calls = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("boom");
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> policy.executeWithRetryAsync(op).get());
+        assertInstanceOf(RetryExhaustedException.class, ex.getCause());
+        assertEquals("boom", ex.getCause().getCause().getMessage());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testCircuitOpenIsNotRetried() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new WeatherCircuitOpenException("open"));
+
+        assertThrows(WeatherCircuitOpenException.class, () -> policy.executeWithRetry(op));
+        verify(op, times(1)).run();
+    }
+
+    @Test
+    void testCircuitOpenIsNotRetriedAsync() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new WeatherCircuitOpenException("open"));
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> policy.executeWithRetryAsync(op).get());
+        assertInstanceOf(WeatherCircuitOpenException.class, ex.getCause());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testStopsWhenBackoffWouldPassDeadline() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new RuntimeException("boom"));
+
+        WeatherDeadlineExceededException ex = assertThrows(WeatherDeadlineExceededException.class,
+                () -> policy.executeWithRetry(op, Deadline.after(Duration.ofMillis(50))));
+
+        assertEquals("boom", ex.getCause().getMessage());
+        verify(op, times(1)).run();
+    }
+
+    @Test
+    void testRetriesWithinDeadline() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new RuntimeException("fail")).thenReturn("OK");
+
+        assertEquals("OK", policy.executeWithRetry(op, Deadline.after(Duration.ofSeconds(5))));
+        verify(op, times(2)).run();
+    }
+
+    @Test
+    void testDeadlineExceededByAttemptIsNotRetried() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new WeatherDeadlineExceededException("late", null));
+
+        assertThrows(WeatherDeadlineExceededException.class, () -> policy.executeWithRetry(op));
+        verify(op, times(1)).run();
+    }
+
+    @Test
+    void testAsyncStopsWhenBackoffWouldPassDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new RuntimeException("boom"));
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> policy.executeWithRetryAsync(op, Deadline.after(Duration.ofMillis(50))).get());
+
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testPermanentApiErrorIsNotRetried() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        WeatherApiException notFound = new WeatherApiException("city not found", 404);
+        when(op.run()).thenThrow(notFound);
+
+        WeatherApiException thrown = assertThrows(WeatherApiException.class, () -> policy.executeWithRetry(op));
+
+        assertSame(notFound, thrown);
+        verify(op, times(1)).run();
+        assertEquals(1, policy.getNonRetryableFailures());
+        assertEquals(0, policy.getRetriedFailures());
+    }
+
+    @Test
+    void testTransientApiErrorIsRetried() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new WeatherApiException("unavailable", 503)).thenReturn("OK");
+
+        assertEquals("OK", policy.executeWithRetry(op));
+        assertEquals(1, policy.getRetriedFailures());
+        assertEquals(0, policy.getNonRetryableFailures());
+    }
+
+    @Test
+    void testRetryAfterReplacesBackoffDelay() {
+        policy = new ExponentialBackoffRetryPolicy(3, 5_000, mock(WeatherLogger.class));
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new WeatherApiException("slow down", 429, 20L)).thenReturn("OK");
+
+        long start = System.nanoTime();
+        assertEquals("OK", policy.executeWithRetry(op));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+    }
+
+    @Test
+    void testRetryAfterBeyondCapIsNotRetried() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new WeatherApiException("slow down", 429, 3_600_000L));
+
+        assertThrows(WeatherApiException.class, () -> policy.executeWithRetry(op));
+        verify(op, times(1)).run();
+    }
+
+    @Test
+    void testCustomClassifierDecidesRetries() {
+        policy = backoff().classifier(failure -> false).build();
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new RuntimeException("boom"));
+
+        assertThrows(RuntimeException.class, () -> policy.executeWithRetry(op));
+        verify(op, times(1)).run();
+    }
+
+    @Test
+    void testAsyncPermanentFailureIsNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new WeatherApiException("unauthorized", 401));
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> policy.executeWithRetryAsync(op).get());
+
+        assertInstanceOf(WeatherApiException.class, ex.getCause());
+        assertEquals(1, calls.get());
+        assertEquals(1, policy.getNonRetryableFailures());
+    }
+
+    @Test
+    void testAsyncHonoursRetryAfter() throws Exception {
+        policy = new ExponentialBackoffRetryPolicy(3, 5_000, mock(WeatherLogger.class));
+        AtomicInteger calls = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> calls.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(new WeatherApiException("slow down", 503, 10L))
+                : CompletableFuture.completedFuture("OK");
+
+        assertEquals("OK", policy.executeWithRetryAsync(op).get(2, TimeUnit.SECONDS));
+        assertEquals(1, policy.getRetriedFailures());
+    }
+
+    @Test
+    void testRetryBudgetCapsRetries() {
+        SlidingWindowRetryBudget budget = SlidingWindowRetryBudget.builder().percent(50).minRetries(1).build();
+        policy = backoff().budget(budget).build();
+        RetryableOperation<String> failing = mock(RetryableOperation.class);
+        when(failing.run()).thenThrow(new WeatherApiException("unavailable", 503));
+
+        assertThrows(WeatherApiException.class, () -> policy.executeWithRetry(failing));
+        WeatherApiException ex = assertThrows(WeatherApiException.class, () -> policy.executeWithRetry(failing));
+
+        assertEquals(503, ex.getStatusCode());
+        verify(failing, times(3)).run();
+        assertEquals(1, policy.getRetriedFailures());
+        assertEquals(2, budget.getRejectedRetries());
+        assertSame(budget, policy.getRetryBudget());
+
+        RetryableOperation<String> succeeding = mock(RetryableOperation.class);
+        when(succeeding.run()).thenReturn("OK");
+        policy.executeWithRetry(succeeding);
+        policy.executeWithRetry(succeeding);
+        assertEquals(2, budget.getRecentSuccesses());
+        assertEquals(2, budget.getRetryLimit());
+    }
+
+    @Test
+    void testAsyncRetryBudgetCapsRetries() {
+        SlidingWindowRetryBudget budget = SlidingWindowRetryBudget.builder().minRetries(0).build();
+        policy = backoff().budget(budget).build();
+        AtomicInteger calls = new AtomicInteger();
+        AsyncRetryableOperation<String> op = () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new WeatherApiException("unavailable", 503));
+        };
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> policy.executeWithRetryAsync(op).get(2, TimeUnit.SECONDS));
+
+        assertInstanceOf(WeatherApiException.class, ex.getCause());
+        assertEquals(1, calls.get());
+        assertEquals(1, budget.getRejectedRetries());
+        assertEquals(RetryBudget.unlimited().getRetryLimit(),
+                new ExponentialBackoffRetryPolicy(3, 1, mock(WeatherLogger.class)).getRetryBudget().getRetryLimit());
+    }
+
+    @Test
+    void testJitterModesShapeTheBackoff() {
+        assertEquals(List.of(20L, 30L), delays(JitterMode.NONE));
+        assertEquals(List.of(10L, 15L), delays(JitterMode.FULL));
+        assertEquals(List.of(25L, 25L), delays(JitterMode.DECORRELATED));
+    }
+
+    @Test
+    void testInterruptEndsSyncRetryAndKeepsInterruptStatus() {
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new RuntimeException("boom"));
+
+        Thread.currentThread().interrupt();
+        RetryInterruptedException ex = assertThrows(RetryInterruptedException.class, () -> policy.executeWithRetry(op));
+
+        assertTrue(Thread.interrupted());
+        assertEquals("boom", ex.getCause().getMessage());
+        verify(op, times(1)).run();
+    }
+
+    @Test
+    void testCancellingAsyncResultStopsRetries() throws Exception {
+        policy = ExponentialBackoffRetryPolicy.builder()
+                .initialDelayMs(50).jitter(JitterMode.NONE).logger(mock(WeatherLogger.class)).build();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        AsyncRetryableOperation<String> failing = () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new RuntimeException("boom"));
+        };
+
+        policy.executeWithRetryAsync(failing).cancel(false);
+        CompletableFuture<String> pending = policy.executeWithRetryAsync(() -> inFlight);
+        pending.cancel(false);
+        Thread.sleep(150);
+
+        assertEquals(1, calls.get());
+        assertTrue(inFlight.isCancelled());
+    }
+
+    @Test
+    void testBuilderRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> ExponentialBackoffRetryPolicy.builder().maxAttempts(0).build());
+        assertThrows(IllegalArgumentException.class, () -> ExponentialBackoffRetryPolicy.builder().initialDelayMs(-1).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> ExponentialBackoffRetryPolicy.builder().initialDelayMs(100).maxDelayMs(50).build());
+        assertEquals(JitterMode.FULL, ExponentialBackoffRetryPolicy.builder().build().getJitter());
+        assertEquals(JitterMode.NONE, policy.getJitter());
+    }
+
+    private static ExponentialBackoffRetryPolicy.Builder backoff() {
+        return ExponentialBackoffRetryPolicy.builder()
+                .maxAttempts(3).initialDelayMs(1).jitter(JitterMode.NONE).logger(mock(WeatherLogger.class));
+    }
+
+    private static List<Long> delays(JitterMode jitter) {
+        WeatherLogger logger = mock(WeatherLogger.class);
+        ExponentialBackoffRetryPolicy jittered = ExponentialBackoffRetryPolicy.builder()
+                .initialDelayMs(20).maxDelayMs(30).jitter(jitter).random(() -> 0.5).logger(logger).build();
+        RetryableOperation<String> op = mock(RetryableOperation.class);
+        when(op.run()).thenThrow(new RuntimeException("boom"));
+
+        assertThrows(RetryExhaustedException.class, () -> jittered.executeWithRetry(op));
+
+        ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        verify(logger, times(2)).warn(messages.capture());
+        return messages.getAllValues().stream()
+                .map(message -> Long.parseLong(message.replaceAll("\\D+", " ").trim()))
+                .toList();
+    }
 }
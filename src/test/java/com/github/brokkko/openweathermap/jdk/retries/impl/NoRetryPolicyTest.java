@@ -4,6 +4,9 @@ import com.github.brokkko.openweathermap.jdk.exceptions.NoRetryException;
 import com.github.brokkko.openweathermap.jdk.retries.RetryableOperation;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -35,4 +38,16 @@ class NoRetryPolicyTest {
 
         assertEquals("boom", ex.getCause().getMessage());
     }
+
+    @Test
+    void testAsyncFailureWrappedIntoNoRetryException() {
+        NoRetryPolicy policy = new NoRetryPolicy();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () ->
+                policy.executeWithRetryAsync(() -> CompletableFuture.failedFuture(new RuntimeException("boom"))).get()
+        );
+
+        assertInstanceOf(NoRetryException.class, ex.getCause());
+        assertEquals("boom", ex.getCause().getCause().getMessage());
+    }
 }
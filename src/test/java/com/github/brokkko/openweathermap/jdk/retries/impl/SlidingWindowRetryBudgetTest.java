@@ -0,0 +1,136 @@
+package com.github.brokkko.openweathermap.jdk.retries.impl;
+
+import com.github.brokkko.openweathermap.jdk.retries.RetryBudget;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRetryBudgetTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void tryAcquireRetry_shouldAllowMinimumThenPercentOfSuccesses() {
+        SlidingWindowRetryBudget budget = budget(10, 2);
+
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+
+        for (int i = 0; i < 30; i++) {
+            budget.onSuccess();
+        }
+        assertEquals(5, budget.getRetryLimit());
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+
+        assertEquals(30, budget.getRecentSuccesses());
+        assertEquals(5, budget.getRecentRetries());
+        assertEquals(2, budget.getRejectedRetries());
+        assertEquals(1.0, budget.getUtilization());
+    }
+
+    @Test
+    void window_shouldForgetOldBucketsAsItSlides() {
+        SlidingWindowRetryBudget budget = budget(50, 0);
+        for (int i = 0; i < 4; i++) {
+            budget.onSuccess();
+        }
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+
+        advanceMillis(600);
+        budget.onSuccess();
+        budget.onSuccess();
+        assertEquals(6, budget.getRecentSuccesses());
+        assertTrue(budget.tryAcquireRetry());
+        assertEquals(3, budget.getRecentRetries());
+
+        advanceMillis(500);
+        assertEquals(2, budget.getRecentSuccesses());
+        assertEquals(1, budget.getRecentRetries());
+        assertEquals(1, budget.getRetryLimit());
+        assertFalse(budget.tryAcquireRetry());
+
+        advanceMillis(10_000);
+        assertEquals(0, budget.getRecentSuccesses());
+        assertEquals(0, budget.getRecentRetries());
+        assertEquals(0.0, budget.getUtilization());
+    }
+
+    @Test
+    void counters_shouldNotLoseUpdatesUnderContention() throws Exception {
+        SlidingWindowRetryBudget budget = SlidingWindowRetryBudget.builder().percent(10).minRetries(0).build();
+        int threads = 8;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    budget.onSuccess();
+                    if (i % 5 == 0 && budget.tryAcquireRetry()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, budget.getRecentSuccesses());
+        assertEquals(granted.get(), budget.getRecentRetries());
+        assertTrue(granted.get() <= threads * perThread / 10 + threads, "granted: " + granted.get());
+        assertEquals(threads * perThread / 5 - granted.get(), budget.getRejectedRetries());
+    }
+
+    @Test
+    void builder_shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> SlidingWindowRetryBudget.builder().percent(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> SlidingWindowRetryBudget.builder().minRetries(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> SlidingWindowRetryBudget.builder().windowMillis(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SlidingWindowRetryBudget.builder().buckets(0).build());
+        assertEquals(10, SlidingWindowRetryBudget.defaults().getRetryLimit());
+    }
+
+    @Test
+    void unlimited_shouldNeverRefuse() {
+        RetryBudget budget = RetryBudget.unlimited();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(budget.tryAcquireRetry());
+        }
+        assertEquals(0.0, budget.getUtilization());
+        assertEquals(0, budget.getRejectedRetries());
+    }
+
+    private SlidingWindowRetryBudget budget(double percent, int minRetries) {
+        return SlidingWindowRetryBudget.builder()
+                .percent(percent)
+                .minRetries(minRetries)
+                .windowMillis(1_000)
+                .buckets(10)
+                .nanoClock(clock::get)
+                .build();
+    }
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(millis * 1_000_000L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.brokkko.openweathermap.jdk.retries.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherNetworkException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherOverloadException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherRateLimitException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSerializationException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusRetryClassifierTest {
+
+    private final StatusRetryClassifier classifier = StatusRetryClassifier.defaults();
+
+    @Test
+    void retriesTransientStatusesOnly() {
+        for (int status : new int[]{408, 425, 429, 500, 502, 503, 504}) {
+            assertTrue(classifier.isRetryable(new WeatherApiException("transient", status)), "status " + status);
+        }
+        for (int status : new int[]{400, 401, 403, 404, 501}) {
+            assertFalse(classifier.isRetryable(new WeatherApiException("permanent", status)), "status " + status);
+        }
+    }
+
+    @Test
+    void classifiesByExceptionType() {
+        assertTrue(classifier.isRetryable(new WeatherTimeoutException("timeout", null)));
+        assertTrue(classifier.isRetryable(new WeatherNetworkException("down", null)));
+        assertTrue(classifier.isRetryable(new IllegalStateException("unknown")));
+        assertFalse(classifier.isRetryable(new WeatherSerializationException("bad json", null)));
+        assertFalse(classifier.isRetryable(new WeatherResponseTooLargeException("too large", 10)));
+        assertFalse(classifier.isRetryable(new WeatherOverloadException("shed")));
+        assertFalse(classifier.isRetryable(new WeatherRateLimitException("limited", 100)));
+    }
+
+    @Test
+    void readsRetryAfterAndRefusesDelaysBeyondCap() {
+        WeatherApiException shortWait = new WeatherApiException("slow down", 429, 1_000L);
+        WeatherApiException longWait = new WeatherApiException("slow down", 429, 60_000L);
+
+        assertEquals(1_000L, classifier.retryAfterMillis(shortWait));
+        assertEquals(250L, classifier.retryAfterMillis(new WeatherRateLimitException("limited", 250)));
+        assertEquals(-1L, classifier.retryAfterMillis(new WeatherTimeoutException("timeout", null)));
+        assertTrue(classifier.isRetryable(shortWait));
+        assertFalse(classifier.isRetryable(longWait));
+    }
+
+    @Test
+    void builderOverridesDefaults() {
+        StatusRetryClassifier custom = StatusRetryClassifier.builder()
+                .retryableStatuses(Set.of(404))
+                .maxRetryAfterMillis(120_000L)
+                .retryUnknownFailures(false)
+                .build();
+
+        assertTrue(custom.isRetryable(new WeatherApiException("eventually consistent", 404)));
+        assertFalse(custom.isRetryable(new WeatherApiException("unavailable", 503)));
+        assertTrue(custom.isRetryable(new WeatherApiException("slow down", 404, 60_000L)));
+        assertFalse(custom.isRetryable(new IllegalStateException("bug")));
+        assertTrue(custom.isRetryable(new WeatherTimeoutException("timeout", null)));
+        assertEquals(Set.of(404), custom.getRetryableStatuses());
+        assertEquals(120_000L, custom.getMaxRetryAfterMillis());
+    }
+
+    @Test
+    void builderRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StatusRetryClassifier.builder().retryableStatuses(null).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> StatusRetryClassifier.builder().maxRetryAfterMillis(-1).build());
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.brokkko.openweathermap.jdk.schedulers;
 
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
+import com.github.brokkko.openweathermap.jdk.http.ConditionalResponse;
 import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
@@ -8,6 +10,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.mockito.Mockito.*;
 
@@ -37,16 +42,18 @@ class WeatherPollingSchedulerTest {
         when(cache.getAllRequestSettingsSnapshot())
                 .thenReturn(Map.of("k1", rs1, "k2", rs2));
 
-        when(http.execute(rs1)).thenReturn("{json1}");
-        when(http.execute(rs2)).thenReturn("{json2}");
+        byte[] json1 = "{json1}".getBytes();
+        byte[] json2 = "{json2}".getBytes();
+        when(http.executeConditional(eq(rs1), any(), any())).thenReturn(ConditionalResponse.modified(json1, CacheValidators.NONE));
+        when(http.executeConditional(eq(rs2), any(), any())).thenReturn(ConditionalResponse.modified(json2, CacheValidators.NONE));
 
         scheduler.pollOnce();
 
-        verify(http).execute(rs1);
-        verify(http).execute(rs2);
+        verify(http).executeConditional(eq(rs1), eq(CacheValidators.NONE), any());
+        verify(http).executeConditional(eq(rs2), eq(CacheValidators.NONE), any());
 
-        verify(cache).put("k1", "{json1}", rs1);
-        verify(cache).put("k2", "{json2}", rs2);
+        verify(cache).putBytes("k1", json1, rs1, CacheValidators.NONE);
+        verify(cache).putBytes("k2", json2, rs2, CacheValidators.NONE);
 
         verify(logger).debug(contains("refreshing"));
         verify(logger).debug(contains("finished"));
@@ -59,12 +66,13 @@ class WeatherPollingSchedulerTest {
 
         when(cache.getAllRequestSettingsSnapshot()).thenReturn(Map.of("k1", rs));
 
-        when(http.execute(rs)).thenThrow(new RuntimeException("boom"));
+        when(http.executeConditional(eq(rs), any(), any())).thenThrow(new RuntimeException("boom"));
 
         scheduler.pollOnce();
 
         verify(logger).error(contains("k1"), any());
-        verify(cache, never()).put(any(), any(), any());
+        verify(cache, never()).putBytes(any(), any(), any(), any());
+        verify(cache, never()).touch(any(), any());
     }
 
     @Test
@@ -74,7 +82,7 @@ class WeatherPollingSchedulerTest {
         scheduler.pollOnce();
 
         verify(logger).debug(contains("no cached entries"));
-        verify(http, never()).execute(any());
+        verify(http, never()).executeConditional(any(), any(), any());
     }
 
     @Test
@@ -84,6 +92,61 @@ class WeatherPollingSchedulerTest {
         scheduler.pollOnce();
 
         verify(logger).debug(contains("no cached entries"));
-        verify(http, never()).execute(any());
+        verify(http, never()).executeConditional(any(), any(), any());
+    }
+
+    @Test
+    void testPollOnce_withRefreshExecutor_refreshesAllEntriesConcurrently() {
+        RequestSettings rs1 = mock(RequestSettings.class);
+        RequestSettings rs2 = mock(RequestSettings.class);
+        when(rs1.copy()).thenReturn(rs1);
+        when(rs2.copy()).thenReturn(rs2);
+        when(cache.getAllRequestSettingsSnapshot()).thenReturn(Map.of("k1", rs1, "k2", rs2));
+        byte[] json1 = "{json1}".getBytes();
+        when(http.executeConditional(eq(rs1), any(), any())).thenReturn(ConditionalResponse.modified(json1, CacheValidators.NONE));
+        when(http.executeConditional(eq(rs2), any(), any())).thenThrow(new RuntimeException("boom"));
+
+        try (ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            new WeatherPollingScheduler(cache, http, logger, refreshExecutor).pollOnce();
+        }
+
+        verify(cache).putBytes("k1", json1, rs1, CacheValidators.NONE);
+        verify(logger).error(contains("k2"), any());
+        verify(logger).debug(contains("finished"));
+    }
+
+    @Test
+    void testPollOnce_sendsStoredValidatorsAndStoresNewOnes() {
+        RequestSettings rs = mock(RequestSettings.class);
+        when(rs.copy()).thenReturn(rs);
+        CacheValidators stored = new CacheValidators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+        CacheValidators fresh = new CacheValidators("\"v2\"", "Mon, 01 Jan 2024 00:10:00 GMT");
+        byte[] json = "{json}".getBytes();
+
+        when(cache.getAllRequestSettingsSnapshot()).thenReturn(Map.of("k1", rs));
+        when(cache.getValidators("k1")).thenReturn(Optional.of(stored));
+        when(http.executeConditional(eq(rs), eq(stored), any())).thenReturn(ConditionalResponse.modified(json, fresh));
+
+        scheduler.pollOnce();
+
+        verify(cache).putBytes("k1", json, rs, fresh);
+        verify(cache, never()).touch(any(), any());
+    }
+
+    @Test
+    void testPollOnce_notModified_touchesEntryWithoutStoringBody() {
+        RequestSettings rs = mock(RequestSettings.class);
+        CacheValidators stored = new CacheValidators("\"v1\"", null);
+
+        when(cache.getAllRequestSettingsSnapshot()).thenReturn(Map.of("k1", rs));
+        when(cache.getValidators("k1")).thenReturn(Optional.of(stored));
+        when(http.executeConditional(eq(rs), eq(stored), any())).thenReturn(ConditionalResponse.notModified(stored));
+
+        scheduler.pollOnce();
+
+        verify(cache).touch("k1", stored);
+        verify(cache, never()).putBytes(any(), any(), any(), any());
+        verify(cache, never()).put(any(), any(), any());
+        verify(logger).debug(contains("not modified"));
     }
 }
@@ -0,0 +1,42 @@
+package com.github.brokkko.openweathermap.jdk.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheValidatorsTest {
+
+    @Test
+    void testFromHeaders() {
+        HttpHeaders headers = HttpHeaders.of(
+                Map.of("etag", List.of("W/\"abc\""), "last-modified", List.of("Mon, 01 Jan 2024 00:00:00 GMT")),
+                (name, value) -> true);
+
+        CacheValidators validators = CacheValidators.from(headers);
+
+        assertEquals("W/\"abc\"", validators.etag());
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", validators.lastModified());
+        assertFalse(validators.isEmpty());
+    }
+
+    @Test
+    void testFromHeadersWithoutValidators() {
+        CacheValidators validators = CacheValidators.from(HttpHeaders.of(Map.of(), (name, value) -> true));
+
+        assertSame(CacheValidators.NONE, validators);
+        assertTrue(validators.isEmpty());
+    }
+
+    @Test
+    void testUpdatedWithKeepsMissingValues() {
+        CacheValidators current = new CacheValidators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+
+        assertEquals(new CacheValidators("\"v2\"", "Mon, 01 Jan 2024 00:00:00 GMT"),
+                current.updatedWith(new CacheValidators("\"v2\"", null)));
+        assertEquals(current, current.updatedWith(CacheValidators.NONE));
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.brokkko.openweathermap.jdk.services;
+
+import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
+import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
+import com.github.brokkko.openweathermap.jdk.enums.LoggerType;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.http.ResponseBodyReader;
+import com.github.brokkko.openweathermap.jdk.http.WeatherHttpExecutor;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.models.Weather;
+import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import com.github.brokkko.openweathermap.jdk.stub.OwmStubServer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CityBatcherTest {
+
+    private final WeatherHttpExecutor executor = mock(WeatherHttpExecutor.class);
+    private final WeatherCacheService cache = mock(WeatherCacheService.class);
+
+    @Test
+    void client_shouldMergeConcurrentCityLookupsIntoGroupRequests() throws Exception {
+        try (OwmStubServer stub = OwmStubServer.builder().start()) {
+            OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                    .apiKey("test-key")
+                    .baseUrl(stub.baseUrl())
+                    .cityBatchWindowMillis(50)
+                    .logLevel(LogLevel.ERROR)
+                    .logger(LoggerType.DEFAULT)
+                    .build();
+            try {
+                List<CompletableFuture<Weather>> lookups = new ArrayList<>();
+                for (long id = 1; id <= 25; id++) {
+                    lookups.add(client.query().byCityId(id).retrieve().asJavaAsync());
+                }
+
+                for (int i = 0; i < lookups.size(); i++) {
+                    assertEquals(i + 1, lookups.get(i).get(5, TimeUnit.SECONDS).getLocation().getId());
+                }
+                assertEquals(2, stub.getRequests());
+                assertEquals(2, client.getCityBatcher().getGroupRequests());
+                assertEquals(25, client.getCacheService().getAllKeys().size());
+
+                assertEquals(7, client.query().byCityId(7).retrieve().asJava().getLocation().getId());
+                assertEquals(2, stub.getRequests());
+            } finally {
+                client.destroy();
+            }
+        }
+    }
+
+    @Test
+    void client_shouldSendCityLookupsAloneWhenBatchingIsDisabled() {
+        try (OwmStubServer stub = OwmStubServer.builder().start()) {
+            OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+                    .apiKey("test-key")
+                    .baseUrl(stub.baseUrl())
+                    .cityBatchWindowMillis(0)
+                    .logLevel(LogLevel.ERROR)
+                    .logger(LoggerType.DEFAULT)
+                    .build();
+            try {
+                assertNull(client.getCityBatcher());
+                assertEquals(42, client.query().byCityId(42).retrieve().asJava().getLocation().getId());
+                assertEquals(1, stub.getRequests());
+            } finally {
+                client.destroy();
+            }
+        }
+    }
+
+    @Test
+    void fetch_shouldSplitGroupResponseAndCacheEveryCity() throws Exception {
+        when(executor.executeAsync(any(RequestSettings.class), any(ResponseBodyReader.class)))
+                .thenReturn(CompletableFuture.completedFuture(group(2, 1)));
+        CityBatcher batcher = new CityBatcher(executor, cache, "http://api.test", 1_000, 2, mock(WeatherLogger.class));
+
+        CompletableFuture<byte[]> first = batcher.fetch(city(1), "k1");
+        CompletableFuture<byte[]> again = batcher.fetch(city(1), "k1");
+        assertFalse(first.isDone());
+        CompletableFuture<byte[]> second = batcher.fetch(city(2), "k2");
+
+        assertEquals("{\"id\":1}", new String(first.get(), StandardCharsets.UTF_8));
+        assertSame(first.get(), again.get());
+        assertEquals("{\"id\":2}", new String(second.get(), StandardCharsets.UTF_8));
+        ArgumentCaptor<RequestSettings> sent = ArgumentCaptor.forClass(RequestSettings.class);
+        verify(executor).executeAsync(sent.capture(), any(ResponseBodyReader.class));
+        assertEquals("http://api.test/group", sent.getValue().getUrlBuilder().toString());
+        assertEquals("1,2", sent.getValue().getRequestParameters().get("id"));
+        assertEquals("metric", sent.getValue().getRequestParameters().get("units"));
+        verify(cache).putBytes(eq("k1"), any(byte[].class), any(RequestSettings.class));
+        verify(cache).putBytes(eq("k2"), any(byte[].class), any(RequestSettings.class));
+        assertEquals(3, batcher.getLookups());
+        assertEquals(1, batcher.getGroupRequests());
+    }
+
+    @Test
+    void fetch_shouldFailCitiesMissingFromResponseOrFailedRequest() throws Exception {
+        when(executor.executeAsync(any(RequestSettings.class), any(ResponseBodyReader.class)))
+                .thenReturn(CompletableFuture.completedFuture(group(1)))
+                .thenReturn(CompletableFuture.failedFuture(new WeatherApiException("unavailable", 503)));
+        CityBatcher batcher = new CityBatcher(executor, cache, "http://api.test", 10, 20, mock(WeatherLogger.class));
+
+        CompletableFuture<byte[]> found = batcher.fetch(city(1), "k1");
+        CompletableFuture<byte[]> missing = batcher.fetch(city(9), "k9");
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), found.get(2, TimeUnit.SECONDS));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> missing.get(2, TimeUnit.SECONDS));
+        assertEquals(404, assertInstanceOf(WeatherApiException.class, ex.getCause()).getStatusCode());
+
+        ex = assertThrows(ExecutionException.class, () -> batcher.fetch(city(1), "k1").get(2, TimeUnit.SECONDS));
+        assertEquals(503, assertInstanceOf(WeatherApiException.class, ex.getCause()).getStatusCode());
+        verify(cache, times(1)).putBytes(any(), any(byte[].class), any(RequestSettings.class));
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidSettings() {
+        WeatherLogger logger = mock(WeatherLogger.class);
+        assertThrows(IllegalArgumentException.class, () -> new CityBatcher(executor, cache, "u", 0, 20, logger));
+        assertThrows(IllegalArgumentException.class, () -> new CityBatcher(executor, cache, "u", 5, 0, logger));
+    }
+
+    private static RequestSettings city(long id) {
+        RequestSettings settings = new RequestSettings("key");
+        settings.appendToURL("http://api.test/weather");
+        settings.putRequestParameter("units", "metric");
+        settings.putRequestParameter(CityBatcher.CITY_ID_PARAM, String.valueOf(id));
+        return settings;
+    }
+
+    private static byte[] group(long... ids) {
+        StringBuilder json = new StringBuilder("{\"cnt\":").append(ids.length).append(",\"list\":[");
+        for (int i = 0; i < ids.length; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(ids[i]).append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
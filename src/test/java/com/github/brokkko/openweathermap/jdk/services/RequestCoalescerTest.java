@@ -0,0 +1,249 @@
+package com.github.brokkko.openweathermap.jdk.services;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException;
+import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
+import com.github.brokkko.openweathermap.jdk.utils.Deadline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RequestCoalescerTest {
+
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new RequestCoalescer(mock(WeatherLogger.class));
+    }
+
+    @Test
+    void testConcurrentBlockingCallersShareOneFetch() throws Exception {
+        int callers = 8;
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(callers)) {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.execute("k", () -> {
+                fetches.incrementAndGet();
+                awaitQuietly(release);
+                return "json";
+            })));
+            awaitInFlight();
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("k", () -> {
+                    fetches.incrementAndGet();
+                    return "other";
+                })));
+            }
+            awaitCoalesced(callers - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("json", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, fetches.get());
+        assertEquals(1, coalescer.getFetches());
+        assertEquals(callers - 1, coalescer.getCoalescedCalls());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void testBlockingFollowerReceivesLeaderFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherApiException failure = new WeatherApiException("HTTP 500 from API", 500);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<String> leader = pool.submit(() -> coalescer.<String>execute("k", () -> {
+                awaitQuietly(release);
+                throw failure;
+            }));
+            awaitInFlight();
+            Future<String> follower = pool.submit(() -> coalescer.execute("k", () -> "unused"));
+            awaitCoalesced(1);
+            release.countDown();
+
+            assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+        }
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void testKeyIsReleasedAfterCompletion() {
+        assertEquals("a", coalescer.execute("k", () -> "a"));
+        assertEquals("b", coalescer.execute("k", () -> "b"));
+
+        assertEquals(2, coalescer.getFetches());
+        assertEquals(0, coalescer.getCoalescedCalls());
+    }
+
+    @Test
+    void testDifferentKeysAreNotCoalesced() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.executeAsync("k1", () -> pending);
+        CompletableFuture<String> second = coalescer.executeAsync("k2", () -> CompletableFuture.completedFuture("k2"));
+
+        assertEquals("k2", second.join());
+        assertFalse(first.isDone());
+        assertEquals(0, coalescer.getCoalescedCalls());
+        pending.complete("k1");
+        assertEquals("k1", first.join());
+    }
+
+    @Test
+    void testAsyncCallersShareOneFetch() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger fetches = new AtomicInteger();
+
+        CompletableFuture<String> leader = coalescer.executeAsync("k", () -> {
+            fetches.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> follower = coalescer.executeAsync("k", () -> {
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertEquals(1, coalescer.getInFlight());
+        pending.complete("json");
+
+        assertEquals("json", leader.join());
+        assertEquals("json", follower.join());
+        assertEquals(1, fetches.get());
+        assertEquals(1, coalescer.getCoalescedCalls());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void testAsyncFailureIsSharedAndUnwrapped() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        WeatherApiException failure = new WeatherApiException("HTTP 404 from API", 404);
+
+        CompletableFuture<String> leader = coalescer.executeAsync("k", () -> pending);
+        CompletableFuture<String> follower = coalescer.executeAsync("k", () -> pending);
+        pending.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+    }
+
+    @Test
+    void testAsyncFetchThrowingSynchronouslyFailsFuture() {
+        CompletableFuture<String> result = coalescer.executeAsync("k", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, result::get).getCause());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void testCancellingFollowerDoesNotCancelSharedFetch() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = coalescer.executeAsync("k", () -> pending);
+        CompletableFuture<String> follower = coalescer.executeAsync("k", () -> pending);
+        follower.cancel(true);
+        pending.complete("json");
+
+        assertFalse(pending.isCancelled());
+        assertEquals("json", leader.join());
+    }
+
+    @Test
+    void testJoiningCallersExtendTheSharedDeadline() {
+        List<Deadline> given = new ArrayList<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = coalescer.executeAsync("k", deadline -> {
+            given.add(deadline);
+            return pending;
+        }, Deadline.after(Duration.ofMillis(20)));
+        CompletableFuture<String> follower = coalescer.executeAsync("k", deadline -> pending,
+                Deadline.after(Duration.ofSeconds(5)));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+        assertFalse(given.get(0).isExpired());
+        assertFalse(pending.isCancelled());
+
+        pending.complete("json");
+        assertEquals("json", follower.join());
+        assertEquals(1, given.size());
+    }
+
+    @Test
+    void testFetchStartedWithoutDeadlineGetsNone() {
+        List<Deadline> given = new ArrayList<>();
+
+        coalescer.executeAsync("k", deadline -> {
+            given.add(deadline);
+            return new CompletableFuture<String>();
+        }, null);
+        coalescer.executeAsync("k", deadline -> new CompletableFuture<String>(), Deadline.after(Duration.ofSeconds(5)));
+
+        assertEquals(1, given.size());
+        assertNull(given.get(0));
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getInFlight() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCalls() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testBlockingFollowerStopsWaitingAtDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newSingleThreadExecutor()) {
+            Future<String> leader = pool.submit(() -> coalescer.execute("k", () -> {
+                awaitQuietly(release);
+                return "late";
+            }));
+            awaitInFlight();
+
+            assertThrows(WeatherDeadlineExceededException.class,
+                    () -> coalescer.execute("k", () -> "own", Deadline.after(Duration.ofMillis(20))));
+
+            release.countDown();
+            assertEquals("late", leader.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
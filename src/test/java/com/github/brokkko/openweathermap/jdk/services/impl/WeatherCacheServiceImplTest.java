@@ -1,12 +1,24 @@
 package com.github.brokkko.openweathermap.jdk.services.impl;
 
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
 import com.github.brokkko.openweathermap.jdk.logging.WeatherLogger;
 import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -42,6 +54,44 @@ class WeatherCacheServiceImplTest {
         assertEquals(Optional.empty(), cache.get("a"));
     }
 
+    @Test
+    void testExpiredReadDoesNotWaitForBusyLock() throws Exception {
+        cache = new WeatherCacheServiceImpl(10, 1, logger);
+        cache.put("a", "json", new RequestSettings("k"));
+        Thread.sleep(5);
+
+        Field field = WeatherCacheServiceImpl.class.getDeclaredField("lock");
+        field.setAccessible(true);
+        ReentrantLock lock = (ReentrantLock) field.get(cache);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        writer.start();
+        try {
+            held.await();
+            assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertEquals(Optional.empty(), cache.get("a")));
+            assertTrue(cache.getAllKeys().contains("a"), "expired entry is left for the next write");
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+
+        RequestSettings fresh = new RequestSettings("k");
+        cache.put("a", "fresh", fresh);
+        assertSame(fresh, cache.getAllRequestSettingsSnapshot().get("a"));
+        assertEquals(Set.of("a"), cache.getAllKeys());
+    }
+
     @Test
     void testEvictionOldestEntry() {
         RequestSettings r1 = new RequestSettings("k");
@@ -120,4 +170,125 @@ class WeatherCacheServiceImplTest {
         assertEquals(Optional.of("json2"), cache.get("a"));
         assertEquals(1, cache.getAllKeys().size());
     }
+
+    @Test
+    void testPutBytesAndGetAsString() {
+        cache.putBytes("a", "{\"t\":\"\u00b0C\"}".getBytes(StandardCharsets.UTF_8), new RequestSettings("k"));
+
+        assertEquals(Optional.of("{\"t\":\"\u00b0C\"}"), cache.get("a"));
+    }
+
+    @Test
+    void testPutStringAndGetBytes() {
+        cache.put("a", "{\"t\":1}", new RequestSettings("k"));
+
+        assertArrayEquals("{\"t\":1}".getBytes(StandardCharsets.UTF_8), cache.getBytes("a").orElseThrow());
+    }
+
+    @Test
+    void testPutBytesEvictsOldestEntry() throws Exception {
+        cache.putBytes("a", new byte[]{'1'}, new RequestSettings("k"));
+        Thread.sleep(5);
+        cache.putBytes("b", new byte[]{'2'}, new RequestSettings("k"));
+        Thread.sleep(5);
+        cache.putBytes("c", new byte[]{'3'}, new RequestSettings("k"));
+
+        assertTrue(cache.getBytes("a").isEmpty());
+        assertTrue(cache.getBytes("c").isPresent());
+    }
+
+    @Test
+    void testPutBytesWithValidators() {
+        CacheValidators validators = new CacheValidators("\"v1\"", null);
+        cache.putBytes("a", "{}".getBytes(StandardCharsets.UTF_8), new RequestSettings("k"), validators);
+
+        assertEquals(Optional.of(validators), cache.getValidators("a"));
+        assertEquals(Optional.empty(), cache.getValidators("missing"));
+    }
+
+    @Test
+    void testPutWithoutValidatorsHasNone() {
+        cache.put("a", "{}", new RequestSettings("k"));
+
+        assertEquals(Optional.empty(), cache.getValidators("a"));
+    }
+
+    @Test
+    void testTouchRefreshesExpiredEntryKeepingBody() throws Exception {
+        cache = new WeatherCacheServiceImpl(10, 50, logger);
+        byte[] json = "{\"t\":1}".getBytes(StandardCharsets.UTF_8);
+        cache.putBytes("a", json, new RequestSettings("k"), new CacheValidators("\"v1\"", null));
+
+        Thread.sleep(80);
+        CacheValidators revalidated = new CacheValidators("\"v2\"", null);
+        assertTrue(cache.touch("a", revalidated));
+
+        assertSame(json, cache.getBytes("a").orElseThrow());
+        assertEquals(Optional.of(revalidated), cache.getValidators("a"));
+    }
+
+    @Test
+    void testTouchMissingEntry() {
+        assertFalse(cache.touch("missing", CacheValidators.NONE));
+        assertTrue(cache.getAllKeys().isEmpty());
+    }
+
+    @Test
+    void testReadMakesEntryMostRecentlyUsed() {
+        cache.put("a", "1", new RequestSettings("k"));
+        cache.put("b", "2", new RequestSettings("k"));
+        cache.get("a");
+
+        cache.put("c", "3", new RequestSettings("k"));
+
+        assertEquals(Optional.of("1"), cache.get("a"));
+        assertEquals(Optional.empty(), cache.get("b"));
+        assertEquals(Optional.of("3"), cache.get("c"));
+    }
+
+    @Test
+    void testEvictionAfterRemoveAndTouch() {
+        cache = new WeatherCacheServiceImpl(3, 1000, logger);
+        cache.put("a", "1", new RequestSettings("k"));
+        cache.put("b", "2", new RequestSettings("k"));
+        cache.put("c", "3", new RequestSettings("k"));
+        cache.remove("b");
+        assertTrue(cache.touch("a", CacheValidators.NONE));
+
+        cache.put("d", "4", new RequestSettings("k"));
+        cache.put("e", "5", new RequestSettings("k"));
+
+        assertEquals(Set.of("a", "d", "e"), cache.getAllKeys());
+    }
+
+    @Test
+    void testConcurrentPutsNeverExceedCapacity() throws Exception {
+        int capacity = 64;
+        cache = new WeatherCacheServiceImpl(capacity, 10_000, logger);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    int maxSeen = 0;
+                    for (int i = 0; i < 5_000; i++) {
+                        cache.putBytes(thread + "-" + i, new byte[]{'1'}, new RequestSettings("k"));
+                        cache.getBytes(thread + "-" + (i / 2));
+                        maxSeen = Math.max(maxSeen, cache.getAllKeys().size());
+                    }
+                    return maxSeen;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> worker : workers) {
+                assertTrue(worker.get() <= capacity);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(capacity, cache.getAllKeys().size());
+    }
 }
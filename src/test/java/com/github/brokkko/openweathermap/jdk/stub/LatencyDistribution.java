@@ -0,0 +1,71 @@
+package com.github.brokkko.openweathermap.jdk.stub;
+
+import java.util.SplittableRandom;
+
+/**
+ * Server-side delay added by {@link OwmStubServer} before it answers a request.
+ * <p>
+ * Real API latencies are skewed: most calls are fast and a few are much slower.
+ * {@link #logNormal(double, double)} reproduces that long tail; {@link #fixed(long)} and
+ * {@link #uniform(long, long)} are handy for deterministic tests.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Draws the delay of one response.
+     *
+     * @param random source of randomness, seeded by the server for reproducible runs
+     * @return delay in milliseconds, not negative
+     */
+    long nextMillis(SplittableRandom random);
+
+    /**
+     * @return distribution answering without delay
+     */
+    static LatencyDistribution none() {
+        return random -> 0;
+    }
+
+    /**
+     * @param millis delay of every response
+     * @return distribution with a constant delay
+     */
+    static LatencyDistribution fixed(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Latency must not be negative");
+        }
+        return random -> millis;
+    }
+
+    /**
+     * @param minMillis shortest delay
+     * @param maxMillis longest delay
+     * @return distribution with delays spread evenly between the bounds
+     */
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Latency bounds must satisfy 0 <= min <= max");
+        }
+        return random -> minMillis == maxMillis ? minMillis : random.nextLong(minMillis, maxMillis + 1);
+    }
+
+    /**
+     * @param medianMillis median delay
+     * @param sigma        spread of the underlying normal distribution; {@code 0.5} gives a p99
+     *                     of about {@code 3.2 x} the median
+     * @return log-normally distributed delays
+     */
+    static LatencyDistribution logNormal(double medianMillis, double sigma) {
+        if (medianMillis <= 0 || sigma < 0) {
+            throw new IllegalArgumentException("Median must be positive and sigma must not be negative");
+        }
+        double mu = Math.log(medianMillis);
+        return random -> {
+            // Box-Muller transform
+            double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble()))
+                    * Math.cos(2 * Math.PI * random.nextDouble());
+            return Math.round(Math.exp(mu + sigma * gaussian));
+        };
+    }
+}
@@ -0,0 +1,429 @@
+package com.github.brokkko.openweathermap.jdk.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the OpenWeatherMap {@code /weather} and {@code /group} endpoints, for load
+ * and latency tests that must not spend real API calls.
+ * <p>
+ * Every city name (or city ID, or coordinate pair) maps to a synthetic but stable observation, rendered in the
+ * shape the SDK's mapper reads and in the requested {@code units}. Responses can be delayed by a
+ * {@link LatencyDistribution}, a share of them can fail with {@code 500}/{@code 503} or be
+ * rate-limited with {@code 429} and a {@code Retry-After} header, and {@code ETag} validation
+ * answers {@code 304 Not Modified} until {@link #advance()} publishes a new observation.
+ * <p>
+ * Failures are drawn from a seeded generator, so a run with a given seed and request order is
+ * reproducible. Requests are handled on virtual threads, so slow responses do not limit the
+ * offered load.
+ *
+ * <pre>{@code
+ * try (OwmStubServer stub = OwmStubServer.builder().latency(LatencyDistribution.logNormal(40, 0.5)).start()) {
+ *     OpenWeatherMapClient client = OpenWeatherMapClient.builder()
+ *             .apiKey("test")
+ *             .baseUrl(stub.baseUrl())
+ *             .build();
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class OwmStubServer implements AutoCloseable {
+
+    /** Path prefix mirroring the public API, so URLs built by the SDK resolve unchanged. */
+    public static final String API_PATH = "/data/2.5";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final int retryAfterSeconds;
+    private final boolean etags;
+    private final Set<String> validKeys;
+    private final long seed;
+    private final SplittableRandom random;
+    private final AtomicLong observation = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private OwmStubServer(Builder builder) throws IOException {
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.retryAfterSeconds = builder.retryAfterSeconds;
+        this.etags = builder.etags;
+        this.validKeys = builder.validKeys;
+        this.seed = builder.seed;
+        this.random = new SplittableRandom(builder.seed);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 0);
+        this.server.createContext(API_PATH + "/weather", this::handleWeather);
+        this.server.createContext(API_PATH + "/group", this::handleWeather);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    /**
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return base URL to pass to {@code OpenWeatherMapClient.Builder#baseUrl(String)}
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + API_PATH;
+    }
+
+    /**
+     * Publishes a new observation for every location: payloads and ETags change, so validators
+     * held by clients no longer match.
+     */
+    public void advance() {
+        observation.incrementAndGet();
+    }
+
+    /**
+     * @return number of requests received
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @param status HTTP status code
+     * @return number of responses sent with {@code status}
+     */
+    public long getResponses(int status) {
+        LongAdder count = statuses.get(status);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Stops the server and its handler threads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleWeather(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            long delay;
+            double failureDraw;
+            synchronized (random) {
+                delay = latency.nextMillis(random);
+                failureDraw = random.nextDouble();
+            }
+            sleep(delay);
+
+            String appid = query.get("appid");
+            if (appid == null || appid.isEmpty() || (validKeys != null && !validKeys.contains(appid))) {
+                sendError(exchange, 401, "Invalid API key. Please see https://openweathermap.org/faq#error401 for more info.");
+                return;
+            }
+            if (failureDraw < rateLimitRate) {
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                sendError(exchange, 429, "Your account is temporary blocked due to exceeding of requests limitation.");
+                return;
+            }
+            if (failureDraw < rateLimitRate + errorRate) {
+                sendError(exchange, failureDraw < rateLimitRate + errorRate / 2 ? 500 : 503, "Internal error");
+                return;
+            }
+
+            if (exchange.getRequestURI().getPath().endsWith("/group")) {
+                sendGroup(exchange, query);
+                return;
+            }
+            String location = location(query);
+            if (location == null) {
+                sendError(exchange, 400, "Nothing to geocode");
+                return;
+            }
+            String units = query.getOrDefault("units", "standard");
+            long current = observation.get();
+            String etag = "\"" + Long.toHexString(mix(location.hashCode() ^ seed, current)) + units.charAt(0) + "\"";
+            if (etags) {
+                exchange.getResponseHeaders().add("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    send(exchange, 304, null);
+                    return;
+                }
+            }
+            byte[] body = payload(location, query, units, current).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            send(exchange, 200, body);
+        }
+    }
+
+    private void sendGroup(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String ids = query.get("id");
+        if (ids == null || ids.isBlank()) {
+            sendError(exchange, 400, "Nothing to geocode");
+            return;
+        }
+        String units = query.getOrDefault("units", "standard");
+        long current = observation.get();
+        StringBuilder list = new StringBuilder();
+        String[] cities = ids.split(",");
+        for (String id : cities) {
+            if (!list.isEmpty()) {
+                list.append(',');
+            }
+            list.append(payload("id:" + id, Map.of("id", id), units, current));
+        }
+        byte[] body = ("{\"cnt\":" + cities.length + ",\"list\":[" + list + "]}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        send(exchange, 200, body);
+    }
+
+    private String payload(String location, Map<String, String> query, String units, long current) {
+        SplittableRandom city = new SplittableRandom(mix(location.hashCode() ^ seed, current));
+        String name = query.containsKey("q") ? query.get("q").split(",")[0] : "Stub " + Math.abs(location.hashCode() % 10_000);
+        double lat = query.containsKey("lat") ? Double.parseDouble(query.get("lat")) : round(city.nextDouble(-60, 70), 4);
+        double lon = query.containsKey("lon") ? Double.parseDouble(query.get("lon")) : round(city.nextDouble(-180, 180), 4);
+        double kelvin = 250 + city.nextDouble(50);
+        double temp = temperature(kelvin, units);
+        double feelsLike = temperature(kelvin - city.nextDouble(4), units);
+        double speed = city.nextDouble(15) * ("imperial".equals(units) ? 2.237 : 1);
+        int clouds = city.nextInt(101);
+        long dt = 1_700_000_000L + current * 600;
+        int timezone = (int) Math.round(lon / 15) * 3600;
+        int id = query.containsKey("id") ? Integer.parseInt(query.get("id")) : 100_000 + Math.floorMod(location.hashCode(), 900_000);
+        String rain = clouds > 70 ? ",\"rain\":{\"1h\":" + round(city.nextDouble(5), 2) + "}" : "";
+        return String.format(Locale.ROOT,
+                "{\"coord\":{\"lon\":%s,\"lat\":%s},"
+                        + "\"weather\":[{\"id\":%d,\"main\":\"%s\",\"description\":\"%s\",\"icon\":\"%s\"}],"
+                        + "\"base\":\"stations\","
+                        + "\"main\":{\"temp\":%s,\"feels_like\":%s,\"temp_min\":%s,\"temp_max\":%s,"
+                        + "\"pressure\":%d,\"humidity\":%d,\"sea_level\":%d,\"grnd_level\":%d},"
+                        + "\"visibility\":10000,"
+                        + "\"wind\":{\"speed\":%s,\"deg\":%d,\"gust\":%s},"
+                        + "\"clouds\":{\"all\":%d}%s,"
+                        + "\"dt\":%d,"
+                        + "\"sys\":{\"country\":\"%s\",\"sunrise\":%d,\"sunset\":%d},"
+                        + "\"timezone\":%d,\"id\":%d,\"name\":\"%s\",\"cod\":200}",
+                lon, lat,
+                clouds > 70 ? 500 : clouds > 25 ? 803 : 800,
+                clouds > 70 ? "Rain" : clouds > 25 ? "Clouds" : "Clear",
+                clouds > 70 ? "light rain" : clouds > 25 ? "broken clouds" : "clear sky",
+                clouds > 70 ? "10d" : clouds > 25 ? "04d" : "01d",
+                round(temp, 2), round(feelsLike, 2), round(temp - 1.5, 2), round(temp + 1.5, 2),
+                990 + city.nextInt(40), 20 + city.nextInt(80), 1000 + city.nextInt(30), 980 + city.nextInt(30),
+                round(speed, 2), city.nextInt(360), round(speed * 1.4, 2),
+                clouds, rain,
+                dt,
+                query.containsKey("q") && query.get("q").contains(",") ? query.get("q").split(",")[1].trim() : "ZZ",
+                dt - 21_600, dt + 21_600,
+                timezone, id, name.replace("\"", ""));
+    }
+
+    private static String location(Map<String, String> query) {
+        if (query.containsKey("q") && !query.get("q").isBlank()) {
+            return query.get("q").toLowerCase(Locale.ROOT);
+        }
+        if (query.containsKey("lat") && query.containsKey("lon")) {
+            return query.get("lat") + "," + query.get("lon");
+        }
+        if (query.containsKey("id")) {
+            return "id:" + query.get("id");
+        }
+        return null;
+    }
+
+    private static double temperature(double kelvin, String units) {
+        return switch (units) {
+            case "metric" -> kelvin - 273.15;
+            case "imperial" -> (kelvin - 273.15) * 9 / 5 + 32;
+            default -> kelvin;
+        };
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        send(exchange, status, String.format("{\"cod\":%d,\"message\":\"%s\"}", status, message)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long mix(long a, long b) {
+        long h = a * 0x9E3779B97F4A7C15L + b;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    private static double round(double value, int digits) {
+        double scale = Math.pow(10, digits);
+        return Math.round(value * scale) / scale;
+    }
+
+    /**
+     * Builder for {@link OwmStubServer}.
+     */
+    public static final class Builder {
+        private int port;
+        private LatencyDistribution latency = LatencyDistribution.none();
+        private double errorRate;
+        private double rateLimitRate;
+        private int retryAfterSeconds = 1;
+        private boolean etags = true;
+        private Set<String> validKeys;
+        private long seed = 42;
+
+        private Builder() {}
+
+        /**
+         * @param port port to listen on, {@code 0} (default) for an ephemeral one
+         * @return this builder
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param latency delay added before every response
+         * @return this builder
+         */
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * @param errorRate share of requests, in {@code [0, 1]}, answered with {@code 500} or {@code 503}
+         * @return this builder
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * @param rateLimitRate share of requests, in {@code [0, 1]}, answered with {@code 429}
+         * @return this builder
+         */
+        public Builder rateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+            return this;
+        }
+
+        /**
+         * @param seconds value of the {@code Retry-After} header sent with {@code 429}; default 1
+         * @return this builder
+         */
+        public Builder retryAfterSeconds(int seconds) {
+            this.retryAfterSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * @param enabled whether to send {@code ETag} and honour {@code If-None-Match}; default on
+         * @return this builder
+         */
+        public Builder etags(boolean enabled) {
+            this.etags = enabled;
+            return this;
+        }
+
+        /**
+         * @param keys API keys accepted; any non-empty key is accepted when not set
+         * @return this builder
+         */
+        public Builder validKeys(String... keys) {
+            this.validKeys = Set.of(keys);
+            return this;
+        }
+
+        /**
+         * @param seed seed of payloads and injected failures; default 42
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Starts the server.
+         *
+         * @return running server
+         * @throws IllegalArgumentException if a rate is outside {@code [0, 1]} or their sum exceeds 1
+         * @throws UncheckedIOException if the port cannot be bound
+         */
+        public OwmStubServer start() {
+            if (errorRate < 0 || rateLimitRate < 0 || errorRate + rateLimitRate > 1) {
+                throw new IllegalArgumentException("Error and rate-limit rates must be within [0, 1] in total");
+            }
+            if (latency == null) {
+                throw new IllegalArgumentException("Latency distribution must not be null");
+            }
+            try {
+                return new OwmStubServer(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.brokkko.openweathermap.jdk.stub;
+
+import com.github.brokkko.openweathermap.jdk.clients.OpenWeatherMapClient;
+import com.github.brokkko.openweathermap.jdk.enums.LogLevel;
+import com.github.brokkko.openweathermap.jdk.enums.LoggerType;
+import com.github.brokkko.openweathermap.jdk.enums.UnitSystem;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherApiException;
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherSdkException;
+import com.github.brokkko.openweathermap.jdk.services.CacheValidators;
+import com.github.brokkko.openweathermap.jdk.http.ConditionalResponse;
+import com.github.brokkko.openweathermap.jdk.http.ResponseBodyReader;
+import com.github.brokkko.openweathermap.jdk.models.Coordinate;
+import com.github.brokkko.openweathermap.jdk.models.Weather;
+import com.github.brokkko.openweathermap.jdk.request.RequestSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OwmStubServerTest {
+
+    private OwmStubServer stub;
+    private OpenWeatherMapClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.destroy();
+        }
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void client_shouldMapStubPayloads() {
+        stub = OwmStubServer.builder().start();
+        client = client("test-key");
+
+        Weather london = client.query().byCityName("London,GB").unitSystem(UnitSystem.METRIC).retrieve().asJava();
+        Weather coordinates = client.query().byCoordinates(Coordinate.of(48.85, 2.35)).retrieve().asJava();
+
+        assertEquals("London", london.getLocation().getName());
+        assertEquals("GB", london.getLocation().getCountryCode());
+        assertTrue(london.getTemperature().getValue() > -30 && london.getTemperature().getValue() < 30);
+        assertEquals(48.85, coordinates.getLocation().getCoordinate().getLatitude());
+        assertTrue(coordinates.getTemperature().getValue() > 200);
+        assertEquals(client.query().byCityName("London,GB").unitSystem(UnitSystem.METRIC).retrieve().asJSON(),
+                client.query().byCityName("London,GB").unitSystem(UnitSystem.METRIC).retrieve().asJSON());
+        assertTrue(stub.getResponses(200) >= 2);
+    }
+
+    @Test
+    void client_shouldServeConcurrentLoad() throws Exception {
+        stub = OwmStubServer.builder().latency(LatencyDistribution.uniform(5, 20)).start();
+        client = client("test-key");
+
+        List<CompletableFuture<Weather>> responses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            responses.add(client.query().byCityName("City" + i).retrieve().asJavaAsync());
+        }
+
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals("City" + i, responses.get(i).get(10, TimeUnit.SECONDS).getLocation().getName());
+        }
+        assertEquals(100, stub.getRequests());
+    }
+
+    @Test
+    void stub_shouldRejectUnknownKeysAndMissingLocation() {
+        stub = OwmStubServer.builder().validKeys("good").start();
+        client = client("bad");
+
+        WeatherApiException unauthorized = apiError(() -> client.query().byCityName("Oslo").retrieve().asJSON());
+        assertEquals(401, unauthorized.getStatusCode());
+
+        OpenWeatherMapClient good = client("good");
+        try {
+            RequestSettings settings = settings("good");
+            WeatherApiException badRequest = apiError(
+                    () -> good.getHttpExecutor().execute(settings, ResponseBodyReader.ofString()));
+            assertEquals(400, badRequest.getStatusCode());
+        } finally {
+            good.destroy();
+        }
+    }
+
+    @Test
+    void stub_shouldInjectRateLimitsWithRetryAfter() {
+        stub = OwmStubServer.builder().rateLimitRate(1).retryAfterSeconds(7).start();
+        client = client("test-key");
+
+        WeatherApiException ex = apiError(() -> client.query().byCityName("Rome").retrieve().asJSON());
+
+        assertEquals(429, ex.getStatusCode());
+        assertEquals(7_000, ex.getRetryAfterMillis());
+        assertEquals(1, stub.getResponses(429));
+    }
+
+    @Test
+    void stub_shouldInjectServerErrorsAtConfiguredRate() {
+        stub = OwmStubServer.builder().errorRate(0.3).seed(7).start();
+        client = client("test-key");
+
+        int failures = 0;
+        for (int i = 0; i < 200; i++) {
+            try {
+                client.query().byCityName("Town" + i).retrieve().asJSON();
+            } catch (WeatherSdkException e) {
+                WeatherApiException cause = assertInstanceOf(WeatherApiException.class, e.getCause());
+                assertTrue(cause.getStatusCode() == 500 || cause.getStatusCode() == 503);
+                failures++;
+            }
+        }
+
+        assertTrue(failures > 30 && failures < 90, "failures: " + failures);
+        assertEquals(failures, stub.getResponses(500) + stub.getResponses(503));
+    }
+
+    @Test
+    void stub_shouldRevalidateWithEtagsUntilAdvanced() {
+        stub = OwmStubServer.builder().start();
+        client = client("test-key");
+        RequestSettings settings = settings("test-key");
+        settings.putRequestParameter("q", "Berlin");
+
+        ConditionalResponse<String> first = client.getHttpExecutor()
+                .executeConditional(settings, CacheValidators.NONE, ResponseBodyReader.ofString());
+        ConditionalResponse<String> second = client.getHttpExecutor()
+                .executeConditional(settings, first.validators(), ResponseBodyReader.ofString());
+        stub.advance();
+        ConditionalResponse<String> third = client.getHttpExecutor()
+                .executeConditional(settings, second.validators(), ResponseBodyReader.ofString());
+
+        assertFalse(first.notModified());
+        assertNotNull(first.validators().etag());
+        assertTrue(second.notModified());
+        assertFalse(third.notModified());
+        assertNotEquals(first.body(), third.body());
+        assertEquals(1, stub.getResponses(304));
+    }
+
+    @Test
+    void latencyDistributions_shouldStayWithinTheirShape() {
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(0, LatencyDistribution.none().nextMillis(random));
+        assertEquals(15, LatencyDistribution.fixed(15).nextMillis(random));
+
+        long[] samples = new long[2_000];
+        LatencyDistribution logNormal = LatencyDistribution.logNormal(40, 0.5);
+        for (int i = 0; i < samples.length; i++) {
+            long uniform = LatencyDistribution.uniform(5, 10).nextMillis(random);
+            assertTrue(uniform >= 5 && uniform <= 10);
+            samples[i] = logNormal.nextMillis(random);
+        }
+        Arrays.sort(samples);
+        assertTrue(Math.abs(samples[1_000] - 40) <= 4, "median: " + samples[1_000]);
+        assertTrue(samples[1_980] > 80, "p99: " + samples[1_980]);
+
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.uniform(10, 5));
+        assertThrows(IllegalArgumentException.class, () -> OwmStubServer.builder().errorRate(0.6).rateLimitRate(0.6).start());
+    }
+
+    private OpenWeatherMapClient client(String apiKey) {
+        return OpenWeatherMapClient.builder()
+                .apiKey(apiKey)
+                .baseUrl(stub.baseUrl())
+                .logLevel(LogLevel.ERROR)
+                .logger(LoggerType.DEFAULT)
+                .build();
+    }
+
+    /** The default retry policy wraps the API error, so look through the cause chain. */
+    private static WeatherApiException apiError(Executable call) {
+        Throwable thrown = assertThrows(WeatherSdkException.class, call);
+        while (thrown != null && !(thrown instanceof WeatherApiException)) {
+            thrown = thrown.getCause();
+        }
+        return assertInstanceOf(WeatherApiException.class, thrown);
+    }
+
+    private RequestSettings settings(String apiKey) {
+        RequestSettings settings = new RequestSettings(apiKey);
+        settings.appendToURL(stub.baseUrl());
+        settings.appendToURL("/weather");
+        return settings;
+    }
+}
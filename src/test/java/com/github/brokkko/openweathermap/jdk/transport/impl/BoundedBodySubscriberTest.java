@@ -0,0 +1,107 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedBodySubscriberTest {
+
+    private final BufferPool pool = new BufferPool(4, 8);
+
+    @Test
+    void collectsBodyIntoPooledSegmentsAndReleasesThemOnClose() throws Exception {
+        HttpResponse.BodySubscriber<InputStream> subscriber = subscriber(100, Map.of());
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(utf8("{\"temp\":"), utf8("12.5}")));
+        subscriber.onComplete();
+
+        try (InputStream body = subscriber.getBody().toCompletableFuture().get()) {
+            assertEquals("{\"temp\":12.5}", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(4, pool.getAllocations());
+        assertEquals(4, pool.getPooled());
+        verify(subscription, times(2)).request(1);
+
+        HttpResponse.BodySubscriber<InputStream> next = subscriber(100, Map.of());
+        next.onSubscribe(subscription);
+        next.onNext(List.of(utf8("{}")));
+        next.onComplete();
+        assertEquals(1, pool.getReuses());
+        assertEquals(4, pool.getAllocations());
+    }
+
+    @Test
+    void cancelsWhenStreamedBodyCrossesLimit() {
+        HttpResponse.BodySubscriber<InputStream> subscriber = subscriber(6, Map.of());
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(utf8("1234")));
+        subscriber.onNext(List.of(utf8("5678")));
+
+        verify(subscription).cancel();
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> subscriber.getBody().toCompletableFuture().get());
+        WeatherResponseTooLargeException tooLarge = assertInstanceOf(WeatherResponseTooLargeException.class, ex.getCause());
+        assertEquals(6, tooLarge.getMaxBytes());
+        assertEquals(1, pool.getPooled());
+    }
+
+    @Test
+    void refusesBodyAnnouncedLargerThanLimit() {
+        HttpResponse.BodySubscriber<InputStream> subscriber = subscriber(6, Map.of("Content-Length", List.of("1000")));
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+
+        verify(subscription).cancel();
+        verify(subscription, never()).request(anyLong());
+        CompletableFuture<InputStream> body = subscriber.getBody().toCompletableFuture();
+        assertTrue(body.isCompletedExceptionally());
+        assertEquals(0, pool.getAllocations());
+    }
+
+    @Test
+    void propagatesTransportError() {
+        HttpResponse.BodySubscriber<InputStream> subscriber = subscriber(100, Map.of());
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(utf8("partial")));
+        RuntimeException failure = new RuntimeException("reset");
+
+        subscriber.onError(failure);
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> subscriber.getBody().toCompletableFuture().get());
+        assertSame(failure, ex.getCause());
+        assertEquals(2, pool.getPooled());
+    }
+
+    private HttpResponse.BodySubscriber<InputStream> subscriber(long maxBytes, Map<String, List<String>> headers) {
+        HttpResponse.ResponseInfo info = mock(HttpResponse.ResponseInfo.class);
+        when(info.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+        when(info.statusCode()).thenReturn(200);
+        when(info.version()).thenReturn(HttpClient.Version.HTTP_1_1);
+        return BoundedBodySubscriber.handler(maxBytes, pool).apply(info);
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+import com.github.brokkko.openweathermap.jdk.transport.ParsedResponse;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.github.brokkko.openweathermap.jdk.utils.SegmentedBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JdkHttpTransportTest {
+
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    private HttpClient httpClient;
+    private JdkHttpTransport transport;
+    private HttpRequest request;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(HttpClient.class);
+        transport = new JdkHttpTransport(httpClient);
+        request = HttpRequest.newBuilder(URI.create("https://api.test.com/weather")).GET().build();
+    }
+
+    @Test
+    void send_shouldStreamBodyFromClient() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(new ByteArrayInputStream("ok".getBytes(StandardCharsets.UTF_8)));
+        when(httpClient.send(eq(request), any(HttpResponse.BodyHandler.class))).thenReturn(response);
+
+        TransportResponse result = transport.send(request);
+
+        assertEquals(200, result.statusCode());
+        assertSame(NO_HEADERS, result.headers());
+        assertEquals("ok", new String(result.body().readAllBytes(), StandardCharsets.UTF_8));
+        assertSame(httpClient, transport.getHttpClient());
+    }
+
+    @Test
+    void sendAsync_shouldReturnBody() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(404);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(new ByteArrayInputStream("missing".getBytes(StandardCharsets.UTF_8)));
+        when(httpClient.sendAsync(eq(request), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        TransportResponse result = transport.sendAsync(request).get();
+
+        assertEquals(404, result.statusCode());
+        assertEquals("missing", new String(result.body().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sendAsync_shouldTreatMissingBodyAsEmpty() throws Exception {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(204);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(httpClient.sendAsync(eq(request), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        assertEquals(0, transport.sendAsync(request).get().body().readAllBytes().length);
+    }
+
+    @Test
+    void sendAsync_cancelShouldCancelExchange() {
+        CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>();
+        when(httpClient.sendAsync(eq(request), any(HttpResponse.BodyHandler.class))).thenReturn((CompletableFuture) exchange);
+
+        transport.sendAsync(request).cancel(true);
+
+        assertTrue(exchange.isCancelled());
+    }
+
+    @Test
+    void sendAsync_cancelShouldReleaseBodyThatArrivesAnyway() {
+        BufferPool pool = new BufferPool(64, 16);
+        transport = new JdkHttpTransport(httpClient, 1_024, pool);
+        CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return false; // the response wins the race with the cancellation
+            }
+        };
+        when(httpClient.sendAsync(eq(request), any(HttpResponse.BodyHandler.class))).thenReturn((CompletableFuture) exchange);
+
+        transport.sendAsync(request).cancel(true);
+        exchange.complete(pooledResponse(pool, 200));
+
+        assertEquals(2, pool.getPooled());
+    }
+
+    @Test
+    void sendAsyncWithParser_shouldParsePlainSuccessWhileReceiving() throws Exception {
+        BufferPool pool = new BufferPool(64, 16);
+        transport = new JdkHttpTransport(httpClient, 1_024, pool);
+        respondThroughHandler(200, Map.of("Content-Encoding", List.of("identity")), "{\"temp\":1}");
+
+        ParsedResponse<String> result = transport.sendAsync(request, new TextParser()).get();
+
+        assertTrue(result.isParsed());
+        assertEquals("{\"temp\":1}", result.value());
+        assertEquals(200, result.response().statusCode());
+        assertEquals(0, result.response().body().readAllBytes().length);
+        assertEquals(0, pool.getAllocations());
+    }
+
+    @Test
+    void sendAsyncWithParser_shouldBufferEncodedBody() throws Exception {
+        respondThroughHandler(200, Map.of("Content-Encoding", List.of("gzip")), "compressed");
+
+        ParsedResponse<String> result = transport.sendAsync(request, new TextParser()).get();
+
+        assertFalse(result.isParsed());
+        assertEquals("compressed", new String(result.response().body().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sendAsyncWithParser_shouldBufferErrorBody() throws Exception {
+        respondThroughHandler(404, Map.of(), "missing");
+
+        ParsedResponse<String> result = transport.sendAsync(request, new TextParser()).get();
+
+        assertFalse(result.isParsed());
+        assertEquals(404, result.response().statusCode());
+        assertEquals("missing", new String(result.response().body().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sendAsyncWithParser_cancelShouldCancelExchange() {
+        CompletableFuture<HttpResponse<Object>> exchange = new CompletableFuture<>();
+        when(httpClient.sendAsync(eq(request), any(HttpResponse.BodyHandler.class))).thenReturn((CompletableFuture) exchange);
+
+        transport.sendAsync(request, new TextParser()).cancel(true);
+
+        assertTrue(exchange.isCancelled());
+    }
+
+    /**
+     * Makes the mocked client run the transport's body handler over {@code body}, as the real client would.
+     */
+    private void respondThroughHandler(int status, Map<String, List<String>> headers, String body) {
+        HttpHeaders httpHeaders = HttpHeaders.of(headers, (name, value) -> true);
+        when(httpClient.sendAsync(eq(request), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpResponse.BodyHandler<?> handler = invocation.getArgument(1);
+            HttpResponse.ResponseInfo info = mock(HttpResponse.ResponseInfo.class);
+            when(info.statusCode()).thenReturn(status);
+            when(info.headers()).thenReturn(httpHeaders);
+            when(info.version()).thenReturn(HttpClient.Version.HTTP_1_1);
+            HttpResponse.BodySubscriber<?> subscriber = handler.apply(info);
+            subscriber.onSubscribe(mock(Flow.Subscription.class));
+            subscriber.onNext(List.of(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8))));
+            subscriber.onComplete();
+            Object value = subscriber.getBody().toCompletableFuture().get();
+            HttpResponse<Object> response = mock(HttpResponse.class);
+            when(response.statusCode()).thenReturn(status);
+            when(response.headers()).thenReturn(httpHeaders);
+            when(response.body()).thenReturn(value);
+            return CompletableFuture.completedFuture(response);
+        });
+    }
+
+    private static final class TextParser implements BodyParser<String> {
+
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void feed(ByteBuffer chunk) {
+            text.append(StandardCharsets.UTF_8.decode(chunk));
+        }
+
+        @Override
+        public String finish() {
+            return text.toString();
+        }
+    }
+
+    static HttpResponse<InputStream> pooledResponse(BufferPool pool, int status) {
+        SegmentedBuffer buffer = new SegmentedBuffer(pool, 1_024);
+        buffer.write(new byte[100], 0, 100);
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.headers()).thenReturn(NO_HEADERS);
+        when(response.body()).thenReturn(buffer.asInputStream());
+        return response;
+    }
+
+    @Test
+    void constructor_shouldRejectNullClient() {
+        assertThrows(NullPointerException.class, () -> new JdkHttpTransport(null));
+    }
+
+    @Test
+    void send_shouldRethrowOversizedBodyAsTypedException() throws Exception {
+        WeatherResponseTooLargeException tooLarge = new WeatherResponseTooLargeException("too large", 16);
+        when(httpClient.send(eq(request), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new IOException("too large", tooLarge));
+
+        assertSame(tooLarge, assertThrows(WeatherResponseTooLargeException.class, () -> transport.send(request)));
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new JdkHttpTransport(httpClient, 0, new BufferPool()));
+    }
+}
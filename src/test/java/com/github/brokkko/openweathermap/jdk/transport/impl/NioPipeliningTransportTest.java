@@ -0,0 +1,275 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.utils.BufferPool;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioPipeliningTransportTest {
+
+    private HttpServer server;
+    private NioPipeliningTransport transport;
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/weather", exchange -> {
+            remotePorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = ("{\"q\":\"" + exchange.getRequestURI().getQuery() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/chunked", exchange -> {
+            exchange.sendResponseHeaders(503, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("busy".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                out.write(", retry".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        transport = NioPipeliningTransport.builder().maxConnections(2).pipelineDepth(4).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Test
+    void send_shouldReuseOneConnectionForSequentialRequests() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            TransportResponse response = transport.send(get("/weather?i=" + i));
+            assertEquals(200, response.statusCode());
+            assertEquals("{\"q\":\"i=" + i + "\"}", body(response));
+            assertEquals("application/json", response.headers().firstValue("content-type").orElseThrow());
+        }
+
+        assertEquals(1, transport.getConnectionsOpened());
+        assertEquals(1, remotePorts.size());
+    }
+
+    @Test
+    void sendAsync_shouldPipelineConcurrentRequestsOverBoundedConnections() throws Exception {
+        List<CompletableFuture<TransportResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            responses.add(transport.sendAsync(get("/weather?i=" + i)));
+        }
+
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals("{\"q\":\"i=" + i + "\"}", body(responses.get(i).get(5, TimeUnit.SECONDS)));
+        }
+        assertTrue(transport.getConnectionsOpened() <= 2);
+        assertTrue(remotePorts.size() <= 2);
+    }
+
+    @Test
+    void send_shouldDecodeChunkedBody() throws Exception {
+        TransportResponse response = transport.send(get("/chunked"));
+
+        assertEquals(503, response.statusCode());
+        assertEquals("busy, retry", body(response));
+    }
+
+    @Test
+    void send_shouldReturnEmptyBodyForHead() throws Exception {
+        HttpRequest head = HttpRequest.newBuilder(uri("/weather"))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        TransportResponse response = transport.send(head);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("", body(response));
+        assertEquals(200, transport.send(get("/weather?after=head")).statusCode());
+    }
+
+    @Test
+    void send_shouldTimeOutAndCloseConnection() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        HttpRequest slow = HttpRequest.newBuilder(uri("/slow")).timeout(Duration.ofMillis(100)).build();
+
+        assertThrows(HttpTimeoutException.class, () -> transport.send(slow));
+        release.countDown();
+        assertEquals(200, transport.send(get("/weather?after=timeout")).statusCode());
+    }
+
+    @Test
+    void send_shouldFailWithConnectExceptionWhenNothingListens() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/weather")).build();
+
+        assertThrows(ConnectException.class, () -> transport.send(request));
+    }
+
+    @Test
+    void send_shouldFailPendingRequestsWhenServerClosesConnection() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            CompletableFuture.runAsync(() -> {
+                try (Socket accepted = socket.accept(); InputStream in = accepted.getInputStream()) {
+                    in.read();
+                } catch (IOException ignored) {
+                    // connection dropped on purpose
+                }
+            });
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + socket.getLocalPort() + "/weather")).build();
+
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    () -> transport.sendAsync(request).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void send_shouldReplayRequestCutOffByIdleConnectionClose() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 2, InetAddress.getLoopbackAddress())) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    try (Socket first = socket.accept()) {
+                        readRequest(first.getInputStream());
+                        respond(first, "one");
+                        readRequest(first.getInputStream());
+                    }
+                    try (Socket second = socket.accept()) {
+                        readRequest(second.getInputStream());
+                        respond(second, "two");
+                    }
+                } catch (IOException ignored) {
+                    // test fails on the client side
+                }
+            });
+            URI uri = URI.create("http://127.0.0.1:" + socket.getLocalPort() + "/weather");
+
+            assertEquals("one", body(transport.send(HttpRequest.newBuilder(uri).build())));
+            assertEquals("two", body(transport.send(HttpRequest.newBuilder(uri).build())));
+            assertEquals(2, transport.getConnectionsOpened());
+        }
+    }
+
+    @Test
+    void sendAsync_shouldRejectHttpsAndClosedTransport() {
+        HttpRequest https = HttpRequest.newBuilder(URI.create("https://api.test.com/weather")).build();
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> transport.sendAsync(https).get());
+        assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+
+        transport.close();
+        ex = assertThrows(ExecutionException.class, () -> transport.sendAsync(get("/weather")).get());
+        assertInstanceOf(IOException.class, ex.getCause());
+        assertEquals(0, transport.getOpenConnections());
+    }
+
+    @Test
+    void send_shouldFailOversizedBodiesAndRecover() throws Exception {
+        server.createContext("/big", exchange -> {
+            byte[] body = new byte[10_000];
+            boolean chunked = exchange.getRequestURI().getQuery() != null;
+            exchange.sendResponseHeaders(200, chunked ? 0 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        BufferPool pool = new BufferPool(1024, 16);
+        NioPipeliningTransport bounded = NioPipeliningTransport.builder().maxBodyBytes(4_096).bufferPool(pool).build();
+        try {
+            WeatherResponseTooLargeException ex = assertThrows(WeatherResponseTooLargeException.class,
+                    () -> bounded.send(get("/big")));
+            assertEquals(4_096, ex.getMaxBytes());
+            assertThrows(WeatherResponseTooLargeException.class, () -> bounded.send(get("/big?chunked")));
+
+            assertEquals("{\"q\":\"i=1\"}", body(bounded.send(get("/weather?i=1"))));
+            assertEquals("{\"q\":\"i=2\"}", body(bounded.send(get("/weather?i=2"))));
+            assertTrue(pool.getReuses() > 0);
+            assertSame(pool, bounded.getBufferPool());
+        } finally {
+            bounded.close();
+        }
+    }
+
+    @Test
+    void builder_shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> NioPipeliningTransport.builder().maxConnections(0).build());
+        assertThrows(IllegalArgumentException.class, () -> NioPipeliningTransport.builder().pipelineDepth(0).build());
+        assertThrows(IllegalArgumentException.class, () -> NioPipeliningTransport.builder().maxBodyBytes(0).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> NioPipeliningTransport.builder().connectTimeout(Duration.ZERO).build());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().header("Accept-Encoding", "gzip").build();
+    }
+
+    private static void readRequest(InputStream in) throws IOException {
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+    }
+
+    private static void respond(Socket socket, String body) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + body.length() + "\r\n\r\n" + body)
+                .getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static String body(TransportResponse response) throws IOException {
+        try (InputStream in = response.body()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import com.github.brokkko.openweathermap.jdk.transport.BodyParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ParsingBodySubscriberTest {
+
+    private final TextParser parser = new TextParser();
+
+    @Test
+    void feedsEveryChunkAndCompletesWithParsedValue() throws Exception {
+        HttpResponse.BodySubscriber<String> subscriber = subscriber(100, Map.of());
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(utf8("{\"temp\":"), utf8("12.5")));
+        subscriber.onNext(List.of(utf8("}")));
+        subscriber.onComplete();
+
+        assertEquals("{\"temp\":12.5}", subscriber.getBody().toCompletableFuture().get());
+        assertEquals(3, parser.chunks);
+        verify(subscription, times(3)).request(1);
+    }
+
+    @Test
+    void cancelsWhenStreamedBodyCrossesLimit() {
+        HttpResponse.BodySubscriber<String> subscriber = subscriber(6, Map.of());
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(utf8("1234")));
+        subscriber.onNext(List.of(utf8("5678")));
+        subscriber.onComplete();
+
+        verify(subscription).cancel();
+        assertEquals(1, parser.chunks);
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> subscriber.getBody().toCompletableFuture().get());
+        WeatherResponseTooLargeException tooLarge = assertInstanceOf(WeatherResponseTooLargeException.class, ex.getCause());
+        assertEquals(6, tooLarge.getMaxBytes());
+    }
+
+    @Test
+    void refusesBodyAnnouncedLargerThanLimit() {
+        HttpResponse.BodySubscriber<String> subscriber = subscriber(6, Map.of("Content-Length", List.of("1000")));
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+
+        verify(subscription).cancel();
+        verify(subscription, never()).request(anyLong());
+        assertTrue(subscriber.getBody().toCompletableFuture().isCompletedExceptionally());
+    }
+
+    @Test
+    void cancelsOnParseFailureWithoutReadingFurther() {
+        HttpResponse.BodySubscriber<String> subscriber = subscriber(100, Map.of());
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(utf8("!bad"), utf8("ignored")));
+        subscriber.onNext(List.of(utf8("late")));
+
+        verify(subscription).cancel();
+        verify(subscription, times(1)).request(1);
+        assertEquals(1, parser.chunks);
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> subscriber.getBody().toCompletableFuture().get());
+        assertInstanceOf(IOException.class, ex.getCause());
+    }
+
+    @Test
+    void propagatesTransportError() {
+        HttpResponse.BodySubscriber<String> subscriber = subscriber(100, Map.of());
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(utf8("partial")));
+        RuntimeException failure = new RuntimeException("reset");
+
+        subscriber.onError(failure);
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> subscriber.getBody().toCompletableFuture().get());
+        assertSame(failure, ex.getCause());
+    }
+
+    private HttpResponse.BodySubscriber<String> subscriber(long maxBytes, Map<String, List<String>> headers) {
+        HttpResponse.ResponseInfo info = mock(HttpResponse.ResponseInfo.class);
+        when(info.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+        when(info.statusCode()).thenReturn(200);
+        when(info.version()).thenReturn(HttpClient.Version.HTTP_1_1);
+        return ParsingBodySubscriber.of(parser, maxBytes, info);
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class TextParser implements BodyParser<String> {
+
+        private final StringBuilder text = new StringBuilder();
+        private int chunks;
+
+        @Override
+        public void feed(ByteBuffer chunk) throws IOException {
+            chunks++;
+            String part = StandardCharsets.UTF_8.decode(chunk).toString();
+            if (part.startsWith("!")) {
+                throw new IOException("unexpected token");
+            }
+            text.append(part);
+        }
+
+        @Override
+        public String finish() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.transport.TransportResponse;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecordingTransportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void send_shouldRecordExchangeAndPassResponseOn() throws Exception {
+        WeatherTransport delegate = mock(WeatherTransport.class);
+        when(delegate.send(any())).thenReturn(response(200, "{\"name\":\"London\"}"));
+        Path capture = dir.resolve("capture.owm");
+
+        try (RecordingTransport transport = RecordingTransport.open(delegate, capture)) {
+            TransportResponse response = transport.send(get("https://api.test.com/data/2.5/weather?q=London&appid=secret"));
+
+            assertEquals(200, response.statusCode());
+            assertEquals("W/\"1\"", response.headers().firstValue("ETag").orElseThrow());
+            assertEquals("{\"name\":\"London\"}", body(response));
+            assertEquals(1, transport.getRecorded());
+        }
+        verify(delegate).close();
+        String content = Files.readString(capture, StandardCharsets.ISO_8859_1);
+        assertTrue(content.startsWith("OWMCAP"));
+        assertTrue(content.contains("GET /data/2.5/weather?q=London"));
+        assertFalse(content.contains("secret"));
+    }
+
+    @Test
+    void sendAsync_shouldRecordAndFailWithoutRecordingOnError() throws Exception {
+        WeatherTransport delegate = mock(WeatherTransport.class);
+        when(delegate.sendAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(response(503, "busy")))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("reset")));
+
+        try (RecordingTransport transport = RecordingTransport.open(delegate, dir.resolve("capture.owm"))) {
+            assertEquals("busy", body(transport.sendAsync(get("http://localhost/weather?q=Oslo")).get()));
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    () -> transport.sendAsync(get("http://localhost/weather?q=Oslo")).get());
+            assertEquals("reset", ex.getCause().getMessage());
+            assertEquals(1, transport.getRecorded());
+        }
+    }
+
+    @Test
+    void open_shouldAppendToExistingCaptureAndRejectOtherFiles() throws Exception {
+        WeatherTransport delegate = mock(WeatherTransport.class);
+        when(delegate.send(any())).thenReturn(response(200, "a"), response(200, "b"));
+        Path capture = dir.resolve("capture.owm");
+
+        try (RecordingTransport first = RecordingTransport.open(delegate, capture)) {
+            first.send(get("http://localhost/weather?q=A"));
+        }
+        try (RecordingTransport second = RecordingTransport.open(delegate, capture)) {
+            second.send(get("http://localhost/weather?q=B"));
+        }
+        try (ReplayTransport replay = ReplayTransport.open(capture)) {
+            assertEquals(2, replay.getExchanges().size());
+        }
+
+        Path other = Files.writeString(dir.resolve("other.txt"), "not a capture");
+        assertThrows(IOException.class, () -> RecordingTransport.open(delegate, other));
+        assertEquals("not a capture", Files.readString(other));
+    }
+
+    static TransportResponse response(int status, String body) {
+        HttpHeaders headers = HttpHeaders.of(Map.of("ETag", List.of("W/\"1\""),
+                "Content-Type", List.of("application/json")), (name, value) -> true);
+        return new TransportResponse(status, headers, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    static String body(TransportResponse response) throws IOException {
+        try (InputStream in = response.body()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.brokkko.openweathermap.jdk.transport.impl;
+
+import com.github.brokkko.openweathermap.jdk.transport.CapturedExchange;
+import com.github.brokkko.openweathermap.jdk.transport.WeatherTransport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static com.github.brokkko.openweathermap.jdk.transport.impl.RecordingTransportTest.body;
+import static com.github.brokkko.openweathermap.jdk.transport.impl.RecordingTransportTest.get;
+import static com.github.brokkko.openweathermap.jdk.transport.impl.RecordingTransportTest.response;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplayTransportTest {
+
+    @TempDir
+    Path dir;
+
+    private Path capture;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        WeatherTransport delegate = mock(WeatherTransport.class);
+        when(delegate.send(any())).thenReturn(
+                response(200, "london-1"), response(304, ""), response(200, "paris"), response(200, "london-2"));
+        capture = dir.resolve("capture.owm");
+        try (RecordingTransport recording = RecordingTransport.open(delegate, capture)) {
+            recording.send(get("https://api.test.com/data/2.5/weather?q=London&appid=one"));
+            recording.send(get("https://api.test.com/data/2.5/weather?appid=one&q=London"));
+            recording.send(get("https://api.test.com/data/2.5/weather?q=Paris&units=metric&appid=one"));
+            recording.send(get("https://api.test.com/data/2.5/weather?q=London&appid=one"));
+        }
+    }
+
+    @Test
+    void send_shouldServeRecordedResponsesPerRequestInOrder() throws Exception {
+        try (ReplayTransport replay = ReplayTransport.open(capture, Double.POSITIVE_INFINITY)) {
+            HttpRequest london = get("http://127.0.0.1:8080/data/2.5/weather?q=London&appid=other");
+
+            assertEquals("london-1", body(replay.send(london)));
+            assertEquals(304, replay.send(london).statusCode());
+            assertEquals("london-2", body(replay.send(london)));
+            assertEquals("london-1", body(replay.send(london)));
+            assertEquals("paris", body(replay.sendAsync(
+                    get("http://127.0.0.1/data/2.5/weather?units=metric&q=Paris")).get()));
+            assertEquals("W/\"1\"", replay.send(london).headers().firstValue("etag").orElseThrow());
+            assertEquals(6, replay.getReplayed());
+        }
+    }
+
+    @Test
+    void getExchanges_shouldListCaptureInOrderWithTimings() throws Exception {
+        try (ReplayTransport replay = ReplayTransport.open(capture)) {
+            List<CapturedExchange> exchanges = replay.getExchanges();
+
+            assertEquals(4, exchanges.size());
+            assertEquals("GET /data/2.5/weather?q=London", exchanges.get(0).requestKey());
+            assertEquals("GET /data/2.5/weather?q=Paris&units=metric", exchanges.get(2).requestKey());
+            assertEquals(304, exchanges.get(1).statusCode());
+            assertEquals(5, exchanges.get(2).bodyBytes());
+            assertTrue(exchanges.get(3).offsetNanos() >= exchanges.get(0).offsetNanos());
+            assertTrue(exchanges.get(0).latencyNanos() >= 0);
+            assertEquals(1.0, replay.getSpeedup());
+        }
+    }
+
+    @Test
+    void send_shouldFailForUnrecordedRequestsAndAfterClose() throws Exception {
+        ReplayTransport replay = ReplayTransport.open(capture, Double.POSITIVE_INFINITY);
+
+        assertThrows(IOException.class, () -> replay.send(get("http://localhost/data/2.5/weather?q=Rome")));
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> replay.sendAsync(get("http://localhost/data/2.5/weather?q=Rome")).get());
+        assertInstanceOf(IOException.class, ex.getCause());
+        assertEquals(2, replay.getMisses());
+
+        replay.close();
+        assertThrows(IOException.class, () -> replay.send(get("http://localhost/data/2.5/weather?q=London")));
+    }
+
+    @Test
+    void send_shouldScaleRecordedLatencyAndHonourTimeouts() throws Exception {
+        Path slow = dir.resolve("slow.owm");
+        try (FileChannel channel = FileChannel.open(slow, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(CaptureFormat.MAGIC));
+            channel.write(CaptureFormat.encode(0, 200_000_000L, 200, "GET /weather?q=Slow",
+                    response(200, "").headers(), "slow".getBytes()));
+        }
+        HttpRequest request = get("http://localhost/weather?q=Slow");
+
+        try (ReplayTransport accelerated = ReplayTransport.open(slow, 10)) {
+            long start = System.nanoTime();
+            assertEquals("slow", body(accelerated.send(request)));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis >= 18 && elapsedMillis < 150, "elapsed: " + elapsedMillis);
+            assertEquals("slow", body(accelerated.sendAsync(request).get()));
+        }
+        try (ReplayTransport original = ReplayTransport.open(slow)) {
+            HttpRequest impatient = HttpRequest.newBuilder(URI.create("http://localhost/weather?q=Slow"))
+                    .timeout(Duration.ofMillis(20)).build();
+            assertThrows(HttpTimeoutException.class, () -> original.send(impatient));
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> original.sendAsync(impatient).get());
+            assertInstanceOf(HttpTimeoutException.class, ex.getCause());
+        }
+        assertThrows(IllegalArgumentException.class, () -> ReplayTransport.open(slow, 0));
+    }
+
+    @Test
+    void open_shouldMapLargeCapturesInRegionsAndIgnoreTruncatedTail() throws Exception {
+        long size = Files.size(capture);
+        try (FileChannel channel = FileChannel.open(capture, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer partial = CaptureFormat.encode(0, 0, 200, "GET /x", response(200, "").headers(), new byte[10]);
+            partial.limit(partial.limit() - 5);
+            channel.write(partial);
+        }
+
+        try (ReplayTransport replay = ReplayTransport.open(capture, Double.POSITIVE_INFINITY, size / 3)) {
+            assertEquals(4, replay.getExchanges().size());
+            HttpRequest london = get("http://localhost/data/2.5/weather?q=London");
+            assertEquals("london-1", body(replay.send(london)));
+            replay.send(london);
+            assertEquals("london-2", body(replay.send(london)));
+        }
+        assertThrows(IOException.class, () -> ReplayTransport.open(capture, 1, 32));
+    }
+
+    @Test
+    void open_shouldRejectCorruptFiles() throws Exception {
+        Path corrupt = dir.resolve("corrupt.owm");
+        Files.write(corrupt, ByteBuffer.allocate(CaptureFormat.MAGIC.length + 8)
+                .put(CaptureFormat.MAGIC).putInt(4).putInt(0).array());
+        assertThrows(IOException.class, () -> ReplayTransport.open(corrupt));
+        assertThrows(IOException.class, () -> ReplayTransport.open(Files.writeString(dir.resolve("x"), "OWM")));
+    }
+}
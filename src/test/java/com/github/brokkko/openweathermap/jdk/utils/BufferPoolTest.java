@@ -0,0 +1,40 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+
+    @Test
+    void acquire_shouldReuseReleasedSegments() {
+        BufferPool pool = new BufferPool(16, 2);
+
+        byte[] first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, pool.getAllocations());
+        assertEquals(1, pool.getReuses());
+        assertEquals(16, pool.getSegmentBytes());
+    }
+
+    @Test
+    void release_shouldKeepAtMostCapacityAndIgnoreForeignSegments() {
+        BufferPool pool = new BufferPool(16, 2);
+
+        pool.release(pool.acquire());
+        pool.release(new byte[16]);
+        pool.release(new byte[16]);
+        pool.release(new byte[8]);
+        pool.release(null);
+
+        assertEquals(2, pool.getPooled());
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(1, 0));
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletableFuturesTest {
+
+    @Test
+    void testUnwrapNestedWrappers() {
+        RuntimeException cause = new RuntimeException("root");
+        Throwable wrapped = new CompletionException(new ExecutionException(cause));
+
+        assertSame(cause, CompletableFutures.unwrap(wrapped));
+    }
+
+    @Test
+    void testUnwrapReturnsPlainExceptionAsIs() {
+        RuntimeException error = new RuntimeException("plain");
+
+        assertSame(error, CompletableFutures.unwrap(error));
+    }
+
+    @Test
+    void testUnwrapKeepsWrapperWithoutCause() {
+        CompletionException error = new CompletionException("no cause", null);
+
+        assertSame(error, CompletableFutures.unwrap(error));
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherDeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void testRemainingShrinksWithTime() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(500), clock::get);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals(Duration.ofMillis(300), deadline.remaining());
+        assertFalse(deadline.isExpired());
+        assertDoesNotThrow(deadline::check);
+    }
+
+    @Test
+    void testExpiredDeadlineFailsChecks() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(500), clock::get);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        assertTrue(deadline.isExpired());
+        assertEquals(Duration.ZERO, deadline.remaining());
+        WeatherDeadlineExceededException ex = assertThrows(WeatherDeadlineExceededException.class, deadline::check);
+        assertEquals("Deadline of 500ms exceeded", ex.getMessage());
+        assertThrows(WeatherDeadlineExceededException.class, () -> deadline.cap(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void testCapShortensTimeoutToRemainingTime() {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(2), clock::get);
+
+        assertEquals(Duration.ofSeconds(1), deadline.cap(Duration.ofSeconds(1)));
+        assertEquals(Duration.ofSeconds(2), deadline.cap(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void testBoundFailsAndCancelsSlowFuture() {
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        CompletableFuture<String> bounded = Deadline.after(Duration.ofMillis(20)).bound(slow);
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> bounded.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(WeatherDeadlineExceededException.class, ex.getCause());
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!slow.isCancelled() && System.nanoTime() < waitUntil) {
+            Thread.onSpinWait();
+        }
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void testBoundPassesFastResultThrough() throws Exception {
+        CompletableFuture<String> fast = new CompletableFuture<>();
+        CompletableFuture<String> bounded = Deadline.after(Duration.ofSeconds(5)).bound(fast);
+
+        fast.complete("OK");
+
+        assertEquals("OK", bounded.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSharedDeadlineOnlyMovesLater() {
+        Deadline shared = Deadline.after(Duration.ofMillis(500), clock::get).share();
+
+        shared.extendTo(Deadline.after(Duration.ofMillis(200), clock::get));
+        assertEquals(Duration.ofMillis(500), shared.remaining());
+
+        shared.extendTo(Deadline.after(Duration.ofSeconds(2), clock::get));
+        assertEquals(Duration.ofSeconds(2), shared.remaining());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertEquals("Deadline of 2000ms exceeded", assertThrows(WeatherDeadlineExceededException.class,
+                shared::check).getMessage());
+    }
+
+    @Test
+    void testSharedDeadlineIsLiftedByCallWithoutDeadline() {
+        Deadline shared = Deadline.after(Duration.ofMillis(500), clock::get).share();
+
+        shared.extendTo(null);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertFalse(shared.isExpired());
+        assertEquals(Duration.ofSeconds(10), shared.cap(Duration.ofSeconds(10)));
+        assertThrows(IllegalStateException.class,
+                () -> Deadline.after(Duration.ofMillis(500), clock::get).extendTo(null));
+    }
+
+    @Test
+    void testBoundFollowsExtendedSharedDeadline() throws Exception {
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        Deadline shared = Deadline.after(Duration.ofMillis(20)).share();
+
+        CompletableFuture<String> bounded = shared.bound(slow);
+        shared.extendTo(Deadline.after(Duration.ofSeconds(5)));
+        Thread.sleep(100);
+        slow.complete("OK");
+
+        assertEquals("OK", bounded.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNegativeTimeoutIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Deadline.after(Duration.ofMillis(-1)));
+    }
+}
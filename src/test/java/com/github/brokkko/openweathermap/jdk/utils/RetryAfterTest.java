@@ -0,0 +1,35 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RetryAfterTest {
+
+    private static final long NOW = ZonedDateTime.parse("Wed, 21 Oct 2026 07:28:00 GMT",
+            DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+
+    @Test
+    void parsesDeltaSeconds() {
+        assertEquals(120_000L, RetryAfter.parseMillis("120", NOW));
+        assertEquals(0L, RetryAfter.parseMillis(" 0 ", NOW));
+    }
+
+    @Test
+    void parsesHttpDate() {
+        assertEquals(30_000L, RetryAfter.parseMillis("Wed, 21 Oct 2026 07:28:30 GMT", NOW));
+        assertEquals(0L, RetryAfter.parseMillis("Wed, 21 Oct 2026 07:27:00 GMT", NOW));
+    }
+
+    @Test
+    void rejectsMissingAndMalformedValues() {
+        assertEquals(-1L, RetryAfter.parseMillis(null, NOW));
+        assertEquals(-1L, RetryAfter.parseMillis(" ", NOW));
+        assertEquals(-1L, RetryAfter.parseMillis("-5", NOW));
+        assertEquals(-1L, RetryAfter.parseMillis("soon", NOW));
+        assertEquals(-1L, RetryAfter.parseMillis("99999999999999999999", NOW));
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.brokkko.openweathermap.jdk.utils;
+
+import com.github.brokkko.openweathermap.jdk.exceptions.WeatherResponseTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedBufferTest {
+
+    private final BufferPool pool = new BufferPool(4, 16);
+
+    @Test
+    void write_shouldSpanSegmentsAndReadBackInOrder() throws Exception {
+        SegmentedBuffer buffer = new SegmentedBuffer(pool, 64);
+
+        buffer.write(ByteBuffer.wrap("{\"name\":".getBytes(StandardCharsets.UTF_8)));
+        byte[] tail = "xx\"London\"}".getBytes(StandardCharsets.UTF_8);
+        buffer.write(tail, 2, tail.length - 2);
+
+        assertEquals(17, buffer.size());
+        try (InputStream in = buffer.asInputStream()) {
+            assertEquals('{', in.read());
+            assertEquals(16, in.available());
+            assertEquals("\"name\":\"London\"}", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(-1, in.read());
+        }
+        assertEquals(5, pool.getPooled());
+    }
+
+    @Test
+    void write_shouldFailAndReleaseSegmentsPastLimit() {
+        SegmentedBuffer buffer = new SegmentedBuffer(pool, 6);
+        buffer.write(new byte[5], 0, 5);
+
+        WeatherResponseTooLargeException ex = assertThrows(WeatherResponseTooLargeException.class,
+                () -> buffer.write(ByteBuffer.wrap(new byte[2])));
+
+        assertEquals(6, ex.getMaxBytes());
+        assertEquals(2, pool.getPooled());
+    }
+
+    @Test
+    void release_shouldBeIdempotent() {
+        SegmentedBuffer buffer = new SegmentedBuffer(pool, 64);
+        buffer.write(new byte[3], 0, 3);
+
+        buffer.release();
+        buffer.release();
+
+        assertEquals(1, pool.getPooled());
+    }
+}